@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.perfcake.ide.core.command.Command;
 import org.perfcake.ide.core.exception.CommandException;
+import org.perfcake.ide.core.model.ModelTransaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,8 +49,11 @@ public class DefaultCommandInvoker implements CommandInvoker {
             throw new IllegalArgumentException("Command is null.");
         }
 
-        try {
+        // execute the command in single transaction, so that it is either applied whole and listeners are notified only
+        // once, or it is reverted
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
             command.execute();
+            transaction.commit();
 
             // drop invoker which has been undone
             if (position < historyList.size() - 1) {
@@ -0,0 +1,38 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components;
+
+/**
+ * Catalogue listener is notified when {@link ComponentCatalogue} finishes an update and a newer
+ * {@link CatalogueSnapshot} is available.
+ *
+ * @author Jakub Knetl
+ */
+public interface CatalogueListener {
+
+    /**
+     * Handles finished update of the catalogue. The method is called in the thread which performed the update, so UI
+     * listeners should hand the snapshot over to their UI thread.
+     *
+     * @param snapshot new snapshot of the catalogue
+     */
+    void catalogueUpdated(CatalogueSnapshot snapshot);
+}
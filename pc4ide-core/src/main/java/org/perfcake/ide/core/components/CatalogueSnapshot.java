@@ -0,0 +1,93 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable result of a single scan of {@link ComponentCatalogue}. It contains names of implementations of all PerfCake
+ * components, so it can be read from any thread without synchronization.
+ *
+ * @author Jakub Knetl
+ */
+public final class CatalogueSnapshot {
+
+    /**
+     * Snapshot of a catalogue which has not been updated yet.
+     */
+    public static final CatalogueSnapshot EMPTY = new CatalogueSnapshot(0, Collections.emptyMap());
+
+    private final long version;
+    private final Map<PerfCakeComponent, List<String>> components;
+
+    /**
+     * Creates new snapshot. Given implementations are copied.
+     *
+     * @param version    version of the snapshot, snapshots of subsequent updates have greater version
+     * @param components PerfCake component types mapped to names of their implementations
+     */
+    public CatalogueSnapshot(long version, Map<PerfCakeComponent, List<String>> components) {
+        if (components == null) {
+            throw new IllegalArgumentException("Components cannot be null.");
+        }
+
+        Map<PerfCakeComponent, List<String>> copy = new EnumMap<>(PerfCakeComponent.class);
+        for (Map.Entry<PerfCakeComponent, List<String>> entry : components.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        this.version = version;
+        this.components = Collections.unmodifiableMap(copy);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Lists implementations of a PerfCake component.
+     *
+     * @param component PerfCake component type whose implementations should be returned.
+     * @return Unmodifiable List of implementation classes. If no implementation is found, then empty list is returned.
+     */
+    public List<String> list(PerfCakeComponent component) {
+        List<String> list = components.get(component);
+        return (list == null) ? Collections.emptyList() : list;
+    }
+
+    /**
+     * @return Unmodifiable map of PerfCake component types and their implementations.
+     */
+    public Map<PerfCakeComponent, List<String>> getComponents() {
+        return components;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogueSnapshot{"
+                + "version=" + version
+                + ", components=" + components
+                + '}';
+    }
+}
@@ -22,6 +22,7 @@ package org.perfcake.ide.core.components;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.perfcake.PerfCakeException;
 
 /**
@@ -40,9 +41,12 @@ public interface ComponentCatalogue {
 
 
     /**
-     * Updates a catalogue in order to find new implementations. This method may take a while to finish.
+     * Updates a catalogue in order to find new implementations. Scanning runs in background, so this method returns
+     * immediately. Listeners are notified when the scan finishes.
+     *
+     * @return future which is completed with the new snapshot when the scan finishes
      */
-    void update();
+    CompletableFuture<CatalogueSnapshot> update();
 
     /**
      * Adds packages which should be scanned for components.
@@ -50,7 +54,10 @@ public interface ComponentCatalogue {
      * to discover new components you need to call {@link #update()} method.
      *
      * @param packages additional packages.
+     * @deprecated components are found in all packages on the classpath and in the added software libraries, so the
+     *     packages do not affect the scan. They are used only by catalogues which scan the classpath using reflections.
      */
+    @Deprecated
     void addPackage(String... packages);
 
     /**
@@ -59,11 +66,15 @@ public interface ComponentCatalogue {
      * to discover new components you need to call {@link #update()} method.
      *
      * @param packages packages which should not be scanned anymore.
+     * @deprecated components are found in all packages on the classpath and in the added software libraries, so the
+     *     packages do not affect the scan. They are used only by catalogues which scan the classpath using reflections.
      */
+    @Deprecated
     void removePackage(String... packages);
 
     /**
-     * Lists a PerfCake component implementations for a given inspector type.
+     * Lists a PerfCake component implementations for a given inspector type. This method never blocks, it uses the last
+     * complete snapshot of the catalogue (see {@link #getSnapshot()}).
      *
      * @param component PerfCake comonent type whose implementations should be returned.
      * @return Unmodifiable List of implementation classes. If no implementation is found, then empty list is returned.
@@ -71,10 +82,46 @@ public interface ComponentCatalogue {
     List<String> list(PerfCakeComponent component);
 
     /**
-     * Adds an external jar to the library.
+     * @return Snapshot of the last finished update, or {@link CatalogueSnapshot#EMPTY} if no update has finished yet.
+     */
+    CatalogueSnapshot getSnapshot();
+
+    /**
+     * Adds listener which is notified whenever an update finishes.
+     *
+     * @param listener catalogue listener
+     */
+    void addCatalogueListener(CatalogueListener listener);
+
+    /**
+     * Removes catalogue listener.
+     *
+     * @param listener catalogue listener
+     */
+    void removeCatalogueListener(CatalogueListener listener);
+
+    /**
+     * Adds an external jar to the library. The jar is loaded by a new {@link #getClassLoader() class loader} after
+     * the next {@link #update()}.
      *
      * @param jar path to a jar package with.
      * @throws PerfCakeException when it cannot add the jar.
      */
     void addSoftwareLibrary(Path jar) throws PerfCakeException;
+
+    /**
+     * Removes an external jar from the library. Components from the jar are not found by subsequent updates and
+     * the {@link #getClassLoader() class loader} which loaded the jar is replaced, so that its classes can be unloaded.
+     *
+     * @param jar path to a jar package which has been added by {@link #addSoftwareLibrary(Path)}.
+     */
+    void removeSoftwareLibrary(Path jar);
+
+    /**
+     * Gets class loader from which the implementations listed by the catalogue can be loaded. The class loader is replaced
+     * when the libraries change, so it should not be kept for longer than necessary.
+     *
+     * @return class loader of the components
+     */
+    ClassLoader getClassLoader();
 }
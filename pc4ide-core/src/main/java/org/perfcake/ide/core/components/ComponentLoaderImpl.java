@@ -20,6 +20,13 @@
 
 package org.perfcake.ide.core.components;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,12 +34,68 @@ import org.slf4j.LoggerFactory;
  * Component serialization tries to load component by its fully qualified domain name (FQDN). If only name of the component is used, then
  * it tries to load component from the default package.
  *
+ * <p>Components are loaded from the class loader of a {@link ComponentCatalogue}, so that they may come from external jars
+ * added to the catalogue. Loader which is created without a catalogue uses the catalogue bound to the current thread by
+ * {@link #bindCatalogue(ComponentCatalogue)}, or the class loader of pc4ide if there is no such catalogue.</p>
+ *
+ * <p>Results of loading, including components which cannot be found, are cached per class loader and component type and
+ * shared by all loaders. A catalogue with new libraries has a new class loader, so its components are never resolved from
+ * stale results. The cache is cleared by {@link #invalidateCache()} whenever a catalogue is updated, since components
+ * which have not been found may become available even if the class loader stays the same.</p>
+ *
  * @author Jakub Knetl
  */
 public class ComponentLoaderImpl implements ComponentLoader {
 
     static final Logger logger = LoggerFactory.getLogger(ComponentLoaderImpl.class);
 
+    private static final ThreadLocal<ComponentCatalogue> BOUND_CATALOGUE = new ThreadLocal<>();
+
+    // marks component which cannot be loaded
+    private static final Reference<Class<?>> MISSING = new WeakReference<>(null);
+
+    // classes are referenced weakly, since they would otherwise keep their class loader in the map; guarded by itself
+    private static final Map<ClassLoader, Map<PerfCakeComponent, ConcurrentMap<String, Reference<Class<?>>>>> CACHE =
+            new WeakHashMap<>();
+
+    private final ComponentCatalogue catalogue;
+
+    /**
+     * Creates component loader which uses the catalogue bound to the current thread when a component is loaded.
+     */
+    public ComponentLoaderImpl() {
+        this.catalogue = null;
+    }
+
+    /**
+     * Creates component loader which loads components from given catalogue.
+     *
+     * @param catalogue catalogue whose class loader is used
+     */
+    public ComponentLoaderImpl(ComponentCatalogue catalogue) {
+        if (catalogue == null) {
+            throw new IllegalArgumentException("Catalogue cannot be null.");
+        }
+        this.catalogue = catalogue;
+    }
+
+    /**
+     * Binds a catalogue to the current thread, so that loaders created without a catalogue load components from it until
+     * the binding is closed. It is intended for code which creates models but has no access to a catalogue, e.g. scenario
+     * parsers.
+     *
+     * @param catalogue catalogue which is bound to the current thread
+     * @return binding which restores previous binding when it is closed
+     */
+    public static CatalogueBinding bindCatalogue(ComponentCatalogue catalogue) {
+        if (catalogue == null) {
+            throw new IllegalArgumentException("Catalogue cannot be null.");
+        }
+        CatalogueBinding binding = new CatalogueBinding(BOUND_CATALOGUE.get());
+        BOUND_CATALOGUE.set(catalogue);
+        return binding;
+    }
+
     @Override
     public Class<?> loadComponent(String name, PerfCakeComponent componentType) {
         if (name == null) {
@@ -41,6 +104,44 @@ public class ComponentLoaderImpl implements ComponentLoader {
         if (componentType == null) {
             throw new IllegalArgumentException("component type cannot be null.");
         }
+        ClassLoader classLoader = getClassLoader();
+        ConcurrentMap<String, Reference<Class<?>>> cache = getLoaderCache(classLoader).get(componentType);
+        Reference<Class<?>> cached = cache.get(name);
+        if (cached == MISSING) {
+            return null;
+        }
+        Class<?> component = (cached == null) ? null : cached.get();
+        if (component == null) {
+            component = resolveComponent(name, componentType, classLoader);
+            cache.put(name, (component == null) ? MISSING : new WeakReference<>(component));
+        }
+
+        return component;
+    }
+
+    /**
+     * Removes all cached components, so that they are loaded again when they are requested.
+     */
+    public static void invalidateCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+        logger.debug("Component cache invalidated.");
+    }
+
+    private static Map<PerfCakeComponent, ConcurrentMap<String, Reference<Class<?>>>> getLoaderCache(ClassLoader classLoader) {
+        synchronized (CACHE) {
+            return CACHE.computeIfAbsent(classLoader, key -> {
+                Map<PerfCakeComponent, ConcurrentMap<String, Reference<Class<?>>>> loaderCache = new EnumMap<>(PerfCakeComponent.class);
+                for (PerfCakeComponent componentType : PerfCakeComponent.values()) {
+                    loaderCache.put(componentType, new ConcurrentHashMap<>());
+                }
+                return loaderCache;
+            });
+        }
+    }
+
+    private static Class<?> resolveComponent(String name, PerfCakeComponent componentType, ClassLoader classLoader) {
         Class<?> component = null;
         String fqdn = name;
         if (!name.contains(".")) {
@@ -50,7 +151,7 @@ public class ComponentLoaderImpl implements ComponentLoader {
 
         try {
             logger.debug("Trying to load component {}", fqdn);
-            component = Class.forName(fqdn);
+            component = Class.forName(fqdn, true, classLoader);
             if (!componentType.getApi().isAssignableFrom(component)) {
                 logger.warn(String.format("Implementation %s is not subtype of %s", fqdn, componentType));
                 component = null;
@@ -61,4 +162,33 @@ public class ComponentLoaderImpl implements ComponentLoader {
 
         return component;
     }
+
+    private ClassLoader getClassLoader() {
+        ComponentCatalogue source = (catalogue == null) ? BOUND_CATALOGUE.get() : catalogue;
+        return (source == null) ? ComponentLoaderImpl.class.getClassLoader() : source.getClassLoader();
+    }
+
+    /**
+     * Binding of a catalogue to the current thread created by {@link #bindCatalogue(ComponentCatalogue)}.
+     */
+    public static final class CatalogueBinding implements AutoCloseable {
+
+        private final ComponentCatalogue previous;
+
+        private CatalogueBinding(ComponentCatalogue previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * Restores the catalogue which was bound to the current thread before this binding.
+         */
+        @Override
+        public void close() {
+            if (previous == null) {
+                BOUND_CATALOGUE.remove();
+            } else {
+                BOUND_CATALOGUE.set(previous);
+            }
+        }
+    }
 }
@@ -0,0 +1,328 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.SecureClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class loader of external jars added to a {@link ComponentCatalogue}. It is a child of the class loader of pc4ide, so
+ * PerfCake classes are shared, but each set of libraries has its own loader. Once the libraries change, the loader is
+ * replaced, so that its classes may be unloaded when they are not used any more.
+ *
+ * <p>Loader remembers size and modification time of each jar, so that replaced jar can be detected even if its path
+ * stays the same.</p>
+ *
+ * <p>Replaced loader cannot be closed right away, since classes which are still in use may load other classes from it
+ * (e.g. their nested classes). Open jars are therefore not owned by the loader itself, but by a phantom reference to
+ * the loader. Once the loader is collected, the reference is enqueued and the jars are closed by a cleaner thread, so
+ * that they are not locked (e.g. on Windows) after the loader is no longer used.</p>
+ *
+ * @author Jakub Knetl
+ */
+final class LibraryClassLoader extends SecureClassLoader implements Closeable {
+
+    static final Logger logger = LoggerFactory.getLogger(LibraryClassLoader.class);
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    /**
+     * Queue of references to collected loaders whose jars have to be closed.
+     */
+    private static final ReferenceQueue<LibraryClassLoader> COLLECTED_LOADERS = new ReferenceQueue<>();
+
+    /**
+     * Jars of loaders which have not been closed yet. References have to be reachable until they are enqueued.
+     */
+    private static final Set<LibraryJars> OPEN_JARS = ConcurrentHashMap.newKeySet();
+
+    private static boolean cleanerStarted;
+
+    private final Map<Path, String> libraries;
+    private final LibraryJars jars;
+
+    /**
+     * Creates new class loader. Libraries which cannot be opened are skipped.
+     *
+     * @param libraries jars which are loaded by the loader
+     * @param parent    parent class loader
+     */
+    LibraryClassLoader(Collection<Path> libraries, ClassLoader parent) {
+        super(parent);
+        if (libraries == null) {
+            throw new IllegalArgumentException("Libraries cannot be null.");
+        }
+
+        final Map<Path, String> versions = new LinkedHashMap<>();
+        final List<JarFile> files = new ArrayList<>(libraries.size());
+        final List<URL> urls = new ArrayList<>(libraries.size());
+        for (Path library : libraries) {
+            versions.put(library, getVersion(library));
+            try {
+                URL url = library.toUri().toURL();
+                files.add(new JarFile(library.toFile()));
+                urls.add(url);
+            } catch (IOException e) {
+                logger.warn("Cannot open library {}, its classes will not be loaded.", library, e);
+            }
+        }
+        this.libraries = Collections.unmodifiableMap(versions);
+        this.jars = new LibraryJars(this, versions.keySet(), files, urls);
+
+        OPEN_JARS.add(jars);
+        startCleaner();
+    }
+
+    /**
+     * @return jars which are loaded by the loader
+     */
+    Set<Path> getLibraries() {
+        return libraries.keySet();
+    }
+
+    /**
+     * Checks whether the loader loads exactly given libraries in their current version.
+     *
+     * @param libraries jars
+     * @return true if the loader loads the same set of jars and none of them has changed since the loader was created
+     */
+    boolean isUpToDate(Set<Path> libraries) {
+        if (!this.libraries.keySet().equals(libraries)) {
+            return false;
+        }
+        for (Map.Entry<Path, String> entry : this.libraries.entrySet()) {
+            if (!entry.getValue().equals(getVersion(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a library is held open by a loader which has been neither closed nor collected yet.
+     *
+     * @param library jar
+     * @return true if the library is open
+     */
+    static boolean isOpen(Path library) {
+        final Path path = library.toAbsolutePath().normalize();
+        for (LibraryJars open : OPEN_JARS) {
+            if (open.libraries.contains(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        final String entryName = name.replace('.', '/') + CLASS_FILE_SUFFIX;
+        for (int i = 0; i < jars.files.size(); i++) {
+            final JarFile file = jars.files.get(i);
+            try {
+                final JarEntry entry = file.getJarEntry(entryName);
+                if (entry != null) {
+                    final byte[] bytes = read(file, entry);
+                    // signers are known only after the entry is read
+                    final CodeSource codeSource = new CodeSource(jars.urls.get(i), entry.getCodeSigners());
+                    definePackageOf(name);
+                    return defineClass(name, bytes, 0, bytes.length, codeSource);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // jar cannot be read or it has been closed
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    @Override
+    protected URL findResource(String name) {
+        for (int i = 0; i < jars.files.size(); i++) {
+            final URL resource = findResource(i, name);
+            if (resource != null) {
+                return resource;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected Enumeration<URL> findResources(String name) {
+        final List<URL> resources = new ArrayList<>();
+        for (int i = 0; i < jars.files.size(); i++) {
+            final URL resource = findResource(i, name);
+            if (resource != null) {
+                resources.add(resource);
+            }
+        }
+        return Collections.enumeration(resources);
+    }
+
+    /**
+     * Closes jars of the loader, so that classes and resources cannot be loaded from them any more.
+     */
+    @Override
+    public void close() {
+        jars.close();
+    }
+
+    private URL findResource(int index, String name) {
+        try {
+            if (jars.files.get(index).getJarEntry(name) != null) {
+                return new URL("jar:" + jars.urls.get(index) + "!/" + name);
+            }
+        } catch (MalformedURLException | IllegalStateException e) {
+            logger.debug("Cannot find resource {} in {}.", name, jars.urls.get(index), e);
+        }
+        return null;
+    }
+
+    private void definePackageOf(String className) {
+        final int index = className.lastIndexOf('.');
+        if (index < 0) {
+            return;
+        }
+        final String packageName = className.substring(0, index);
+        if (getPackage(packageName) == null) {
+            try {
+                definePackage(packageName, null, null, null, null, null, null, null);
+            } catch (IllegalArgumentException e) {
+                // package has been defined concurrently by another thread
+            }
+        }
+    }
+
+    private static byte[] read(JarFile file, JarEntry entry) throws IOException {
+        try (InputStream inputStream = file.getInputStream(entry)) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream((entry.getSize() > 0) ? (int) entry.getSize() : 4096);
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                outputStream.write(buffer, 0, read);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    private static String getVersion(Path library) {
+        try {
+            return Files.size(library) + "/" + Files.getLastModifiedTime(library).toMillis();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Starts daemon thread which closes jars of collected loaders, unless it is already running.
+     */
+    private static synchronized void startCleaner() {
+        if (cleanerStarted) {
+            return;
+        }
+        final Thread thread = new Thread(LibraryClassLoader::closeCollectedLoaders, "pc4ide-library-cleaner");
+        thread.setDaemon(true);
+        // thread must not keep any loader reachable
+        thread.setContextClassLoader(null);
+        thread.start();
+        cleanerStarted = true;
+    }
+
+    private static void closeCollectedLoaders() {
+        while (true) {
+            try {
+                final LibraryJars collected = (LibraryJars) COLLECTED_LOADERS.remove();
+                logger.debug("Library class loader collected, closing libraries {}.", collected.libraries);
+                collected.close();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LibraryClassLoader{"
+                + "libraries=" + libraries.keySet()
+                + '}';
+    }
+
+    /**
+     * Open jars of a loader. It does not reference the loader, so it can close the jars after the loader is collected.
+     */
+    private static final class LibraryJars extends PhantomReference<LibraryClassLoader> {
+
+        private final Set<Path> libraries;
+        private final List<JarFile> files;
+        private final List<URL> urls;
+
+        LibraryJars(LibraryClassLoader loader, Set<Path> libraries, List<JarFile> files, List<URL> urls) {
+            super(loader, COLLECTED_LOADERS);
+            final Set<Path> paths = new LinkedHashSet<>();
+            for (Path library : libraries) {
+                paths.add(library.toAbsolutePath().normalize());
+            }
+            this.libraries = paths;
+            this.files = files;
+            this.urls = urls;
+        }
+
+        void close() {
+            clear();
+            OPEN_JARS.remove(this);
+            for (JarFile file : files) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    logger.debug("Cannot close library {}.", file.getName(), e);
+                }
+            }
+        }
+    }
+}
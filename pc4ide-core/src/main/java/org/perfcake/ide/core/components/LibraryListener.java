@@ -0,0 +1,50 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Library listener is notified when {@link LibraryWatcher} applies changes of watched library directories to
+ * a {@link ComponentCatalogue}.
+ *
+ * @author Jakub Knetl
+ */
+public interface LibraryListener {
+
+    /**
+     * Handles changes of the libraries. The method is called in the thread of the watcher after the update of
+     * the catalogue has been requested, so the update may still be in progress.
+     *
+     * @param added   jars which have been added to the catalogue
+     * @param removed jars which have been removed from the catalogue
+     */
+    void librariesChanged(Set<Path> added, Set<Path> removed);
+
+    /**
+     * Handles a jar which cannot be added to the catalogue.
+     *
+     * @param library path to the jar
+     * @param cause   reason of the failure
+     */
+    void libraryFailed(Path library, Exception cause);
+}
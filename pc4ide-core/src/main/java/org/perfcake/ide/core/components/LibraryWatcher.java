@@ -0,0 +1,367 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.perfcake.PerfCakeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Library watcher watches directories with external jars and keeps a {@link ComponentCatalogue} in sync with them. It
+ * uses {@link WatchService}, so it does not depend on any IDE and it may be used by all IDE adapters.
+ *
+ * <p>Copying a jar or building a project produces a burst of events. The watcher collects the events until no event
+ * arrives for the debounce time. Then it adds new jars to the catalogue, removes deleted jars from it and requests
+ * a single {@link ComponentCatalogue#update()}. Bursts which do not calm down are applied after
+ * {@link #MAX_DEBOUNCE_WINDOWS} debounce windows.</p>
+ *
+ * <p>Watched directories do not have to exist. Nearest existing parent is watched instead, until the directory is
+ * created.</p>
+ *
+ * @author Jakub Knetl
+ */
+public class LibraryWatcher implements Closeable {
+
+    static final Logger logger = LoggerFactory.getLogger(LibraryWatcher.class);
+
+    /**
+     * Default debounce time in milliseconds.
+     */
+    public static final long DEFAULT_DEBOUNCE = 500;
+
+    /**
+     * Maximal number of debounce windows for which the changes may be postponed.
+     */
+    public static final int MAX_DEBOUNCE_WINDOWS = 10;
+
+    private static final String JAR_EXTENSION = ".jar";
+
+    private final ComponentCatalogue catalogue;
+    private final List<Path> directories;
+    private final long debounce;
+    private final List<LibraryListener> listeners = new CopyOnWriteArrayList<>();
+
+    // following fields are used by the thread which starts the watcher and then only by the watcher thread
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Map<Path, Path> watchTargets = new HashMap<>();
+    private final Set<Path> libraries = new HashSet<>();
+    private final Set<Path> changedLibraries = new LinkedHashSet<>();
+
+    private WatchService watchService;
+    private volatile boolean closed;
+
+    /**
+     * Creates new library watcher with {@link #DEFAULT_DEBOUNCE default debounce time}.
+     *
+     * @param catalogue   catalogue which is kept in sync with the directories
+     * @param directories directories with jars
+     */
+    public LibraryWatcher(ComponentCatalogue catalogue, Collection<Path> directories) {
+        this(catalogue, directories, DEFAULT_DEBOUNCE);
+    }
+
+    /**
+     * Creates new library watcher.
+     *
+     * @param catalogue   catalogue which is kept in sync with the directories
+     * @param directories directories with jars
+     * @param debounce    time in milliseconds without any event, after which the changes are applied
+     */
+    public LibraryWatcher(ComponentCatalogue catalogue, Collection<Path> directories, long debounce) {
+        if (catalogue == null) {
+            throw new IllegalArgumentException("Catalogue cannot be null.");
+        }
+        if (directories == null) {
+            throw new IllegalArgumentException("Directories cannot be null.");
+        }
+        if (debounce <= 0) {
+            throw new IllegalArgumentException("Debounce time must be positive.");
+        }
+        this.catalogue = catalogue;
+        this.debounce = debounce;
+        this.directories = new ArrayList<>();
+        for (Path directory : directories) {
+            this.directories.add(directory.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Adds listener which is notified whenever changes of the libraries are applied.
+     *
+     * @param listener library listener
+     */
+    public void addLibraryListener(LibraryListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes library listener.
+     *
+     * @param listener library listener
+     */
+    public void removeLibraryListener(LibraryListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return directories which are watched for jars
+     */
+    public List<Path> getDirectories() {
+        return Collections.unmodifiableList(directories);
+    }
+
+    /**
+     * Starts watching the directories. Jars which are already in the directories are added to the catalogue and an update
+     * of the catalogue is requested, but this method does not wait for it. If there is no jar in the directories,
+     * the catalogue is not updated at all, so the owner of the catalogue is responsible for its initial update.
+     *
+     * @throws IOException if the directories cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Library watcher has been closed.");
+        }
+        if (watchService != null) {
+            throw new IllegalStateException("Library watcher has been already started.");
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        for (Path directory : directories) {
+            synchronize(directory);
+        }
+        applyChanges();
+
+        Thread thread = new Thread(this::watch, "pc4ide-library-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the directories. Jars which have been added to the catalogue stay there.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        final long maxDelay = TimeUnit.MILLISECONDS.toNanos(debounce * MAX_DEBOUNCE_WINDOWS);
+        long firstEvent = 0;
+        try {
+            while (!closed) {
+                WatchKey key;
+                if (changedLibraries.isEmpty()) {
+                    key = watchService.take();
+                    firstEvent = System.nanoTime();
+                } else {
+                    long remaining = maxDelay - (System.nanoTime() - firstEvent);
+                    key = (remaining <= 0) ? null
+                            : watchService.poll(Math.min(debounce, TimeUnit.NANOSECONDS.toMillis(remaining)), TimeUnit.MILLISECONDS);
+                }
+
+                if (key != null) {
+                    processEvents(key);
+                } else {
+                    applyChanges();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // watcher has been closed
+        }
+        logger.debug("Library watcher has been stopped.");
+    }
+
+    private void processEvents(WatchKey key) {
+        Path watched = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                logger.debug("Events of library directories have been lost, directories are synchronized.");
+                for (Path directory : directories) {
+                    synchronize(directory);
+                }
+                continue;
+            }
+            if (watched == null) {
+                continue;
+            }
+
+            Path child = watched.resolve((Path) event.context());
+            if (directories.contains(watched) && isJar(child)) {
+                changedLibraries.add(child);
+            }
+            // library directory or one of its parents may have been created or deleted
+            if (event.kind() != StandardWatchEventKinds.ENTRY_MODIFY) {
+                for (Path directory : directories) {
+                    if (directory.startsWith(child)) {
+                        synchronize(directory);
+                    }
+                }
+            }
+        }
+
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+            for (Path directory : directories) {
+                if (watched != null && directory.startsWith(watched)) {
+                    synchronize(directory);
+                }
+            }
+        }
+    }
+
+    /**
+     * Watches the directory (or its nearest existing parent) and marks all jars in the directory as changed, so that
+     * jars which have been created or deleted without an event are found.
+     *
+     * @param directory library directory
+     */
+    private void synchronize(Path directory) {
+        Path target = directory;
+        while (target != null && !Files.isDirectory(target)) {
+            target = target.getParent();
+        }
+        if (target == null) {
+            watchTargets.remove(directory);
+        } else {
+            try {
+                WatchKey key = target.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirectories.put(key, target);
+                watchTargets.put(directory, target);
+            } catch (IOException e) {
+                logger.warn("Cannot watch library directory {}.", target, e);
+                watchTargets.remove(directory);
+            }
+        }
+        cancelUnusedKeys();
+
+        for (Path library : libraries) {
+            if (directory.equals(library.getParent())) {
+                changedLibraries.add(library);
+            }
+        }
+        if (directory.equals(target)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path file : stream) {
+                    if (isJar(file)) {
+                        changedLibraries.add(file);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot list library directory {}.", directory, e);
+            }
+        }
+    }
+
+    private void cancelUnusedKeys() {
+        Iterator<Map.Entry<WatchKey, Path>> iterator = watchedDirectories.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<WatchKey, Path> entry = iterator.next();
+            if (!watchTargets.containsValue(entry.getValue())) {
+                entry.getKey().cancel();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Applies collected changes of the libraries to the catalogue and requests its update if the libraries have changed.
+     */
+    private void applyChanges() {
+        Set<Path> added = new LinkedHashSet<>();
+        Set<Path> removed = new LinkedHashSet<>();
+        boolean update = false;
+        for (Path library : changedLibraries) {
+            if (Files.isRegularFile(library)) {
+                // jar which is already in the catalogue has been modified, so it is only indexed again
+                if (!libraries.contains(library)) {
+                    try {
+                        catalogue.addSoftwareLibrary(library);
+                    } catch (PerfCakeException | RuntimeException e) {
+                        logger.warn("Cannot add library {} to component catalogue.", library, e);
+                        for (LibraryListener listener : listeners) {
+                            listener.libraryFailed(library, e);
+                        }
+                        continue;
+                    }
+                    libraries.add(library);
+                    added.add(library);
+                }
+                update = true;
+            } else if (libraries.remove(library)) {
+                catalogue.removeSoftwareLibrary(library);
+                removed.add(library);
+                update = true;
+            }
+        }
+        changedLibraries.clear();
+
+        if (update) {
+            logger.debug("Libraries changed, added: {}, removed: {}.", added, removed);
+            catalogue.update();
+            for (LibraryListener listener : listeners) {
+                try {
+                    listener.librariesChanged(added, removed);
+                } catch (RuntimeException e) {
+                    logger.warn("Library listener failed.", e);
+                }
+            }
+        }
+    }
+
+    private static boolean isJar(Path file) {
+        Path fileName = file.getFileName();
+        return fileName != null && fileName.toString().toLowerCase().endsWith(JAR_EXTENSION);
+    }
+}
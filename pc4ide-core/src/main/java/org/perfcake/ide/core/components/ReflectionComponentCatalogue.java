@@ -20,24 +20,36 @@
 
 package org.perfcake.ide.core.components;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.File;
 import java.lang.reflect.Modifier;
-import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import org.perfcake.PerfCakeException;
+import org.perfcake.ide.core.components.index.BuiltInComponents;
+import org.perfcake.ide.core.components.index.ComponentIndexCache;
+import org.perfcake.ide.core.components.index.ComponentIndexer;
+import org.perfcake.ide.core.inspector.ImplementationMetadataCache;
 import org.reflections.Reflections;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
@@ -47,110 +59,323 @@ import org.slf4j.LoggerFactory;
 /**
  * Represents an catalogue of PerfCake components on the classpath.
  *
+ * <p>Components are found by indexing class files on the classpath, so the scan does not load any class. Index covers
+ * all packages of the classpath roots, so additional packages do not affect it. Subclasses which cannot read the classpath
+ * as files may scan it using {@link #createReflections() reflections} instead, which scans the roots of the default and
+ * additional packages.</p>
+ *
+ * <p>Components are scanned in a background thread. Each finished scan publishes new immutable {@link CatalogueSnapshot},
+ * which is used by {@link #list(PerfCakeComponent)}, so listing never waits for a scan in progress.</p>
+ *
+ * <p>External jars are not added to any shared class loader. Each update creates a new {@link #getClassLoader() class
+ * loader} if the set of the jars (or any of the jars) has changed and it drops the previous one, so that replaced
+ * versions of the jars can be unloaded once no model uses them.</p>
+ *
  * @author jknetl
  */
 public class ReflectionComponentCatalogue implements ComponentCatalogue {
 
     static final Logger logger = LoggerFactory.getLogger(ReflectionComponentCatalogue.class);
 
-    // maximum update timeout. If update does not finishes until this timeout, it is automatically marked as finished
-    // this allows to recover situation when a update thread is killed and it never releases the lock.
-    protected static final long MAX_UPDATE_TIMEOUT = 20000;
+    // scanning thread is stopped when the catalogue is not updated for this time
+    private static final long SCAN_THREAD_KEEP_ALIVE = 30;
+
+    /**
+     * Snapshot of the last finished update.
+     */
+    private volatile CatalogueSnapshot snapshot = CatalogueSnapshot.EMPTY;
+
+    /**
+     * Update which has been requested, but which has not started yet. Subsequent requests join this update.
+     */
+    // guarded by this
+    private CompletableFuture<CatalogueSnapshot> pendingUpdate;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final ThreadPoolExecutor scanExecutor;
+
+    private final List<CatalogueListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final ComponentIndexCache indexCache;
+
+    /**
+     * Jars added by {@link #addSoftwareLibrary(Path)}, which are searched together with the classpath.
+     */
+    private final Set<Path> softwareLibraries = ConcurrentHashMap.newKeySet();
 
     /**
-     * Map of components type and their implementations.
+     * Jars removed by {@link #removeSoftwareLibrary(Path)}. They are excluded from the searched classpath even if
+     * the class loader of the catalogue can see them.
      */
-    private Map<PerfCakeComponent, List<String>> components;
+    private final Set<Path> removedLibraries = ConcurrentHashMap.newKeySet();
 
-    private AtomicBoolean updateInProgress = new AtomicBoolean(false);
+    /**
+     * Class loader of {@link #softwareLibraries}, it is null if there is no library.
+     */
+    private volatile LibraryClassLoader libraryClassLoader;
 
     /**
-     * List of additional packages which will be scanned.
+     * List of additional packages which will be scanned by {@link #createReflections()}.
      */
     private Set<String> additionalPackages;
     private Reflections reflections;
 
     /**
-     * Creates a new catalogue. It also triggers scanning for components in given packages. Therefore, creating a new
-     * {@link ReflectionComponentCatalogue} is costly operation and should not be called often.
+     * Creates a new catalogue. Catalogue is empty until {@link #update()} is called. Scanning for components is costly
+     * operation, so it should not be triggered often.
      *
-     * @param additionalPackages additional packages where catalogue will look for components.
+     * @param additionalPackages additional packages scanned by {@link #createReflections()}, index covers all packages
      */
     public ReflectionComponentCatalogue(String... additionalPackages) {
-        this.additionalPackages = new HashSet<String>(Arrays.asList(additionalPackages));
-        components = new ConcurrentHashMap<>();
+        this(new ComponentIndexCache(ComponentIndexCache.getDefaultFile(), new ComponentIndexer()), additionalPackages);
+    }
+
+    /**
+     * Creates a new catalogue which persists indexed classpath in given cache.
+     *
+     * @param indexCache         cache of indexed classpath roots
+     * @param additionalPackages additional packages scanned by {@link #createReflections()}, index covers all packages
+     */
+    public ReflectionComponentCatalogue(ComponentIndexCache indexCache, String... additionalPackages) {
+        if (indexCache == null) {
+            throw new IllegalArgumentException("Index cache cannot be null.");
+        }
+        this.indexCache = indexCache;
+        this.additionalPackages = ConcurrentHashMap.newKeySet();
+        this.additionalPackages.addAll(Arrays.asList(additionalPackages));
+
+        scanExecutor = new ThreadPoolExecutor(1, 1, SCAN_THREAD_KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pc4ide-component-scan");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        scanExecutor.allowCoreThreadTimeOut(true);
     }
 
     @Override
-    public synchronized void update() {
-        updateInProgress.set(true);
-        Runnable runnable = new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    final Reflections reflections = createReflections();
-                    for (final PerfCakeComponent componentApi : PerfCakeComponent.values()) {
-                        logger.debug("Scanning for perfcake components in packages {}.", String.join(",", additionalPackages));
-                        List<String> list = new ArrayList<>();
-                        for (Class<?> subType : reflections.getSubTypesOf(componentApi.getApi())) {
-                            if (!subType.isInterface() && !Modifier.isAbstract(subType.getModifiers())) {
-                                String name;
-                                if (subType.getCanonicalName().startsWith(componentApi.getDefaultPackage())) {
-                                    name = subType.getSimpleName();
-                                } else {
-                                    name = subType.getCanonicalName();
-                                }
-
-                                logger.trace("Component found. Type: {}, Name: {}", componentApi.name(), name);
-                                list.add(name);
-                            }
-                        }
+    public synchronized CompletableFuture<CatalogueSnapshot> update() {
+        // update which has not started yet would scan the same packages, so the request joins it
+        if (pendingUpdate != null) {
+            return pendingUpdate;
+        }
 
-                        components.put(componentApi, list);
-                    }
+        final CompletableFuture<CatalogueSnapshot> future = new CompletableFuture<>();
+        pendingUpdate = future;
+        scanExecutor.execute(() -> {
+            synchronized (ReflectionComponentCatalogue.this) {
+                pendingUpdate = null;
+            }
+            try {
+                future.complete(scan());
+            } catch (Exception e) {
+                logger.warn("Exception during component scanning", e);
+                future.completeExceptionally(e);
+            }
+        });
 
-                } catch (Exception e) {
-                    logger.warn("Exception during component scanning", e);
-                } finally {
-                    updateInProgress.set(false);
-                }
+        return future;
+    }
+
+    private CatalogueSnapshot scan() {
+        Map<PerfCakeComponent, List<String>> components = findComponents();
+        replaceClassLoader();
+
+        CatalogueSnapshot newSnapshot = new CatalogueSnapshot(version.incrementAndGet(), components);
+        snapshot = newSnapshot;
+
+        // implementations may have changed, so cached components and metadata are stale
+        ComponentLoaderImpl.invalidateCache();
+        ImplementationMetadataCache metadataCache = ImplementationMetadataCache.getInstance();
+        metadataCache.invalidate();
+        metadataCache.warmUp(newSnapshot.getComponents(), new ComponentLoaderImpl(this));
+
+        for (CatalogueListener listener : listeners) {
+            try {
+                listener.catalogueUpdated(newSnapshot);
+            } catch (RuntimeException e) {
+                logger.warn("Catalogue listener failed.", e);
             }
-        };
+        }
 
-        Thread thread = new Thread(runnable);
-        thread.start();
+        return newSnapshot;
     }
 
-    @Override
-    public synchronized List<String> list(PerfCakeComponent component) {
-        waitUntilUpdateFinishes();
-        List<String> list = components.get(component);
-        if (list == null)  {
-            list = Collections.emptyList();
+    /**
+     * Finds implementations of all PerfCake components. Default implementation indexes headers of class files in
+     * {@link #getClasspathRoots() classpath roots} using {@link ComponentIndexer}, so no class is loaded during the scan.
+     * Jars added by {@link #addSoftwareLibrary(Path)} are indexed as well, jars removed by
+     * {@link #removeSoftwareLibrary(Path)} are not. Indexed roots are persisted in {@link ComponentIndexCache}, so only
+     * the roots which changed since the last scan are indexed again. PerfCake jar is not indexed at all if it matches
+     * {@link BuiltInComponents} indexed during the build.
+     *
+     * @return names of the implementations of each component
+     */
+    protected Map<PerfCakeComponent, List<String>> findComponents() {
+        Set<Path> classpathRoots = new LinkedHashSet<>(getClasspathRoots());
+        for (Path library : softwareLibraries) {
+            addClasspathRoot(library, classpathRoots);
+        }
+        classpathRoots.removeAll(removedLibraries);
+        List<Path> roots = new ArrayList<>(classpathRoots);
+        BuiltInComponents builtIns = BuiltInComponents.getInstance();
+        Path builtInSource = (builtIns == null) ? null : builtIns.findSource(roots);
+        if (builtInSource == null) {
+            builtIns = null;
+        } else {
+            roots.remove(builtInSource);
+        }
+        logger.debug("Indexing perfcake components in {} classpath roots, built-in components are {}.", roots.size(),
+                (builtIns == null) ? "indexed as well" : "loaded from " + BuiltInComponents.RESOURCE);
+
+        // implementations in other roots may extend built-in abstract classes, so all built-in subtypes are resolved
+        Map<PerfCakeComponent, List<String>> types = new EnumMap<>(PerfCakeComponent.class);
+        Set<String> typeNames = new LinkedHashSet<>();
+        for (PerfCakeComponent componentApi : PerfCakeComponent.values()) {
+            List<String> componentTypes = new ArrayList<>();
+            componentTypes.add(componentApi.getApi().getName());
+            if (builtIns != null) {
+                componentTypes.addAll(builtIns.getSubTypes(componentApi));
+            }
+            types.put(componentApi, componentTypes);
+            typeNames.addAll(componentTypes);
+        }
+        Map<String, List<String>> implementations = indexCache.findImplementations(roots, typeNames);
+
+        Map<PerfCakeComponent, List<String>> components = new EnumMap<>(PerfCakeComponent.class);
+        for (final PerfCakeComponent componentApi : PerfCakeComponent.values()) {
+            Set<String> found = new TreeSet<>();
+            if (builtIns != null) {
+                found.addAll(builtIns.getImplementations(componentApi));
+            }
+            for (String type : types.get(componentApi)) {
+                found.addAll(implementations.get(type));
+            }
+
+            List<String> list = new ArrayList<>();
+            for (String implementation : found) {
+                // canonical name differs from binary name in nested classes
+                String name = getComponentName(componentApi, implementation.replace('$', '.'));
+                logger.trace("Component found. Type: {}, Name: {}", componentApi.name(), name);
+                list.add(name);
+            }
+
+            components.put(componentApi, list);
+        }
+
+        return components;
+    }
+
+    /**
+     * Finds implementations of all PerfCake components using reflections. It loads all scanned classes, so it should be
+     * used only when classpath roots cannot be read as files, e.g. in OSGi bundles.
+     *
+     * @param reflections reflections with scanned classes
+     * @return names of the implementations of each component
+     */
+    protected Map<PerfCakeComponent, List<String>> findComponents(Reflections reflections) {
+        Map<PerfCakeComponent, List<String>> components = new EnumMap<>(PerfCakeComponent.class);
+        for (final PerfCakeComponent componentApi : PerfCakeComponent.values()) {
+            List<String> list = new ArrayList<>();
+            for (Class<?> subType : reflections.getSubTypesOf(componentApi.getApi())) {
+                if (!subType.isInterface() && !Modifier.isAbstract(subType.getModifiers()) && subType.getCanonicalName() != null) {
+                    String name = getComponentName(componentApi, subType.getCanonicalName());
+                    logger.trace("Component found. Type: {}, Name: {}", componentApi.name(), name);
+                    list.add(name);
+                }
+            }
+
+            components.put(componentApi, list);
         }
-        return Collections.unmodifiableList(list);
 
+        return components;
+    }
+
+    private static String getComponentName(PerfCakeComponent componentApi, String canonicalName) {
+        if (componentApi.getDefaultPackage() != null && canonicalName.startsWith(componentApi.getDefaultPackage())) {
+            return canonicalName.substring(canonicalName.lastIndexOf('.') + 1);
+        } else {
+            return canonicalName;
+        }
     }
 
     /**
-     * If an update was triggered, then this method waits until the update finishes.
+     * Collects roots (jars and directories) of the classpath which is searched for components. These are the urls of
+     * the class loaders of the catalogue, the context class loader and the system class loader together with
+     * the entries of <code>java.class.path</code> property. Classes of the JVM itself are not included.
+     *
+     * @return existing classpath roots in order of their precedence
      */
-    public void waitUntilUpdateFinishes() {
-        // If update is in progress, then wait
-        long start = System.currentTimeMillis();
-        while (updateInProgress.get()) {
-            if (System.currentTimeMillis() - start > MAX_UPDATE_TIMEOUT) {
-                updateInProgress.set(false);
-                break;
+    protected Collection<Path> getClasspathRoots() {
+        Set<Path> roots = new LinkedHashSet<>();
+        ClassLoader platformLoader = ClassLoader.getSystemClassLoader().getParent();
+        for (ClassLoader loader : Arrays.asList(this.getClass().getClassLoader(), Thread.currentThread().getContextClassLoader(),
+                ClassLoader.getSystemClassLoader())) {
+            addClasspathRoots(loader, platformLoader, roots);
+        }
+
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                addClasspathRoot(Paths.get(entry), roots);
             }
-            try {
-                TimeUnit.MILLISECONDS.sleep(500);
-            } catch (InterruptedException e) {
-                logger.debug("Wait for lock interrupted", e);
+        }
+
+        return roots;
+    }
+
+    private static void addClasspathRoots(ClassLoader loader, ClassLoader platformLoader, Set<Path> roots) {
+        for (ClassLoader l = loader; l != null && l != platformLoader; l = l.getParent()) {
+            if (l instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) l).getURLs()) {
+                    if ("file".equals(url.getProtocol())) {
+                        try {
+                            addClasspathRoot(Paths.get(url.toURI()), roots);
+                        } catch (URISyntaxException | IllegalArgumentException e) {
+                            logger.debug("Ignoring classpath url {}.", url, e);
+                        }
+                    }
+                }
             }
         }
     }
 
+    /**
+     * Adds a root to the set of classpath roots, if it exists.
+     *
+     * @param root  jar or directory
+     * @param roots set of the roots
+     */
+    protected static void addClasspathRoot(Path root, Set<Path> roots) {
+        if (Files.exists(root)) {
+            roots.add(root.toAbsolutePath().normalize());
+        }
+    }
+
+    @Override
+    public List<String> list(PerfCakeComponent component) {
+        return snapshot.list(component);
+    }
+
+    @Override
+    public CatalogueSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void addCatalogueListener(CatalogueListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeCatalogueListener(CatalogueListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Deprecated
     @Override
     public void addPackage(String... packages) {
         if (packages != null) {
@@ -160,6 +385,7 @@ public class ReflectionComponentCatalogue implements ComponentCatalogue {
         }
     }
 
+    @Deprecated
     @Override
     public void removePackage(String... packages) {
         if (packages != null) {
@@ -170,7 +396,8 @@ public class ReflectionComponentCatalogue implements ComponentCatalogue {
     }
 
     /**
-     * Creates and configure instance of {@link Reflections} which will be used for scanning.
+     * Creates and configure instance of {@link Reflections} which may be used by subclasses for scanning in
+     * {@link #findComponents(Reflections)}.
      *
      * @return Reflections instance
      */
@@ -195,15 +422,46 @@ public class ReflectionComponentCatalogue implements ComponentCatalogue {
 
     @Override
     public void addSoftwareLibrary(Path jar) throws PerfCakeException {
-        Method method = null;
-        try {
-            method = URLClassLoader.class.getDeclaredMethod("addURL", new Class[] {URL.class});
-            method.setAccessible(true);
-            method.invoke(ClassLoader.getSystemClassLoader(), new Object[] {jar.toUri().toURL()});
-        } catch (NoSuchMethodException | IllegalAccessException
-                | InvocationTargetException | MalformedURLException e) {
-            throw new PerfCakeException("Cannot add external jar to classpath.", e);
+        if (jar == null) {
+            throw new IllegalArgumentException("Jar cannot be null.");
+        }
+        Path library = jar.toAbsolutePath().normalize();
+        if (!Files.isRegularFile(library)) {
+            throw new PerfCakeException("Cannot add external jar " + jar + " to classpath, it is not a file.");
+        }
+        removedLibraries.remove(library);
+        softwareLibraries.add(library);
+    }
+
+    @Override
+    public void removeSoftwareLibrary(Path jar) {
+        if (jar == null) {
+            throw new IllegalArgumentException("Jar cannot be null.");
+        }
+        Path library = jar.toAbsolutePath().normalize();
+        softwareLibraries.remove(library);
+        removedLibraries.add(library);
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        ClassLoader loader = libraryClassLoader;
+        return (loader == null) ? this.getClass().getClassLoader() : loader;
+    }
+
+    /**
+     * Replaces the class loader of the libraries if the libraries have changed since it was created. Previous loader is
+     * not closed, since models which have not been reloaded yet may still load classes from it (e.g. nested classes of
+     * a component). It is only dropped and its jars are closed once it is collected, see {@link LibraryClassLoader}.
+     */
+    private void replaceClassLoader() {
+        LibraryClassLoader current = libraryClassLoader;
+        Set<Path> libraries = new LinkedHashSet<>(softwareLibraries);
+        if ((current == null) ? libraries.isEmpty() : current.isUpToDate(libraries)) {
+            return;
         }
 
+        libraryClassLoader = libraries.isEmpty() ? null : new LibraryClassLoader(libraries, this.getClass().getClassLoader());
+        logger.debug("Class loader of libraries replaced, libraries: {}", libraries);
     }
 }
@@ -0,0 +1,283 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Components which are built in PerfCake. They are indexed during the build of pc4ide and stored in
+ * {@link #RESOURCE} resource, so that PerfCake jar does not have to be indexed at runtime.
+ *
+ * <p>Besides the implementations, all subtypes of each component (including abstract classes and interfaces) are
+ * stored, so that implementations in other jars which extend built-in abstract classes can be resolved without
+ * indexing PerfCake jar. The index is valid only for the jar it was created from, which is identified by its file name
+ * and size.</p>
+ *
+ * <p>Resource is a text file. Its first line identifies the jar, other lines have format
+ * <code>COMPONENT&lt;TAB&gt;kind&lt;TAB&gt;binary name</code>, where the kind is either <code>implementation</code>
+ * or <code>type</code>. Lines starting with <code>#</code> are comments.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class BuiltInComponents {
+
+    static final Logger logger = LoggerFactory.getLogger(BuiltInComponents.class);
+
+    /**
+     * Location of the index of built-in components on the classpath.
+     */
+    public static final String RESOURCE = "/META-INF/pc4ide/components.idx";
+
+    private static final String SOURCE = "source";
+    private static final String IMPLEMENTATION = "implementation";
+    private static final String TYPE = "type";
+    private static final String SEPARATOR = "\t";
+
+    private static volatile BuiltInComponents instance;
+    private static volatile boolean instanceLoaded;
+
+    private final String sourceName;
+    private final long sourceSize;
+    private final Map<PerfCakeComponent, List<String>> implementations;
+    private final Map<PerfCakeComponent, List<String>> subTypes;
+
+    /**
+     * Creates new built-in components.
+     *
+     * @param sourceName      file name of the jar with the components
+     * @param sourceSize      size of the jar with the components
+     * @param implementations binary names of implementations of each component
+     * @param subTypes        binary names of all subtypes of each component, including the implementations
+     */
+    BuiltInComponents(String sourceName, long sourceSize, Map<PerfCakeComponent, List<String>> implementations,
+                      Map<PerfCakeComponent, List<String>> subTypes) {
+        if (sourceName == null) {
+            throw new IllegalArgumentException("Source name cannot be null.");
+        }
+        this.sourceName = sourceName;
+        this.sourceSize = sourceSize;
+        this.implementations = copy(implementations);
+        this.subTypes = copy(subTypes);
+    }
+
+    private static Map<PerfCakeComponent, List<String>> copy(Map<PerfCakeComponent, List<String>> components) {
+        Map<PerfCakeComponent, List<String>> copy = new EnumMap<>(PerfCakeComponent.class);
+        for (PerfCakeComponent component : PerfCakeComponent.values()) {
+            List<String> names = components.get(component);
+            copy.put(component, (names == null) ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(names)));
+        }
+        return copy;
+    }
+
+    /**
+     * Gets built-in components from {@link #RESOURCE}. The resource is read only once.
+     *
+     * @return built-in components or null if the resource is not available
+     */
+    public static BuiltInComponents getInstance() {
+        if (!instanceLoaded) {
+            synchronized (BuiltInComponents.class) {
+                if (!instanceLoaded) {
+                    instance = load();
+                    instanceLoaded = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static BuiltInComponents load() {
+        try (InputStream inputStream = BuiltInComponents.class.getResourceAsStream(RESOURCE)) {
+            if (inputStream == null) {
+                logger.debug("Index of built-in components {} is not available.", RESOURCE);
+                return null;
+            }
+            return read(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot read index of built-in components {}.", RESOURCE, e);
+            return null;
+        }
+    }
+
+    /**
+     * Creates built-in components from an index of the jar with PerfCake components.
+     *
+     * @param source jar with PerfCake components
+     * @param index  index of the jar
+     * @return built-in components
+     * @throws IOException if size of the jar cannot be read
+     */
+    static BuiltInComponents create(Path source, ComponentIndex index) throws IOException {
+        Map<PerfCakeComponent, List<String>> implementations = new EnumMap<>(PerfCakeComponent.class);
+        Map<PerfCakeComponent, List<String>> subTypes = new EnumMap<>(PerfCakeComponent.class);
+        for (PerfCakeComponent component : PerfCakeComponent.values()) {
+            implementations.put(component, index.getImplementations(component.getApi().getName()));
+            List<String> types = new ArrayList<>(index.getSubTypes(component.getApi().getName()));
+            Collections.sort(types);
+            subTypes.put(component, types);
+        }
+        return new BuiltInComponents(source.getFileName().toString(), Files.size(source), implementations, subTypes);
+    }
+
+    /**
+     * Finds the jar (or directory) which contains PerfCake component APIs.
+     *
+     * @return location of PerfCake classes or null if it cannot be detected
+     */
+    static Path findPerfCakeRoot() {
+        CodeSource codeSource = PerfCakeComponent.GENERATOR.getApi().getProtectionDomain().getCodeSource();
+        URL location = (codeSource == null) ? null : codeSource.getLocation();
+        if (location == null || !"file".equals(location.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(location.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            logger.debug("Cannot convert location of PerfCake classes {} to path.", location, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads built-in components.
+     *
+     * @param reader reader of the index
+     * @return built-in components
+     * @throws IOException if the index cannot be read or it is invalid
+     */
+    static BuiltInComponents read(BufferedReader reader) throws IOException {
+        String sourceName = null;
+        long sourceSize = -1;
+        Map<PerfCakeComponent, List<String>> implementations = new EnumMap<>(PerfCakeComponent.class);
+        Map<PerfCakeComponent, List<String>> subTypes = new EnumMap<>(PerfCakeComponent.class);
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(SEPARATOR);
+            if (fields.length != 3) {
+                throw new IOException(String.format("Line %d of index of built-in components is invalid: %s", lineNumber, line));
+            }
+            if (SOURCE.equals(fields[0])) {
+                sourceName = fields[1];
+                sourceSize = Long.parseLong(fields[2]);
+                continue;
+            }
+
+            PerfCakeComponent component = PerfCakeComponent.valueOf(fields[0]);
+            subTypes.computeIfAbsent(component, c -> new ArrayList<>()).add(fields[2]);
+            if (IMPLEMENTATION.equals(fields[1])) {
+                implementations.computeIfAbsent(component, c -> new ArrayList<>()).add(fields[2]);
+            } else if (!TYPE.equals(fields[1])) {
+                throw new IOException(String.format("Line %d of index of built-in components has unknown kind: %s", lineNumber,
+                        fields[1]));
+            }
+        }
+
+        if (sourceName == null) {
+            throw new IOException("Index of built-in components does not identify its source.");
+        }
+        return new BuiltInComponents(sourceName, sourceSize, implementations, subTypes);
+    }
+
+    /**
+     * Writes built-in components in the format which can be read by {@link #read(BufferedReader)}.
+     *
+     * @param writer  writer of the index
+     * @param comment comment at the beginning of the index, may be null
+     * @throws IOException if the index cannot be written
+     */
+    void write(Writer writer, String comment) throws IOException {
+        if (comment != null) {
+            writer.write("# " + comment + "\n");
+        }
+        writer.write(SOURCE + SEPARATOR + sourceName + SEPARATOR + sourceSize + "\n");
+        for (PerfCakeComponent component : PerfCakeComponent.values()) {
+            List<String> componentImplementations = implementations.get(component);
+            for (String subType : subTypes.get(component)) {
+                String kind = componentImplementations.contains(subType) ? IMPLEMENTATION : TYPE;
+                writer.write(component.name() + SEPARATOR + kind + SEPARATOR + subType + "\n");
+            }
+        }
+    }
+
+    /**
+     * Finds the root from which the built-in components were indexed.
+     *
+     * @param roots classpath roots
+     * @return the root with the same file name and size as the indexed jar or null if there is no such root
+     */
+    public Path findSource(Collection<Path> roots) {
+        for (Path root : roots) {
+            Path fileName = root.getFileName();
+            if (fileName != null && sourceName.equals(fileName.toString())) {
+                try {
+                    if (Files.isRegularFile(root) && Files.size(root) == sourceSize) {
+                        return root;
+                    }
+                } catch (IOException e) {
+                    logger.debug("Cannot read size of {}.", root, e);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param component PerfCake component
+     * @return sorted binary names of built-in implementations of the component
+     */
+    public List<String> getImplementations(PerfCakeComponent component) {
+        return implementations.get(component);
+    }
+
+    /**
+     * @param component PerfCake component
+     * @return sorted binary names of all built-in subtypes of the component, including abstract classes and interfaces
+     */
+    public List<String> getSubTypes(PerfCakeComponent component) {
+        return subTypes.get(component);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Header of a class file, which contains only the information needed to resolve type hierarchy.
+ *
+ * @author Jakub Knetl
+ */
+final class ClassHeader {
+
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ABSTRACT = 0x0400;
+
+    private final String name;
+    private final String superName;
+    private final List<String> interfaces;
+    private final int access;
+
+    /**
+     * Creates new class header.
+     *
+     * @param name       binary name of the class
+     * @param superName  binary name of the super class or null if the class has no super class
+     * @param interfaces binary names of directly implemented interfaces
+     * @param access     access flags of the class
+     */
+    ClassHeader(String name, String superName, String[] interfaces, int access) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null.");
+        }
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = Collections.unmodifiableList(Arrays.asList(interfaces));
+        this.access = access;
+    }
+
+    /**
+     * @return binary name of the class, e.g. <code>org.perfcake.message.sender.HttpSender</code>
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return binary name of the super class or null if the class has no super class
+     */
+    String getSuperName() {
+        return superName;
+    }
+
+    /**
+     * @return binary names of the interfaces which are directly implemented (or extended) by the class
+     */
+    List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * @return access flags of the class
+     */
+    int getAccess() {
+        return access;
+    }
+
+    /**
+     * Decides whether the class may be used as a component implementation, i.e. it is neither interface nor abstract
+     * class and it has a name, so that it can be referenced from a scenario.
+     *
+     * @return true if the class can be instantiated by its name
+     */
+    boolean isConcrete() {
+        if ((access & (ACC_INTERFACE | ACC_ABSTRACT)) != 0) {
+            return false;
+        }
+
+        // anonymous and local classes have a number after the last dollar sign
+        int dollar = name.lastIndexOf('$');
+        return dollar < 0 || dollar + 1 >= name.length() || !Character.isDigit(name.charAt(dollar + 1));
+    }
+
+    @Override
+    public String toString() {
+        return "ClassHeader{"
+                + "name='" + name + '\''
+                + ", superName='" + superName + '\''
+                + ", interfaces=" + interfaces
+                + ", access=" + access
+                + '}';
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads {@link ClassHeader} directly from the bytes of a class file, so that the class does not have to be loaded.
+ * Only the constant pool and the fields which follow it (access flags, this class, super class and interfaces) are
+ * parsed, the rest of the class file is ignored.
+ *
+ * <p>Reader keeps a buffer which is reused for subsequent class files, therefore it is not thread safe.</p>
+ *
+ * @author Jakub Knetl
+ */
+final class ClassHeaderReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int length;
+
+    /**
+     * Reads header of a class file.
+     *
+     * @param inputStream stream with the class file, it is not closed by the reader
+     * @return header of the class
+     * @throws IOException if the stream cannot be read or it does not contain a valid class file
+     */
+    ClassHeader read(InputStream inputStream) throws IOException {
+        fill(inputStream);
+        try {
+            return parse();
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Class file is truncated.", e);
+        }
+    }
+
+    private void fill(InputStream inputStream) throws IOException {
+        length = 0;
+        int read;
+        while ((read = inputStream.read(buffer, length, buffer.length - length)) >= 0) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+    }
+
+    private ClassHeader parse() throws IOException {
+        if (length < 10 || readInt(0) != MAGIC) {
+            throw new IOException("Invalid class file header.");
+        }
+
+        final int count = readUnsignedShort(8);
+        final int[] offsets = new int[count];
+        int position = 10;
+        for (int i = 1; i < count; i++) {
+            offsets[i] = position;
+            final int tag = buffer[position] & 0xFF;
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    position += 3 + readUnsignedShort(position + 1);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    position += 5;
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    // eight byte constants take two entries of the constant pool
+                    position += 9;
+                    i++;
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    position += 3;
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    position += 4;
+                    break;
+                default:
+                    throw new IOException(String.format("Unknown constant pool tag %d at offset %d.", tag, position));
+            }
+        }
+
+        final int access = readUnsignedShort(position);
+        final String name = readClassName(offsets, readUnsignedShort(position + 2));
+        final int superIndex = readUnsignedShort(position + 4);
+        final String superName = (superIndex == 0) ? null : readClassName(offsets, superIndex);
+        final String[] interfaces = new String[readUnsignedShort(position + 6)];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = readClassName(offsets, readUnsignedShort(position + 8 + 2 * i));
+        }
+
+        return new ClassHeader(name, superName, interfaces, access);
+    }
+
+    private String readClassName(int[] offsets, int classIndex) throws IOException {
+        final int classOffset = offsets[classIndex];
+        if (buffer[classOffset] != CONSTANT_CLASS) {
+            throw new IOException(String.format("Constant pool entry %d is not a class.", classIndex));
+        }
+        final int utf8Offset = offsets[readUnsignedShort(classOffset + 1)];
+        if (buffer[utf8Offset] != CONSTANT_UTF8) {
+            throw new IOException(String.format("Name of class at constant pool entry %d is not a string.", classIndex));
+        }
+        return readUtf8(utf8Offset + 1).replace('/', '.');
+    }
+
+    private String readUtf8(int offset) throws IOException {
+        final int utfLength = readUnsignedShort(offset);
+        final int start = offset + 2;
+        if (start + utfLength > length) {
+            throw new IOException("Class file is truncated.");
+        }
+
+        // class names are almost always ascii, which is encoded the same way in modified utf-8
+        final char[] chars = new char[utfLength];
+        for (int i = 0; i < utfLength; i++) {
+            final byte b = buffer[start + i];
+            if (b <= 0) {
+                try (DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(buffer, offset, utfLength + 2))) {
+                    return dataInput.readUTF();
+                }
+            }
+            chars[i] = (char) b;
+        }
+        return new String(chars);
+    }
+
+    private int readUnsignedShort(int offset) {
+        if (offset + 1 >= length) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is out of class file.");
+        }
+        return ((buffer[offset] & 0xFF) << 8) | (buffer[offset + 1] & 0xFF);
+    }
+
+    private int readInt(int offset) {
+        return (readUnsignedShort(offset) << 16) | readUnsignedShort(offset + 2);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Type hierarchy of classes found by {@link ComponentIndexer}. It knows only direct super types of each class, so
+ * subtypes of a type are resolved by walking the hierarchy from the type downwards.
+ *
+ * <p>If the same class is present in more classpath roots, the first one is used, as it would be by a class loader.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class ComponentIndex {
+
+    private final Map<String, ClassHeader> classes;
+    private final Map<String, List<String>> directSubTypes;
+
+    /**
+     * Creates new index.
+     *
+     * @param headers headers of the indexed classes in order of the classpath
+     */
+    ComponentIndex(List<ClassHeader> headers) {
+        if (headers == null) {
+            throw new IllegalArgumentException("Headers cannot be null.");
+        }
+
+        classes = new HashMap<>(headers.size() * 2);
+        directSubTypes = new HashMap<>();
+        for (ClassHeader header : headers) {
+            if (classes.putIfAbsent(header.getName(), header) != null) {
+                continue;
+            }
+            if (header.getSuperName() != null) {
+                addSubType(header.getSuperName(), header.getName());
+            }
+            for (String i : header.getInterfaces()) {
+                addSubType(i, header.getName());
+            }
+        }
+    }
+
+    private void addSubType(String type, String subType) {
+        directSubTypes.computeIfAbsent(type, k -> new ArrayList<>(2)).add(subType);
+    }
+
+    /**
+     * @return number of indexed classes
+     */
+    public int size() {
+        return classes.size();
+    }
+
+    /**
+     * @param className binary name of a class
+     * @return true if the class is in the index
+     */
+    public boolean contains(String className) {
+        return classes.containsKey(className);
+    }
+
+    /**
+     * Finds all subtypes of given type, which includes classes extending the type and classes implementing
+     * the type indirectly via other interfaces or super classes. The type itself does not have to be indexed.
+     *
+     * @param typeName binary name of a class or interface
+     * @return binary names of all indexed subtypes of the type
+     */
+    public Set<String> getSubTypes(String typeName) {
+        if (typeName == null) {
+            throw new IllegalArgumentException("Type name cannot be null.");
+        }
+
+        Set<String> subTypes = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(typeName);
+        while (!queue.isEmpty()) {
+            for (String subType : directSubTypes.getOrDefault(queue.poll(), Collections.emptyList())) {
+                if (subTypes.add(subType)) {
+                    queue.add(subType);
+                }
+            }
+        }
+
+        return subTypes;
+    }
+
+    /**
+     * Finds subtypes of given type which can be used as implementations, i.e. they are neither interfaces nor abstract,
+     * anonymous or local classes.
+     *
+     * @param typeName binary name of a class or interface
+     * @return sorted binary names of implementations of the type
+     */
+    public List<String> getImplementations(String typeName) {
+        List<String> implementations = new ArrayList<>();
+        for (String subType : getSubTypes(typeName)) {
+            if (classes.get(subType).isConcrete()) {
+                implementations.add(subType);
+            }
+        }
+        Collections.sort(implementations);
+
+        return implementations;
+    }
+}
@@ -0,0 +1,535 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.perfcake.ide.core.Pc4ideConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of component implementations which is persisted in an index file, so that classpath does not have to be
+ * indexed again after restart of the IDE.
+ *
+ * <p>Each jar is stored with its fingerprint (path, size, modification time and SHA-256 hash of the content) and
+ * headers of its classes. When the implementations are requested, only the jars whose fingerprint changed are indexed
+ * again. Size and modification time are checked first, content is hashed only if they differ, so a jar which was just
+ * touched or copied is not indexed again. Directories cannot be fingerprinted cheaply, so they are always indexed.</p>
+ *
+ * <p>The index file starts with resolved implementations together with size and modification time of the roots they
+ * were resolved from. If no root has changed since, implementations are returned right away and headers of the classes
+ * are not read at all, which keeps startup with a warm cache in order of milliseconds. This fast path is used only if
+ * all roots are jars (e.g. an installed IDE plugin). Implementations may span several roots (e.g. an interface in a jar
+ * and its implementation in a directory), so they cannot be resolved from a subset of the roots. If there is a
+ * directory among the roots (e.g. <code>target/classes</code> during development), cached headers of the jars are read
+ * from the index file, directories are indexed and implementations are resolved again.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class ComponentIndexCache {
+
+    static final Logger logger = LoggerFactory.getLogger(ComponentIndexCache.class);
+
+    /**
+     * System property with location of the index file.
+     */
+    public static final String INDEX_FILE_PROPERTY = Pc4ideConstants.FQDN_ID + ".componentIndexFile";
+
+    private static final int MAGIC = 0x50434958; // PCIX
+    private static final int VERSION = 1;
+    private static final int NO_RESULTS = -1;
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HASH_BUFFER_SIZE = 65536;
+
+    private final Path file;
+    private final ComponentIndexer indexer;
+
+    // state of the cache is guarded by this
+
+    // resolved implementations read from the index file or computed by last call
+    private List<Fingerprint> resultRoots;
+    private Map<String, List<String>> results;
+
+    // indexed jars, null until they are needed
+    private Map<Path, RootEntry> entries;
+
+    private boolean loaded;
+
+    // number of roots which were indexed (not found in the cache) during last call, used by tests
+    private int lastIndexedRoots;
+
+    /**
+     * Creates new cache.
+     *
+     * @param file    location of the index file, it is created on first use
+     * @param indexer indexer which indexes roots which are not cached
+     */
+    public ComponentIndexCache(Path file, ComponentIndexer indexer) {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null.");
+        }
+        if (indexer == null) {
+            throw new IllegalArgumentException("Indexer cannot be null.");
+        }
+        this.file = file;
+        this.indexer = indexer;
+    }
+
+    /**
+     * Gets default location of the index file. It is given by {@link #INDEX_FILE_PROPERTY} system property and it defaults
+     * to <code>.pc4ide/component-index.bin</code> in user's home directory.
+     *
+     * @return location of the index file
+     */
+    public static Path getDefaultFile() {
+        String location = System.getProperty(INDEX_FILE_PROPERTY);
+        if (location != null && !location.isEmpty()) {
+            return Paths.get(location);
+        }
+        return Paths.get(System.getProperty("user.home"), ".pc4ide", "component-index.bin");
+    }
+
+    /**
+     * @return location of the index file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Finds implementations of given types in classpath roots. Only the roots which changed since they were cached
+     * are indexed. Index file is updated if anything has changed. Resolved implementations are cached only if all roots
+     * are jars, see {@link ComponentIndexCache}.
+     *
+     * @param roots     jars and directories in order of the classpath
+     * @param typeNames binary names of the types whose implementations are searched
+     * @return sorted binary names of implementations of each type, see {@link ComponentIndex#getImplementations(String)}
+     */
+    public synchronized Map<String, List<String>> findImplementations(Collection<Path> roots, Collection<String> typeNames) {
+        if (roots == null) {
+            throw new IllegalArgumentException("Roots cannot be null.");
+        }
+        if (typeNames == null) {
+            throw new IllegalArgumentException("Type names cannot be null.");
+        }
+
+        final long start = System.nanoTime();
+        final List<Fingerprint> fingerprints = new ArrayList<>(roots.size());
+        for (Path root : roots) {
+            fingerprints.add(Fingerprint.of(root));
+        }
+
+        if (!loaded) {
+            loaded = true;
+            readIndexFile(false);
+        }
+        lastIndexedRoots = 0;
+        if (isCacheable(fingerprints) && fingerprints.equals(resultRoots) && results.keySet().containsAll(typeNames)) {
+            logger.debug("Component implementations found in the index cache in {} us.", (System.nanoTime() - start) / 1000);
+            return selectResults(typeNames);
+        }
+
+        if (entries == null) {
+            readIndexFile(true);
+        }
+        final List<ClassHeader> headers = new ArrayList<>();
+        for (RootEntry entry : updateEntries(fingerprints)) {
+            headers.addAll(entry.headers);
+        }
+        final ComponentIndex index = new ComponentIndex(headers);
+        results = new HashMap<>();
+        for (String typeName : typeNames) {
+            results.put(typeName, Collections.unmodifiableList(index.getImplementations(typeName)));
+        }
+        resultRoots = isCacheable(fingerprints) ? fingerprints : null;
+        writeIndexFile();
+
+        logger.debug("Component implementations resolved in {} ms, {} of {} classpath roots were indexed.",
+                (System.nanoTime() - start) / 1_000_000, lastIndexedRoots, roots.size());
+        return selectResults(typeNames);
+    }
+
+    /**
+     * @return number of roots which were not found in the cache and were indexed during last call of
+     *     {@link #findImplementations(Collection, Collection)}
+     */
+    synchronized int getLastIndexedRoots() {
+        return lastIndexedRoots;
+    }
+
+    private Map<String, List<String>> selectResults(Collection<String> typeNames) {
+        Map<String, List<String>> selected = new HashMap<>();
+        for (String typeName : typeNames) {
+            selected.put(typeName, results.get(typeName));
+        }
+        return selected;
+    }
+
+    /**
+     * Finds entries for all roots, indexing the roots which are not cached. Entries of the roots which are no longer
+     * on the classpath are removed, so that the index file does not grow indefinitely.
+     */
+    private List<RootEntry> updateEntries(List<Fingerprint> fingerprints) {
+        final Map<Path, RootEntry> updated = new LinkedHashMap<>();
+        final List<Fingerprint> changed = new ArrayList<>();
+        for (Fingerprint fingerprint : fingerprints) {
+            if (updated.containsKey(fingerprint.path)) {
+                continue;
+            }
+            RootEntry entry = entries.get(fingerprint.path);
+            if (entry != null && fingerprint.isFile() && !entry.fingerprint.equals(fingerprint)) {
+                // size or modification time has changed, but the content may be still the same
+                byte[] hash = hash(fingerprint.path);
+                if (hash != null && Arrays.equals(hash, entry.hash)) {
+                    entry = new RootEntry(fingerprint, hash, entry.headers);
+                } else {
+                    entry = null;
+                }
+            }
+
+            if (entry != null && entry.fingerprint.equals(fingerprint) && fingerprint.isFile()) {
+                updated.put(fingerprint.path, entry);
+            } else {
+                updated.put(fingerprint.path, null);
+                changed.add(fingerprint);
+            }
+        }
+
+        final List<Path> changedPaths = new ArrayList<>(changed.size());
+        for (Fingerprint fingerprint : changed) {
+            changedPaths.add(fingerprint.path);
+        }
+        final List<List<ClassHeader>> indexed = indexer.indexRoots(changedPaths);
+        for (int i = 0; i < changed.size(); i++) {
+            Fingerprint fingerprint = changed.get(i);
+            byte[] hash = fingerprint.isFile() ? hash(fingerprint.path) : null;
+            updated.put(fingerprint.path, new RootEntry(fingerprint, hash, indexed.get(i)));
+        }
+        lastIndexedRoots = changed.size();
+
+        entries = updated;
+        return new ArrayList<>(updated.values());
+    }
+
+    /**
+     * @return true if implementations resolved from given roots can be cached, i.e. all roots are jars
+     */
+    private static boolean isCacheable(List<Fingerprint> fingerprints) {
+        for (Fingerprint fingerprint : fingerprints) {
+            if (!fingerprint.isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] hash(Path path) {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.debug("Cannot compute hash of {}.", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the index file. If the file does not exist or it cannot be read, cache starts empty.
+     *
+     * @param readEntries whether indexed roots should be read too, or only resolved implementations
+     */
+    private void readIndexFile(boolean readEntries) {
+        if (readEntries) {
+            entries = new HashMap<>();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                logger.debug("Ignoring index file {} with unknown format.", file);
+                return;
+            }
+
+            final List<Fingerprint> storedResultRoots = readResultRoots(input);
+            final Map<String, List<String>> storedResults = readResults(input);
+            if (!readEntries) {
+                resultRoots = storedResultRoots;
+                results = storedResults;
+                return;
+            }
+
+            final String[] strings = new String[input.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = input.readUTF();
+            }
+            final int entryCount = input.readInt();
+            final Map<Path, RootEntry> storedEntries = new HashMap<>(entryCount * 2);
+            for (int i = 0; i < entryCount; i++) {
+                final Fingerprint fingerprint = readFingerprint(input);
+                final byte[] hash = new byte[input.readUnsignedByte()];
+                input.readFully(hash);
+                storedEntries.put(fingerprint.path, new RootEntry(fingerprint, hash, readHeaders(input, strings)));
+            }
+            entries = storedEntries;
+        } catch (NoSuchFileException e) {
+            logger.debug("Index file {} does not exist yet.", file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot read index file {}, components will be indexed again.", file, e);
+        }
+    }
+
+    private static List<Fingerprint> readResultRoots(DataInputStream input) throws IOException {
+        final int count = input.readInt();
+        if (count == NO_RESULTS) {
+            return null;
+        }
+        final List<Fingerprint> roots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            roots.add(readFingerprint(input));
+        }
+        return roots;
+    }
+
+    private static Map<String, List<String>> readResults(DataInputStream input) throws IOException {
+        final int count = input.readInt();
+        final Map<String, List<String>> storedResults = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            final String typeName = input.readUTF();
+            final String[] implementations = new String[input.readInt()];
+            for (int j = 0; j < implementations.length; j++) {
+                implementations[j] = input.readUTF();
+            }
+            storedResults.put(typeName, Collections.unmodifiableList(Arrays.asList(implementations)));
+        }
+        return storedResults;
+    }
+
+    private static List<ClassHeader> readHeaders(DataInputStream input, String[] strings) throws IOException {
+        final int count = input.readInt();
+        final List<ClassHeader> headers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final String name = strings[input.readInt()];
+            final int superIndex = input.readInt();
+            final int access = input.readUnsignedShort();
+            final String[] interfaces = new String[input.readUnsignedShort()];
+            for (int j = 0; j < interfaces.length; j++) {
+                interfaces[j] = strings[input.readInt()];
+            }
+            headers.add(new ClassHeader(name, (superIndex < 0) ? null : strings[superIndex], interfaces, access));
+        }
+        return headers;
+    }
+
+    private static Fingerprint readFingerprint(DataInputStream input) throws IOException {
+        return new Fingerprint(Paths.get(input.readUTF()), input.readBoolean(), input.readLong(), input.readLong());
+    }
+
+    /**
+     * Writes the index file. File is written to a temporary file first and then moved to its location, so that readers
+     * never see partially written file.
+     */
+    private void writeIndexFile() {
+        try {
+            final Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            final Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream outputStream = Files.newOutputStream(temporaryFile);
+                     DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream))) {
+                    write(output);
+                }
+                try {
+                    Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot write index file {}.", file, e);
+        }
+    }
+
+    private void write(DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        if (resultRoots == null) {
+            output.writeInt(NO_RESULTS);
+        } else {
+            output.writeInt(resultRoots.size());
+            for (Fingerprint fingerprint : resultRoots) {
+                writeFingerprint(output, fingerprint);
+            }
+        }
+        output.writeInt(results.size());
+        for (Map.Entry<String, List<String>> result : results.entrySet()) {
+            output.writeUTF(result.getKey());
+            output.writeInt(result.getValue().size());
+            for (String implementation : result.getValue()) {
+                output.writeUTF(implementation);
+            }
+        }
+
+        // only jars are stored, directories are indexed every time
+        final List<RootEntry> stored = new ArrayList<>();
+        for (RootEntry entry : entries.values()) {
+            if (entry.fingerprint.isFile() && entry.hash != null) {
+                stored.add(entry);
+            }
+        }
+
+        // class names repeat a lot (e.g. super classes), so each name is written only once
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        for (RootEntry entry : stored) {
+            for (ClassHeader header : entry.headers) {
+                strings.putIfAbsent(header.getName(), strings.size());
+                if (header.getSuperName() != null) {
+                    strings.putIfAbsent(header.getSuperName(), strings.size());
+                }
+                for (String i : header.getInterfaces()) {
+                    strings.putIfAbsent(i, strings.size());
+                }
+            }
+        }
+        output.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            output.writeUTF(string);
+        }
+
+        output.writeInt(stored.size());
+        for (RootEntry entry : stored) {
+            writeFingerprint(output, entry.fingerprint);
+            output.writeByte(entry.hash.length);
+            output.write(entry.hash);
+            output.writeInt(entry.headers.size());
+            for (ClassHeader header : entry.headers) {
+                output.writeInt(strings.get(header.getName()));
+                output.writeInt((header.getSuperName() == null) ? -1 : strings.get(header.getSuperName()));
+                output.writeShort(header.getAccess());
+                output.writeShort(header.getInterfaces().size());
+                for (String i : header.getInterfaces()) {
+                    output.writeInt(strings.get(i));
+                }
+            }
+        }
+    }
+
+    private static void writeFingerprint(DataOutputStream output, Fingerprint fingerprint) throws IOException {
+        output.writeUTF(fingerprint.path.toString());
+        output.writeBoolean(fingerprint.file);
+        output.writeLong(fingerprint.size);
+        output.writeLong(fingerprint.modified);
+    }
+
+    /**
+     * Fingerprint of a classpath root which can be checked without reading the root.
+     */
+    private static final class Fingerprint {
+
+        private final Path path;
+        private final boolean file;
+        private final long size;
+        private final long modified;
+
+        Fingerprint(Path path, boolean file, long size, long modified) {
+            this.path = path;
+            this.file = file;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        static Fingerprint of(Path root) {
+            final Path path = root.toAbsolutePath().normalize();
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new Fingerprint(path, attributes.isRegularFile(), attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                return new Fingerprint(path, false, -1, -1);
+            }
+        }
+
+        boolean isFile() {
+            return file;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Fingerprint that = (Fingerprint) o;
+            return file == that.file && size == that.size && modified == that.modified && path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, file, size, modified);
+        }
+    }
+
+    /**
+     * Indexed classpath root.
+     */
+    private static final class RootEntry {
+
+        private final Fingerprint fingerprint;
+        private final byte[] hash;
+        private final List<ClassHeader> headers;
+
+        RootEntry(Fingerprint fingerprint, byte[] hash, List<ClassHeader> headers) {
+            this.fingerprint = fingerprint;
+            this.hash = hash;
+            this.headers = headers;
+        }
+    }
+}
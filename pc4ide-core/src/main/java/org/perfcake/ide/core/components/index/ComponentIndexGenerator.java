@@ -0,0 +1,75 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates index of {@link BuiltInComponents} during the build of pc4ide. It indexes the jar with PerfCake classes
+ * on the classpath of the generator.
+ *
+ * <p>Usage: <code>ComponentIndexGenerator &lt;output file&gt; [PerfCake version]</code></p>
+ *
+ * @author Jakub Knetl
+ */
+public final class ComponentIndexGenerator {
+
+    static final Logger logger = LoggerFactory.getLogger(ComponentIndexGenerator.class);
+
+    private ComponentIndexGenerator() {
+    }
+
+    /**
+     * Generates the index.
+     *
+     * @param args location of the generated index and optionally version of PerfCake, which is written to the index
+     * @throws IOException if PerfCake classes cannot be indexed or the index cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: ComponentIndexGenerator <output file> [PerfCake version]");
+        }
+
+        Path source = BuiltInComponents.findPerfCakeRoot();
+        if (source == null || !Files.isRegularFile(source)) {
+            throw new IOException("Cannot find jar with PerfCake classes, found: " + source);
+        }
+
+        ComponentIndex index = new ComponentIndexer().index(Collections.singletonList(source));
+        BuiltInComponents components = BuiltInComponents.create(source, index);
+
+        Path output = Paths.get(args[0]);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        String comment = "Built-in components of PerfCake" + ((args.length > 1) ? " " + args[1] : "") + ", generated by pc4ide build";
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            components.write(writer, comment);
+        }
+        logger.info("Index of built-in components from {} ({} classes) written to {}.", source, index.size(), output);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Indexes classes in classpath roots (jars and directories) by reading headers of their class files. No class is
+ * loaded, so indexing is much cheaper than reflection based scanning and it does not pollute class loaders.
+ *
+ * <p>Roots are indexed in parallel on a fork-join pool. Roots with many classes are further split into smaller tasks,
+ * so that single large jar does not keep one worker busy while the others are idle.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class ComponentIndexer {
+
+    static final Logger logger = LoggerFactory.getLogger(ComponentIndexer.class);
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    // roots with more classes are split into more tasks
+    private static final int CLASSES_PER_TASK = 256;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates new indexer which uses common fork-join pool.
+     */
+    public ComponentIndexer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates new indexer.
+     *
+     * @param pool pool which executes indexing tasks
+     */
+    public ComponentIndexer(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null.");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Indexes classes in given classpath roots. Roots which cannot be read are skipped.
+     *
+     * @param roots jars and directories in order of the classpath
+     * @return index of the classes
+     */
+    public ComponentIndex index(Collection<Path> roots) {
+        if (roots == null) {
+            throw new IllegalArgumentException("Roots cannot be null.");
+        }
+
+        final long start = System.nanoTime();
+        final List<ClassHeader> headers = new ArrayList<>();
+        for (List<ClassHeader> rootHeaders : indexRoots(new ArrayList<>(roots))) {
+            headers.addAll(rootHeaders);
+        }
+
+        final ComponentIndex index = new ComponentIndex(headers);
+        logger.debug("Indexed {} classes in {} classpath roots in {} ms.", index.size(), roots.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    /**
+     * Indexes classpath roots in parallel. Roots which cannot be read are skipped.
+     *
+     * @param roots jars and directories
+     * @return headers of the classes in each root, in the same order as the roots
+     */
+    List<List<ClassHeader>> indexRoots(List<Path> roots) {
+        final List<RootTask> tasks = new ArrayList<>();
+        for (Path root : roots) {
+            tasks.add(new RootTask(root));
+        }
+        return pool.invoke(new RecursiveTask<List<List<ClassHeader>>>() {
+            @Override
+            protected List<List<ClassHeader>> compute() {
+                List<List<ClassHeader>> result = new ArrayList<>();
+                for (RootTask task : ForkJoinTask.invokeAll(tasks)) {
+                    result.add(task.join());
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Indexes single classpath root.
+     *
+     * @param root jar or directory
+     * @return headers of the classes in the root
+     * @throws IOException if the root cannot be read
+     */
+    static List<ClassHeader> indexRoot(Path root) throws IOException {
+        if (Files.isDirectory(root)) {
+            final List<String> names;
+            try (Stream<Path> files = Files.walk(root)) {
+                names = files.filter(ComponentIndexer::isClassFile)
+                        .map(f -> root.relativize(f).toString())
+                        .collect(Collectors.toList());
+            }
+            return new ChunkTask(name -> Files.newInputStream(root.resolve(name)), names).invoke();
+        }
+
+        try (ZipFile zipFile = new ZipFile(root.toFile())) {
+            final List<String> names = new ArrayList<>();
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                if (!entry.isDirectory() && isClassFile(entry.getName())) {
+                    names.add(entry.getName());
+                }
+            }
+            return new ChunkTask(name -> zipFile.getInputStream(zipFile.getEntry(name)), names).invoke();
+        }
+    }
+
+    private static boolean isClassFile(Path file) {
+        return Files.isRegularFile(file) && isClassFile(file.getFileName().toString());
+    }
+
+    private static boolean isClassFile(String name) {
+        // module and package descriptors are not classes, versioned classes of multi-release jars are skipped as well
+        return name.endsWith(CLASS_SUFFIX) && !name.endsWith("module-info.class") && !name.endsWith("package-info.class")
+                && !name.startsWith("META-INF");
+    }
+
+    /**
+     * Opens class file of given name in a classpath root.
+     */
+    @FunctionalInterface
+    private interface ClassFileOpener {
+        InputStream open(String name) throws IOException;
+    }
+
+    /**
+     * Task which indexes single classpath root.
+     */
+    private static final class RootTask extends RecursiveTask<List<ClassHeader>> {
+
+        private final Path root;
+
+        RootTask(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        protected List<ClassHeader> compute() {
+            try {
+                return indexRoot(root);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Cannot index classpath root {}.", root, e);
+                return Collections.emptyList();
+            }
+        }
+    }
+
+    /**
+     * Task which reads headers of a part of the class files in a root. Large parts are split in halves.
+     */
+    private static final class ChunkTask extends RecursiveTask<List<ClassHeader>> {
+
+        private final ClassFileOpener opener;
+        private final List<String> names;
+
+        ChunkTask(ClassFileOpener opener, List<String> names) {
+            this.opener = opener;
+            this.names = names;
+        }
+
+        @Override
+        protected List<ClassHeader> compute() {
+            if (names.size() > CLASSES_PER_TASK) {
+                final int half = names.size() / 2;
+                final ChunkTask first = new ChunkTask(opener, names.subList(0, half));
+                final ChunkTask second = new ChunkTask(opener, names.subList(half, names.size()));
+                first.fork();
+                final List<ClassHeader> secondHeaders = second.compute();
+                final List<ClassHeader> headers = new ArrayList<>(first.join());
+                headers.addAll(secondHeaders);
+                return headers;
+            }
+
+            final ClassHeaderReader reader = new ClassHeaderReader();
+            final List<ClassHeader> headers = new ArrayList<>(names.size());
+            for (String name : names) {
+                try (InputStream inputStream = opener.open(name)) {
+                    headers.add(reader.read(inputStream));
+                } catch (IOException e) {
+                    logger.debug("Cannot read class file {}.", name, e);
+                }
+            }
+            return headers;
+        }
+    }
+}
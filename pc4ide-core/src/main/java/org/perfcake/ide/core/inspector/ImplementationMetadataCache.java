@@ -0,0 +1,183 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.inspector;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.perfcake.ide.core.components.ComponentLoader;
+import org.perfcake.ide.core.components.ComponentLoaderImpl;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of implementation fields of PerfCake component implementations. Inspecting an implementation is expensive (it
+ * builds bean introspectors and instantiates the implementation in order to read default values), so every
+ * implementation is inspected only once and returned fields serve as templates for implementation properties of all
+ * models with that implementation.
+ *
+ * <p>Fields are cached per class loader, so the implementations with the same name loaded by different class loaders
+ * do not clash and the cache does not prevent class loaders from being collected. The cache should be invalidated
+ * whenever the set of available implementations may change, e.g. when {@link org.perfcake.ide.core.components.ComponentCatalogue}
+ * is updated.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class ImplementationMetadataCache {
+
+    static final Logger logger = LoggerFactory.getLogger(ImplementationMetadataCache.class);
+
+    private static volatile ImplementationMetadataCache instance;
+
+    private final PropertyInspector inspector;
+
+    // guarded by itself
+    private final Map<ClassLoader, ConcurrentMap<String, List<ImplementationField>>> cache = new WeakHashMap<>();
+
+    // incremented on each invalidation, so that running warm up stops once the cache is invalidated
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ExecutorService warmUpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pc4ide-implementation-warm-up");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates new cache.
+     *
+     * @param inspector inspector used to inspect implementations which are not cached yet.
+     */
+    public ImplementationMetadataCache(PropertyInspector inspector) {
+        if (inspector == null) {
+            throw new IllegalArgumentException("Inspector cannot be null.");
+        }
+        this.inspector = inspector;
+    }
+
+    /**
+     * @return Shared instance of the cache, which uses {@link PropertyUtilsInspector}.
+     */
+    public static ImplementationMetadataCache getInstance() {
+        ImplementationMetadataCache result = instance;
+        if (result == null) {
+            synchronized (ImplementationMetadataCache.class) {
+                result = instance;
+                if (result == null) {
+                    result = new ImplementationMetadataCache(new PropertyUtilsInspector());
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns implementation fields of an implementation. Implementation is inspected only if it is not cached yet.
+     *
+     * @param implementation implementation class of a PerfCake component
+     * @return unmodifiable list of implementation fields
+     */
+    public List<ImplementationField> getFields(Class<?> implementation) {
+        if (implementation == null) {
+            throw new IllegalArgumentException("Implementation cannot be null.");
+        }
+
+        return getLoaderCache(implementation.getClassLoader()).computeIfAbsent(implementation.getName(), name -> {
+            logger.debug("Inspecting implementation {}", name);
+            return Collections.unmodifiableList(inspector.getProperties(implementation));
+        });
+    }
+
+    /**
+     * Removes all cached implementations. Warm up which is in progress is stopped.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        synchronized (cache) {
+            cache.clear();
+        }
+        logger.debug("Implementation metadata cache invalidated.");
+    }
+
+    /**
+     * Inspects given implementations in background, so that they are already cached when they are used.
+     *
+     * @param implementations implementation names as provided by {@link org.perfcake.ide.core.components.ComponentCatalogue}
+     * @return future which is completed when warm up finishes or when it is stopped by invalidation.
+     */
+    public CompletableFuture<Void> warmUp(Map<PerfCakeComponent, List<String>> implementations) {
+        return warmUp(implementations, new ComponentLoaderImpl());
+    }
+
+    /**
+     * Inspects given implementations in background, so that they are already cached when they are used.
+     *
+     * @param implementations implementation names as provided by {@link org.perfcake.ide.core.components.ComponentCatalogue}
+     * @param loader          loader of the implementations
+     * @return future which is completed when warm up finishes or when it is stopped by invalidation.
+     */
+    public CompletableFuture<Void> warmUp(Map<PerfCakeComponent, List<String>> implementations, ComponentLoader loader) {
+        if (implementations == null) {
+            throw new IllegalArgumentException("Implementations cannot be null.");
+        }
+        if (loader == null) {
+            throw new IllegalArgumentException("Loader cannot be null.");
+        }
+
+        final long warmUpGeneration = generation.get();
+        return CompletableFuture.runAsync(() -> {
+            int count = 0;
+            for (Map.Entry<PerfCakeComponent, List<String>> entry : implementations.entrySet()) {
+                for (String name : entry.getValue()) {
+                    if (generation.get() != warmUpGeneration) {
+                        logger.debug("Cache invalidated, stopping warm up.");
+                        return;
+                    }
+                    Class<?> implementation = loader.loadComponent(name, entry.getKey());
+                    if (implementation != null) {
+                        try {
+                            getFields(implementation);
+                            count++;
+                        } catch (RuntimeException e) {
+                            logger.debug("Cannot inspect implementation " + name, e);
+                        }
+                    }
+                }
+            }
+            logger.debug("Warm up finished. {} implementations inspected.", count);
+        }, warmUpExecutor);
+    }
+
+    private ConcurrentMap<String, List<ImplementationField>> getLoaderCache(ClassLoader classLoader) {
+        synchronized (cache) {
+            return cache.computeIfAbsent(classLoader, loader -> new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.manager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.exception.ModelSerializationException;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.serialization.ModelWriter;
+import org.perfcake.ide.core.model.snapshot.ModelRestorer;
+import org.perfcake.ide.core.model.snapshot.ModelSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous scenario writer. Write requests are debounced, so that a burst of requests results in a single write of
+ * the latest model. All writes are performed by a single writer thread, so they can never interleave. Scenario is written
+ * into a temporary file, which is forced to the disk and then moved to the scenario location, so the scenario file is
+ * never left half-written. If serialized scenario is the same as the last written content, then the write is skipped.
+ *
+ * <p>Model is not thread safe, so an asynchronous request takes a {@link ModelSnapshot snapshot} of the model in the
+ * thread which owns the model. Writer thread restores the snapshot into its own copy of the model and serializes the copy.
+ * Writer thread is started by the first write, so the writers which are used only for loading do not hold a thread.</p>
+ *
+ * @author Jakub Knetl
+ */
+class AsyncScenarioWriter {
+
+    static final Logger logger = LoggerFactory.getLogger(AsyncScenarioWriter.class);
+
+    /**
+     * Default delay between last write request and actual write in milliseconds.
+     */
+    static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final ModelWriter writer;
+    private final long debounceMillis;
+
+    // guarded by this
+    private ScheduledExecutorService executor;
+    private boolean closed;
+
+    // pending request, guarded by this
+    private ScenarioModel pendingModel;
+    private ModelSnapshot pendingSnapshot;
+    private ModelRestorer pendingRestorer;
+    private Path pendingLocation;
+    private CompletableFuture<Path> pendingFuture;
+    private ScheduledFuture<?> scheduledWrite;
+
+    // content which is known to be stored, guarded by this
+    private Path lastLocation;
+    private byte[] lastDigest;
+
+    /**
+     * Creates new asynchronous writer.
+     *
+     * @param writer         writer used to serialize scenario
+     * @param debounceMillis delay between last write request and the write in milliseconds
+     */
+    AsyncScenarioWriter(ModelWriter writer, long debounceMillis) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Writer cannot be null.");
+        }
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException("Debounce delay cannot be negative.");
+        }
+        this.writer = writer;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Requests asynchronous write of the model. Snapshot of the model is taken immediately, so this method must be called
+     * by the thread which owns the model. If there is a pending request, it is replaced by this one and both requests
+     * share the same future.
+     *
+     * @param model    model to be written
+     * @param location location of the scenario
+     * @return future which completes with the location once the scenario is durably stored
+     */
+    synchronized CompletableFuture<Path> submit(ScenarioModel model, Path location) {
+        ScheduledExecutorService writerExecutor = getExecutor();
+        if (pendingFuture == null) {
+            pendingFuture = new CompletableFuture<>();
+        }
+        pendingModel = model;
+        pendingSnapshot = model.snapshot();
+        pendingRestorer = new ModelRestorer(model.getDocsService(), model.getComponentLoader());
+        pendingLocation = location;
+        if (scheduledWrite != null) {
+            scheduledWrite.cancel(false);
+        }
+        scheduledWrite = writerExecutor.schedule(this::writePending, debounceMillis, TimeUnit.MILLISECONDS);
+        return pendingFuture;
+    }
+
+    /**
+     * Writes already serialized scenario immediately. Pending request of the same model is superseded by this write.
+     *
+     * @param model    model which has been serialized
+     * @param content  serialized model
+     * @param location location of the scenario
+     * @throws ModelSerializationException if the scenario cannot be written
+     */
+    void write(ScenarioModel model, byte[] content, Path location) throws ModelSerializationException {
+        CompletableFuture<Path> superseded = null;
+        ScheduledExecutorService writerExecutor;
+        synchronized (this) {
+            writerExecutor = getExecutor();
+            if (pendingModel == model && location.equals(pendingLocation) && scheduledWrite.cancel(false)) {
+                superseded = pendingFuture;
+                clearPending();
+            }
+        }
+
+        FutureTask<Path> task = new FutureTask<>(() -> writeContent(content, location));
+        writerExecutor.execute(task);
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModelSerializationException("Interrupted while writing scenario.", e);
+        } catch (ExecutionException e) {
+            if (superseded != null) {
+                superseded.completeExceptionally(e.getCause());
+            }
+            if (e.getCause() instanceof ModelSerializationException) {
+                throw (ModelSerializationException) e.getCause();
+            }
+            throw new ModelSerializationException("Cannot write scenario: " + location, e.getCause());
+        }
+
+        if (superseded != null) {
+            superseded.complete(location);
+        }
+    }
+
+    /**
+     * Records content of the scenario, which is known to be stored at the location (e.g. content which has just been
+     * loaded), so that writing the same content can be skipped.
+     *
+     * @param location location of the scenario
+     * @param content  content of the scenario
+     */
+    void recordContent(Path location, byte[] content) {
+        recordWritten(location, digest(content));
+    }
+
+    /**
+     * Writes pending request immediately (if there is any) and stops the writer thread once the request is written.
+     */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (executor == null) {
+            return;
+        }
+        if (scheduledWrite != null && scheduledWrite.cancel(false)) {
+            executor.execute(this::writePending);
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Returns executor of the writer thread. The thread is started when the executor is requested for the first time.
+     */
+    private synchronized ScheduledExecutorService getExecutor() {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed.");
+        }
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "pc4ide-scenario-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private void clearPending() {
+        pendingModel = null;
+        pendingSnapshot = null;
+        pendingRestorer = null;
+        pendingLocation = null;
+        pendingFuture = null;
+        scheduledWrite = null;
+    }
+
+    /**
+     * Writes pending request. Runs in the writer thread.
+     */
+    private void writePending() {
+        ModelSnapshot snapshot;
+        ModelRestorer restorer;
+        Path location;
+        CompletableFuture<Path> future;
+        synchronized (this) {
+            snapshot = pendingSnapshot;
+            restorer = pendingRestorer;
+            location = pendingLocation;
+            future = pendingFuture;
+            clearPending();
+        }
+
+        // request has been taken by previous (already running) task
+        if (future == null) {
+            return;
+        }
+
+        try {
+            future.complete(writeContent(serialize(restorer.restoreScenario(snapshot)), location));
+        } catch (ModelSerializationException | ModelConversionException | RuntimeException e) {
+            logger.warn("Cannot write scenario: " + location, e);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private byte[] serialize(ScenarioModel model) throws ModelSerializationException, ModelConversionException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.writeScenario(model, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Writes content atomically into the location. Runs in the writer thread.
+     *
+     * <p>If the location is a symbolic link, then the file to which the link points is replaced, so that the link is
+     * preserved. Replaced file keeps its POSIX permissions.</p>
+     *
+     * @return location
+     */
+    private Path writeContent(byte[] content, Path location) throws ModelSerializationException {
+        final byte[] digest = digest(content);
+        if (isWritten(location, digest) && Files.exists(location)) {
+            logger.debug("Scenario {} is not changed. Write is skipped.", location);
+            return location;
+        }
+
+        Path temp = null;
+        try {
+            Path target = Files.exists(location) ? location.toRealPath() : location.toAbsolutePath();
+            temp = createTemp(target);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            copyPermissions(target, temp);
+            move(temp, target);
+        } catch (IOException e) {
+            throw new ModelSerializationException("Cannot write scenario: " + location, e);
+        } finally {
+            deleteTemp(temp);
+        }
+
+        recordWritten(location, digest);
+        return location;
+    }
+
+    /**
+     * Creates temporary file in the directory of the target. Unlike {@link Files#createTempFile(Path, String, String,
+     * java.nio.file.attribute.FileAttribute[])}, the file is created with default permissions, so that new scenario is
+     * not readable only by its owner.
+     */
+    private Path createTemp(Path target) throws IOException {
+        Path directory = target.getParent();
+        String prefix = "." + target.getFileName().toString() + ".";
+        while (true) {
+            Path temp = directory.resolve(prefix + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                Files.newByteChannel(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+                return temp;
+            } catch (FileAlreadyExistsException e) {
+                logger.debug("Temporary file {} already exists.", temp);
+            }
+        }
+    }
+
+    private void copyPermissions(Path source, Path target) throws IOException {
+        if (Files.exists(source) && Files.getFileAttributeView(source, PosixFileAttributeView.class) != null) {
+            Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+        }
+    }
+
+    private void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.debug("Atomic move is not supported. Falling back to regular move.", e);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteTemp(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            logger.warn("Cannot delete temporary file: " + temp, e);
+        }
+    }
+
+    private synchronized boolean isWritten(Path location, byte[] digest) {
+        return location.equals(lastLocation) && Arrays.equals(digest, lastDigest);
+    }
+
+    private synchronized void recordWritten(Path location, byte[] digest) {
+        lastLocation = location;
+        lastDigest = digest;
+    }
+
+    private byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException("Digest algorithm is not available: " + DIGEST_ALGORITHM, e);
+        }
+    }
+}
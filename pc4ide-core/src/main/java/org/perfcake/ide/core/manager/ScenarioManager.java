@@ -23,6 +23,7 @@ package org.perfcake.ide.core.manager;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 import org.perfcake.ide.core.exception.ModelConversionException;
 import org.perfcake.ide.core.exception.ModelSerializationException;
 import org.perfcake.ide.core.model.components.ScenarioModel;
@@ -73,6 +74,36 @@ public interface ScenarioManager {
      */
     void writeScenario(ScenarioModel model, OutputStream outputStream) throws ModelSerializationException, ModelConversionException;
 
+    /**
+     * Requests asynchronous write of scenario model into scenario file. Requests which come in a quick succession are
+     * coalesced, so that only the latest model is written. Snapshot of the model is taken immediately and it is serialized
+     * in background, so this method must be called by the thread which owns the model, but it does not block it.
+     *
+     * <p>Default implementation writes the model synchronously by {@link #writeScenario(ScenarioModel)} and returns
+     * completed future.</p>
+     *
+     * @param model Model to be written.
+     * @return future which is completed with scenario location once the scenario is durably stored, or exceptionally with
+     *     {@link ModelSerializationException} or {@link ModelConversionException} if the scenario cannot be written.
+     */
+    default CompletableFuture<Path> writeScenarioAsync(ScenarioModel model) {
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        try {
+            writeScenario(model);
+            future.complete(getScenarioLocation());
+        } catch (ModelSerializationException | ModelConversionException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Writes pending asynchronous requests and releases resources held by the manager. Asynchronous writes cannot be
+     * requested after the manager is closed. Default implementation does nothing, since it has no pending requests.
+     */
+    default void close() {
+    }
+
     Path getScenarioLocation();
 
     void setScenarioLocation(Path path);
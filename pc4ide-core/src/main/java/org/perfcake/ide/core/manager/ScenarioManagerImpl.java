@@ -20,11 +20,14 @@
 
 package org.perfcake.ide.core.manager;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 import org.perfcake.ide.core.exception.ModelConversionException;
 import org.perfcake.ide.core.exception.ModelSerializationException;
 import org.perfcake.ide.core.model.components.ScenarioModel;
@@ -34,6 +37,10 @@ import org.perfcake.ide.core.model.serialization.ModelWriter;
 /**
  * XML scenario manager manages a xml scenario file.
  *
+ * <p>All writes into the scenario file are performed by a single writer thread. Asynchronous writes are debounced and the
+ * write is skipped if the content of the scenario file would not change. Writer thread is started by the first write and
+ * it is stopped by {@link #close()}. See {@link AsyncScenarioWriter}.</p>
+ *
  * @author Jakub Knetl
  */
 public class ScenarioManagerImpl implements ScenarioManager {
@@ -41,6 +48,7 @@ public class ScenarioManagerImpl implements ScenarioManager {
     private Path location;
     private ModelWriter writer;
     private ModelLoader loader;
+    private AsyncScenarioWriter asyncWriter;
 
     /**
      * Creates new XML scenario manager.
@@ -50,6 +58,18 @@ public class ScenarioManagerImpl implements ScenarioManager {
      * @param loader   loader used to load scenario
      */
     public ScenarioManagerImpl(Path location, ModelWriter writer, ModelLoader loader) {
+        this(location, writer, loader, AsyncScenarioWriter.DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Creates new XML scenario manager.
+     *
+     * @param location       location of scenario.
+     * @param writer         writer used to write scenaroi
+     * @param loader         loader used to load scenario
+     * @param debounceMillis delay in milliseconds between last asynchronous write request and the actual write
+     */
+    public ScenarioManagerImpl(Path location, ModelWriter writer, ModelLoader loader, long debounceMillis) {
         if (location == null) {
             throw new IllegalArgumentException("Path cannot be null");
         }
@@ -63,16 +83,19 @@ public class ScenarioManagerImpl implements ScenarioManager {
         this.location = location;
         this.writer = writer;
         this.loader = loader;
+        this.asyncWriter = new AsyncScenarioWriter(writer, debounceMillis);
     }
 
     @Override
     public ScenarioModel loadScenarioModel() throws ModelSerializationException, ModelConversionException {
-        ScenarioModel scenarioModel = null;
-        try (InputStream inputStream = Files.newInputStream(location)) {
-            scenarioModel = loadScenarioModel(inputStream);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(location);
         } catch (IOException e) {
             throw new ModelSerializationException("Cannot create inputstream", e);
         }
+        ScenarioModel scenarioModel = loadScenarioModel(new ByteArrayInputStream(content));
+        asyncWriter.recordContent(location, content);
         return scenarioModel;
     }
 
@@ -83,12 +106,17 @@ public class ScenarioManagerImpl implements ScenarioManager {
 
     @Override
     public void writeScenario(ScenarioModel model) throws ModelSerializationException, ModelConversionException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeScenario(model, outputStream);
+        asyncWriter.write(model, outputStream.toByteArray(), location);
+    }
 
-        try (OutputStream outputStream = Files.newOutputStream(location)) {
-            writeScenario(model, outputStream);
-        } catch (IOException e) {
-            throw new ModelSerializationException("Cannot create output stream.", e);
+    @Override
+    public CompletableFuture<Path> writeScenarioAsync(ScenarioModel model) {
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null.");
         }
+        return asyncWriter.submit(model, location);
     }
 
     @Override
@@ -108,4 +136,9 @@ public class ScenarioManagerImpl implements ScenarioManager {
         }
         this.location = path;
     }
+
+    @Override
+    public void close() {
+        asyncWriter.close();
+    }
 }
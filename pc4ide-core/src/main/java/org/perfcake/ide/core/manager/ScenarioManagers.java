@@ -21,8 +21,10 @@
 package org.perfcake.ide.core.manager;
 
 import java.nio.file.Path;
-import org.perfcake.ide.core.model.serialization.DslModelLoader;
 import org.perfcake.ide.core.model.serialization.DslModelWriter;
+import org.perfcake.ide.core.model.serialization.IncrementalDslModelLoader;
+import org.perfcake.ide.core.model.serialization.StaxModelLoader;
+import org.perfcake.ide.core.model.serialization.StaxModelWriter;
 import org.perfcake.ide.core.model.serialization.XmlModelLoader;
 import org.perfcake.ide.core.model.serialization.XmlModelWriter;
 
@@ -75,6 +77,20 @@ public class ScenarioManagers {
 
     }
 
+    /**
+     * Creates new scenario manager which manages file in XML format. Scenario is loaded by {@link StaxModelLoader} and written
+     * by {@link StaxModelWriter}, so the model is read from and written to XML directly without JAXB intermediate model.
+     *
+     * @param path path to scenario location
+     * @return scenario manager of XML file
+     */
+    public static ScenarioManager createStreamingXmlManager(Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be empty.");
+        }
+        return new ScenarioManagerImpl(path, new StaxModelWriter(), new StaxModelLoader());
+    }
+
     /**
      * Creates new scenario manager which manages file in DSL format.
      *
@@ -86,6 +102,6 @@ public class ScenarioManagers {
         if (path == null) {
             throw new IllegalArgumentException("Path cannot be empty.");
         }
-        return new ScenarioManagerImpl(path, new DslModelWriter(path.getFileName().toString()), new DslModelLoader());
+        return new ScenarioManagerImpl(path, new DslModelWriter(path.getFileName().toString()), new IncrementalDslModelLoader());
     }
 }
@@ -20,13 +20,12 @@
 
 package org.perfcake.ide.core.model;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -38,14 +37,18 @@ import org.perfcake.ide.core.exception.ImplementationNotFoundException;
 import org.perfcake.ide.core.exception.PropertyLimitException;
 import org.perfcake.ide.core.exception.UnsupportedPropertyException;
 import org.perfcake.ide.core.inspector.ImplementationField;
-import org.perfcake.ide.core.inspector.PropertyInspector;
-import org.perfcake.ide.core.inspector.PropertyUtilsInspector;
+import org.perfcake.ide.core.inspector.ImplementationMetadataCache;
+import org.perfcake.ide.core.model.listeners.ModelEvent;
+import org.perfcake.ide.core.model.listeners.ModelEventBus;
+import org.perfcake.ide.core.model.listeners.ModelEventType;
 import org.perfcake.ide.core.model.listeners.ModelListener;
-import org.perfcake.ide.core.model.listeners.PropertyListener;
+import org.perfcake.ide.core.model.listeners.ModelListenerAdapter;
 import org.perfcake.ide.core.model.properties.SimpleValue;
 import org.perfcake.ide.core.model.properties.Value;
-import org.perfcake.ide.core.model.validation.ModelValidator;
+import org.perfcake.ide.core.model.snapshot.ModelSnapshot;
+import org.perfcake.ide.core.model.snapshot.PropertySnapshot;
 import org.perfcake.ide.core.model.validation.Validator;
+import org.perfcake.ide.core.model.validation.Validators;
 import org.perfcake.ide.core.model.validation.error.ValidationError;
 import org.perfcake.ide.core.model.visitor.ModelVisitor;
 import org.slf4j.Logger;
@@ -57,7 +60,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author Jakub Knetl
  */
-public abstract class AbstractModel extends AbstractProperty implements Model, PropertyListener {
+public abstract class AbstractModel extends AbstractProperty implements Model {
 
     static final Logger logger = LoggerFactory.getLogger(AbstractModel.class);
 
@@ -66,11 +69,36 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
     public static final String IMPLEMENTATION_CLASS_PROPERTY = "class";
     public static final String SUPPORTED_PROPERTIES_PROPERTY = "supported-properties";
 
+    /**
+     * Suffix of the event name which notifies listeners that order of properties has been changed.
+     */
+    public static final String ORDER_EVENT_SUFFIX = "order";
+
     /**
      * Map of the inspector properties.
      */
     private Map<PropertyInfo, PropertyContainer> properties;
 
+    /**
+     * Index of supported properties by their names. It must be updated whenever properties map is changed, so use
+     * {@link #putSupportedProperty(PropertyInfo, PropertyContainer)} and {@link #removeSupportedProperty(PropertyInfo)}
+     * to change supported properties.
+     */
+    private Map<String, PropertyInfo> propertiesByName;
+
+    /**
+     * Supported properties which are not in the index, since there is another supported property with the same name
+     * (e.g. implementation property with the same name as component property). It is empty in most of the models.
+     */
+    private List<PropertyInfo> shadowedProperties;
+
+    /**
+     * Keys of the properties map in the order in which they were added, so that they can be traversed without allocation.
+     * It is maintained together with the map.
+     */
+    private List<PropertyInfo> supportedPropertyList;
+    private List<PropertyInfo> supportedPropertyListView;
+
     /**
      * PerfCakeComponet kind, which is represented by this model.
      */
@@ -82,9 +110,14 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
     private DocsService docsService;
 
     /**
-     * Support for sending property change events.
+     * Loader of implementation classes. If it is null, then the loader of the parent model is used.
+     */
+    private ComponentLoader componentLoader;
+
+    /**
+     * Event bus of this model. It is created when first subscriber is added.
      */
-    private PropertyChangeSupport pcs;
+    private ModelEventBus eventBus;
 
     /**
      * List of properties, which are specific for current inspector implementation. This list should never be accessible to
@@ -111,9 +144,12 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
         this.implementationProperties = new ArrayList<>();
         this.component = component;
         this.properties = new HashMap<>();
-        this.pcs = new PropertyChangeSupport(this);
+        this.propertiesByName = new HashMap<>();
+        this.shadowedProperties = new ArrayList<>(0);
+        this.supportedPropertyList = new ArrayList<>();
+        this.supportedPropertyListView = Collections.unmodifiableList(supportedPropertyList);
         this.docsService = docsService;
-        this.validator = new ModelValidator();
+        this.validator = Validators.getModelValidator();
         initializeSupportedProperties();
     }
 
@@ -122,6 +158,11 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
         return properties.keySet();
     }
 
+    @Override
+    public List<PropertyInfo> getSupportedPropertyList() {
+        return supportedPropertyListView;
+    }
+
     @Override
     public Set<PropertyInfo> getSupportedImplProperties() {
         return Collections.unmodifiableSet(new HashSet<PropertyInfo>(implementationProperties));
@@ -134,16 +175,7 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
             throw new IllegalArgumentException("Name cannot be null.");
         }
 
-        PropertyInfo result = null;
-
-        for (PropertyInfo type : properties.keySet()) {
-            if (name.equals(type.getName())) {
-                result = type;
-                break;
-            }
-        }
-
-        return result;
+        return propertiesByName.get(name);
     }
 
     @Override
@@ -163,6 +195,78 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
 
     @Override
     public void addProperty(PropertyInfo propertyInfo, Property property) throws PropertyLimitException, UnsupportedPropertyException {
+        PropertyContainer container = getCheckedContainer(propertyInfo, property);
+        addProperty(propertyInfo, container, container.size(), property);
+    }
+
+    @Override
+    public void addProperty(PropertyInfo propertyInfo, int index, Property property)
+            throws PropertyLimitException, UnsupportedPropertyException {
+        PropertyContainer container = getCheckedContainer(propertyInfo, property);
+        addProperty(propertyInfo, container, index, property);
+    }
+
+    private void addProperty(PropertyInfo propertyInfo, PropertyContainer container, int index, Property property) {
+        container.addProperty(index, property); // add property, from now on the property notifies this model about changes
+        recordUndo(() -> {
+            container.discardProperty(property);
+            invalidateCachedState();
+        });
+        structureChanged(ModelEventType.PROPERTY_ADDED, propertyInfo, property, null, property);
+    }
+
+    @Override
+    public void moveProperty(PropertyInfo propertyInfo, Property property, int index) throws UnsupportedPropertyException {
+        PropertyContainer container = getCheckedContainer(propertyInfo, property);
+
+        final int oldIndex = container.moveProperty(property, index);
+        if (oldIndex < 0) {
+            throw new IllegalArgumentException("Property is not part of the model.");
+        }
+        if (oldIndex != index) {
+            recordUndo(() -> {
+                container.moveProperty(property, oldIndex);
+                invalidateCachedState();
+            });
+            structureChanged(ModelEventType.PROPERTY_MOVED, propertyInfo, property, oldIndex, index);
+        }
+    }
+
+    @Override
+    public void replaceProperty(PropertyInfo propertyInfo, Property oldProperty, Property newProperty)
+            throws UnsupportedPropertyException {
+        if (oldProperty == null) {
+            throw new IllegalArgumentException("Old property must not be null.");
+        }
+        PropertyContainer container = getCheckedContainer(propertyInfo, newProperty);
+
+        final int index = container.discardProperty(oldProperty);
+        if (index < 0) {
+            throw new IllegalArgumentException("Property is not part of the model.");
+        }
+        try {
+            container.addProperty(index, newProperty);
+        } catch (PropertyLimitException | UnsupportedPropertyException e) {
+            container.restoreProperty(index, oldProperty);
+            throw e;
+        }
+        recordUndo(() -> {
+            container.discardProperty(newProperty);
+            container.restoreProperty(index, oldProperty);
+            invalidateCachedState();
+        });
+        structureChanged(ModelEventType.PROPERTY_REPLACED, propertyInfo, newProperty, oldProperty, newProperty);
+    }
+
+    /**
+     * Checks arguments of a method which modifies properties and finds container for the properties.
+     *
+     * @param propertyInfo property info
+     * @param property     property which is being modified
+     * @return property container for given property info
+     * @throws UnsupportedPropertyException if the property info is not supported by the model
+     */
+    private PropertyContainer getCheckedContainer(PropertyInfo propertyInfo, Property property) throws UnsupportedPropertyException {
         if (propertyInfo == null) {
             throw new IllegalArgumentException("Property info must not be null.");
         }
@@ -174,10 +278,7 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
         if (container == null) {
             throw new UnsupportedPropertyException(String.format("The %s is not supported by the model.", propertyInfo));
         }
-
-        property.addPropertyListener(this); // add listener so that this model listen for child property changes
-        container.addProperty(property); // add property
-        propertyChange(new PropertyChangeEvent(this, propertyInfo.getName(), null, property));
+        return container;
     }
 
     @Override
@@ -196,10 +297,14 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
             throw new UnsupportedPropertyException(String.format("The %s is not supported by the model.", propertyInfo));
         }
 
+        final int index = indexOf(container, property);
         boolean removed = container.removeProperty(property);
         if (removed) {
-            property.removePropertyListener(this); // remove listener for property changes
-            propertyChange(new PropertyChangeEvent(this, propertyInfo.getName(), property, null));
+            recordUndo(() -> {
+                container.restoreProperty(index, property);
+                invalidateCachedState();
+            });
+            structureChanged(ModelEventType.PROPERTY_REMOVED, propertyInfo, property, property, null);
         }
         return removed;
     }
@@ -219,11 +324,12 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
 
     @Override
     public List<Property> getProperties(PropertyInfo propertyInfo) {
-        if (propertyInfo == null || !getSupportedProperties().contains(propertyInfo)) {
+        if (propertyInfo == null) {
             return null;
         }
 
-        return getPropertyContainer(propertyInfo).getProperties();
+        PropertyContainer container = properties.get(propertyInfo);
+        return (container == null) ? null : container.getProperties();
     }
 
     @Override
@@ -301,24 +407,74 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
         return this.docsService;
     }
 
+    /**
+     * Returns loader of implementation classes. If no loader has been set to this model, then the loader of the parent
+     * model is used. Root model without a loader uses {@link ComponentLoaderImpl} without a catalogue.
+     *
+     * @return Loader of implementation classes of this model and its submodels.
+     */
     @Override
-    public boolean isValid() {
-        return validator.validate(this, this) == null;
+    public ComponentLoader getComponentLoader() {
+        for (AbstractModel model = this; model != null; model = model.getParentModel()) {
+            if (model.componentLoader != null) {
+                return model.componentLoader;
+            }
+        }
+        return new ComponentLoaderImpl();
+    }
+
+    /**
+     * Sets loader of implementation classes of this model and its submodels, which do not have their own loader.
+     *
+     * @param componentLoader component loader, or null if the loader of the parent model should be used.
+     */
+    public void setComponentLoader(ComponentLoader componentLoader) {
+        this.componentLoader = componentLoader;
     }
 
     @Override
-    public ValidationError getValidationError() {
+    protected ValidationError validate() {
         return validator.validate(this, this);
     }
 
+    @Override
+    public ModelSnapshot snapshot() {
+        return (ModelSnapshot) super.snapshot();
+    }
+
+    @Override
+    protected ModelSnapshot createSnapshot() {
+        Map<String, List<PropertySnapshot>> snapshots = new HashMap<>(properties.size() * 2);
+        for (Map.Entry<PropertyInfo, PropertyContainer> entry : properties.entrySet()) {
+            List<PropertySnapshot> propertySnapshots = new ArrayList<>();
+            for (Property p : entry.getValue()) {
+                // unchanged properties return cached snapshots, so the snapshots are shared
+                propertySnapshots.add(p.snapshot());
+            }
+            snapshots.put(entry.getKey().getName(), propertySnapshots);
+        }
+        String name = (getPropertyInfo() == null) ? null : getPropertyInfo().getName();
+        return new ModelSnapshot(component, name, snapshots);
+    }
+
     @Override
     public void addModelListener(ModelListener listener) {
-        pcs.addPropertyChangeListener(listener);
+        getEventBus().subscribe(new ModelListenerAdapter(listener), ModelEventBus.Scope.SUBTREE);
     }
 
     @Override
     public void removeModelListener(ModelListener listener) {
-        pcs.removePropertyChangeListener(listener);
+        if (eventBus != null) {
+            eventBus.unsubscribe(new ModelListenerAdapter(listener));
+        }
+    }
+
+    @Override
+    public ModelEventBus getEventBus() {
+        if (eventBus == null) {
+            eventBus = new ModelEventBus();
+        }
+        return eventBus;
     }
 
     public PerfCakeComponent getComponent() {
@@ -328,37 +484,64 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
     @Override
     public void updateImplementation(String clazz) throws ImplementationNotFoundException {
 
-        // remove old properties
+        // remember old properties, so that they can be restored if a transaction is rolled back
+        final Map<PropertyInfo, PropertyContainer> oldImplementationProperties = new LinkedHashMap<>();
         for (PropertyInfo propertyInfo : implementationProperties) {
-            for (Property p : properties.get(propertyInfo)) {
-                p.removePropertyListener(this);
-            }
-            properties.remove(propertyInfo);
-            pcs.firePropertyChange(SUPPORTED_PROPERTIES_PROPERTY, propertyInfo, null);
+            oldImplementationProperties.put(propertyInfo, properties.get(propertyInfo));
         }
-        implementationProperties.clear();
 
+        // remove old properties
+        removeImplementationProperties();
+        recordUndo(() -> restoreImplementationProperties(oldImplementationProperties));
 
-        ComponentLoader loader = new ComponentLoaderImpl();
-        Class<?> newImplementation = loader.loadComponent(clazz, component);
+        Class<?> newImplementation = getComponentLoader().loadComponent(clazz, component);
         if (newImplementation == null) {
             throw new ImplementationNotFoundException("Cannot find implementation of " + clazz);
         }
-        PropertyInspector inspector = new PropertyUtilsInspector();
-        List<ImplementationField> fields = inspector.getProperties(newImplementation);
+        List<ImplementationField> fields = ImplementationMetadataCache.getInstance().getFields(newImplementation);
 
         for (ImplementationField f : fields) {
             int minOccurs = (f.isMandatory()) ? 1 : 0;
-            SimpleValue value = (f.getValue() == null) ? null : new SimpleValue(f.getValue());
-
             PropertyInfo implementationPropertyInfo = PropertyInfo.createValueInfo(f.getName(), null,
                     this, minOccurs, 1, f.getDataType(), new SimpleValue(f.getValue()));
 
             PropertyContainer propertyContainer = new PropertyContainerImpl(this, implementationPropertyInfo);
-            properties.put(implementationPropertyInfo, propertyContainer);
-            pcs.firePropertyChange(SUPPORTED_PROPERTIES_PROPERTY, null, implementationPropertyInfo);
+            putSupportedProperty(implementationPropertyInfo, propertyContainer);
+            publish(ModelEventType.SUPPORTED_PROPERTY_ADDED, implementationPropertyInfo, null, null, null, implementationPropertyInfo);
             implementationProperties.add(implementationPropertyInfo);
         }
+        invalidateCachedState();
+    }
+
+    /**
+     * Removes all implementation properties.
+     */
+    private void removeImplementationProperties() {
+        for (PropertyInfo propertyInfo : implementationProperties) {
+            for (Property p : properties.get(propertyInfo)) {
+                p.setModel(null);
+            }
+            removeSupportedProperty(propertyInfo);
+            publish(ModelEventType.SUPPORTED_PROPERTY_REMOVED, propertyInfo, null, null, propertyInfo, null);
+        }
+        implementationProperties.clear();
+    }
+
+    /**
+     * Replaces current implementation properties with the given ones. It is used to revert implementation change.
+     *
+     * @param implementationProperties implementation properties and their containers
+     */
+    private void restoreImplementationProperties(Map<PropertyInfo, PropertyContainer> implementationProperties) {
+        removeImplementationProperties();
+        for (Map.Entry<PropertyInfo, PropertyContainer> entry : implementationProperties.entrySet()) {
+            for (Property p : entry.getValue()) {
+                p.setModel(this);
+            }
+            putSupportedProperty(entry.getKey(), entry.getValue());
+            this.implementationProperties.add(entry.getKey());
+        }
+        invalidateCachedState();
     }
 
     /**
@@ -378,9 +561,9 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
         }
 
         PropertyContainer container = new PropertyContainerImpl(this, propertyInfo);
-        properties.put(propertyInfo, container);
-        pcs.firePropertyChange(SUPPORTED_PROPERTIES_PROPERTY, null, propertyInfo);
-
+        putSupportedProperty(propertyInfo, container);
+        publish(ModelEventType.SUPPORTED_PROPERTY_ADDED, propertyInfo, null, null, null, propertyInfo);
+        invalidateCachedState();
     }
 
     /**
@@ -410,16 +593,49 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
             throw new IllegalArgumentException("Property name cannot be null.");
         }
 
-        PropertyContainer result = null;
+        PropertyInfo propertyInfo = propertiesByName.get(propertyName);
+        return (propertyInfo == null) ? null : properties.get(propertyInfo);
+    }
+
+    /**
+     * Adds supported property and its container to the properties map and to the index of properties by name. If there
+     * already is a supported property with the same name, then the index keeps the older one.
+     *
+     * @param propertyInfo supported property
+     * @param container    container of the property
+     */
+    private void putSupportedProperty(PropertyInfo propertyInfo, PropertyContainer container) {
+        if (properties.put(propertyInfo, container) == null) {
+            supportedPropertyList.add(propertyInfo);
+        }
+        PropertyInfo indexed = propertiesByName.putIfAbsent(propertyInfo.getName(), propertyInfo);
+        if (indexed != null && !indexed.equals(propertyInfo)) {
+            shadowedProperties.add(propertyInfo);
+        }
+    }
 
-        for (PropertyInfo type : properties.keySet()) {
-            if (propertyName.equals(type.getName())) {
-                result = properties.get(type);
+    /**
+     * Removes supported property from the properties map and from the index of properties by name.
+     *
+     * @param propertyInfo supported property
+     */
+    private void removeSupportedProperty(PropertyInfo propertyInfo) {
+        if (properties.remove(propertyInfo) != null) {
+            supportedPropertyList.remove(propertyInfo);
+        }
+        if (!propertiesByName.remove(propertyInfo.getName(), propertyInfo)) {
+            shadowedProperties.remove(propertyInfo);
+            return;
+        }
+        // another property with the same name may still be supported
+        for (Iterator<PropertyInfo> iterator = shadowedProperties.iterator(); iterator.hasNext(); ) {
+            PropertyInfo info = iterator.next();
+            if (info.getName().equals(propertyInfo.getName())) {
+                iterator.remove();
+                propertiesByName.put(info.getName(), info);
                 break;
             }
         }
-
-        return result;
     }
 
     /**
@@ -434,29 +650,147 @@ public abstract class AbstractModel extends AbstractProperty implements Model, P
         return properties.get(propertyInfo);
     }
 
-    /*
-     * implementation of PropertyChangeListener in order to be able to get notification from properties
-     * about their changes.
+    /**
+     * Called by a child property of this model when its value has changed.
+     *
+     * @param child    child property
+     * @param suffix   suffix which identifies changed part of the property, or null if the whole value has changed
+     * @param oldValue old value
+     * @param newValue new value
      */
-    @Override
-    public void propertyChange(PropertyChangeEvent evt) {
-        // update implementation class if the implementation of this model has been changed
-        if (IMPLEMENTATION_CLASS_PROPERTY.equals(evt.getPropertyName())) {
+    void childChanged(Property child, String suffix, Object oldValue, Object newValue) {
+        // child property has changed, so it needs to be validated again
+        invalidateCachedState();
+
+        PropertyInfo info = child.getPropertyInfo();
+        if (suffix == null && info != null) {
+            updateImplementationIfChanged(info, newValue);
+        }
+
+        publish(ModelEventType.VALUE_CHANGED, info, child, suffix, oldValue, newValue);
+    }
+
+    /**
+     * Handles change of the properties of this model.
+     *
+     * @param type         type of the change
+     * @param propertyInfo info of the changed properties
+     * @param property     added, removed, moved or new property
+     * @param oldValue     old value of the event
+     * @param newValue     new value of the event
+     */
+    private void structureChanged(ModelEventType type, PropertyInfo propertyInfo, Property property, Object oldValue,
+                                  Object newValue) {
+        invalidateCachedState();
+        if (type != ModelEventType.PROPERTY_MOVED) {
+            updateImplementationIfChanged(propertyInfo, newValue);
+        }
+        publish(type, propertyInfo, property, null, oldValue, newValue);
+    }
+
+    /**
+     * Updates implementation properties if the implementation of this model has been changed. If a transaction is being
+     * rolled back, then implementation properties are restored by the transaction.
+     */
+    private void updateImplementationIfChanged(PropertyInfo propertyInfo, Object newValue) {
+        if (IMPLEMENTATION_CLASS_PROPERTY.equals(propertyInfo.getName()) && !ModelTransaction.isRollingBack()) {
             try {
                 String clazz;
-                if (evt.getNewValue() instanceof Value) {
-                    clazz = ((Value) evt.getNewValue()).getValue();
+                if (newValue instanceof Value) {
+                    clazz = ((Value) newValue).getValue();
                 } else {
-                    clazz = String.valueOf(evt.getNewValue());
+                    clazz = String.valueOf(newValue);
                 }
 
                 updateImplementation(String.valueOf(clazz));
             } catch (ClassNotFoundException e) {
-                logger.warn(String.format("Cannot update implementation properties of a inspector %s", evt.getNewValue()), e);
+                logger.warn(String.format("Cannot update implementation properties of a inspector %s", newValue), e);
+            }
+        }
+    }
+
+    /**
+     * Publishes event to the subscribers of this model and to the subtree subscribers of its ancestors. If there is an
+     * active {@link ModelTransaction}, the event is recorded and it is published as a part of change set when the
+     * transaction is committed.
+     */
+    private void publish(ModelEventType type, PropertyInfo propertyInfo, Property property, String suffix, Object oldValue,
+                         Object newValue) {
+        if (!hasSubscribers()) {
+            return;
+        }
+        if (oldValue != null && oldValue.equals(newValue)) {
+            return;
+        }
+        if (ModelTransaction.isInTransaction()) {
+            if (ModelTransaction.recordEvent(this, new ModelEvent(type, this, propertyInfo, property, suffix, oldValue, newValue))) {
+                return;
             }
         }
 
-        // forward events to model listeners
-        pcs.firePropertyChange(evt);
+        ModelEvent event = ModelEventBus.obtainEvent(type, this, propertyInfo, property, suffix, oldValue, newValue);
+        try {
+            dispatch(event);
+        } finally {
+            ModelEventBus.releaseEvent(event);
+        }
+    }
+
+    /**
+     * Publishes changes made during a transaction. Subscribers of this model receive single change set event with changes
+     * of this model and subtree subscribers receive single change set event with all changes in the subtree of this model.
+     *
+     * @param modelEvents   changes of this model in the order in which they occurred, or null if this model has not changed
+     * @param subtreeEvents changes in the subtree of this model (including this model) in the order in which they occurred
+     */
+    void publishChangeSet(List<ModelEvent> modelEvents, List<ModelEvent> subtreeEvents) {
+        if (eventBus == null) {
+            return;
+        }
+        if (modelEvents != null) {
+            eventBus.dispatch(new ModelEvent(this, modelEvents), ModelEventBus.Scope.NODE);
+        }
+        eventBus.dispatch(new ModelEvent(this, subtreeEvents), ModelEventBus.Scope.SUBTREE);
+    }
+
+    /**
+     * @return true if there is a subscriber of this model or a subtree subscriber of its ancestors.
+     */
+    private boolean hasSubscribers() {
+        for (AbstractModel model = this; model != null; model = model.getParentModel()) {
+            if (model.eventBus != null && model.eventBus.hasSubscribers(model == this)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void dispatch(ModelEvent event) {
+        for (AbstractModel model = this; model != null; model = model.getParentModel()) {
+            if (model.eventBus != null) {
+                model.eventBus.dispatch(event, model == this);
+            }
+        }
+    }
+
+    /**
+     * @return model which owns this model, or null if this is a root model (or if the owner is not an AbstractModel).
+     */
+    AbstractModel getParentModel() {
+        Model parent = getModel();
+        return (parent instanceof AbstractModel) ? (AbstractModel) parent : null;
+    }
+
+    /**
+     * @return position of the property in the container, or size of the container if the property is not in it.
+     */
+    private static int indexOf(PropertyContainer container, Property property) {
+        List<Property> containerProperties = container.getProperties();
+        for (int i = 0; i < containerProperties.size(); i++) {
+            if (containerProperties.get(i) == property) {
+                return i;
+            }
+        }
+        return containerProperties.size();
     }
 }
@@ -23,14 +23,27 @@ package org.perfcake.ide.core.model;
 import java.beans.PropertyChangeSupport;
 import org.perfcake.ide.core.exception.UnsupportedPropertyException;
 import org.perfcake.ide.core.model.listeners.PropertyListener;
+import org.perfcake.ide.core.model.snapshot.PropertySnapshot;
+import org.perfcake.ide.core.model.validation.error.ValidationError;
 
 /**
  * Contains information about property of a model.
  *
+ * <p>Result of the validation and the snapshot of the property are cached until the property changes. When a cached
+ * state is invalidated, listeners are notified by {@link #CACHE_INVALIDATED_EVENT}, so that the owning model may
+ * invalidate its own state as well. Thus only the path from changed property to the root is validated again and only
+ * the snapshots on this path are created again.</p>
+ *
  * @author Jakub Knetl
  */
 public abstract class AbstractProperty implements Property {
 
+    /**
+     * Name of the event which notifies listeners that cached validation result or snapshot of the property is not valid
+     * anymore.
+     */
+    public static final String CACHE_INVALIDATED_EVENT = "cache-invalidated";
+
     /**
      * Type of this property.
      */
@@ -49,10 +62,22 @@ public abstract class AbstractProperty implements Property {
     private Model model;
 
     /**
-     * Manages listeners and enables to fire events.
+     * Manages listeners and enables to fire events. It is created when first listener is added, since most of the
+     * properties never have a listener of their own.
      */
     private PropertyChangeSupport pcs;
 
+    /**
+     * Cached result of the validation. It is meaningful only if validationCached is true.
+     */
+    private ValidationError validationError;
+    private boolean validationCached;
+
+    /**
+     * Cached immutable snapshot of the property or null if there is no snapshot.
+     */
+    private PropertySnapshot snapshot;
+
     /**
      * Creates new property.
      *
@@ -62,7 +87,6 @@ public abstract class AbstractProperty implements Property {
         if (type == null) {
             throw new IllegalArgumentException("type must not be null");
         }
-        pcs = new PropertyChangeSupport(this);
         this.type = type;
     }
 
@@ -92,6 +116,7 @@ public abstract class AbstractProperty implements Property {
                             propertyInfo.getType(), type));
         }
         this.propertyInfo = propertyInfo;
+        invalidateCachedState();
     }
 
     @Override
@@ -106,12 +131,17 @@ public abstract class AbstractProperty implements Property {
 
     @Override
     public void addPropertyListener(PropertyListener listener) {
+        if (pcs == null) {
+            pcs = new PropertyChangeSupport(this);
+        }
         pcs.addPropertyChangeListener(listener);
     }
 
     @Override
     public void removePropertyListener(PropertyListener listener) {
-        pcs.removePropertyChangeListener(listener);
+        if (pcs != null) {
+            pcs.removePropertyChangeListener(listener);
+        }
     }
 
     /**
@@ -133,13 +163,23 @@ public abstract class AbstractProperty implements Property {
      * @param newValue    new value of property
      */
     protected void fireChangeEvent(String eventSuffix, Object oldValue, Object newValue) {
+        invalidateCachedState();
+        if (model instanceof AbstractModel) {
+            // owning model is notified directly, so that it does not need to be registered as a listener of each child
+            ((AbstractModel) model).childChanged(this, eventSuffix == null || eventSuffix.isEmpty() ? null : eventSuffix,
+                    oldValue, newValue);
+        }
+        if (pcs == null) {
+            return;
+        }
+
         String eventName;
 
         if (propertyInfo != null) {
             if (eventSuffix == null || eventSuffix.isEmpty()) {
                 eventName = propertyInfo.getName();
             } else {
-                eventName = String.format("%s-%s", propertyInfo.getName(), eventSuffix);
+                eventName = propertyInfo.getName() + "-" + eventSuffix;
             }
         } else {
             eventName = "property value change";
@@ -152,4 +192,69 @@ public abstract class AbstractProperty implements Property {
     public PropertyType getPropertyType() {
         return type;
     }
+
+    @Override
+    public boolean isValid() {
+        return getValidationError() == null;
+    }
+
+    @Override
+    public ValidationError getValidationError() {
+        if (!validationCached) {
+            validationError = validate();
+            validationCached = true;
+        }
+        return validationError;
+    }
+
+    @Override
+    public PropertySnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = createSnapshot();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Records an operation which reverts a change of this property, so that the change can be reverted if active
+     * {@link ModelTransaction} is rolled back. If there is no active transaction, this method does nothing.
+     *
+     * @param undo operation which reverts the change
+     */
+    protected void recordUndo(Runnable undo) {
+        ModelTransaction.recordUndo(undo);
+    }
+
+    /**
+     * Validates the property. This method is called only if there is no cached validation result.
+     *
+     * @return validation error or null if the property is valid.
+     */
+    protected abstract ValidationError validate();
+
+    /**
+     * Creates immutable snapshot of the property. This method is called only if there is no cached snapshot.
+     *
+     * @return snapshot of the current state of the property
+     */
+    protected abstract PropertySnapshot createSnapshot();
+
+    /**
+     * Invalidates cached validation result and snapshot. If there was a cached state, then cached state of the owning
+     * model is invalidated as well and listeners are notified by {@link #CACHE_INVALIDATED_EVENT}. If there was no cached
+     * state, then the model and listeners have already been notified.
+     */
+    protected void invalidateCachedState() {
+        if (validationCached || snapshot != null) {
+            validationCached = false;
+            validationError = null;
+            snapshot = null;
+            if (model instanceof AbstractModel) {
+                ((AbstractModel) model).invalidateCachedState();
+            }
+            if (pcs != null) {
+                pcs.firePropertyChange(CACHE_INVALIDATED_EVENT, this, null);
+            }
+        }
+    }
 }
@@ -23,12 +23,15 @@ package org.perfcake.ide.core.model;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import org.perfcake.ide.core.components.ComponentLoader;
 import org.perfcake.ide.core.components.PerfCakeComponent;
 import org.perfcake.ide.core.docs.DocsService;
 import org.perfcake.ide.core.exception.ImplementationNotFoundException;
 import org.perfcake.ide.core.exception.PropertyLimitException;
 import org.perfcake.ide.core.exception.UnsupportedPropertyException;
+import org.perfcake.ide.core.model.listeners.ModelEventBus;
 import org.perfcake.ide.core.model.listeners.ModelListener;
+import org.perfcake.ide.core.model.snapshot.ModelSnapshot;
 import org.perfcake.ide.core.model.visitor.ModelVisitor;
 
 /**
@@ -43,6 +46,14 @@ public interface Model extends Property {
      */
     Set<PropertyInfo> getSupportedProperties();
 
+    /**
+     * Gets supported properties as a list in the order in which they became supported. The list may be traversed by
+     * index, which is useful on hot paths (e.g. validation) where no iterator should be allocated.
+     *
+     * @return Unmodifiable list of supported properties
+     */
+    List<PropertyInfo> getSupportedPropertyList();
+
     /**
      * @return Unmodifiable set of properties which are supported by this model because of current implementation.
      */
@@ -87,6 +98,38 @@ public interface Model extends Property {
      */
     boolean removeProperty(PropertyInfo propertyInfo, Property property) throws PropertyLimitException, UnsupportedPropertyException;
 
+    /**
+     * Inserts property into the model at given position among the properties of the same type.
+     *
+     * @param propertyInfo metadata about type of the property to be added
+     * @param index        position of the property
+     * @param property     Property to be added
+     * @throws PropertyLimitException       If the maximum number of properties for given type are present in the model.
+     * @throws UnsupportedPropertyException If the property is not supported by this model.
+     */
+    void addProperty(PropertyInfo propertyInfo, int index, Property property) throws PropertyLimitException, UnsupportedPropertyException;
+
+    /**
+     * Moves property to another position among the properties of the same type.
+     *
+     * @param propertyInfo metadata about type of the property to be moved
+     * @param property     the property to be moved
+     * @param index        position of the property after the move
+     * @throws UnsupportedPropertyException If the property is not supported by this model.
+     */
+    void moveProperty(PropertyInfo propertyInfo, Property property, int index) throws UnsupportedPropertyException;
+
+    /**
+     * Replaces property with another one. Unlike removal followed by addition, replacement is possible even if the number
+     * of properties of given type is at its minimum or maximum.
+     *
+     * @param propertyInfo metadata about type of the property to be replaced
+     * @param oldProperty  the property to be replaced
+     * @param newProperty  new property
+     * @throws UnsupportedPropertyException If the property is not supported by this model.
+     */
+    void replaceProperty(PropertyInfo propertyInfo, Property oldProperty, Property newProperty) throws UnsupportedPropertyException;
+
     /**
      * Gets an iterator for properties of given type.
      *
@@ -151,7 +194,16 @@ public interface Model extends Property {
     DocsService getDocsService();
 
     /**
-     * Adds a listener to the model.
+     * @return Loader of implementation classes of this model and its submodels.
+     */
+    ComponentLoader getComponentLoader();
+
+    /**
+     * Adds a listener to the model. Listener is notified about changes of the model and of all its submodels. Changes made
+     * in a {@link ModelTransaction} are delivered as single {@link org.perfcake.ide.core.model.listeners.ModelChangeSetEvent}.
+     * In order to be notified only about changes of the model itself, subscribe
+     * {@link org.perfcake.ide.core.model.listeners.ModelListenerAdapter} to the {@link #getEventBus() event bus} with
+     * {@link ModelEventBus.Scope#NODE} scope.
      *
      * @param listener listener to be added.
      */
@@ -164,6 +216,14 @@ public interface Model extends Property {
      */
     void removeModelListener(ModelListener listener);
 
+    /**
+     * Gets event bus of the model. Bus enables to subscribe for changes of the model or for changes of the whole subtree
+     * of the model.
+     *
+     * @return event bus of the model
+     */
+    ModelEventBus getEventBus();
+
     /**
      * @return return kind of PerfCake component which is represented by this model.
      */
@@ -183,4 +243,7 @@ public interface Model extends Property {
      * @throws ImplementationNotFoundException if implementation cannot cannot be found.
      */
     void updateImplementation(String clazz) throws ImplementationNotFoundException;
+
+    @Override
+    ModelSnapshot snapshot();
 }
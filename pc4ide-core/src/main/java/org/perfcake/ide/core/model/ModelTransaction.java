@@ -0,0 +1,263 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.perfcake.ide.core.model.listeners.ModelChangeSetEvent;
+import org.perfcake.ide.core.model.listeners.ModelEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Model transaction groups multiple model mutations. While a transaction is active, model listeners are not notified about
+ * individual changes. When the transaction is committed, every subscriber is notified at most once: listeners of every
+ * changed model receive single {@link ModelChangeSetEvent} which contains all changes of the model and subtree
+ * subscribers receive single change set which contains all changes in their subtree (subscribers of the model event bus
+ * receive {@link org.perfcake.ide.core.model.listeners.ModelEventType#CHANGE_SET} event). So a subtree subscriber of the
+ * root receives exactly one change set, no matter how many models have been changed. When the transaction is rolled back,
+ * all changes made during the transaction are reverted and listeners are not notified at all.
+ *
+ * <p>Transaction is bound to the thread which began it, in the same way as the model is confined to a single thread.
+ * If a transaction is begun while another one is active, it joins the active one: its commit does nothing and events are
+ * emitted when the outermost transaction commits. Rollback of a nested transaction rolls back the whole transaction. Model
+ * cannot be modified after that until the outermost transaction ends: every modification is reverted immediately and
+ * it throws {@link IllegalStateException}.</p>
+ *
+ * <p>Transaction is meant to be used in try-with-resources block. If it is not committed, it is rolled back on close:</p>
+ * <pre>
+ * try (ModelTransaction transaction = ModelTransaction.begin()) {
+ *     model.addProperty(...);
+ *     model.addProperty(...);
+ *     transaction.commit();
+ * }
+ * </pre>
+ *
+ * @author Jakub Knetl
+ */
+public final class ModelTransaction implements AutoCloseable {
+
+    static final Logger logger = LoggerFactory.getLogger(ModelTransaction.class);
+
+    private static final ThreadLocal<Context> CURRENT = new ThreadLocal<>();
+
+    private enum State {
+        ACTIVE, COMMITTED, ROLLED_BACK
+    }
+
+    private final Context context;
+    private State state;
+
+    private ModelTransaction(Context context) {
+        this.context = context;
+        this.state = State.ACTIVE;
+    }
+
+    /**
+     * Begins new transaction. If there is an active transaction in current thread, new transaction joins it.
+     *
+     * @return new transaction
+     */
+    public static ModelTransaction begin() {
+        Context context = CURRENT.get();
+        if (context == null) {
+            context = new Context();
+            CURRENT.set(context);
+        }
+        context.depth++;
+        return new ModelTransaction(context);
+    }
+
+    /**
+     * @return true if there is an active transaction in current thread.
+     */
+    public static boolean isInTransaction() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * @return true if this transaction has been neither committed nor rolled back.
+     */
+    public boolean isActive() {
+        return state == State.ACTIVE;
+    }
+
+    /**
+     * Commits the transaction. If this is the outermost transaction, then change set events are fired to model listeners.
+     *
+     * @throws IllegalStateException if the transaction is not active, or if it was rolled back by a nested transaction.
+     */
+    public void commit() {
+        checkActive();
+        state = State.COMMITTED;
+
+        context.depth--;
+        final boolean outermost = context.depth == 0;
+        if (outermost) {
+            CURRENT.remove();
+        }
+
+        if (context.rolledBack) {
+            throw new IllegalStateException("Transaction has been rolled back by a nested transaction.");
+        }
+        if (!outermost) {
+            return;
+        }
+
+        // own changes of each model and changes of its subtree, models are ordered by their first change
+        Map<AbstractModel, List<ModelEvent>> modelEvents = new IdentityHashMap<>();
+        Map<AbstractModel, List<ModelEvent>> subtreeEvents = new IdentityHashMap<>();
+        List<AbstractModel> changedSubtrees = new ArrayList<>();
+        for (ModelEvent event : context.events) {
+            AbstractModel model = (AbstractModel) event.getModel();
+            modelEvents.computeIfAbsent(model, key -> new ArrayList<>()).add(event);
+            for (AbstractModel m = model; m != null; m = m.getParentModel()) {
+                List<ModelEvent> events = subtreeEvents.get(m);
+                if (events == null) {
+                    events = new ArrayList<>();
+                    subtreeEvents.put(m, events);
+                    changedSubtrees.add(m);
+                }
+                events.add(event);
+            }
+        }
+
+        for (AbstractModel model : changedSubtrees) {
+            model.publishChangeSet(modelEvents.get(model), subtreeEvents.get(model));
+        }
+    }
+
+    /**
+     * Rolls back the whole transaction (including outer transactions). All changes made during the transaction are
+     * reverted and no events are fired to model listeners.
+     *
+     * @throws IllegalStateException if the transaction is not active.
+     */
+    public void rollback() {
+        checkActive();
+        state = State.ROLLED_BACK;
+
+        if (!context.rolledBack) {
+            context.rolledBack = true;
+            context.rollingBack = true;
+            try {
+                for (int i = context.undoLog.size() - 1; i >= 0; i--) {
+                    try {
+                        context.undoLog.get(i).run();
+                    } catch (RuntimeException e) {
+                        logger.warn("Cannot revert model change.", e);
+                    }
+                }
+            } finally {
+                context.rollingBack = false;
+                context.undoLog.clear();
+                context.events.clear();
+            }
+        }
+
+        context.depth--;
+        if (context.depth == 0) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Rolls back the transaction if it is still active.
+     */
+    @Override
+    public void close() {
+        if (isActive()) {
+            rollback();
+        }
+    }
+
+    private void checkActive() {
+        if (state != State.ACTIVE) {
+            throw new IllegalStateException("Transaction is not active.");
+        }
+    }
+
+    /**
+     * Records event which should be fired to model listeners.
+     *
+     * @param model model whose listeners should be notified
+     * @param event event
+     * @return true if the event was recorded (or discarded during rollback) and it must not be fired now.
+     */
+    static boolean recordEvent(AbstractModel model, ModelEvent event) {
+        Context context = CURRENT.get();
+        if (context == null) {
+            return false;
+        }
+        if (context.rollingBack || context.rolledBack) {
+            return true;
+        }
+
+        context.events.add(event);
+        return true;
+    }
+
+    /**
+     * Records an operation which reverts a model change. It is executed if the transaction is rolled back. Every model
+     * change records its undo operation, so if the transaction has already been rolled back by a nested transaction, the
+     * change is reverted immediately.
+     *
+     * @param undo operation which reverts the change
+     * @throws IllegalStateException if the transaction has been rolled back by a nested transaction
+     */
+    static void recordUndo(Runnable undo) {
+        Context context = CURRENT.get();
+        if (context == null || context.rollingBack) {
+            return;
+        }
+        if (context.rolledBack) {
+            context.rollingBack = true;
+            try {
+                undo.run();
+            } finally {
+                context.rollingBack = false;
+            }
+            throw new IllegalStateException("Transaction has been rolled back by a nested transaction. Model cannot be modified.");
+        }
+        context.undoLog.add(undo);
+    }
+
+    /**
+     * @return true if a transaction in current thread is being rolled back.
+     */
+    static boolean isRollingBack() {
+        Context context = CURRENT.get();
+        return context != null && context.rollingBack;
+    }
+
+    /**
+     * State shared by the outermost transaction and all nested transactions.
+     */
+    private static class Context {
+        private int depth;
+        private boolean rollingBack;
+        private boolean rolledBack;
+        private final List<Runnable> undoLog = new ArrayList<>();
+        private final List<ModelEvent> events = new ArrayList<>();
+    }
+}
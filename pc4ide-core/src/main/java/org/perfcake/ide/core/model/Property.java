@@ -22,6 +22,7 @@ package org.perfcake.ide.core.model;
 
 import org.perfcake.ide.core.exception.UnsupportedPropertyException;
 import org.perfcake.ide.core.model.listeners.PropertyListener;
+import org.perfcake.ide.core.model.snapshot.PropertySnapshot;
 import org.perfcake.ide.core.model.validation.error.ValidationError;
 
 /**
@@ -97,4 +98,13 @@ public interface Property {
      * @param listener listener to be removed
      */
     void removePropertyListener(PropertyListener listener);
+
+    /**
+     * Returns immutable snapshot of current state of this property. Snapshot is cached until the property changes, so
+     * subsequent calls are cheap and unchanged parts of the model are shared between snapshots. This method must be
+     * called from the thread which modifies the model; the snapshot itself may be used from any thread.
+     *
+     * @return immutable snapshot of the property
+     */
+    PropertySnapshot snapshot();
 }
@@ -44,6 +44,16 @@ public interface PropertyContainer extends Iterable<Property> {
      */
     void addProperty(Property property) throws PropertyLimitException, UnsupportedPropertyException;
 
+    /**
+     * Inserts new property into the container at given position.
+     *
+     * @param index    position of the property
+     * @param property property to be added
+     * @throws PropertyLimitException       if you try to add a property which has maximum number of occurrences used already.
+     * @throws UnsupportedPropertyException If the property is not supported by this container.
+     */
+    void addProperty(int index, Property property) throws PropertyLimitException, UnsupportedPropertyException;
+
     /**
      * Removes a property from the container.
      *
@@ -54,6 +64,33 @@ public interface PropertyContainer extends Iterable<Property> {
     boolean removeProperty(Property property)
             throws PropertyLimitException;
 
+    /**
+     * Inserts a property at given position without checking number of occurrences. This method is meant for restoring
+     * previous content of the container, e.g. when a {@link ModelTransaction} is rolled back.
+     *
+     * @param index    position of the property
+     * @param property property to be inserted
+     */
+    void restoreProperty(int index, Property property);
+
+    /**
+     * Removes a property without checking number of occurrences. This method is meant for restoring previous content of
+     * the container, e.g. when a {@link ModelTransaction} is rolled back. Properties are compared by identity.
+     *
+     * @param property property to be removed
+     * @return position of the removed property or -1 if the property is not in the container.
+     */
+    int discardProperty(Property property);
+
+    /**
+     * Moves a property to another position within the container. Properties are compared by identity.
+     *
+     * @param property property to be moved
+     * @param index    position of the property after the move
+     * @return original position of the property or -1 if the property is not in the container.
+     */
+    int moveProperty(Property property, int index);
+
     /**
      * Lists properties which are contained in this container.
      *
@@ -51,6 +51,11 @@ public class PropertyContainerImpl implements PropertyContainer {
      */
     private List<Property> properties;
 
+    /**
+     * Unmodifiable view of the properties. It is created once, since the view reflects changes of the properties.
+     */
+    private List<Property> propertiesView;
+
     @Override
     public Iterator<Property> iterator() {
         return new PropertyIterator();
@@ -87,6 +92,7 @@ public class PropertyContainerImpl implements PropertyContainer {
         this.propertyInfo = propertyInfo;
         this.model = model;
         properties = new ArrayList<>();
+        propertiesView = Collections.unmodifiableList(properties);
     }
 
 
@@ -99,6 +105,14 @@ public class PropertyContainerImpl implements PropertyContainer {
      */
     @Override
     public void addProperty(Property property) throws PropertyLimitException, UnsupportedPropertyException {
+        addProperty(properties.size(), property);
+    }
+
+    @Override
+    public void addProperty(int index, Property property) throws PropertyLimitException, UnsupportedPropertyException {
+        if (index < 0 || index > properties.size()) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, size: %d", index, properties.size()));
+        }
         if (property == null) {
             throw new IllegalArgumentException("property must not be null");
         }
@@ -116,7 +130,7 @@ public class PropertyContainerImpl implements PropertyContainer {
 
         property.setModel(model);
         property.setPropertyInfo(propertyInfo);
-        properties.add(property);
+        properties.add(index, property);
     }
 
     @Override
@@ -133,9 +147,20 @@ public class PropertyContainerImpl implements PropertyContainer {
             throw new PropertyLimitException("Property limit decreased under minimum value.");
         }
 
-        boolean removed = properties.remove(property);
+        // prefer the same instance, so that the right property is removed if there are more equal properties
+        int index = -1;
+        for (int i = 0; i < properties.size() && index < 0; i++) {
+            if (properties.get(i) == property) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            index = properties.indexOf(property);
+        }
 
+        boolean removed = index >= 0;
         if (removed) {
+            properties.remove(index);
             property.setModel(null);
             property.setPropertyInfo(null);
 
@@ -143,9 +168,47 @@ public class PropertyContainerImpl implements PropertyContainer {
         return removed;
     }
 
+    @Override
+    public void restoreProperty(int index, Property property) {
+        if (property == null) {
+            throw new IllegalArgumentException("property must not be null");
+        }
+        property.setModel(model);
+        property.setPropertyInfo(propertyInfo);
+        properties.add(Math.min(index, properties.size()), property);
+    }
+
+    @Override
+    public int discardProperty(Property property) {
+        for (int i = 0; i < properties.size(); i++) {
+            if (properties.get(i) == property) {
+                properties.remove(i);
+                property.setModel(null);
+                property.setPropertyInfo(null);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int moveProperty(Property property, int index) {
+        for (int i = 0; i < properties.size(); i++) {
+            if (properties.get(i) == property) {
+                if (index < 0 || index >= properties.size()) {
+                    throw new IndexOutOfBoundsException(String.format("Index: %d, size: %d", index, properties.size()));
+                }
+                properties.remove(i);
+                properties.add(index, property);
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public List<Property> getProperties() {
-        return Collections.unmodifiableList(properties);
+        return propertiesView;
     }
 
     @Override
@@ -21,7 +21,6 @@
 package org.perfcake.ide.core.model;
 
 import java.util.Objects;
-import org.perfcake.ide.core.components.ComponentLoaderImpl;
 import org.perfcake.ide.core.components.PerfCakeComponent;
 import org.perfcake.ide.core.docs.DocsService;
 import org.perfcake.ide.core.exception.ModelException;
@@ -29,7 +28,6 @@ import org.perfcake.ide.core.model.properties.DataType;
 import org.perfcake.ide.core.model.properties.KeyValue;
 import org.perfcake.ide.core.model.properties.Value;
 import org.perfcake.ide.core.model.validation.Validator;
-import org.perfcake.ide.core.model.validation.Validators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +36,9 @@ import org.slf4j.LoggerFactory;
  *
  * <p>Use on of the static factory methods in order to instantiate this class.</p>
  *
+ * <p>Property info consists of a {@link PropertySchema}, which is shared by all models of the same component (or
+ * implementation), and of the model which owns the property.</p>
+ *
  * @author Jakub Knetl
  */
 public class PropertyInfo {
@@ -45,113 +46,46 @@ public class PropertyInfo {
     static final Logger logger = LoggerFactory.getLogger(PropertyInfo.class);
 
     /**
-     * Name of the property.
-     */
-    private String name;
-
-    /**
-     * Name of the property to be displayed in UI. If this value is null, then name field is used.
+     * Shared description of the property.
      */
-    private String displayName;
+    private final PropertySchema schema;
 
     /**
      * Model to which property described by this propertyInfo instance belongs.
      */
-    private Model model;
-
-    /**
-     * Represent which model is used in order to represent this property.
-     */
-    private PropertyType type;
-
-    /**
-     * Data type of a key (applicable only if this {@link PropertyType} is KEY_VALUE).
-     */
-    private DataType keyDataType;
-
-    /**
-     * Data type of a value (applicable for all {@link PropertyType}s).
-     */
-    private DataType valueDataType;
-
-    /**
-     * Which component is represented by this property (applicable only in case that type == PropertyType.Model)
-     */
-    private PerfCakeComponent perfCakeComponent;
-
-    /**
-     * Default value of the property.
-     */
-    private Object defaultValue;
-
-    /**
-     * Minimum number of required occurrences of this property.
-     */
-    private int minOccurs;
-
-    /**
-     * Maximum number of occurrences of this property. Set to -1 for unlimited.
-     */
-    private int maxOccurs;
-
-    /**
-     * Validator of the key.
-     */
-    private Validator keyValidator;
-
-    /**
-     * Validator of the value.
-     */
-    private Validator valueValidator;
-
-    private PropertyInfo(String name, Model model, PropertyType type, int minOccurs, int maxOccurs, DataType valueDataType) {
+    private final Model model;
 
-        if (name == null) {
-            throw new IllegalArgumentException("Name cannot be null.");
-        }
-        if (name.isEmpty()) {
-            throw new IllegalArgumentException("Name cannot be empty.");
-        }
+    private PropertyInfo(PropertySchema schema, Model model) {
         if (model == null) {
             throw new IllegalArgumentException("Model cannot be null.");
         }
-
-        if (minOccurs < 0) {
-            throw new IllegalArgumentException("Minimum number of occurences must be positive.");
-        }
-
-        if (maxOccurs >= 0 && minOccurs > maxOccurs) {
-            throw new IllegalArgumentException("If maximum occurs is not unlimeted, then it must not be lower than minimum"
-                    + " number of occurences.");
-        }
-
-        if (valueDataType == null) {
-            throw new IllegalArgumentException("Value data type cannot be null.");
-        }
-        this.name = name;
+        this.schema = schema;
         this.model = model;
-        this.type = type;
-        this.minOccurs = minOccurs;
-        this.maxOccurs = maxOccurs;
-        this.valueDataType = valueDataType;
+    }
+
+    /**
+     * @return Shared schema of the property.
+     */
+    public PropertySchema getSchema() {
+        return schema;
     }
 
     /**
      * @return Property name.
      */
     public String getName() {
-        return name;
+        return schema.getName();
     }
 
     public PropertyType getType() {
-        return type;
+        return schema.getType();
     }
 
     /**
      * @return PerfCake component represented by this metadata, or null if {@link #getType()} is not a model.
      */
     public PerfCakeComponent getPerfCakeComponent() {
-        return perfCakeComponent;
+        return schema.getPerfCakeComponent();
     }
 
     /**
@@ -165,6 +99,7 @@ public class PropertyInfo {
             throw new IllegalArgumentException("DefaultValueClazz cannot be null.");
         }
 
+        Property defaultValue = schema.getDefaultValue();
         T result = null;
         try {
             result = type.cast(defaultValue);
@@ -180,8 +115,9 @@ public class PropertyInfo {
      * @return returns name to be displayed in the UI.
      */
     public String getDisplayName() {
+        String displayName = schema.getDisplayName();
         if (displayName == null || displayName.isEmpty()) {
-            return name;
+            return schema.getName();
         } else {
             return displayName;
         }
@@ -197,7 +133,7 @@ public class PropertyInfo {
     public String getDocs() {
         DocsService docsService = model.getDocsService();
         String docs;
-        if (type == PropertyType.MODEL) {
+        if (schema.getType() == PropertyType.MODEL) {
             docs = docsService.getDocs(model.getComponent().getApi());
         } else {
 
@@ -206,7 +142,7 @@ public class PropertyInfo {
             if (model.getSupportedProperty(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY) != null
                     && !model.getProperties(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY).isEmpty()) {
                 Value implName = model.getSingleProperty(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY, Value.class);
-                clazz = new ComponentLoaderImpl().loadComponent(implName.getValue(), model.getComponent());
+                clazz = model.getComponentLoader().loadComponent(implName.getValue(), model.getComponent());
             }
 
             if (clazz == null) {
@@ -214,7 +150,7 @@ public class PropertyInfo {
                 clazz = model.getComponent().getApi();
             }
 
-            docs = model.getDocsService().getFieldDocs(clazz, name);
+            docs = model.getDocsService().getFieldDocs(clazz, schema.getName());
         }
         return docs;
     }
@@ -223,30 +159,30 @@ public class PropertyInfo {
      * @return Minimum number of occurrences of this property.
      */
     public int getMinOccurs() {
-        return minOccurs;
+        return schema.getMinOccurs();
     }
 
     /**
      * @return Maximum number of occurrences of this property. -1 means unlimited.
      */
     public int getMaxOccurs() {
-        return maxOccurs;
+        return schema.getMaxOccurs();
     }
 
     public DataType getKeyDataType() {
-        return keyDataType;
+        return schema.getKeyDataType();
     }
 
     public DataType getValueDataType() {
-        return valueDataType;
+        return schema.getValueDataType();
     }
 
     public Validator getKeyValidator() {
-        return keyValidator;
+        return schema.getKeyValidator();
     }
 
     public Validator getValueValidator() {
-        return valueValidator;
+        return schema.getValueValidator();
     }
 
     /**
@@ -259,9 +195,7 @@ public class PropertyInfo {
      * @return property info
      */
     public static PropertyInfo createValueInfo(String name, Model model, int minOccurs, int maxOccurs) {
-        PropertyInfo info = new PropertyInfo(name, model, PropertyType.VALUE, minOccurs, maxOccurs, DataType.STRING);
-        initValidators(info);
-        return info;
+        return createValueInfo(name, null, model, minOccurs, maxOccurs, null, null);
     }
 
     /**
@@ -278,14 +212,9 @@ public class PropertyInfo {
      */
     public static PropertyInfo createValueInfo(String name, String displayName, Model model, int minOccurs, int maxOccurs,
                                                DataType valueDataType, Value defaultValue) {
-        PropertyInfo info = createValueInfo(name, model, minOccurs, maxOccurs);
-        if (valueDataType != null) {
-            info.valueDataType = valueDataType;
-        }
-        info.defaultValue = defaultValue;
-        info.displayName = displayName;
-        initValidators(info);
-        return info;
+        PropertySchema schema = PropertySchema.of(name, displayName, PropertyType.VALUE, null, null,
+                valueDataType == null ? DataType.STRING : valueDataType, defaultValue, minOccurs, maxOccurs);
+        return new PropertyInfo(schema, model);
     }
 
     /**
@@ -298,11 +227,7 @@ public class PropertyInfo {
      * @return property info
      */
     public static PropertyInfo createKeyValueInfo(String name, Model model, int minOccurs, int maxOccurs) {
-        PropertyInfo info = new PropertyInfo(name, model, PropertyType.KEY_VALUE, minOccurs, maxOccurs, DataType.STRING);
-        info.valueDataType = DataType.STRING;
-        info.keyDataType = DataType.STRING;
-        initValidators(info);
-        return info;
+        return createKeyValueInfo(name, null, model, minOccurs, maxOccurs, null, null, null);
     }
 
     /**
@@ -320,18 +245,10 @@ public class PropertyInfo {
      */
     public static PropertyInfo createKeyValueInfo(String name, String displayName, Model model, int minOccurs, int maxOccurs,
                                                   DataType keyDataType, DataType valueDataType, KeyValue defaultValue) {
-        PropertyInfo info = createKeyValueInfo(name, model, minOccurs, maxOccurs);
-        if (valueDataType != null) {
-            info.valueDataType = valueDataType;
-        }
-        if (keyDataType != null) {
-            info.keyDataType = keyDataType;
-        }
-
-        info.displayName = displayName;
-        info.defaultValue = defaultValue;
-        initValidators(info);
-        return info;
+        PropertySchema schema = PropertySchema.of(name, displayName, PropertyType.KEY_VALUE, null,
+                keyDataType == null ? DataType.STRING : keyDataType, valueDataType == null ? DataType.STRING : valueDataType,
+                defaultValue, minOccurs, maxOccurs);
+        return new PropertyInfo(schema, model);
     }
 
     /**
@@ -345,15 +262,7 @@ public class PropertyInfo {
      * @return property info
      */
     public static PropertyInfo createModelInfo(String name, Model model, PerfCakeComponent component, int minOccurs, int maxOccurs) {
-        PropertyInfo info = new PropertyInfo(name, model, PropertyType.MODEL, minOccurs, maxOccurs, DataType.MODEL);
-        if (component == null) {
-            throw new IllegalArgumentException("Component cannot be null.");
-        }
-
-        info.perfCakeComponent = component;
-
-        initValidators(info);
-        return info;
+        return createModelInfo(name, null, model, component, minOccurs, maxOccurs);
     }
 
 
@@ -370,21 +279,12 @@ public class PropertyInfo {
      */
     public static PropertyInfo createModelInfo(String name, String displayName, Model model, PerfCakeComponent component,
                                                int minOccurs, int maxOccurs) {
-        PropertyInfo info = createModelInfo(name, model, component, minOccurs, maxOccurs);
-
-        info.displayName = displayName;
-
-        initValidators(info);
-        return info;
-    }
-
-    private static void initValidators(PropertyInfo info) {
-        if (info.keyDataType != null) {
-            info.keyValidator = Validators.createValidator(info.keyDataType);
-        }
-        if (info.valueDataType != null) {
-            info.valueValidator = Validators.createValidator(info.valueDataType);
+        if (component == null) {
+            throw new IllegalArgumentException("Component cannot be null.");
         }
+        PropertySchema schema = PropertySchema.of(name, displayName, PropertyType.MODEL, component, null, DataType.MODEL,
+                null, minOccurs, maxOccurs);
+        return new PropertyInfo(schema, model);
     }
 
     @Override
@@ -396,33 +296,28 @@ public class PropertyInfo {
             return false;
         }
         PropertyInfo that = (PropertyInfo) o;
-        return minOccurs == that.minOccurs
-                && maxOccurs == that.maxOccurs
-                && Objects.equals(name, that.name)
-                && Objects.equals(model, that.model)
-                && type == that.type
-                && keyDataType == that.keyDataType
-                && valueDataType == that.valueDataType
-                && Objects.equals(defaultValue, that.defaultValue);
+        return Objects.equals(schema, that.schema)
+                && Objects.equals(model, that.model);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, model, type, keyDataType, valueDataType, defaultValue, minOccurs, maxOccurs);
+        // computed without varargs array, since the info is used as a key in hash maps of the models
+        return 31 * schema.hashCode() + Objects.hashCode(model);
     }
 
     @Override
     public String toString() {
         return "PropertyInfo{"
-                + "name='" + name + '\''
-                + ", displayName='" + displayName + '\''
+                + "name='" + schema.getName() + '\''
+                + ", displayName='" + schema.getDisplayName() + '\''
                 + ", model=" + model
-                + ", type=" + type
-                + ", keyDataType=" + keyDataType
-                + ", valueDataType=" + valueDataType
-                + ", defaultValue=" + defaultValue
-                + ", minOccurs=" + minOccurs
-                + ", maxOccurs=" + maxOccurs
+                + ", type=" + schema.getType()
+                + ", keyDataType=" + schema.getKeyDataType()
+                + ", valueDataType=" + schema.getValueDataType()
+                + ", defaultValue=" + schema.getDefaultValue()
+                + ", minOccurs=" + schema.getMinOccurs()
+                + ", maxOccurs=" + schema.getMaxOccurs()
                 + '}';
     }
 }
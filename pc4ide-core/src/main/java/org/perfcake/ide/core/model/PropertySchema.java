@@ -0,0 +1,223 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.perfcake.ide.core.model.properties.DataType;
+import org.perfcake.ide.core.model.validation.Validator;
+import org.perfcake.ide.core.model.validation.Validators;
+
+/**
+ * Immutable description of a property, which does not depend on a particular model instance. Schemas are shared: all
+ * {@link PropertyInfo}s which describe the same property of the same component (or of the same implementation) reference
+ * single schema instance, including its validators. Per-instance state (the model which owns the property) is kept in
+ * {@link PropertyInfo}.
+ *
+ * <p>Default value of the schema is shared as well, so it must not be modified.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class PropertySchema {
+
+    /**
+     * Schemas which are in use. Number of schemas is bounded by number of distinct properties of components and their
+     * implementations.
+     */
+    private static final ConcurrentMap<PropertySchema, PropertySchema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final String displayName;
+    private final PropertyType type;
+    private final PerfCakeComponent perfCakeComponent;
+    private final DataType keyDataType;
+    private final DataType valueDataType;
+    private final Property defaultValue;
+    private final int minOccurs;
+    private final int maxOccurs;
+    private final int hash;
+
+    // validators are created only for schemas which are not shared yet and they are published safely by SCHEMAS map
+    private Validator keyValidator;
+    private Validator valueValidator;
+
+    private PropertySchema(String name, String displayName, PropertyType type, PerfCakeComponent perfCakeComponent,
+                           DataType keyDataType, DataType valueDataType, Property defaultValue, int minOccurs, int maxOccurs) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null.");
+        }
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be empty.");
+        }
+
+        if (minOccurs < 0) {
+            throw new IllegalArgumentException("Minimum number of occurences must be positive.");
+        }
+
+        if (maxOccurs >= 0 && minOccurs > maxOccurs) {
+            throw new IllegalArgumentException("If maximum occurs is not unlimeted, then it must not be lower than minimum"
+                    + " number of occurences.");
+        }
+
+        if (valueDataType == null) {
+            throw new IllegalArgumentException("Value data type cannot be null.");
+        }
+
+        this.name = name;
+        this.displayName = displayName;
+        this.type = type;
+        this.perfCakeComponent = perfCakeComponent;
+        this.keyDataType = keyDataType;
+        this.valueDataType = valueDataType;
+        this.defaultValue = defaultValue;
+        this.minOccurs = minOccurs;
+        this.maxOccurs = maxOccurs;
+        this.hash = Objects.hash(name, displayName, type, perfCakeComponent, keyDataType, valueDataType, defaultValue,
+                minOccurs, maxOccurs);
+    }
+
+    /**
+     * Returns shared schema with given attributes. If there is no such schema yet, then new schema is created.
+     *
+     * @param name              name of the property
+     * @param displayName       display name of the property (optional)
+     * @param type              type of the property
+     * @param perfCakeComponent component represented by the property (only for model properties)
+     * @param keyDataType       data type of the key (only for key-value properties)
+     * @param valueDataType     data type of the value
+     * @param defaultValue      default value (optional)
+     * @param minOccurs         minimum number of occurrences of the property
+     * @param maxOccurs         maximum number of occurrences of the property. Use -1 for unlimited.
+     * @return shared schema
+     */
+    static PropertySchema of(String name, String displayName, PropertyType type, PerfCakeComponent perfCakeComponent,
+                             DataType keyDataType, DataType valueDataType, Property defaultValue, int minOccurs, int maxOccurs) {
+        PropertySchema candidate = new PropertySchema(name, displayName, type, perfCakeComponent, keyDataType, valueDataType,
+                defaultValue, minOccurs, maxOccurs);
+
+        PropertySchema schema = SCHEMAS.get(candidate);
+        if (schema == null) {
+            if (keyDataType != null) {
+                candidate.keyValidator = Validators.getValidator(keyDataType);
+            }
+            candidate.valueValidator = Validators.getValidator(valueDataType);
+
+            schema = SCHEMAS.putIfAbsent(candidate, candidate);
+            if (schema == null) {
+                schema = candidate;
+            }
+        }
+        return schema;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return display name or null, if the property has no display name.
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public PropertyType getType() {
+        return type;
+    }
+
+    public PerfCakeComponent getPerfCakeComponent() {
+        return perfCakeComponent;
+    }
+
+    public DataType getKeyDataType() {
+        return keyDataType;
+    }
+
+    public DataType getValueDataType() {
+        return valueDataType;
+    }
+
+    /**
+     * @return Shared default value, which must not be modified. Null if there is no default value.
+     */
+    public Property getDefaultValue() {
+        return defaultValue;
+    }
+
+    public int getMinOccurs() {
+        return minOccurs;
+    }
+
+    public int getMaxOccurs() {
+        return maxOccurs;
+    }
+
+    public Validator getKeyValidator() {
+        return keyValidator;
+    }
+
+    public Validator getValueValidator() {
+        return valueValidator;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PropertySchema that = (PropertySchema) o;
+        return hash == that.hash
+                && minOccurs == that.minOccurs
+                && maxOccurs == that.maxOccurs
+                && Objects.equals(name, that.name)
+                && Objects.equals(displayName, that.displayName)
+                && type == that.type
+                && perfCakeComponent == that.perfCakeComponent
+                && keyDataType == that.keyDataType
+                && valueDataType == that.valueDataType
+                && Objects.equals(defaultValue, that.defaultValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertySchema{"
+                + "name='" + name + '\''
+                + ", displayName='" + displayName + '\''
+                + ", type=" + type
+                + ", perfCakeComponent=" + perfCakeComponent
+                + ", keyDataType=" + keyDataType
+                + ", valueDataType=" + valueDataType
+                + ", defaultValue=" + defaultValue
+                + ", minOccurs=" + minOccurs
+                + ", maxOccurs=" + maxOccurs
+                + '}';
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.converter.dsl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.perfcake.ide.core.exception.ModelConversionException;
+
+/**
+ * Block of the dsl scenario definition. Block is a line which describes single element of the scenario together with the
+ * lines of its nested elements (e.g. reporter with its destinations). Blocks are independent of each other, so that a block
+ * can be parsed again without parsing the rest of the definition.
+ *
+ * @author Jakub Knetl
+ */
+final class DslBlock {
+
+    /**
+     * Kind of the block, which is given by the keyword of its first line.
+     */
+    enum Kind {
+        PROPERTIES, RUN, GENERATOR, SENDER, RECEIVER, SEQUENCES, SEQUENCE, REPORTER, VALIDATION, MESSAGE
+    }
+
+    private final Kind kind;
+    private final List<DslLine> lines;
+    private final int startOffset;
+    private final int endOffset;
+    private final int lineNumber;
+    private final int lastLineNumber;
+
+    /**
+     * Creates new block.
+     *
+     * @param kind  kind of the block
+     * @param lines lines of the block, the first one describes the element and the rest describes its nested elements
+     */
+    DslBlock(Kind kind, List<DslLine> lines) {
+        this(kind, lines, lines.get(0).getStartOffset(), lines.get(lines.size() - 1).getEndOffset(), lines.get(0).getLineNumber(),
+                lines.get(lines.size() - 1).getEnd().getLine());
+    }
+
+    private DslBlock(Kind kind, List<DslLine> lines, int startOffset, int endOffset, int lineNumber, int lastLineNumber) {
+        this.kind = kind;
+        this.lines = lines;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.lineNumber = lineNumber;
+        this.lastLineNumber = lastLineNumber;
+    }
+
+    /**
+     * Splits lines of the definition (without scenario line and end line) into blocks.
+     *
+     * @param lines             lines of the definition
+     * @param propertiesAllowed true if the first line may contain scenario properties, i.e. there is no other line between
+     *                          the scenario line and the first line
+     * @return blocks in the order of the definition
+     * @throws ModelConversionException if a line starts with unexpected keyword
+     */
+    static List<DslBlock> split(List<DslLine> lines, boolean propertiesAllowed) throws ModelConversionException {
+        List<DslBlock> blocks = new ArrayList<>();
+
+        int i = 0;
+        while (i < lines.size()) {
+            DslLine line = lines.get(i);
+            DslToken keyword = line.get(0);
+            String name = (keyword.getType() == DslToken.Type.WORD) ? keyword.getText() : "";
+
+            // index after the last line of the block
+            int end = i + 1;
+            Kind kind;
+            switch (name) {
+                case "run":
+                    kind = Kind.RUN;
+                    break;
+                case "generator":
+                    kind = Kind.GENERATOR;
+                    break;
+                case "sender":
+                    kind = Kind.SENDER;
+                    break;
+                case "receiver":
+                    kind = Kind.RECEIVER;
+                    end = skipNested(lines, end, "correlator", 1);
+                    break;
+                case "sequences":
+                    // "sequences" without class is a header of the sequences block
+                    kind = (line.size() > 1) ? Kind.SEQUENCE : Kind.SEQUENCES;
+                    break;
+                case "sequence":
+                    kind = Kind.SEQUENCE;
+                    break;
+                case "reporter":
+                    kind = Kind.REPORTER;
+                    end = skipNested(lines, end, "destination", Integer.MAX_VALUE);
+                    break;
+                case "validation":
+                    kind = Kind.VALIDATION;
+                    end = skipNested(lines, end, "validator", Integer.MAX_VALUE);
+                    break;
+                case "message":
+                    kind = Kind.MESSAGE;
+                    break;
+                default:
+                    // scenario properties are on the line which follows scenario line
+                    if (i == 0 && propertiesAllowed) {
+                        kind = Kind.PROPERTIES;
+                    } else {
+                        throw DslLine.error(keyword, "unexpected " + keyword);
+                    }
+            }
+
+            blocks.add(new DslBlock(kind, new ArrayList<>(lines.subList(i, end))));
+            i = end;
+        }
+
+        return blocks;
+    }
+
+    private static int skipNested(List<DslLine> lines, int index, String keyword, int maxCount) {
+        int end = index;
+        while (end < lines.size() && end - index < maxCount && lines.get(end).startsWith(keyword)) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Creates a copy of this block which is moved in the definition, e.g. because there has been an edit before the block.
+     *
+     * @param offsetDelta number of characters by which the block is moved
+     * @param lineDelta   number of lines by which the block is moved
+     * @return moved block
+     */
+    DslBlock move(int offsetDelta, int lineDelta) {
+        if (offsetDelta == 0 && lineDelta == 0) {
+            return this;
+        }
+        return new DslBlock(kind, lines, startOffset + offsetDelta, endOffset + offsetDelta, lineNumber + lineDelta,
+                lastLineNumber + lineDelta);
+    }
+
+    /**
+     * @param other another block
+     * @return true if both blocks consist of the same tokens, regardless of their position in the definition
+     */
+    boolean hasSameContent(DslBlock other) {
+        if (kind != other.kind || lines.size() != other.lines.size()) {
+            return false;
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            if (!lines.get(i).hasSameTokens(other.lines.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return line which describes the element
+     */
+    DslLine getLine() {
+        return lines.get(0);
+    }
+
+    /**
+     * @return lines of the nested elements
+     */
+    List<DslLine> getNestedLines() {
+        return Collections.unmodifiableList(lines.subList(1, lines.size()));
+    }
+
+    /**
+     * @return index of the first character of the block in the definition
+     */
+    int getStartOffset() {
+        return startOffset;
+    }
+
+    /**
+     * @return index of the line terminator (or end of input) which terminates the last line of the block
+     */
+    int getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * @return number of the first line of the block. Unlike line numbers stored in the tokens, it is valid even if the block
+     *     has been moved.
+     */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return number of the last line of the block
+     */
+    int getLastLineNumber() {
+        return lastLineNumber;
+    }
+}
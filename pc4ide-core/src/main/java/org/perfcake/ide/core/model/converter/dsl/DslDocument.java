@@ -0,0 +1,216 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.converter.dsl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.perfcake.ide.core.exception.ModelConversionException;
+
+/**
+ * Lines of the dsl scenario definition sorted by the scenario elements they describe. Each line is checked only for the
+ * leading keyword here, the rest of the line is parsed by a parser which uses the document. Lines are grouped into
+ * {@link DslBlock}s first, so that the document can be also assembled from blocks of several reads of the definition.
+ *
+ * @author Jakub Knetl
+ */
+final class DslDocument {
+
+    private DslLine scenarioLine;
+    private DslLine endLine;
+    private List<DslBlock> blocks;
+    private DslLine propertiesLine;
+    private DslLine runLine;
+    private DslLine generatorLine;
+    private DslLine senderLine;
+    private DslLine receiverLine;
+    private DslLine correlatorLine;
+    private final List<DslLine> sequenceLines = new ArrayList<>();
+    private final Map<DslLine, List<DslLine>> reporterLines = new LinkedHashMap<>();
+    private DslLine validationLine;
+    private final List<DslLine> validatorLines = new ArrayList<>();
+    private final List<DslLine> messageLines = new ArrayList<>();
+
+    private DslDocument() {
+    }
+
+    /**
+     * Reads dsl scenario definition.
+     *
+     * @param scenario dsl scenario definition
+     * @return document with lines of the definition
+     * @throws ModelConversionException if the definition contains a syntax error
+     */
+    static DslDocument read(String scenario) throws ModelConversionException {
+        List<DslLine> lines = DslLine.readLines(new DslLexer(scenario));
+
+        if (lines.isEmpty()) {
+            throw DslLexer.syntaxError(1, 1, "scenario definition is empty");
+        }
+        DslLine scenarioLine = lines.get(0);
+        if (!scenarioLine.startsWith("scenario")) {
+            throw DslLine.error(scenarioLine.get(0), "\"scenario\" expected");
+        }
+        DslLine endLine = lines.get(lines.size() - 1);
+        if (lines.size() < 2 || !endLine.startsWith("end")) {
+            throw DslLine.error(endLine.getEnd(), "\"end\" expected");
+        }
+        endLine.expectEnd(1);
+
+        DslDocument document = create(scenarioLine, DslBlock.split(lines.subList(1, lines.size() - 1), true));
+        document.endLine = endLine;
+        return document;
+    }
+
+    /**
+     * Creates document from blocks of the definition, which may come from different reads of the definition.
+     *
+     * @param scenarioLine scenario line
+     * @param blocks       blocks between the scenario line and the end line
+     * @return document with lines of the blocks, its end line is not set.
+     * @throws ModelConversionException if the blocks contain duplicate element which may occur only once
+     */
+    static DslDocument create(DslLine scenarioLine, List<DslBlock> blocks) throws ModelConversionException {
+        DslDocument document = new DslDocument();
+        document.scenarioLine = scenarioLine;
+        document.blocks = blocks;
+
+        Map<DslBlock.Kind, DslBlock> singleBlocks = new EnumMap<>(DslBlock.Kind.class);
+        for (DslBlock block : blocks) {
+            DslLine line = block.getLine();
+            switch (block.getKind()) {
+                case PROPERTIES:
+                    document.propertiesLine = line;
+                    break;
+                case RUN:
+                    document.runLine = single(singleBlocks, block);
+                    break;
+                case GENERATOR:
+                    document.generatorLine = single(singleBlocks, block);
+                    break;
+                case SENDER:
+                    document.senderLine = single(singleBlocks, block);
+                    break;
+                case RECEIVER:
+                    document.receiverLine = single(singleBlocks, block);
+                    document.correlatorLine = block.getNestedLines().isEmpty() ? null : block.getNestedLines().get(0);
+                    break;
+                case SEQUENCE:
+                    document.sequenceLines.add(line);
+                    break;
+                case REPORTER:
+                    document.reporterLines.put(line, block.getNestedLines());
+                    break;
+                case VALIDATION:
+                    document.validationLine = single(singleBlocks, block);
+                    document.validatorLines.addAll(block.getNestedLines());
+                    break;
+                case MESSAGE:
+                    document.messageLines.add(line);
+                    break;
+                default:
+                    // header of the sequences does not describe any element
+                    break;
+            }
+        }
+
+        return document;
+    }
+
+    private static DslLine single(Map<DslBlock.Kind, DslBlock> singleBlocks, DslBlock block) throws ModelConversionException {
+        DslBlock previous = singleBlocks.put(block.getKind(), block);
+        if (previous != null) {
+            // line number of the block is used, since line numbers of the tokens are not updated when the block is moved
+            DslToken keyword = block.getLine().get(0);
+            throw DslLexer.syntaxError(block.getLineNumber(), keyword.getColumn(), String.format(
+                    "duplicate %s, previous one is on line %d", keyword, previous.getLineNumber()));
+        }
+        return block.getLine();
+    }
+
+    DslLine getScenarioLine() {
+        return scenarioLine;
+    }
+
+    /**
+     * @return end line, or null if the document has been created from blocks
+     */
+    DslLine getEndLine() {
+        return endLine;
+    }
+
+    /**
+     * @return blocks between the scenario line and the end line, in the order of the definition
+     */
+    List<DslBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    DslLine getPropertiesLine() {
+        return propertiesLine;
+    }
+
+    DslLine getRunLine() {
+        return runLine;
+    }
+
+    DslLine getGeneratorLine() {
+        return generatorLine;
+    }
+
+    DslLine getSenderLine() {
+        return senderLine;
+    }
+
+    DslLine getReceiverLine() {
+        return receiverLine;
+    }
+
+    DslLine getCorrelatorLine() {
+        return correlatorLine;
+    }
+
+    List<DslLine> getSequenceLines() {
+        return Collections.unmodifiableList(sequenceLines);
+    }
+
+    /**
+     * @return reporter lines mapped to lines of their destinations, in the order of the definition
+     */
+    Map<DslLine, List<DslLine>> getReporterLines() {
+        return Collections.unmodifiableMap(reporterLines);
+    }
+
+    DslLine getValidationLine() {
+        return validationLine;
+    }
+
+    List<DslLine> getValidatorLines() {
+        return Collections.unmodifiableList(validatorLines);
+    }
+
+    List<DslLine> getMessageLines() {
+        return Collections.unmodifiableList(messageLines);
+    }
+}
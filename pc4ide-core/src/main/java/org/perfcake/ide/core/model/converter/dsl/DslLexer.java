@@ -0,0 +1,206 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.converter.dsl;
+
+import org.perfcake.ide.core.exception.ModelConversionException;
+
+/**
+ * Lexer of the dsl scenario definition. It reads the definition in a single pass and tracks line and column of each
+ * token, so that syntax errors can be reported with their exact location.
+ *
+ * <p>Tokens are separated by spaces and tabs. Quoted strings may contain any character except quotation mark and line
+ * terminator. Placeholders (<code>${name:default}</code>) are part of a word even though they may contain a colon.
+ * Comments start with <code>//</code> and end at the end of the line.</p>
+ *
+ * @author Jakub Knetl
+ */
+final class DslLexer {
+
+    private final String input;
+    private final int end;
+    private int position;
+    private int line;
+    private int lineStart;
+
+    /**
+     * Creates new lexer.
+     *
+     * @param input dsl scenario definition
+     */
+    DslLexer(String input) {
+        this(input, 0, (input == null) ? 0 : input.length(), 1);
+    }
+
+    /**
+     * Creates new lexer which reads only a part of the definition. Offsets of the tokens are indexes into whole
+     * definition, so the part does not have to be copied.
+     *
+     * @param input      dsl scenario definition
+     * @param beginIndex index of the first character to read, it must be at the beginning of a line or at a line terminator
+     * @param endIndex   index after the last character to read
+     * @param line       number of the line which begins at <code>beginIndex</code>
+     */
+    DslLexer(String input, int beginIndex, int endIndex, int line) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input cannot be null.");
+        }
+        if (beginIndex < 0 || endIndex > input.length() || beginIndex > endIndex) {
+            throw new IllegalArgumentException(String.format("Invalid range <%d, %d) of input with length %d.", beginIndex,
+                    endIndex, input.length()));
+        }
+        this.input = input;
+        this.end = endIndex;
+        this.position = beginIndex;
+        this.lineStart = beginIndex;
+        this.line = line;
+    }
+
+    /**
+     * Reads next token.
+     *
+     * @return next token. After the end of the input is reached, {@link DslToken.Type#EOF} token is returned.
+     * @throws ModelConversionException if there is a string without ending quotation mark
+     */
+    DslToken next() throws ModelConversionException {
+        skipSpacesAndComment();
+
+        if (position >= end) {
+            return new DslToken(DslToken.Type.EOF, "", line, column(position), position);
+        }
+
+        final int start = position;
+        final int column = column(start);
+        char c = input.charAt(position);
+        switch (c) {
+            case '\n':
+            case '\r':
+                position++;
+                if (c == '\r' && position < end && input.charAt(position) == '\n') {
+                    position++;
+                }
+                DslToken eol = new DslToken(DslToken.Type.EOL, "", line, column, start);
+                line++;
+                lineStart = position;
+                return eol;
+            case ':':
+                position++;
+                return new DslToken(DslToken.Type.COLON, ":", line, column, start);
+            case ',':
+                position++;
+                return new DslToken(DslToken.Type.COMMA, ",", line, column, start);
+            case '"':
+                return readString(column);
+            default:
+                return readWord(column);
+        }
+    }
+
+    /**
+     * @return number of the line at current position of the lexer, after the end of the input is reached it is the number
+     *     of the last line
+     */
+    int getLine() {
+        return line;
+    }
+
+    private DslToken readString(int column) throws ModelConversionException {
+        final int offset = position;
+        final int start = position + 1;
+        int stringEnd = start;
+        while (stringEnd < end && input.charAt(stringEnd) != '"') {
+            if (isLineTerminator(input.charAt(stringEnd))) {
+                break;
+            }
+            stringEnd++;
+        }
+        if (stringEnd >= end || input.charAt(stringEnd) != '"') {
+            throw syntaxError(line, column, "missing ending quotation mark (\")");
+        }
+        position = stringEnd + 1;
+        return new DslToken(DslToken.Type.STRING, input.substring(start, stringEnd), line, column, offset);
+    }
+
+    private DslToken readWord(int column) {
+        final int start = position;
+        while (position < end) {
+            char c = input.charAt(position);
+            if (c == '$' && position + 1 < end && input.charAt(position + 1) == '{') {
+                // placeholder may contain a colon, so it is skipped as a whole
+                int placeholderEnd = input.indexOf('}', position);
+                if (placeholderEnd < 0 || placeholderEnd >= end || containsLineTerminator(position, placeholderEnd)) {
+                    position++;
+                } else {
+                    position = placeholderEnd + 1;
+                }
+                continue;
+            }
+            if (isSpace(c) || isLineTerminator(c) || c == '"' || c == ':' || c == ',') {
+                break;
+            }
+            position++;
+        }
+        return new DslToken(DslToken.Type.WORD, input.substring(start, position), line, column, start);
+    }
+
+    private void skipSpacesAndComment() {
+        while (position < end && isSpace(input.charAt(position))) {
+            position++;
+        }
+        if (position + 1 < end && input.startsWith("//", position)) {
+            while (position < end && !isLineTerminator(input.charAt(position))) {
+                position++;
+            }
+        }
+    }
+
+    private boolean containsLineTerminator(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (isLineTerminator(input.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int column(int index) {
+        return index - lineStart + 1;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    /**
+     * Creates exception which describes a syntax error.
+     *
+     * @param line    line of the error
+     * @param column  column of the error
+     * @param message description of the error
+     * @return exception with location of the error
+     */
+    static ModelConversionException syntaxError(int line, int column, String message) {
+        return new ModelConversionException(String.format("Line %d, column %d: %s", line, column, message));
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.converter.dsl;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.perfcake.ide.core.exception.ModelConversionException;
+
+/**
+ * Tokens of a single non-empty line of the dsl scenario definition. Each line describes single element of the scenario.
+ *
+ * @author Jakub Knetl
+ */
+final class DslLine {
+
+    private final List<DslToken> tokens;
+
+    /**
+     * Token which terminates the line (end of line or end of input).
+     */
+    private final DslToken end;
+
+    DslLine(List<DslToken> tokens, DslToken end) {
+        this.tokens = tokens;
+        this.end = end;
+    }
+
+    /**
+     * Reads all tokens from the lexer and groups them by lines. Empty lines (including lines with comment only) are skipped.
+     *
+     * @param lexer lexer of the definition
+     * @return non-empty lines of the definition
+     * @throws ModelConversionException if the definition contains a syntax error
+     */
+    static List<DslLine> readLines(DslLexer lexer) throws ModelConversionException {
+        List<DslLine> lines = new ArrayList<>();
+        List<DslToken> tokens = new ArrayList<>();
+
+        DslToken token;
+        do {
+            token = lexer.next();
+            if (token.getType() == DslToken.Type.EOL || token.getType() == DslToken.Type.EOF) {
+                if (!tokens.isEmpty()) {
+                    lines.add(new DslLine(tokens, token));
+                    tokens = new ArrayList<>();
+                }
+            } else {
+                tokens.add(token);
+            }
+        } while (token.getType() != DslToken.Type.EOF);
+
+        return lines;
+    }
+
+    int size() {
+        return tokens.size();
+    }
+
+    /**
+     * @param index index of the token
+     * @return token at given index, or the token which terminates the line if the index is out of the line.
+     */
+    DslToken get(int index) {
+        return (index < tokens.size()) ? tokens.get(index) : end;
+    }
+
+    /**
+     * @return token which terminates the line
+     */
+    DslToken getEnd() {
+        return end;
+    }
+
+    /**
+     * @return number of the line in the definition (starting with 1)
+     */
+    int getLineNumber() {
+        return tokens.get(0).getLine();
+    }
+
+    /**
+     * @return index of the first character of the line in the definition (including indentation)
+     */
+    int getStartOffset() {
+        DslToken first = tokens.get(0);
+        return first.getOffset() - first.getColumn() + 1;
+    }
+
+    /**
+     * @return index of the token which terminates the line in the definition
+     */
+    int getEndOffset() {
+        return end.getOffset();
+    }
+
+    /**
+     * @param other another line
+     * @return true if both lines consist of the same tokens, regardless of their position in the definition
+     */
+    boolean hasSameTokens(DslLine other) {
+        if (tokens.size() != other.tokens.size()) {
+            return false;
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            DslToken token = tokens.get(i);
+            DslToken otherToken = other.tokens.get(i);
+            if (token.getType() != otherToken.getType() || !token.getText().equals(otherToken.getText())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param word keyword
+     * @return true if the line starts with given keyword
+     */
+    boolean startsWith(String word) {
+        return tokens.get(0).isWord(word);
+    }
+
+    DslToken expect(int index, DslToken.Type type, String description) throws ModelConversionException {
+        DslToken token = get(index);
+        if (token.getType() != type) {
+            throw error(token, String.format("%s expected, but found %s", description, token));
+        }
+        return token;
+    }
+
+    void expectWord(int index, String word) throws ModelConversionException {
+        DslToken token = get(index);
+        if (!token.isWord(word)) {
+            throw error(token, String.format("\"%s\" expected, but found %s", word, token));
+        }
+    }
+
+    void expectEnd(int index) throws ModelConversionException {
+        if (index < tokens.size()) {
+            throw error(tokens.get(index), "unexpected " + tokens.get(index));
+        }
+    }
+
+    /**
+     * @param index index of the token
+     * @return text of the quoted class name at given index
+     */
+    String clazz(int index) throws ModelConversionException {
+        return expect(index, DslToken.Type.STRING, "quoted class of the " + get(0)).getText();
+    }
+
+    /**
+     * @param index index of the token
+     * @return name of the property at given index, the value of the property is at the next index.
+     */
+    String propertyName(int index) throws ModelConversionException {
+        return expect(index, DslToken.Type.WORD, "property name").getText();
+    }
+
+    /**
+     * @param index index of the token
+     * @return quoted value of the property at given index
+     */
+    String propertyValue(int index) throws ModelConversionException {
+        return expect(index, DslToken.Type.STRING, "quoted value of the property").getText();
+    }
+
+    /**
+     * Parses a number with a unit, e.g. <code>10.threads</code>.
+     *
+     * @param index       index of the token
+     * @param suffix      unit including the dot
+     * @param description description of the number used in error message
+     * @return the number without the unit
+     */
+    String count(int index, String suffix, String description) throws ModelConversionException {
+        DslToken token = expect(index, DslToken.Type.WORD, description);
+        String text = token.getText();
+        if (!text.endsWith(suffix) || text.length() == suffix.length()) {
+            throw error(token, String.format("%s expected in format <number>%s, but found %s", description, suffix, token));
+        }
+        return text.substring(0, text.length() - suffix.length());
+    }
+
+    /**
+     * @param index index of the token
+     * @return true if the token at given index is "enabled", false if it is "disabled"
+     */
+    boolean enabled(int index) throws ModelConversionException {
+        DslToken token = get(index);
+        if (token.isWord("enabled")) {
+            return true;
+        }
+        if (token.isWord("disabled")) {
+            return false;
+        }
+        throw error(token, "\"enabled\" or \"disabled\" expected, but found " + token);
+    }
+
+    /**
+     * @param index index of the token
+     * @return true if the token at given index is "enabled" or "disabled"
+     */
+    boolean isEnabledWord(int index) {
+        return get(index).isWord("enabled") || get(index).isWord("disabled");
+    }
+
+    static ModelConversionException error(DslToken token, String message) {
+        return DslLexer.syntaxError(token.getLine(), token.getColumn(), message);
+    }
+}
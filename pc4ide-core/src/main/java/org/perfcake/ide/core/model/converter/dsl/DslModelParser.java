@@ -0,0 +1,381 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.converter.dsl;
+
+import java.util.List;
+import java.util.Map;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.model.AbstractModel;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.CorrelatorModel;
+import org.perfcake.ide.core.model.components.DestinationModel;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ReceiverModel;
+import org.perfcake.ide.core.model.components.ReporterModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.ScenarioModel.PropertyNames;
+import org.perfcake.ide.core.model.components.SenderModel;
+import org.perfcake.ide.core.model.components.SequenceModel;
+import org.perfcake.ide.core.model.components.ValidatorModel;
+import org.perfcake.ide.core.model.properties.KeyValueImpl;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses dsl scenario definition directly into pc4ide model. Unlike {@link ScenarioParser} it does not create PerfCake
+ * XML model, which would be converted into pc4ide model by {@link org.perfcake.ide.core.model.converter.xml.XmlConverter}
+ * afterwards. The resulting model is equal to the model created by the conversion, except that <code>target</code>
+ * property of the sender is stored as {@link SenderModel.PropertyNames#TARGET} in the same way as XML loaders do.
+ *
+ * @author Jakub Knetl
+ */
+public class DslModelParser {
+
+    static final Logger logger = LoggerFactory.getLogger(DslModelParser.class);
+
+    private final DocsService docsService;
+
+    /**
+     * Creates new parser.
+     *
+     * @param docsService docs service which will be used by parsed models
+     */
+    public DslModelParser(DocsService docsService) {
+        if (docsService == null) {
+            throw new IllegalArgumentException("Docs service cannot be null.");
+        }
+        this.docsService = docsService;
+    }
+
+    /**
+     * Parses dsl scenario definition.
+     *
+     * @param scenario dsl scenario definition
+     * @return pc4ide model of the scenario
+     * @throws ModelConversionException if the definition contains a syntax error
+     */
+    public ScenarioModel parse(String scenario) throws ModelConversionException {
+        if (scenario == null) {
+            throw new IllegalArgumentException("Scenario cannot be null.");
+        }
+
+        return parse(DslDocument.read(scenario));
+    }
+
+    /**
+     * Creates model from lines of dsl scenario definition.
+     *
+     * @param document lines of the definition
+     * @return pc4ide model of the scenario
+     * @throws ModelConversionException if the definition contains a syntax error
+     */
+    ScenarioModel parse(DslDocument document) throws ModelConversionException {
+        ScenarioModel model = new ScenarioModel(docsService);
+
+        if (document.getPropertiesLine() != null) {
+            parseKeyValues(document.getPropertiesLine(), 0, model, PropertyNames.PROPERTIES.toString());
+        }
+
+        model.addProperty(PropertyNames.GENERATOR.toString(), parseGenerator(document.getGeneratorLine(), document.getRunLine()));
+        model.addProperty(PropertyNames.SENDER.toString(), parseSender(document.getSenderLine()));
+
+        for (DslLine sequenceLine : document.getSequenceLines()) {
+            model.addProperty(PropertyNames.SEQUENCES.toString(), parseSequence(sequenceLine));
+        }
+
+        if (document.getReceiverLine() != null) {
+            model.addProperty(PropertyNames.RECEIVER.toString(),
+                    parseReceiver(document.getReceiverLine(), document.getCorrelatorLine()));
+        }
+
+        for (Map.Entry<DslLine, List<DslLine>> entry : document.getReporterLines().entrySet()) {
+            model.addProperty(PropertyNames.REPORTERS.toString(), parseReporter(entry.getKey(), entry.getValue()));
+        }
+
+        for (DslLine messageLine : document.getMessageLines()) {
+            model.addProperty(PropertyNames.MESSAGES.toString(), parseMessage(messageLine));
+        }
+
+        if (document.getValidationLine() != null) {
+            parseValidation(document.getValidationLine(), document.getValidatorLines(), model);
+        }
+
+        return model;
+    }
+
+    GeneratorModel parseGenerator(DslLine generatorLine, DslLine runLine) throws ModelConversionException {
+        if (generatorLine == null) {
+            throw new ModelConversionException("generator line not found!");
+        }
+        if (runLine == null) {
+            throw new ModelConversionException("run line not found!");
+        }
+
+        GeneratorModel generator = new GeneratorModel(docsService);
+        addValue(generator, GeneratorModel.PropertyNames.IMPLEMENTATION.toString(), generatorLine.clazz(1));
+
+        DslPeriod period = DslPeriod.parse(runLine.expect(1, DslToken.Type.WORD, "period"));
+        generator.addProperty(GeneratorModel.PropertyNames.RUN.toString(), new KeyValueImpl(period.getType(), period.getValue()));
+        runLine.expectWord(2, "with");
+        addValue(generator, GeneratorModel.PropertyNames.THREADS.toString(),
+                runLine.count(3, ScenarioParser.THREADS_SUFFIX, "number of threads"));
+        runLine.expectEnd(4);
+
+        parseImplementationProperties(generatorLine, 2, generator);
+        return generator;
+    }
+
+    SenderModel parseSender(DslLine senderLine) throws ModelConversionException {
+        if (senderLine == null) {
+            throw new ModelConversionException("sender line not found!");
+        }
+
+        SenderModel sender = new SenderModel(docsService);
+        addValue(sender, SenderModel.PropertyNames.IMPLEMENTATION.toString(), senderLine.clazz(1));
+
+        for (int i = 2; i < senderLine.size(); i += 2) {
+            // target is not an implementation property, it has its own element in XML scenario
+            if (senderLine.get(i).isWord("target")) {
+                addValue(sender, SenderModel.PropertyNames.TARGET.toString(), senderLine.propertyValue(i + 1));
+            } else {
+                parseImplementationProperty(senderLine, i, sender);
+            }
+        }
+
+        return sender;
+    }
+
+    SequenceModel parseSequence(DslLine sequenceLine) throws ModelConversionException {
+        SequenceModel sequence = new SequenceModel(docsService);
+        addValue(sequence, SequenceModel.PropertyNames.IMPLEMENTATION.toString(), sequenceLine.clazz(1));
+
+        int index = 2;
+        if (sequenceLine.get(index).isWord("id")) {
+            addValue(sequence, SequenceModel.PropertyNames.ID.toString(),
+                    sequenceLine.expect(index + 1, DslToken.Type.STRING, "id of the sequence").getText());
+            index += 2;
+        }
+        parseImplementationProperties(sequenceLine, index, sequence);
+
+        return sequence;
+    }
+
+    ReceiverModel parseReceiver(DslLine receiverLine, DslLine correlatorLine) throws ModelConversionException {
+        ReceiverModel receiver = new ReceiverModel(docsService);
+        addValue(receiver, ReceiverModel.PropertyNames.IMPLEMENTATION.toString(), receiverLine.clazz(1));
+        if (correlatorLine == null) {
+            throw DslLine.error(receiverLine.get(0), "receiver does not contain correlator");
+        }
+
+        int index = 2;
+        if (receiverLine.get(index).isWord("with")) {
+            addValue(receiver, ReceiverModel.PropertyNames.THREADS.toString(),
+                    receiverLine.count(index + 1, ScenarioParser.THREADS_SUFFIX, "number of threads"));
+            index += 2;
+        }
+        if (receiverLine.get(index).isWord("source") && receiverLine.get(index + 1).getType() == DslToken.Type.STRING) {
+            addValue(receiver, ReceiverModel.PropertyNames.SOURCE.toString(), receiverLine.get(index + 1).getText());
+            index += 2;
+        }
+        parseImplementationProperties(receiverLine, index, receiver);
+
+        CorrelatorModel correlator = new CorrelatorModel(docsService);
+        addValue(correlator, CorrelatorModel.PropertyNames.IMPLEMENTATION.toString(), correlatorLine.clazz(1));
+        parseImplementationProperties(correlatorLine, 2, correlator);
+        receiver.addProperty(ReceiverModel.PropertyNames.CORRELATOR.toString(), correlator);
+
+        return receiver;
+    }
+
+    ReporterModel parseReporter(DslLine reporterLine, List<DslLine> destinationLines) throws ModelConversionException {
+        ReporterModel reporter = new ReporterModel(docsService);
+        addValue(reporter, ReporterModel.PropertyNames.IMPLEMENTATION.toString(), reporterLine.clazz(1));
+        if (parseImplementationPropertiesAndEnabled(reporterLine, 2, reporter)) {
+            addValue(reporter, ReporterModel.PropertyNames.ENABLED.toString(), "true");
+        }
+
+        for (DslLine destinationLine : destinationLines) {
+            reporter.addProperty(ReporterModel.PropertyNames.DESTINATION.toString(), parseDestination(destinationLine));
+        }
+
+        return reporter;
+    }
+
+    private DestinationModel parseDestination(DslLine destinationLine) throws ModelConversionException {
+        DestinationModel destination = new DestinationModel(docsService);
+        addValue(destination, DestinationModel.PropertyNames.IMPLEMENTATION.toString(), destinationLine.clazz(1));
+
+        int index = 2;
+        while (destinationLine.get(index).isWord("every")) {
+            DslPeriod period = DslPeriod.parse(destinationLine.expect(index + 1, DslToken.Type.WORD, "period"));
+            destination.addProperty(DestinationModel.PropertyNames.PERIOD.toString(),
+                    new KeyValueImpl(period.getType(), period.getValue()));
+            index += 2;
+        }
+        if (parseImplementationPropertiesAndEnabled(destinationLine, index, destination)) {
+            addValue(destination, DestinationModel.PropertyNames.ENABLED.toString(), "true");
+        }
+
+        return destination;
+    }
+
+    MessageModel parseMessage(DslLine messageLine) throws ModelConversionException {
+        MessageModel message = new MessageModel(docsService);
+
+        int i = 1;
+        while (i < messageLine.size()) {
+            DslToken token = messageLine.get(i);
+            if (token.isWord("content") || token.isWord("file")) {
+                messageLine.expect(i + 1, DslToken.Type.COLON, "colon");
+                String value = messageLine.expect(i + 2, DslToken.Type.STRING, "quoted " + token.getText()).getText();
+                String propertyName = token.isWord("content") ? MessageModel.PropertyNames.CONTENT.toString()
+                        : MessageModel.PropertyNames.URI.toString();
+                addValue(message, propertyName, value);
+                i += 3;
+            } else if (token.isWord("send")) {
+                addValue(message, MessageModel.PropertyNames.MULTIPLICITY.toString(),
+                        messageLine.count(i + 1, ScenarioParser.TIMES_SUFFIX, "multiplicity"));
+                i += 2;
+            } else if (token.isWord("headers")) {
+                i = parseHeaders(messageLine, i + 1, message);
+            } else if (token.isWord("validate")) {
+                addValue(message, MessageModel.PropertyNames.VALIDATOR_REFS.toString(),
+                        messageLine.expect(i + 1, DslToken.Type.STRING, "id of the validator").getText());
+                i += 2;
+            } else {
+                message.addProperty(MessageModel.PropertyNames.PROPERTIES.toString(),
+                        new KeyValueImpl(messageLine.propertyName(i), messageLine.propertyValue(i + 1)));
+                i += 2;
+            }
+        }
+
+        return message;
+    }
+
+    /**
+     * Parses comma separated list of headers (e.g. <code>name:"value",other:"value"</code>).
+     *
+     * @return index of the first token after the headers
+     */
+    private int parseHeaders(DslLine line, int beginIndex, MessageModel message) throws ModelConversionException {
+        int i = beginIndex;
+        do {
+            String name = line.expect(i, DslToken.Type.WORD, "header name").getText();
+            line.expect(i + 1, DslToken.Type.COLON, "colon");
+            String value = line.expect(i + 2, DslToken.Type.STRING, "quoted value of the header").getText();
+            message.addProperty(MessageModel.PropertyNames.HEADERS.toString(), new KeyValueImpl(name, value));
+            i += 3;
+        } while (line.get(i).getType() == DslToken.Type.COMMA && ++i > 0);
+
+        return i;
+    }
+
+    /**
+     * Parses validation line and lines of the validators and stores them into the scenario.
+     */
+    void parseValidation(DslLine validationLine, List<DslLine> validatorLines, ScenarioModel scenario) throws ModelConversionException {
+        int index = 1;
+        boolean fastForward = false;
+        if (validationLine.get(index).isWord("fast")) {
+            fastForward = true;
+            index++;
+        }
+        boolean enabled = validationLine.enabled(index);
+        validationLine.expectEnd(index + 1);
+
+        for (DslLine validatorLine : validatorLines) {
+            scenario.addProperty(PropertyNames.VALIDATORS.toString(), parseValidator(validatorLine));
+        }
+
+        addValue(scenario, PropertyNames.VALIDATION_ENABLED.toString(), String.valueOf(enabled));
+        addValue(scenario, PropertyNames.VALIDATION_FAST_FORWARD.toString(), String.valueOf(fastForward));
+    }
+
+    private ValidatorModel parseValidator(DslLine validatorLine) throws ModelConversionException {
+        ValidatorModel validator = new ValidatorModel(docsService);
+        addValue(validator, ValidatorModel.PropertyNames.IMPLEMENTATION.toString(), validatorLine.clazz(1));
+        validatorLine.expectWord(2, "id");
+        addValue(validator, ValidatorModel.PropertyNames.ID.toString(),
+                validatorLine.expect(3, DslToken.Type.STRING, "id of the validator").getText());
+        parseImplementationProperties(validatorLine, 4, validator);
+
+        return validator;
+    }
+
+    /**
+     * Parses properties from given index till the end of the line and stores them as key-values into the model.
+     */
+    void parseKeyValues(DslLine line, int beginIndex, Model model, String propertyName) throws ModelConversionException {
+        for (int i = beginIndex; i < line.size(); i += 2) {
+            model.addProperty(propertyName, new KeyValueImpl(line.propertyName(i), line.propertyValue(i + 1)));
+        }
+    }
+
+    private void parseImplementationProperties(DslLine line, int beginIndex, Model model) throws ModelConversionException {
+        for (int i = beginIndex; i < line.size(); i += 2) {
+            parseImplementationProperty(line, i, model);
+        }
+    }
+
+    /**
+     * Parses properties and optional "enabled" or "disabled" word from given index till the end of the line.
+     *
+     * @return false if the line contains "disabled" word, true otherwise.
+     */
+    private boolean parseImplementationPropertiesAndEnabled(DslLine line, int beginIndex, Model model) throws ModelConversionException {
+        boolean enabled = true;
+        int i = beginIndex;
+        while (i < line.size()) {
+            if (line.isEnabledWord(i)) {
+                enabled = line.enabled(i);
+                i++;
+            } else {
+                parseImplementationProperty(line, i, model);
+                i += 2;
+            }
+        }
+        return enabled;
+    }
+
+    private void parseImplementationProperty(DslLine line, int index, Model model) throws ModelConversionException {
+        final String name = line.propertyName(index);
+        final String value = line.propertyValue(index + 1);
+        final PropertyInfo propertyInfo = model.getSupportedProperty(name);
+
+        // if the defined property is supported by current implementation
+        if (propertyInfo != null) {
+            model.addProperty(propertyInfo, new SimpleValue(value));
+        } else {
+            logger.warn("Ignoring property {} which is not supported by current inspector ({})", name,
+                    model.getProperties(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY));
+        }
+    }
+
+    private void addValue(Model model, String propertyName, String value) {
+        if (value != null) {
+            model.addProperty(propertyName, new SimpleValue(value));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.converter.dsl;
+
+import org.perfcake.ide.core.exception.ModelConversionException;
+
+/**
+ * Period of the dsl scenario definition (e.g. <code>10.s</code> or <code>1000.iterations</code>) converted into type and
+ * value used by PerfCake model.
+ *
+ * @author Stanislav Kaleta, Jakub Knetl
+ */
+final class DslPeriod {
+
+    static final String TIME = "time";
+    static final String ITERATION = "iteration";
+    static final String PERCENTAGE = "percentage";
+
+    private final String type;
+    private final String value;
+
+    DslPeriod(String type, String value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * Parses period. Time periods are converted into milliseconds.
+     *
+     * @param periodToken token with the period
+     * @return parsed period
+     * @throws ModelConversionException if the period has unknown unit
+     */
+    static DslPeriod parse(DslToken periodToken) throws ModelConversionException {
+        String periodAsString = periodToken.getText();
+        if (periodAsString.endsWith(".percent")) {
+            return new DslPeriod(PERCENTAGE, periodAsString.substring(0, periodAsString.length() - 8));
+        }
+        if (periodAsString.endsWith("%")) {
+            return new DslPeriod(PERCENTAGE, periodAsString.substring(0, periodAsString.length() - 1));
+        }
+        if (periodAsString.endsWith(".iterations")) {
+            return new DslPeriod(ITERATION, periodAsString.substring(0, periodAsString.length() - 11));
+        }
+        if (periodAsString.endsWith(".ms")) {
+            return new DslPeriod(TIME, periodAsString.substring(0, periodAsString.length() - 3));
+        }
+        if (periodAsString.endsWith(".s")) {
+            return new DslPeriod(TIME, countMilliseconds(periodAsString.substring(0, periodAsString.length() - 2), 1000L));
+        }
+        if (periodAsString.endsWith(".m")) {
+            return new DslPeriod(TIME, countMilliseconds(periodAsString.substring(0, periodAsString.length() - 2), 60000L));
+        }
+        if (periodAsString.endsWith(".h")) {
+            return new DslPeriod(TIME, countMilliseconds(periodAsString.substring(0, periodAsString.length() - 2), 3600000L));
+        }
+        if (periodAsString.endsWith(".d")) {
+            return new DslPeriod(TIME, countMilliseconds(periodAsString.substring(0, periodAsString.length() - 2), 86400000L));
+        }
+        throw DslLine.error(periodToken, "unable to parse period - invalid period type: " + periodAsString);
+    }
+
+    /**
+     * Formats period of PerfCake model in the dsl syntax.
+     *
+     * @param type  type of the period
+     * @param value value of the period
+     * @return period in dsl syntax
+     * @throws ModelConversionException if the type of the period is unknown
+     */
+    static String format(String type, String value) throws ModelConversionException {
+        if (type == null) {
+            throw new ModelConversionException("Period type cannot be null.");
+        }
+        switch (type) {
+            case TIME:
+                return value + ".ms";
+            case ITERATION:
+                return value + ".iterations";
+            case PERCENTAGE:
+                return value + ".percent";
+            default:
+                throw new ModelConversionException("Invalid period type: " + type);
+        }
+    }
+
+    private static String countMilliseconds(String value, Long multiplier) {
+        try {
+            Long number = Long.parseLong(value);
+            number = number * multiplier;
+            return String.valueOf(number);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+}
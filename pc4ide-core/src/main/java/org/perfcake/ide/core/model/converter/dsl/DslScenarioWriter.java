@@ -0,0 +1,349 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.converter.dsl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Set;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.CorrelatorModel;
+import org.perfcake.ide.core.model.components.DestinationModel;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ReceiverModel;
+import org.perfcake.ide.core.model.components.ReporterModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.ScenarioModel.PropertyNames;
+import org.perfcake.ide.core.model.components.SenderModel;
+import org.perfcake.ide.core.model.components.SequenceModel;
+import org.perfcake.ide.core.model.components.ValidatorModel;
+import org.perfcake.ide.core.model.properties.KeyValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes pc4ide scenario model in dsl format directly into a writer. Unlike {@link ScenarioBuilder} it neither needs
+ * PerfCake XML model nor builds whole definition in memory. The definition can be parsed back by {@link DslModelParser}.
+ *
+ * @author Jakub Knetl
+ */
+public class DslScenarioWriter {
+
+    static final Logger logger = LoggerFactory.getLogger(DslScenarioWriter.class);
+
+    private static final String INDENT = "  ";
+
+    private final Writer writer;
+
+    /**
+     * Creates new dsl writer. The writer is not buffered, so it is up to the caller to provide a buffered one.
+     *
+     * @param writer writer to which the scenario is written
+     */
+    public DslScenarioWriter(Writer writer) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Writer cannot be null.");
+        }
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the scenario. The writer is neither flushed nor closed.
+     *
+     * @param scenario scenario model
+     * @param name     name of the scenario
+     * @throws IOException              if the scenario cannot be written
+     * @throws ModelConversionException if the scenario contains period of unknown type
+     */
+    public void writeScenario(ScenarioModel scenario, String name) throws IOException, ModelConversionException {
+        if (scenario == null) {
+            throw new IllegalArgumentException("Scenario cannot be null.");
+        }
+
+        writer.write("scenario ");
+        quoted(name == null ? "" : name);
+        writer.write('\n');
+
+        List<Property> properties = scenario.getProperties(PropertyNames.PROPERTIES.toString());
+        if (!properties.isEmpty()) {
+            writer.write(INDENT);
+            // scenario properties line starts with the name of the first property
+            for (int i = 0; i < properties.size(); i++) {
+                KeyValue property = properties.get(i).cast(KeyValue.class);
+                if (i > 0) {
+                    writer.write(' ');
+                }
+                writer.write(property.getKey());
+                writer.write(' ');
+                quoted(property.getValue());
+            }
+            writer.write('\n');
+        }
+
+        Model generator = scenario.getSingleProperty(PropertyNames.GENERATOR.toString(), Model.class);
+        if (generator != null) {
+            writeRun(generator);
+            writeGenerator(generator);
+        }
+
+        List<Property> sequences = scenario.getProperties(PropertyNames.SEQUENCES.toString());
+        if (!sequences.isEmpty()) {
+            writer.write(INDENT);
+            writer.write("sequences\n");
+            for (Property sequence : sequences) {
+                writeSequence(sequence.cast(Model.class));
+            }
+        }
+
+        Model sender = scenario.getSingleProperty(PropertyNames.SENDER.toString(), Model.class);
+        if (sender != null) {
+            writeSender(sender);
+        }
+
+        Model receiver = scenario.getSingleProperty(PropertyNames.RECEIVER.toString(), Model.class);
+        if (receiver != null) {
+            writeReceiver(receiver);
+        }
+
+        for (Property reporter : scenario.getProperties(PropertyNames.REPORTERS.toString())) {
+            writeReporter(reporter.cast(Model.class));
+        }
+
+        for (Property message : scenario.getProperties(PropertyNames.MESSAGES.toString())) {
+            writeMessage(message.cast(Model.class));
+        }
+
+        List<Property> validators = scenario.getProperties(PropertyNames.VALIDATORS.toString());
+        if (!validators.isEmpty()) {
+            writeValidation(scenario, validators);
+        }
+
+        writer.write("end");
+    }
+
+    private void writeRun(Model generator) throws IOException, ModelConversionException {
+        KeyValue run = generator.getSingleProperty(GeneratorModel.PropertyNames.RUN.toString(), KeyValue.class);
+        if (run != null) {
+            writer.write(INDENT);
+            writer.write("run ");
+            writer.write(DslPeriod.format(run.getKey(), run.getValue()));
+            writer.write(" with ");
+            writer.write(String.valueOf(singleValue(generator, GeneratorModel.PropertyNames.THREADS.toString())));
+            writer.write(ScenarioParser.THREADS_SUFFIX);
+            writer.write('\n');
+        }
+    }
+
+    private void writeGenerator(Model generator) throws IOException {
+        startLine(1, "generator", singleValue(generator, GeneratorModel.PropertyNames.IMPLEMENTATION.toString()));
+        writeImplementationProperties(generator);
+        writer.write('\n');
+    }
+
+    private void writeSequence(Model sequence) throws IOException {
+        startLine(2, "sequence", singleValue(sequence, SequenceModel.PropertyNames.IMPLEMENTATION.toString()));
+        String id = singleValue(sequence, SequenceModel.PropertyNames.ID.toString());
+        if (id != null && !id.trim().isEmpty()) {
+            property("id", id);
+        }
+        writeImplementationProperties(sequence);
+        writer.write('\n');
+    }
+
+    private void writeSender(Model sender) throws IOException {
+        startLine(1, "sender", singleValue(sender, SenderModel.PropertyNames.IMPLEMENTATION.toString()));
+        String target = singleValue(sender, SenderModel.PropertyNames.TARGET.toString());
+        if (target != null) {
+            property("target", target);
+        }
+        writeImplementationProperties(sender);
+        writer.write('\n');
+    }
+
+    private void writeReceiver(Model receiver) throws IOException {
+        startLine(1, "receiver", singleValue(receiver, ReceiverModel.PropertyNames.IMPLEMENTATION.toString()));
+        String threads = singleValue(receiver, ReceiverModel.PropertyNames.THREADS.toString());
+        if (threads != null && !threads.trim().isEmpty()) {
+            writer.write(" with ");
+            writer.write(threads);
+            writer.write(ScenarioParser.THREADS_SUFFIX);
+        }
+        String source = singleValue(receiver, ReceiverModel.PropertyNames.SOURCE.toString());
+        if (source != null && !source.trim().isEmpty()) {
+            property("source", source);
+        }
+        writeImplementationProperties(receiver);
+        writer.write('\n');
+
+        Model correlator = receiver.getSingleProperty(ReceiverModel.PropertyNames.CORRELATOR.toString(), Model.class);
+        if (correlator != null) {
+            startLine(2, "correlator", singleValue(correlator, CorrelatorModel.PropertyNames.IMPLEMENTATION.toString()));
+            writeImplementationProperties(correlator);
+            writer.write('\n');
+        }
+    }
+
+    private void writeReporter(Model reporter) throws IOException, ModelConversionException {
+        startLine(1, "reporter", singleValue(reporter, ReporterModel.PropertyNames.IMPLEMENTATION.toString()));
+        writeImplementationProperties(reporter);
+        enabled(singleValue(reporter, ReporterModel.PropertyNames.ENABLED.toString()), false);
+        writer.write('\n');
+
+        for (Property property : reporter.getProperties(ReporterModel.PropertyNames.DESTINATION.toString())) {
+            Model destination = property.cast(Model.class);
+            startLine(2, "destination", singleValue(destination, DestinationModel.PropertyNames.IMPLEMENTATION.toString()));
+            for (Property periodProperty : destination.getProperties(DestinationModel.PropertyNames.PERIOD.toString())) {
+                KeyValue period = periodProperty.cast(KeyValue.class);
+                writer.write(" every ");
+                writer.write(DslPeriod.format(period.getKey(), period.getValue()));
+            }
+            writeImplementationProperties(destination);
+            enabled(singleValue(destination, DestinationModel.PropertyNames.ENABLED.toString()), false);
+            writer.write('\n');
+        }
+    }
+
+    private void writeMessage(Model message) throws IOException {
+        writer.write(INDENT);
+        writer.write("message");
+
+        String content = singleValue(message, MessageModel.PropertyNames.CONTENT.toString());
+        String uri = singleValue(message, MessageModel.PropertyNames.URI.toString());
+        if (content != null || uri == null) {
+            writer.write(" content:");
+            quoted(content == null ? "" : content);
+        }
+        if (uri != null) {
+            writer.write(" file:");
+            quoted(uri);
+        }
+
+        String multiplicity = singleValue(message, MessageModel.PropertyNames.MULTIPLICITY.toString());
+        if (multiplicity != null) {
+            writer.write(" send ");
+            writer.write(multiplicity);
+            writer.write(ScenarioParser.TIMES_SUFFIX);
+        }
+
+        for (Property p : message.getProperties(MessageModel.PropertyNames.PROPERTIES.toString())) {
+            KeyValue property = p.cast(KeyValue.class);
+            property(property.getKey(), property.getValue());
+        }
+
+        List<Property> headers = message.getProperties(MessageModel.PropertyNames.HEADERS.toString());
+        for (int i = 0; i < headers.size(); i++) {
+            KeyValue header = headers.get(i).cast(KeyValue.class);
+            writer.write(i == 0 ? " headers " : ",");
+            writer.write(header.getKey());
+            writer.write(':');
+            quoted(header.getValue());
+        }
+
+        for (Property validatorRef : message.getProperties(MessageModel.PropertyNames.VALIDATOR_REFS.toString())) {
+            property("validate", validatorRef.cast(Value.class).getValue());
+        }
+        writer.write('\n');
+    }
+
+    private void writeValidation(ScenarioModel scenario, List<Property> validators) throws IOException {
+        writer.write(INDENT);
+        writer.write("validation");
+        if (Boolean.valueOf(singleValue(scenario, PropertyNames.VALIDATION_FAST_FORWARD.toString()))) {
+            writer.write(" fast");
+        }
+        enabled(singleValue(scenario, PropertyNames.VALIDATION_ENABLED.toString()), true);
+        writer.write('\n');
+
+        for (Property property : validators) {
+            Model validator = property.cast(Model.class);
+            startLine(2, "validator", singleValue(validator, ValidatorModel.PropertyNames.IMPLEMENTATION.toString()));
+            property("id", String.valueOf(singleValue(validator, ValidatorModel.PropertyNames.ID.toString())));
+            writeImplementationProperties(validator);
+            writer.write('\n');
+        }
+    }
+
+    private void writeImplementationProperties(Model model) throws IOException {
+        // supported property list is used because of its stable order, so that the same model is always written in the same way
+        Set<PropertyInfo> implProperties = model.getSupportedImplProperties();
+        for (PropertyInfo propertyInfo : model.getSupportedPropertyList()) {
+            if (!implProperties.contains(propertyInfo)) {
+                continue;
+            }
+            for (Property p : model.getProperties(propertyInfo)) {
+                String value = p.cast(Value.class).getValue();
+                // properties with element content (e.g. text of a validator) have no value and cannot be expressed in dsl
+                if (value != null) {
+                    property(propertyInfo.getName(), value);
+                } else {
+                    logger.warn("Property {} without value cannot be written in dsl, skipping it.", propertyInfo.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes indentation, keyword and quoted class of a component.
+     */
+    private void startLine(int depth, String keyword, String clazz) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            writer.write(INDENT);
+        }
+        writer.write(keyword);
+        writer.write(' ');
+        quoted(String.valueOf(clazz));
+    }
+
+    private void property(String name, String value) throws IOException {
+        writer.write(' ');
+        writer.write(name);
+        writer.write(' ');
+        quoted(value);
+    }
+
+    /**
+     * Writes enabled flag. Loaders store enabled flag of reporters and destinations only if they are enabled, so missing
+     * value of these components means disabled component.
+     */
+    private void enabled(String value, boolean defaultValue) throws IOException {
+        boolean enabled = (value == null) ? defaultValue : Boolean.valueOf(value);
+        writer.write(enabled ? " enabled" : " disabled");
+    }
+
+    private void quoted(String value) throws IOException {
+        writer.write('"');
+        writer.write(String.valueOf(value));
+        writer.write('"');
+    }
+
+    private String singleValue(Model model, String propertyName) {
+        List<Property> properties = model.getProperties(propertyName);
+        if (properties.size() > 1) {
+            logger.warn("Multiple properties '{}' exists when trying to get single one.", propertyName);
+        }
+        return properties.isEmpty() ? null : properties.get(0).cast(Value.class).getValue();
+    }
+}
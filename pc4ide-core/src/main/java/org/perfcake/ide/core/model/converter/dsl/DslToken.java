@@ -0,0 +1,129 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.converter.dsl;
+
+/**
+ * Token of the dsl scenario definition, together with its position in the source text.
+ *
+ * @author Jakub Knetl
+ */
+final class DslToken {
+
+    /**
+     * Type of the token.
+     */
+    enum Type {
+        /**
+         * Unquoted word, e.g. keyword, property name or a number with unit (<code>10.threads</code>).
+         */
+        WORD,
+
+        /**
+         * Quoted string. Text of the token does not contain the quotation marks.
+         */
+        STRING,
+
+        /**
+         * Colon which separates name and quoted value, e.g. <code>file:"message.txt"</code>.
+         */
+        COLON,
+
+        /**
+         * Comma which separates list items, e.g. headers of a message.
+         */
+        COMMA,
+
+        /**
+         * End of line.
+         */
+        EOL,
+
+        /**
+         * End of the input.
+         */
+        EOF
+    }
+
+    private final Type type;
+    private final String text;
+    private final int line;
+    private final int column;
+    private final int offset;
+
+    /**
+     * Creates new token.
+     *
+     * @param type   type of the token
+     * @param text   text of the token
+     * @param line   line of the first character of the token (starting with 1)
+     * @param column column of the first character of the token (starting with 1)
+     * @param offset index of the first character of the token in the definition
+     */
+    DslToken(Type type, String text, int line, int column, int offset) {
+        this.type = type;
+        this.text = text;
+        this.line = line;
+        this.column = column;
+        this.offset = offset;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    String getText() {
+        return text;
+    }
+
+    int getLine() {
+        return line;
+    }
+
+    int getColumn() {
+        return column;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @param word expected word
+     * @return true if this token is an unquoted word with given text
+     */
+    boolean isWord(String word) {
+        return type == Type.WORD && text.equals(word);
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case STRING:
+                return "\"" + text + "\"";
+            case EOL:
+                return "end of line";
+            case EOF:
+                return "end of input";
+            default:
+                return text;
+        }
+    }
+}
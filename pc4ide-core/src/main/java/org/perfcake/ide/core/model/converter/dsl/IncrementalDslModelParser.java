@@ -0,0 +1,471 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.converter.dsl;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.model.ModelTransaction;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.ScenarioModel.PropertyNames;
+import org.perfcake.ide.core.model.diff.ModelDiff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses dsl scenario definition into pc4ide model and keeps the model up to date when the definition is edited.
+ *
+ * <p>The parser remembers blocks of the last parsed definition (see {@link DslBlock}). When the definition is edited, only
+ * the blocks touched by the edit and their neighbours are read again. Blocks whose content has not changed are skipped,
+ * the remaining ones are parsed by {@link DslModelParser} and the resulting models are spliced into the existing
+ * {@link ScenarioModel} in a single {@link ModelTransaction}. So the cost of an update is proportional to the size of the
+ * edit rather than to the size of the definition, and models of untouched elements keep their identity.</p>
+ *
+ * <p>If the edit touches the scenario line or the end line, whole definition is parsed again and the differences are
+ * applied to the existing model by {@link ModelDiff}.</p>
+ *
+ * <p>The model is expected to be modified only by this parser between the updates. Otherwise the blocks of the definition
+ * would not correspond to the elements of the model and {@link #parse(String)} has to be called again.</p>
+ *
+ * @author Jakub Knetl
+ */
+public class IncrementalDslModelParser {
+
+    static final Logger logger = LoggerFactory.getLogger(IncrementalDslModelParser.class);
+
+    private final DocsService docsService;
+    private final DslModelParser parser;
+
+    private String scenario;
+    private ScenarioModel model;
+    private DslLine scenarioLine;
+    private List<DslBlock> blocks;
+
+    /**
+     * Index of the line terminator of the scenario line.
+     */
+    private int contentStart;
+
+    /**
+     * Index of the beginning of the end line.
+     */
+    private int contentEnd;
+    private int endLineNumber;
+
+    /**
+     * Creates new parser.
+     *
+     * @param docsService docs service which will be used by parsed models
+     */
+    public IncrementalDslModelParser(DocsService docsService) {
+        if (docsService == null) {
+            throw new IllegalArgumentException("Docs service cannot be null.");
+        }
+        this.docsService = docsService;
+        this.parser = new DslModelParser(docsService);
+    }
+
+    /**
+     * Parses whole dsl scenario definition and creates new model. Subsequent updates modify this model.
+     *
+     * @param scenario dsl scenario definition
+     * @return pc4ide model of the scenario
+     * @throws ModelConversionException if the definition contains a syntax error
+     */
+    public ScenarioModel parse(String scenario) throws ModelConversionException {
+        if (scenario == null) {
+            throw new IllegalArgumentException("Scenario cannot be null.");
+        }
+
+        DslDocument document = DslDocument.read(scenario);
+        ScenarioModel parsed = parser.parse(document);
+        setState(scenario, parsed, document);
+        return parsed;
+    }
+
+    /**
+     * Updates the model according to new version of the definition, e.g. after the file with the definition has been
+     * changed externally. The edit is found as the difference between the common prefix and suffix of the last parsed
+     * version and the new version. If no definition has been parsed yet, the new version is parsed.
+     *
+     * @param scenario new version of dsl scenario definition
+     * @return pc4ide model of the scenario
+     * @throws ModelConversionException if the definition contains a syntax error. The parser and the model stay in the state
+     *                                  of the last successfully parsed definition.
+     */
+    public ScenarioModel update(String scenario) throws ModelConversionException {
+        if (scenario == null) {
+            throw new IllegalArgumentException("Scenario cannot be null.");
+        }
+        if (model == null) {
+            return parse(scenario);
+        }
+
+        final int maxLength = Math.min(this.scenario.length(), scenario.length());
+        int prefix = 0;
+        while (prefix < maxLength && this.scenario.charAt(prefix) == scenario.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxLength - prefix
+                && this.scenario.charAt(this.scenario.length() - 1 - suffix) == scenario.charAt(scenario.length() - 1 - suffix)) {
+            suffix++;
+        }
+
+        return update(prefix, this.scenario.length() - prefix - suffix, scenario.substring(prefix, scenario.length() - suffix));
+    }
+
+    /**
+     * Updates the model according to an edit of the last parsed definition.
+     *
+     * @param offset      index of the first replaced character
+     * @param length      number of replaced characters
+     * @param replacement new text of the replaced part of the definition
+     * @return pc4ide model of the scenario
+     * @throws ModelConversionException if the definition contains a syntax error. The parser and the model stay in the state
+     *                                  of the last successfully parsed definition.
+     */
+    public ScenarioModel update(int offset, int length, String replacement) throws ModelConversionException {
+        if (model == null) {
+            throw new IllegalStateException("Scenario has not been parsed yet.");
+        }
+        if (replacement == null) {
+            throw new IllegalArgumentException("Replacement cannot be null.");
+        }
+        if (offset < 0 || length < 0 || offset + length > scenario.length()) {
+            throw new IllegalArgumentException(String.format("Invalid edit <%d, %d) of scenario with length %d.", offset,
+                    offset + length, scenario.length()));
+        }
+
+        final String edited = scenario.substring(0, offset) + replacement + scenario.substring(offset + length);
+        final int delta = replacement.length() - length;
+        if (length == 0 && delta == 0) {
+            return model;
+        }
+
+        // edit must not touch the scenario line and the end line must still start at the beginning of a line
+        final int newContentEnd = contentEnd + delta;
+        if (offset <= contentStart || offset + length > contentEnd || !isLineTerminator(edited.charAt(newContentEnd - 1))) {
+            logger.debug("Edit at {} touches scenario line or end line, parsing whole scenario.", offset);
+            return patch(edited);
+        }
+
+        updateBlocks(edited, offset, offset + length, delta);
+        return model;
+    }
+
+    /**
+     * Parses whole dsl scenario definition again and applies the differences to the current model, so that the model keeps
+     * its identity. It is used when the model has been modified by someone else than this parser, so that its elements
+     * do not correspond to the blocks of the last parsed definition. If no definition has been parsed yet, the definition
+     * is parsed.
+     *
+     * @param scenario dsl scenario definition
+     * @return pc4ide model of the scenario
+     * @throws ModelConversionException if the definition contains a syntax error. The parser and the model stay in the state
+     *                                  of the last successfully parsed definition.
+     */
+    public ScenarioModel reparse(String scenario) throws ModelConversionException {
+        if (scenario == null) {
+            throw new IllegalArgumentException("Scenario cannot be null.");
+        }
+        if (model == null) {
+            return parse(scenario);
+        }
+
+        return patch(scenario);
+    }
+
+    private ScenarioModel patch(String edited) throws ModelConversionException {
+        DslDocument document = DslDocument.read(edited);
+        ScenarioModel parsed = parser.parse(document);
+
+        ScenarioModel result = model;
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            new ModelDiff().diff(model, parsed).apply();
+            transaction.commit();
+        } catch (RuntimeException e) {
+            logger.warn("Cannot patch current model, replacing it with new model.", e);
+            result = parsed;
+        }
+
+        setState(edited, result, document);
+        return result;
+    }
+
+    private void updateBlocks(String edited, int editStart, int editEnd, int delta) throws ModelConversionException {
+        // blocks touched by the edit, there may be none if the edit is between the blocks
+        final int first = firstBlockEndingAfter(editStart);
+        final int last = lastBlockStartingBefore(editEnd);
+
+        // neighbours are read again too, since the edit may change nesting of the lines (e.g. new destination of a reporter)
+        final int from = Math.max(first - 1, 0);
+        final int to = Math.min(last + 1, blocks.size() - 1);
+
+        final int regionStart = (from < first) ? blocks.get(from).getStartOffset() : contentStart;
+        final int regionLine = (from < first) ? blocks.get(from).getLineNumber() : scenarioLine.getLineNumber();
+        final int regionEnd = (to > last) ? blocks.get(to).getEndOffset() : contentEnd;
+        final int regionEndLine = (to > last) ? blocks.get(to).getLastLineNumber() : endLineNumber;
+
+        DslLexer lexer = new DslLexer(edited, regionStart, regionEnd + delta, regionLine);
+        List<DslBlock> oldBlocks = blocks.subList(from, to + 1);
+        List<DslBlock> newBlocks = DslBlock.split(DslLine.readLines(lexer), from == 0);
+        final int lineDelta = lexer.getLine() - regionEndLine;
+
+        // blocks with the same content at the beginning and at the end of the region are not changed
+        final int maxUnchanged = Math.min(oldBlocks.size(), newBlocks.size());
+        int prefix = 0;
+        while (prefix < maxUnchanged && oldBlocks.get(prefix).hasSameContent(newBlocks.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxUnchanged - prefix
+                && oldBlocks.get(oldBlocks.size() - 1 - suffix).hasSameContent(newBlocks.get(newBlocks.size() - 1 - suffix))) {
+            suffix++;
+        }
+        List<DslBlock> removed = oldBlocks.subList(prefix, oldBlocks.size() - suffix);
+        List<DslBlock> added = newBlocks.subList(prefix, newBlocks.size() - suffix);
+
+        List<DslBlock> updated = new ArrayList<>(blocks.size() - oldBlocks.size() + newBlocks.size());
+        updated.addAll(blocks.subList(0, from));
+        updated.addAll(newBlocks);
+        for (DslBlock block : blocks.subList(to + 1, blocks.size())) {
+            updated.add(block.move(delta, lineDelta));
+        }
+        DslDocument document = DslDocument.create(scenarioLine, updated);
+
+        if (!removed.isEmpty() || !added.isEmpty()) {
+            Set<DslBlock.Kind> changedKinds = EnumSet.noneOf(DslBlock.Kind.class);
+            for (DslBlock block : removed) {
+                changedKinds.add(block.getKind());
+            }
+            for (DslBlock block : added) {
+                changedKinds.add(block.getKind());
+            }
+            logger.debug("Edit at {} changes {} blocks into {} blocks of kinds {}.", editStart, removed.size(), added.size(),
+                    changedKinds);
+
+            // changes are parsed before the model is modified, so that the model is not modified if there is an error
+            ScenarioModel changes = parseChanges(document, changedKinds, added);
+            applyChanges(changes, changedKinds, blocks.subList(0, from + prefix), removed);
+        }
+
+        scenario = edited;
+        blocks = updated;
+        contentEnd += delta;
+        endLineNumber += lineDelta;
+    }
+
+    /**
+     * Parses changed elements into a temporary scenario model. Elements which may occur multiple times are parsed only
+     * from added blocks, others are parsed from the document, since their model may consist of multiple blocks
+     * (e.g. generator is described by generator line and run line).
+     */
+    private ScenarioModel parseChanges(DslDocument document, Set<DslBlock.Kind> changedKinds, List<DslBlock> added)
+            throws ModelConversionException {
+        ScenarioModel changes = new ScenarioModel(docsService);
+
+        if (changedKinds.contains(DslBlock.Kind.PROPERTIES) && document.getPropertiesLine() != null) {
+            parser.parseKeyValues(document.getPropertiesLine(), 0, changes, PropertyNames.PROPERTIES.toString());
+        }
+        if (changedKinds.contains(DslBlock.Kind.RUN) || changedKinds.contains(DslBlock.Kind.GENERATOR)) {
+            changes.addProperty(PropertyNames.GENERATOR.toString(),
+                    parser.parseGenerator(document.getGeneratorLine(), document.getRunLine()));
+        }
+        if (changedKinds.contains(DslBlock.Kind.SENDER)) {
+            changes.addProperty(PropertyNames.SENDER.toString(), parser.parseSender(document.getSenderLine()));
+        }
+        if (changedKinds.contains(DslBlock.Kind.RECEIVER) && document.getReceiverLine() != null) {
+            changes.addProperty(PropertyNames.RECEIVER.toString(),
+                    parser.parseReceiver(document.getReceiverLine(), document.getCorrelatorLine()));
+        }
+        if (changedKinds.contains(DslBlock.Kind.VALIDATION) && document.getValidationLine() != null) {
+            parser.parseValidation(document.getValidationLine(), document.getValidatorLines(), changes);
+        }
+
+        for (DslBlock block : added) {
+            switch (block.getKind()) {
+                case SEQUENCE:
+                    changes.addProperty(PropertyNames.SEQUENCES.toString(), parser.parseSequence(block.getLine()));
+                    break;
+                case REPORTER:
+                    changes.addProperty(PropertyNames.REPORTERS.toString(),
+                            parser.parseReporter(block.getLine(), block.getNestedLines()));
+                    break;
+                case MESSAGE:
+                    changes.addProperty(PropertyNames.MESSAGES.toString(), parser.parseMessage(block.getLine()));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return changes;
+    }
+
+    private void applyChanges(ScenarioModel changes, Set<DslBlock.Kind> changedKinds, List<DslBlock> preceding,
+                              List<DslBlock> removed) {
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            if (changedKinds.contains(DslBlock.Kind.PROPERTIES)) {
+                replaceAll(changes, PropertyNames.PROPERTIES);
+            }
+            if (changedKinds.contains(DslBlock.Kind.RUN) || changedKinds.contains(DslBlock.Kind.GENERATOR)) {
+                replaceAll(changes, PropertyNames.GENERATOR);
+            }
+            if (changedKinds.contains(DslBlock.Kind.SENDER)) {
+                replaceAll(changes, PropertyNames.SENDER);
+            }
+            if (changedKinds.contains(DslBlock.Kind.RECEIVER)) {
+                replaceAll(changes, PropertyNames.RECEIVER);
+            }
+            if (changedKinds.contains(DslBlock.Kind.VALIDATION)) {
+                replaceAll(changes, PropertyNames.VALIDATORS);
+                replaceAll(changes, PropertyNames.VALIDATION_ENABLED);
+                replaceAll(changes, PropertyNames.VALIDATION_FAST_FORWARD);
+            }
+            splice(changes, DslBlock.Kind.SEQUENCE, PropertyNames.SEQUENCES, preceding, removed);
+            splice(changes, DslBlock.Kind.REPORTER, PropertyNames.REPORTERS, preceding, removed);
+            splice(changes, DslBlock.Kind.MESSAGE, PropertyNames.MESSAGES, preceding, removed);
+
+            transaction.commit();
+        }
+    }
+
+    /**
+     * Replaces all properties of given type by the properties of the same type from the changes. Single property is
+     * replaced in place, so that its listeners are notified by a single event.
+     */
+    private void replaceAll(ScenarioModel changes, PropertyNames propertyName) {
+        PropertyInfo info = model.getSupportedProperty(propertyName.toString());
+        List<Property> oldProperties = new ArrayList<>(model.getProperties(info));
+        List<Property> newProperties = new ArrayList<>(changes.getProperties(propertyName.toString()));
+
+        if (oldProperties.size() == 1 && newProperties.size() == 1) {
+            model.replaceProperty(info, oldProperties.get(0), newProperties.get(0));
+            return;
+        }
+        for (Property property : oldProperties) {
+            model.removeProperty(info, property);
+        }
+        for (Property property : newProperties) {
+            model.addProperty(info, property);
+        }
+    }
+
+    /**
+     * Replaces models of removed blocks of given kind by the models of added blocks. Position of the models is given by the
+     * number of blocks of given kind which precede the edited region.
+     */
+    private void splice(ScenarioModel changes, DslBlock.Kind kind, PropertyNames propertyName, List<DslBlock> preceding,
+                        List<DslBlock> removed) {
+        List<Property> newProperties = new ArrayList<>(changes.getProperties(propertyName.toString()));
+        int removedCount = count(removed, kind);
+        if (removedCount == 0 && newProperties.isEmpty()) {
+            return;
+        }
+
+        PropertyInfo info = model.getSupportedProperty(propertyName.toString());
+        int index = count(preceding, kind);
+        for (int i = 0; i < removedCount; i++) {
+            model.removeProperty(info, model.getProperties(info).get(index));
+        }
+        for (Property property : newProperties) {
+            model.addProperty(info, index++, property);
+        }
+    }
+
+    private static int count(List<DslBlock> blocks, DslBlock.Kind kind) {
+        int count = 0;
+        for (DslBlock block : blocks) {
+            if (block.getKind() == kind) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return index of the first block which ends at or after given offset, or number of blocks if there is no such block
+     */
+    private int firstBlockEndingAfter(int offset) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blocks.get(middle).getEndOffset() < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the last block which starts at or before given offset, or -1 if there is no such block
+     */
+    private int lastBlockStartingBefore(int offset) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blocks.get(middle).getStartOffset() <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    private void setState(String scenario, ScenarioModel model, DslDocument document) {
+        this.scenario = scenario;
+        this.model = model;
+        this.scenarioLine = document.getScenarioLine();
+        this.blocks = new ArrayList<>(document.getBlocks());
+        this.contentStart = scenarioLine.getEndOffset();
+        this.contentEnd = document.getEndLine().getStartOffset();
+        this.endLineNumber = document.getEndLine().getLineNumber();
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    /**
+     * @return model of the last parsed definition, or null if no definition has been parsed yet
+     */
+    public ScenarioModel getModel() {
+        return model;
+    }
+
+    /**
+     * @return last parsed definition, or null if no definition has been parsed yet
+     */
+    public String getScenario() {
+        return scenario;
+    }
+}
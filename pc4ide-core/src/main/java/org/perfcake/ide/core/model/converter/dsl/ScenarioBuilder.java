@@ -77,14 +77,15 @@ public class ScenarioBuilder {
 
     private String buildSequences(Scenario.Sequences sequences) {
         StringBuilder builder = new StringBuilder()
-                .append("  sequences");
+                .append("  sequences\n");
 
         for (Scenario.Sequences.Sequence sequence : sequences.getSequence()) {
-            builder.append("\n");
-            builder.append(String.format("    sequences \"%s\"", sequence.getClazz()));
+            builder.append(String.format("    sequence \"%s\"", sequence.getClazz()));
             if (StringUtils.isNotBlank(sequence.getId())) {
                 builder.append(String.format(" id \"%s\"", sequence.getId()));
             }
+            builder.append(buildProperties(sequence.getProperty()))
+                    .append("\n");
         }
 
         return builder.toString();
@@ -107,7 +108,8 @@ public class ScenarioBuilder {
         receiverBuilder
                 .append("\n")
                 .append(String.format("    correlator \"%s\"", receiver.getCorrelator().getClazz()))
-                .append(buildProperties(receiver.getCorrelator().getProperty()));
+                .append(buildProperties(receiver.getCorrelator().getProperty()))
+                .append("\n");
 
         return receiverBuilder.toString();
     }
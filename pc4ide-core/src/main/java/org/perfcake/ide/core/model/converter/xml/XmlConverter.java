@@ -28,6 +28,7 @@ import org.perfcake.ide.core.docs.DocsService;
 import org.perfcake.ide.core.exception.ModelConversionException;
 import org.perfcake.ide.core.model.AbstractModel;
 import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.ModelTransaction;
 import org.perfcake.ide.core.model.Property;
 import org.perfcake.ide.core.model.PropertyInfo;
 import org.perfcake.ide.core.model.components.CorrelatorModel;
@@ -115,6 +116,15 @@ public class XmlConverter {
             throw new IllegalArgumentException("Model can't be null.");
         }
 
+        // convert the model in single transaction, so that listeners are notified only once
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            ScenarioModel pc4ideModel = convertScenario(xmlModel);
+            transaction.commit();
+            return pc4ideModel;
+        }
+    }
+
+    private ScenarioModel convertScenario(Scenario xmlModel) throws ModelConversionException {
         ScenarioModel pc4ideModel = new ScenarioModel(docsService);
 
         // Convert scenario properties
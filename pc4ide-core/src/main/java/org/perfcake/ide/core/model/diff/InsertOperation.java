@@ -0,0 +1,68 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.diff;
+
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+
+/**
+ * Inserts a property of the new model into the model at given position.
+ *
+ * @author Jakub Knetl
+ */
+class InsertOperation extends PatchOperation {
+
+    private final int index;
+    private final PropertySource source;
+
+    /**
+     * Creates new operation.
+     *
+     * @param model        model which is modified
+     * @param propertyInfo info of the inserted property in the model
+     * @param index        position of the inserted property
+     * @param property     property to be inserted
+     */
+    InsertOperation(Model model, PropertyInfo propertyInfo, int index, Property property) {
+        super(Type.INSERT, model, propertyInfo);
+        this.index = index;
+        this.source = new PropertySource(property);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Property getProperty() {
+        return source.getProperty();
+    }
+
+    @Override
+    public void apply() {
+        getModel().addProperty(getPropertyInfo(), index, source.getProperty());
+    }
+
+    @Override
+    void revert() {
+        source.restore();
+    }
+}
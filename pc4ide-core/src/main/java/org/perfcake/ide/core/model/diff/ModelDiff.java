@@ -0,0 +1,300 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.diff;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.PropertyType;
+import org.perfcake.ide.core.model.properties.KeyValue;
+import org.perfcake.ide.core.model.snapshot.ModelSnapshot;
+import org.perfcake.ide.core.model.snapshot.PropertySnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes difference between two models and creates a {@link ModelPatch} which transforms the first model into the
+ * second one. It is used when a model is loaded again (e.g. after the scenario file has been changed externally), so that
+ * the model which is currently edited is only patched and the parts of the editor which are not affected by the change
+ * do not need to be created again.
+ *
+ * <p>Models are compared using their {@link org.perfcake.ide.core.model.Property#snapshot() snapshots}, so equal subtrees
+ * are skipped quickly. Properties of a multi-valued property are matched in two steps: at first equal properties are
+ * matched, then remaining properties are matched by their identity (key of a key-value, component and implementation of
+ * a model). Matched properties which are not equal are patched, unmatched properties are removed or inserted. Order of
+ * matched properties is fixed by moving the minimal number of properties.</p>
+ *
+ * @author Jakub Knetl
+ */
+public class ModelDiff {
+
+    static final Logger logger = LoggerFactory.getLogger(ModelDiff.class);
+
+    /**
+     * Computes patch which transforms the original model into the new model. Properties of the new model are inserted into
+     * the original model when the patch is applied, so the new model should not be used after that.
+     *
+     * @param original model which will be patched
+     * @param target   new model
+     * @return patch which transforms original model into the target model
+     */
+    public ModelPatch diff(Model original, Model target) {
+        if (original == null) {
+            throw new IllegalArgumentException("Original model cannot be null.");
+        }
+        if (target == null) {
+            throw new IllegalArgumentException("Target model cannot be null.");
+        }
+        if (original.getComponent() != target.getComponent()) {
+            throw new IllegalArgumentException(String.format("Cannot compare %s with %s.",
+                    original.getComponent(), target.getComponent()));
+        }
+
+        List<PatchOperation> operations = new ArrayList<>();
+        if (!original.snapshot().equals(target.snapshot())) {
+            diffModels(original, target, operations);
+        }
+        logger.debug("Models compared. Number of patch operations: {}", operations.size());
+
+        return new ModelPatch(operations);
+    }
+
+    private void diffModels(Model original, Model target, List<PatchOperation> operations) {
+        for (PropertyInfo targetInfo : target.getSupportedProperties()) {
+            PropertyInfo info = original.getSupportedProperty(targetInfo.getName());
+            if (info == null) {
+                logger.warn("Property {} is not supported by the model {}.", targetInfo.getName(), original.getComponent());
+                continue;
+            }
+
+            List<Property> originalProperties = original.getProperties(info);
+            List<Property> targetProperties = target.getProperties(targetInfo);
+            if (!snapshotsEqual(originalProperties, targetProperties)) {
+                if (info.getMaxOccurs() == 1) {
+                    diffSingleProperty(original, info, originalProperties, targetProperties, operations);
+                } else {
+                    diffProperties(original, info, originalProperties, targetProperties, operations);
+                }
+            }
+        }
+    }
+
+    private void diffSingleProperty(Model original, PropertyInfo info, List<Property> originalProperties,
+                                    List<Property> targetProperties, List<PatchOperation> operations) {
+        if (originalProperties.isEmpty()) {
+            operations.add(new InsertOperation(original, info, 0, targetProperties.get(0)));
+        } else if (targetProperties.isEmpty()) {
+            operations.add(new RemoveOperation(originalProperties.get(0)));
+        } else {
+            diffProperty(originalProperties.get(0), targetProperties.get(0), operations);
+        }
+    }
+
+    private void diffProperties(Model original, PropertyInfo info, List<Property> originalProperties,
+                                List<Property> targetProperties, List<PatchOperation> operations) {
+        final int[] matches = match(originalProperties, targetProperties);
+
+        // remove properties which have no counterpart in the target
+        final boolean[] matched = new boolean[originalProperties.size()];
+        for (int match : matches) {
+            if (match >= 0) {
+                matched[match] = true;
+            }
+        }
+        List<Property> current = new ArrayList<>(originalProperties.size());
+        for (int i = 0; i < originalProperties.size(); i++) {
+            if (matched[i]) {
+                current.add(originalProperties.get(i));
+            } else {
+                operations.add(new RemoveOperation(originalProperties.get(i)));
+            }
+        }
+
+        // properties in the longest increasing subsequence keep their positions, others are moved after their predecessor
+        final boolean[] stable = longestIncreasingSubsequence(matches);
+        Property previous = null;
+        for (int i = 0; i < targetProperties.size(); i++) {
+            Property property = (matches[i] >= 0) ? originalProperties.get(matches[i]) : targetProperties.get(i);
+            if (!stable[i]) {
+                if (matches[i] >= 0) {
+                    current.remove(indexOf(current, property));
+                }
+                int index = (previous == null) ? 0 : indexOf(current, previous) + 1;
+                current.add(index, property);
+                if (matches[i] >= 0) {
+                    operations.add(new MoveOperation(property, index));
+                } else {
+                    operations.add(new InsertOperation(original, info, index, property));
+                }
+            }
+            previous = property;
+        }
+
+        // patch matched properties
+        for (int i = 0; i < targetProperties.size(); i++) {
+            if (matches[i] >= 0) {
+                diffProperty(originalProperties.get(matches[i]), targetProperties.get(i), operations);
+            }
+        }
+    }
+
+    private void diffProperty(Property original, Property target, List<PatchOperation> operations) {
+        if (original.snapshot().equals(target.snapshot())) {
+            return;
+        }
+
+        if (original.getPropertyType() != PropertyType.MODEL) {
+            operations.add(new SetValueOperation(original, target));
+        } else if (Objects.equals(identity(original), identity(target))) {
+            diffModels(original.cast(Model.class), target.cast(Model.class), operations);
+        } else {
+            // implementation has changed, so the properties of the models are not comparable
+            operations.add(new ReplaceOperation(original, target));
+        }
+    }
+
+    /**
+     * Matches target properties with original properties.
+     *
+     * @return array which contains index of matched original property for each target property, or -1 if the target
+     *     property has no match.
+     */
+    private int[] match(List<Property> originalProperties, List<Property> targetProperties) {
+        final int[] matches = new int[targetProperties.size()];
+        Arrays.fill(matches, -1);
+
+        // match equal properties
+        Map<PropertySnapshot, Deque<Integer>> equal = new HashMap<>();
+        for (int i = 0; i < originalProperties.size(); i++) {
+            equal.computeIfAbsent(originalProperties.get(i).snapshot(), s -> new ArrayDeque<>()).add(i);
+        }
+        final boolean[] used = new boolean[originalProperties.size()];
+        for (int i = 0; i < targetProperties.size(); i++) {
+            Deque<Integer> candidates = equal.get(targetProperties.get(i).snapshot());
+            if (candidates != null && !candidates.isEmpty()) {
+                matches[i] = candidates.poll();
+                used[matches[i]] = true;
+            }
+        }
+
+        // match remaining properties with the same identity
+        Map<Object, Deque<Integer>> similar = new HashMap<>();
+        for (int i = 0; i < originalProperties.size(); i++) {
+            if (!used[i]) {
+                similar.computeIfAbsent(identity(originalProperties.get(i)), k -> new ArrayDeque<>()).add(i);
+            }
+        }
+        for (int i = 0; i < targetProperties.size(); i++) {
+            if (matches[i] < 0) {
+                Deque<Integer> candidates = similar.get(identity(targetProperties.get(i)));
+                if (candidates != null && !candidates.isEmpty()) {
+                    matches[i] = candidates.poll();
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Identity determines which properties represent the same thing, even though they are not equal.
+     */
+    private static Object identity(Property property) {
+        switch (property.getPropertyType()) {
+            case KEY_VALUE:
+                return property.cast(KeyValue.class).getKey();
+            case MODEL:
+                ModelSnapshot snapshot = property.cast(Model.class).snapshot();
+                return Arrays.asList(snapshot.getComponent(), snapshot.getImplementation());
+            default:
+                // values have no identity, so they are matched by their order
+                return PropertyType.VALUE;
+        }
+    }
+
+    /**
+     * Finds matched properties which keep their position.
+     *
+     * @param matches indices of matched original properties, -1 for unmatched properties
+     * @return array which determines whether a target property is in the longest increasing subsequence of matches.
+     */
+    private static boolean[] longestIncreasingSubsequence(int[] matches) {
+        final int[] tails = new int[matches.length];
+        final int[] predecessors = new int[matches.length];
+        int length = 0;
+
+        for (int i = 0; i < matches.length; i++) {
+            if (matches[i] < 0) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (matches[tails[middle]] < matches[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            predecessors[i] = (low > 0) ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        final boolean[] stable = new boolean[matches.length];
+        for (int i = (length > 0) ? tails[length - 1] : -1; i >= 0; i = predecessors[i]) {
+            stable[i] = true;
+        }
+        return stable;
+    }
+
+    private static boolean snapshotsEqual(List<Property> originalProperties, List<Property> targetProperties) {
+        if (originalProperties.size() != targetProperties.size()) {
+            return false;
+        }
+        for (int i = 0; i < originalProperties.size(); i++) {
+            if (!originalProperties.get(i).snapshot().equals(targetProperties.get(i).snapshot())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(List<Property> properties, Property property) {
+        for (int i = 0; i < properties.size(); i++) {
+            if (properties.get(i) == property) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.perfcake.ide.core.model.ModelTransaction;
+
+/**
+ * Patch is a list of operations which transform a model into another one. Patch is created by {@link ModelDiff}.
+ *
+ * @author Jakub Knetl
+ */
+public class ModelPatch {
+
+    private final List<PatchOperation> operations;
+
+    /**
+     * Creates new patch.
+     *
+     * @param operations operations of the patch in the order in which they must be applied
+     */
+    public ModelPatch(List<PatchOperation> operations) {
+        if (operations == null) {
+            throw new IllegalArgumentException("Operations cannot be null.");
+        }
+        this.operations = Collections.unmodifiableList(new ArrayList<>(operations));
+    }
+
+    /**
+     * @return Unmodifiable list of operations in the order in which they are applied.
+     */
+    public List<PatchOperation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * @return true if the patch contains no operation, i.e. compared models are equal.
+     */
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Applies the patch. Operations are applied in single {@link ModelTransaction}, so the listeners of each modified model
+     * are notified only once. If an operation fails, then all changes are reverted and the new model is left intact.
+     *
+     * <p>Patch may be applied only once, since inserted properties are moved from new model to the patched model.</p>
+     */
+    public void apply() {
+        boolean applied = false;
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            for (PatchOperation operation : operations) {
+                operation.apply();
+            }
+            transaction.commit();
+            applied = true;
+        } finally {
+            for (PatchOperation operation : operations) {
+                if (applied) {
+                    operation.complete();
+                } else {
+                    operation.revert();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ModelPatch{"
+                + "operations=" + operations
+                + '}';
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.diff;
+
+import org.perfcake.ide.core.model.Property;
+
+/**
+ * Moves a property to another position among properties of the same type.
+ *
+ * @author Jakub Knetl
+ */
+class MoveOperation extends PatchOperation {
+
+    private final Property property;
+    private final int index;
+
+    /**
+     * Creates new operation.
+     *
+     * @param property property to be moved
+     * @param index    position of the property after the move
+     */
+    MoveOperation(Property property, int index) {
+        super(Type.MOVE, property.getModel(), property.getPropertyInfo());
+        this.property = property;
+        this.index = index;
+    }
+
+    public Property getProperty() {
+        return property;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void apply() {
+        getModel().moveProperty(getPropertyInfo(), property, index);
+    }
+}
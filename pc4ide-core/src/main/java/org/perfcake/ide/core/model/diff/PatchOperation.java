@@ -0,0 +1,105 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.diff;
+
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.PropertyInfo;
+
+/**
+ * Single operation of a {@link ModelPatch}. Operation modifies a property of a model, or it adds, removes, moves or
+ * replaces a property of a model.
+ *
+ * @author Jakub Knetl
+ */
+public abstract class PatchOperation {
+
+    /**
+     * Type of the operation.
+     */
+    public enum Type {
+        SET_VALUE, INSERT, REMOVE, MOVE, REPLACE
+    }
+
+    private final Type type;
+    private final Model model;
+    private final PropertyInfo propertyInfo;
+
+    /**
+     * Creates new patch operation.
+     *
+     * @param type         type of the operation
+     * @param model        model which is modified by the operation
+     * @param propertyInfo info of the property which is modified by the operation
+     */
+    protected PatchOperation(Type type, Model model, PropertyInfo propertyInfo) {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null.");
+        }
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null.");
+        }
+        if (propertyInfo == null) {
+            throw new IllegalArgumentException("Property info cannot be null.");
+        }
+        this.type = type;
+        this.model = model;
+        this.propertyInfo = propertyInfo;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Model getModel() {
+        return model;
+    }
+
+    public PropertyInfo getPropertyInfo() {
+        return propertyInfo;
+    }
+
+    /**
+     * Applies the operation to the model.
+     */
+    public abstract void apply();
+
+    /**
+     * Called when the whole patch has been applied successfully.
+     */
+    void complete() {
+        // nothing to do by default
+    }
+
+    /**
+     * Called when the patch could not be applied and all its operations have been reverted.
+     */
+    void revert() {
+        // nothing to do by default
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{"
+                + "model=" + model.getComponent()
+                + ", property=" + propertyInfo.getName()
+                + '}';
+    }
+}
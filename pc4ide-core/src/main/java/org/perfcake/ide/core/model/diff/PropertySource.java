@@ -0,0 +1,60 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.diff;
+
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+
+/**
+ * Property of the new model which is moved to the patched model, together with its original owner.
+ *
+ * @author Jakub Knetl
+ */
+class PropertySource {
+
+    private final Property property;
+    private final Model model;
+    private final PropertyInfo propertyInfo;
+
+    /**
+     * Creates new property source.
+     *
+     * @param property property of the new model
+     */
+    PropertySource(Property property) {
+        this.property = property;
+        this.model = property.getModel();
+        this.propertyInfo = property.getPropertyInfo();
+    }
+
+    Property getProperty() {
+        return property;
+    }
+
+    /**
+     * Gives the property back to the original owner after the patch has been reverted.
+     */
+    void restore() {
+        property.setModel(model);
+        property.setPropertyInfo(propertyInfo);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.diff;
+
+import org.perfcake.ide.core.model.Property;
+
+/**
+ * Removes a property from the model.
+ *
+ * @author Jakub Knetl
+ */
+class RemoveOperation extends PatchOperation {
+
+    private final Property property;
+
+    /**
+     * Creates new operation.
+     *
+     * @param property property to be removed from its model
+     */
+    RemoveOperation(Property property) {
+        super(Type.REMOVE, property.getModel(), property.getPropertyInfo());
+        this.property = property;
+    }
+
+    public Property getProperty() {
+        return property;
+    }
+
+    @Override
+    public void apply() {
+        getModel().removeProperty(getPropertyInfo(), property);
+    }
+}
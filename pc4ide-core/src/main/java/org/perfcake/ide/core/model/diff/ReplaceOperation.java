@@ -0,0 +1,57 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.diff;
+
+import org.perfcake.ide.core.model.Property;
+
+/**
+ * Replaces a property of the model with a property of the new model. It is used for models whose implementation has
+ * changed, since their properties cannot be patched one by one.
+ *
+ * @author Jakub Knetl
+ */
+class ReplaceOperation extends PatchOperation {
+
+    private final Property oldProperty;
+    private final PropertySource newProperty;
+
+    /**
+     * Creates new operation.
+     *
+     * @param oldProperty property to be replaced
+     * @param newProperty property which replaces the old property
+     */
+    ReplaceOperation(Property oldProperty, Property newProperty) {
+        super(Type.REPLACE, oldProperty.getModel(), oldProperty.getPropertyInfo());
+        this.oldProperty = oldProperty;
+        this.newProperty = new PropertySource(newProperty);
+    }
+
+    @Override
+    public void apply() {
+        getModel().replaceProperty(getPropertyInfo(), oldProperty, newProperty.getProperty());
+    }
+
+    @Override
+    void revert() {
+        newProperty.restore();
+    }
+}
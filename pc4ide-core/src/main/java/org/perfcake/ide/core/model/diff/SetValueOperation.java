@@ -0,0 +1,73 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.diff;
+
+import java.util.Objects;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyType;
+import org.perfcake.ide.core.model.properties.KeyValue;
+import org.perfcake.ide.core.model.properties.Value;
+
+/**
+ * Sets content of a value or of a key-value property to the content of another property.
+ *
+ * @author Jakub Knetl
+ */
+class SetValueOperation extends PatchOperation {
+
+    private final Property target;
+    private final Property source;
+
+    /**
+     * Creates new operation.
+     *
+     * @param target property which is modified
+     * @param source property whose content is copied to the target
+     */
+    SetValueOperation(Property target, Property source) {
+        super(Type.SET_VALUE, target.getModel(), target.getPropertyInfo());
+        this.target = target;
+        this.source = source;
+    }
+
+    @Override
+    public void apply() {
+        if (target.getPropertyType() == PropertyType.VALUE) {
+            Value targetValue = target.cast(Value.class);
+            String value = source.cast(Value.class).getValue();
+            if (!Objects.equals(targetValue.getValue(), value)) {
+                targetValue.setValue(value);
+            }
+        } else {
+            KeyValue targetKeyValue = target.cast(KeyValue.class);
+            KeyValue sourceKeyValue = source.cast(KeyValue.class);
+            if (!Objects.equals(targetKeyValue.getKey(), sourceKeyValue.getKey())) {
+                targetKeyValue.setKey(sourceKeyValue.getKey());
+            }
+            if (!Objects.equals(targetKeyValue.getValue(), sourceKeyValue.getValue())) {
+                targetKeyValue.setValue(sourceKeyValue.getValue());
+            }
+            if (!Objects.equals(targetKeyValue.getAny(), sourceKeyValue.getAny())) {
+                targetKeyValue.setAny(sourceKeyValue.getAny());
+            }
+        }
+    }
+}
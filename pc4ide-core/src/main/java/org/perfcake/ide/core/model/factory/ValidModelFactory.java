@@ -23,6 +23,7 @@ package org.perfcake.ide.core.model.factory;
 import org.perfcake.ide.core.components.PerfCakeComponent;
 import org.perfcake.ide.core.docs.DocsService;
 import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.ModelTransaction;
 import org.perfcake.ide.core.model.components.CorrelatorModel;
 import org.perfcake.ide.core.model.components.DestinationModel;
 import org.perfcake.ide.core.model.components.GeneratorModel;
@@ -79,6 +80,15 @@ public class ValidModelFactory implements ModelFactory {
             throw new IllegalArgumentException("component must not be null");
         }
 
+        // create the model and its submodels in single transaction, so that listeners are notified only once
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            Model model = createModelInTransaction(component);
+            transaction.commit();
+            return model;
+        }
+    }
+
+    private Model createModelInTransaction(PerfCakeComponent component) {
         Model model = null;
 
         switch (component) {
@@ -0,0 +1,72 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.listeners;
+
+import java.beans.PropertyChangeEvent;
+import java.util.Collections;
+import java.util.List;
+import org.perfcake.ide.core.model.Model;
+
+/**
+ * Change set event is fired to model listeners when a {@link org.perfcake.ide.core.model.ModelTransaction} is committed.
+ * It contains all events which would have been fired to the listeners of the model during the transaction, in the
+ * order in which they occurred.
+ *
+ * @author Jakub Knetl
+ */
+public class ModelChangeSetEvent extends PropertyChangeEvent {
+
+    /**
+     * Name of the change set event.
+     */
+    public static final String CHANGE_SET_PROPERTY = "change-set";
+
+    private final List<PropertyChangeEvent> events;
+
+    /**
+     * Creates new change set event.
+     *
+     * @param model  model whose listeners are notified
+     * @param events events which occurred during the transaction
+     */
+    public ModelChangeSetEvent(Model model, List<PropertyChangeEvent> events) {
+        super(model, CHANGE_SET_PROPERTY, null, null);
+        if (events == null) {
+            throw new IllegalArgumentException("Events cannot be null.");
+        }
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    /**
+     * @return Unmodifiable list of events in the order in which they occurred.
+     */
+    public List<PropertyChangeEvent> getEvents() {
+        return events;
+    }
+
+    @Override
+    public String toString() {
+        return "ModelChangeSetEvent{"
+                + "source=" + getSource()
+                + ", events=" + events.size()
+                + '}';
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.listeners;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+
+/**
+ * Typed event which describes a change of a model. Events which are dispatched by {@link ModelEventBus} are reused, so
+ * an event object is valid only while it is being dispatched. Use {@link #copy()} in order to keep the event.
+ *
+ * @author Jakub Knetl
+ */
+public final class ModelEvent {
+
+    private ModelEventType type;
+    private Model model;
+    private PropertyInfo propertyInfo;
+    private Property property;
+    private String suffix;
+    private Object oldValue;
+    private Object newValue;
+    private List<ModelEvent> events;
+
+    /**
+     * True if the event is being dispatched.
+     */
+    private boolean inUse;
+
+    ModelEvent() {
+    }
+
+    /**
+     * Creates new event.
+     *
+     * @param type         type of the event
+     * @param model        model which has changed
+     * @param propertyInfo info of the changed property (null for change set)
+     * @param property     changed property (null for change set and supported properties events)
+     * @param suffix       suffix of the change, which identifies changed part of the property (e.g. key of key-value), or null
+     * @param oldValue     old value
+     * @param newValue     new value
+     */
+    public ModelEvent(ModelEventType type, Model model, PropertyInfo propertyInfo, Property property, String suffix,
+                      Object oldValue, Object newValue) {
+        if (type == null) {
+            throw new IllegalArgumentException("Type cannot be null.");
+        }
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null.");
+        }
+        init(type, model, propertyInfo, property, suffix, oldValue, newValue);
+    }
+
+    /**
+     * Creates new change set event.
+     *
+     * @param model  model which has changed
+     * @param events changes of the model in the order in which they occurred
+     */
+    public ModelEvent(Model model, List<ModelEvent> events) {
+        this(ModelEventType.CHANGE_SET, model, null, null, null, null, null);
+        if (events == null) {
+            throw new IllegalArgumentException("Events cannot be null.");
+        }
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    void init(ModelEventType type, Model model, PropertyInfo propertyInfo, Property property, String suffix,
+              Object oldValue, Object newValue) {
+        this.type = type;
+        this.model = model;
+        this.propertyInfo = propertyInfo;
+        this.property = property;
+        this.suffix = suffix;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.events = null;
+    }
+
+    boolean isInUse() {
+        return inUse;
+    }
+
+    void setInUse(boolean inUse) {
+        this.inUse = inUse;
+    }
+
+    /**
+     * @return Copy of the event, which may be kept after dispatching.
+     */
+    public ModelEvent copy() {
+        if (type == ModelEventType.CHANGE_SET) {
+            return new ModelEvent(model, new ArrayList<>(events));
+        }
+        return new ModelEvent(type, model, propertyInfo, property, suffix, oldValue, newValue);
+    }
+
+    public ModelEventType getType() {
+        return type;
+    }
+
+    /**
+     * @return Model which has changed. For subtree subscribers, it may be a descendant of the model they subscribed to.
+     */
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * @return Info of the changed property or null for change set.
+     */
+    public PropertyInfo getPropertyInfo() {
+        return propertyInfo;
+    }
+
+    /**
+     * @return Changed property (the property whose value changed, or added, removed, moved or new property). Null for
+     *     change set and supported properties events.
+     */
+    public Property getProperty() {
+        return property;
+    }
+
+    /**
+     * @return Suffix which identifies changed part of the property (e.g. {@link
+     *     org.perfcake.ide.core.model.properties.KeyValueImpl#KEY_EVENT_SUFFIX}), or null if the whole value has changed.
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public Object getOldValue() {
+        return oldValue;
+    }
+
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * @return Unmodifiable list of events in the change set, or null if the event is not a change set.
+     */
+    public List<ModelEvent> getEvents() {
+        return events;
+    }
+
+    @Override
+    public String toString() {
+        return "ModelEvent{"
+                + "type=" + type
+                + ", model=" + model
+                + ", propertyInfo=" + ((propertyInfo == null) ? null : propertyInfo.getName())
+                + ", suffix='" + suffix + '\''
+                + ", oldValue=" + oldValue
+                + ", newValue=" + newValue
+                + '}';
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.listeners;
+
+import java.util.Arrays;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+
+/**
+ * Event bus of a model node. Subscribers register either for changes of the node itself ({@link Scope#NODE}), or for
+ * changes of the node and all its descendants ({@link Scope#SUBTREE}). When a model changes, it dispatches single
+ * {@link ModelEvent} along the path from the model to the root of the model tree: the bus of the changed model notifies
+ * all its subscribers and the buses of its ancestors notify their subtree subscribers. Models create their bus lazily,
+ * so the models without subscribers do not pay for it.
+ *
+ * <p>Dispatched event object is reused, so that a change does not allocate an event per listener or per tree level.
+ * Subscribers may (un)subscribe during dispatching, the change is applied to the next dispatch.</p>
+ *
+ * <p>Bus is confined to the thread which owns the model, same as the model itself.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class ModelEventBus {
+
+    /**
+     * Scope of a subscription.
+     */
+    public enum Scope {
+        /**
+         * Subscriber is notified about changes of the model node.
+         */
+        NODE,
+
+        /**
+         * Subscriber is notified about changes of the model node and all its descendants.
+         */
+        SUBTREE
+    }
+
+    private static final ModelEventSubscriber[] NO_SUBSCRIBERS = new ModelEventSubscriber[0];
+
+    /**
+     * Preallocated event, which is reused by all dispatches of current thread. If it is in use (a subscriber changes
+     * the model during dispatching), new event is allocated.
+     */
+    private static final ThreadLocal<ModelEvent> SHARED_EVENT = ThreadLocal.withInitial(ModelEvent::new);
+
+    // arrays are replaced on each change, so that they can be iterated during dispatching
+    private ModelEventSubscriber[] nodeSubscribers = NO_SUBSCRIBERS;
+    private ModelEventSubscriber[] subtreeSubscribers = NO_SUBSCRIBERS;
+
+    /**
+     * Subscribes for model events.
+     *
+     * @param subscriber subscriber
+     * @param scope      scope of the subscription
+     */
+    public void subscribe(ModelEventSubscriber subscriber, Scope scope) {
+        if (subscriber == null) {
+            throw new IllegalArgumentException("Subscriber cannot be null.");
+        }
+        if (scope == null) {
+            throw new IllegalArgumentException("Scope cannot be null.");
+        }
+
+        if (scope == Scope.NODE) {
+            nodeSubscribers = add(nodeSubscribers, subscriber);
+        } else {
+            subtreeSubscribers = add(subtreeSubscribers, subscriber);
+        }
+    }
+
+    /**
+     * Removes one subscription of the subscriber. If the subscriber is not subscribed, nothing happens.
+     *
+     * @param subscriber subscriber
+     */
+    public void unsubscribe(ModelEventSubscriber subscriber) {
+        ModelEventSubscriber[] subscribers = remove(nodeSubscribers, subscriber);
+        if (subscribers != nodeSubscribers) {
+            nodeSubscribers = subscribers;
+        } else {
+            subtreeSubscribers = remove(subtreeSubscribers, subscriber);
+        }
+    }
+
+    /**
+     * @param origin true if the event would originate in the model which owns this bus, false if it would originate in
+     *               a descendant of the model.
+     * @return true if there are subscribers, which would be notified about the event
+     */
+    public boolean hasSubscribers(boolean origin) {
+        return subtreeSubscribers.length > 0 || (origin && nodeSubscribers.length > 0);
+    }
+
+    /**
+     * Dispatches event to the subscribers of this bus.
+     *
+     * @param event  event to be dispatched
+     * @param origin true if the event originated in the model which owns this bus, false if it originated in a
+     *               descendant of the model.
+     */
+    public void dispatch(ModelEvent event, boolean origin) {
+        if (origin) {
+            for (ModelEventSubscriber subscriber : nodeSubscribers) {
+                subscriber.modelChanged(event);
+            }
+        }
+        for (ModelEventSubscriber subscriber : subtreeSubscribers) {
+            subscriber.modelChanged(event);
+        }
+    }
+
+    /**
+     * Dispatches event to the subscribers of this bus with given scope.
+     *
+     * @param event event to be dispatched
+     * @param scope scope of the subscribers which are notified
+     */
+    public void dispatch(ModelEvent event, Scope scope) {
+        ModelEventSubscriber[] subscribers = (scope == Scope.NODE) ? nodeSubscribers : subtreeSubscribers;
+        for (ModelEventSubscriber subscriber : subscribers) {
+            subscriber.modelChanged(event);
+        }
+    }
+
+    /**
+     * Obtains an event which should be dispatched. The event must be released by {@link #releaseEvent(ModelEvent)} after
+     * dispatching.
+     *
+     * @param type         type of the event
+     * @param model        model which has changed
+     * @param propertyInfo info of the changed property
+     * @param property     changed property
+     * @param suffix       suffix of the change or null
+     * @param oldValue     old value
+     * @param newValue     new value
+     * @return event
+     */
+    public static ModelEvent obtainEvent(ModelEventType type, Model model, PropertyInfo propertyInfo, Property property,
+                                         String suffix, Object oldValue, Object newValue) {
+        ModelEvent event = SHARED_EVENT.get();
+        if (event.isInUse()) {
+            // model is being changed by a subscriber
+            event = new ModelEvent();
+        }
+        event.init(type, model, propertyInfo, property, suffix, oldValue, newValue);
+        event.setInUse(true);
+        return event;
+    }
+
+    /**
+     * Releases an event obtained by {@link #obtainEvent(ModelEventType, Model, PropertyInfo, Property, String, Object,
+     * Object)}, so that it can be reused.
+     *
+     * @param event event
+     */
+    public static void releaseEvent(ModelEvent event) {
+        event.init(null, null, null, null, null, null, null);
+        event.setInUse(false);
+    }
+
+    private static ModelEventSubscriber[] add(ModelEventSubscriber[] subscribers, ModelEventSubscriber subscriber) {
+        ModelEventSubscriber[] result = Arrays.copyOf(subscribers, subscribers.length + 1);
+        result[subscribers.length] = subscriber;
+        return result;
+    }
+
+    private static ModelEventSubscriber[] remove(ModelEventSubscriber[] subscribers, ModelEventSubscriber subscriber) {
+        for (int i = 0; i < subscribers.length; i++) {
+            if (subscribers[i].equals(subscriber)) {
+                if (subscribers.length == 1) {
+                    return NO_SUBSCRIBERS;
+                }
+                ModelEventSubscriber[] result = new ModelEventSubscriber[subscribers.length - 1];
+                System.arraycopy(subscribers, 0, result, 0, i);
+                System.arraycopy(subscribers, i + 1, result, i, subscribers.length - i - 1);
+                return result;
+            }
+        }
+        return subscribers;
+    }
+}
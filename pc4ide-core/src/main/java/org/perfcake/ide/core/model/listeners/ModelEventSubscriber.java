@@ -0,0 +1,37 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.listeners;
+
+/**
+ * Subscriber of a {@link ModelEventBus}.
+ *
+ * @author Jakub Knetl
+ */
+public interface ModelEventSubscriber {
+
+    /**
+     * Called when a model has changed. The event object is reused by the model, so it is valid only during this call.
+     * Use {@link ModelEvent#copy()} if the event needs to be kept.
+     *
+     * @param event event which describes the change
+     */
+    void modelChanged(ModelEvent event);
+}
@@ -0,0 +1,71 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.listeners;
+
+/**
+ * Type of a {@link ModelEvent}.
+ *
+ * @author Jakub Knetl
+ */
+public enum ModelEventType {
+
+    /**
+     * Value of a child property has changed. Old and new values are the old and new values of the property.
+     */
+    VALUE_CHANGED,
+
+    /**
+     * Property has been added to the model. New value is the added property.
+     */
+    PROPERTY_ADDED,
+
+    /**
+     * Property has been removed from the model. Old value is the removed property.
+     */
+    PROPERTY_REMOVED,
+
+    /**
+     * Property has been replaced by another one. Old and new values are the old and new properties.
+     */
+    PROPERTY_REPLACED,
+
+    /**
+     * Property has been moved within properties of the same property info. Old and new values are the old and new indices.
+     */
+    PROPERTY_MOVED,
+
+    /**
+     * Property info has been added to supported properties of the model (e.g. on implementation change). New value is
+     * the property info.
+     */
+    SUPPORTED_PROPERTY_ADDED,
+
+    /**
+     * Property info has been removed from supported properties of the model. Old value is the property info.
+     */
+    SUPPORTED_PROPERTY_REMOVED,
+
+    /**
+     * All changes of the model made during a {@link org.perfcake.ide.core.model.ModelTransaction}. The changes are
+     * available in {@link ModelEvent#getEvents()}.
+     */
+    CHANGE_SET
+}
@@ -0,0 +1,115 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.listeners;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+import org.perfcake.ide.core.model.AbstractModel;
+
+/**
+ * Adapts {@link ModelListener} to {@link ModelEventBus}, so that the listeners receive the same property change events
+ * as they did before the event bus was introduced. Property change events are created only for adapted listeners.
+ *
+ * <p>Name of the converted event is the name of the property, optionally followed by a dash and the suffix of the change
+ * (or {@link AbstractModel#ORDER_EVENT_SUFFIX} for moved properties). Changes of supported properties are named
+ * {@link AbstractModel#SUPPORTED_PROPERTIES_PROPERTY} and change sets are converted to {@link ModelChangeSetEvent}.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class ModelListenerAdapter implements ModelEventSubscriber {
+
+    private final ModelListener listener;
+
+    /**
+     * Creates new adapter.
+     *
+     * @param listener adapted listener
+     */
+    public ModelListenerAdapter(ModelListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        this.listener = listener;
+    }
+
+    public ModelListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public void modelChanged(ModelEvent event) {
+        listener.propertyChange(toPropertyChangeEvent(event));
+    }
+
+    /**
+     * Converts model event to the property change event.
+     *
+     * @param event model event
+     * @return property change event
+     */
+    public static PropertyChangeEvent toPropertyChangeEvent(ModelEvent event) {
+        switch (event.getType()) {
+            case CHANGE_SET:
+                List<PropertyChangeEvent> events = new ArrayList<>(event.getEvents().size());
+                for (ModelEvent e : event.getEvents()) {
+                    events.add(toPropertyChangeEvent(e));
+                }
+                return new ModelChangeSetEvent(event.getModel(), events);
+            case VALUE_CHANGED:
+                return new PropertyChangeEvent(event.getProperty(), eventName(event, event.getSuffix()),
+                        event.getOldValue(), event.getNewValue());
+            case PROPERTY_MOVED:
+                return new PropertyChangeEvent(event.getModel(), eventName(event, AbstractModel.ORDER_EVENT_SUFFIX),
+                        event.getOldValue(), event.getNewValue());
+            case SUPPORTED_PROPERTY_ADDED:
+            case SUPPORTED_PROPERTY_REMOVED:
+                return new PropertyChangeEvent(event.getModel(), AbstractModel.SUPPORTED_PROPERTIES_PROPERTY,
+                        event.getOldValue(), event.getNewValue());
+            default:
+                return new PropertyChangeEvent(event.getModel(), eventName(event, null), event.getOldValue(), event.getNewValue());
+        }
+    }
+
+    private static String eventName(ModelEvent event, String suffix) {
+        if (event.getPropertyInfo() == null) {
+            return "property value change";
+        }
+        String name = event.getPropertyInfo().getName();
+        return (suffix == null || suffix.isEmpty()) ? name : name + "-" + suffix;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return listener.equals(((ModelListenerAdapter) o).listener);
+    }
+
+    @Override
+    public int hashCode() {
+        return listener.hashCode();
+    }
+}
@@ -22,8 +22,6 @@ package org.perfcake.ide.core.model.properties;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Represents data type of a value.
@@ -59,14 +57,7 @@ public enum DataType {
      * @return true if value is a placeholder
      */
     public static boolean isPlaceholder(String value) {
-        if (value == null) {
-            return false;
-        }
-
-        Pattern pattern = Pattern.compile("\\$\\{.*\\}");
-        Matcher matcher = pattern.matcher(value);
-
-        return matcher.matches();
+        return Placeholder.isPlaceholder(value);
     }
 
     /**
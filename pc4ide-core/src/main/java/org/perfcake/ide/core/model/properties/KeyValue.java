@@ -34,10 +34,20 @@ public interface KeyValue extends Property {
 
     void setKey(String key);
 
+    /**
+     * @return key parsed according to the key data type of the property. It is parsed at most once after each change.
+     */
+    ParsedValue getParsedKey();
+
     String getValue();
 
     void setValue(String value);
 
+    /**
+     * @return value parsed according to the value data type of the property. It is parsed at most once after each change.
+     */
+    ParsedValue getParsedValue();
+
     String getAny();
 
     void setAny(String any);
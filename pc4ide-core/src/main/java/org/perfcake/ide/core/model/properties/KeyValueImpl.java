@@ -24,6 +24,10 @@ import java.util.Objects;
 import org.perfcake.ide.core.model.AbstractProperty;
 import org.perfcake.ide.core.model.PropertyInfo;
 import org.perfcake.ide.core.model.PropertyType;
+import org.perfcake.ide.core.model.snapshot.KeyValueSnapshot;
+import org.perfcake.ide.core.model.snapshot.PropertySnapshot;
+import org.perfcake.ide.core.model.validation.Validator;
+import org.perfcake.ide.core.model.validation.ValueValidator;
 import org.perfcake.ide.core.model.validation.error.CompoundError;
 import org.perfcake.ide.core.model.validation.error.ValidationError;
 
@@ -41,6 +45,12 @@ public class KeyValueImpl extends AbstractProperty implements KeyValue {
     private String value;
     private String any;
 
+    /**
+     * Parsed key and value or null, if they have not been parsed since the last change.
+     */
+    private ParsedValue parsedKey;
+    private ParsedValue parsedValue;
+
     /**
      * Constructs new key-value instance.
      *
@@ -77,6 +87,8 @@ public class KeyValueImpl extends AbstractProperty implements KeyValue {
     public void setKey(String key) {
         String oldKey = this.key;
         this.key = key;
+        this.parsedKey = null;
+        recordUndo(() -> setKey(oldKey));
         fireChangeEvent(KEY_EVENT_SUFFIX, oldKey, key);
     }
 
@@ -89,10 +101,31 @@ public class KeyValueImpl extends AbstractProperty implements KeyValue {
     public void setValue(String value) {
         String oldValue = this.value;
         this.value = value;
+        this.parsedValue = null;
 
+        recordUndo(() -> setValue(oldValue));
         fireChangeEvent(VALUE_EVENT_SUFFIX, oldValue, value);
     }
 
+    @Override
+    public ParsedValue getParsedKey() {
+        DataType dataType = (getPropertyInfo() == null || getPropertyInfo().getKeyDataType() == null)
+                ? DataType.STRING : getPropertyInfo().getKeyDataType();
+        if (parsedKey == null || parsedKey.getDataType() != dataType) {
+            parsedKey = ParsedValue.parse(key, dataType);
+        }
+        return parsedKey;
+    }
+
+    @Override
+    public ParsedValue getParsedValue() {
+        DataType dataType = (getPropertyInfo() == null) ? DataType.STRING : getPropertyInfo().getValueDataType();
+        if (parsedValue == null || parsedValue.getDataType() != dataType) {
+            parsedValue = ParsedValue.parse(value, dataType);
+        }
+        return parsedValue;
+    }
+
     @Override
     public String getAny() {
         return any;
@@ -102,31 +135,19 @@ public class KeyValueImpl extends AbstractProperty implements KeyValue {
     public void setAny(String any) {
         String oldAny = this.any;
         this.any = any;
+        recordUndo(() -> setAny(oldAny));
         fireChangeEvent(ANY_EVENT_SUFFIX, oldAny, any);
     }
 
     @Override
-    public boolean isValid() {
-        boolean isKeyValid = true;
-        boolean isValueValid = true;
-
-        if (getPropertyInfo() != null) {
-            PropertyInfo info = getPropertyInfo();
-            isKeyValid = info.getKeyValidator().validate(this, getKey()) == null;
-            isValueValid = info.getValueValidator().validate(this, getValue()) == null;
-        }
-        return isKeyValid && isValueValid;
-    }
-
-    @Override
-    public ValidationError getValidationError() {
+    protected ValidationError validate() {
         ValidationError keyError = null;
         ValidationError valueError = null;
 
         if (getPropertyInfo() != null) {
             PropertyInfo info = getPropertyInfo();
-            keyError = info.getKeyValidator().validate(this, getKey());
-            valueError = info.getValueValidator().validate(this, getValue());
+            keyError = validate(info.getKeyValidator(), getParsedKey());
+            valueError = validate(info.getValueValidator(), getParsedValue());
         }
 
         ValidationError result = null;
@@ -141,6 +162,20 @@ public class KeyValueImpl extends AbstractProperty implements KeyValue {
         return result;
     }
 
+    private ValidationError validate(Validator validator, ParsedValue parsed) {
+        if (validator instanceof ValueValidator) {
+            return ((ValueValidator) validator).validate(this, parsed);
+        } else {
+            return validator.validate(this, parsed.getText());
+        }
+    }
+
+    @Override
+    protected PropertySnapshot createSnapshot() {
+        String name = (getPropertyInfo() == null) ? null : getPropertyInfo().getName();
+        return new KeyValueSnapshot(name, key, value, any);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
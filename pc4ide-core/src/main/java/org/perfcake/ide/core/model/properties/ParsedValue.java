@@ -0,0 +1,227 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.properties;
+
+import java.util.List;
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * Immutable result of parsing a textual value according to a {@link DataType}. Values are stored as text in the model,
+ * since it is what the user writes, but they are parsed at most once after each change, so that the validators and
+ * other consumers do not have to parse the text again.
+ *
+ * <p>If the value is a placeholder, then the typed value is parsed from the default value of the placeholder.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class ParsedValue {
+
+    private final String text;
+    private final DataType dataType;
+    private final Placeholder placeholder;
+
+    /**
+     * True if the text, which was parsed, is a number.
+     */
+    private final boolean number;
+
+    /**
+     * True if typed value has been successfully parsed.
+     */
+    private final boolean parsed;
+
+    private final long longValue;
+    private final double doubleValue;
+    private final String enumValue;
+
+    private ParsedValue(String text, DataType dataType, Placeholder placeholder, boolean number, boolean parsed,
+                        long longValue, double doubleValue, String enumValue) {
+        this.text = text;
+        this.dataType = dataType;
+        this.placeholder = placeholder;
+        this.number = number;
+        this.parsed = parsed;
+        this.longValue = longValue;
+        this.doubleValue = doubleValue;
+        this.enumValue = enumValue;
+    }
+
+    /**
+     * Parses a value.
+     *
+     * @param text     textual value (may be null)
+     * @param dataType data type of the value
+     * @return parsed value
+     */
+    public static ParsedValue parse(String text, DataType dataType) {
+        if (dataType == null) {
+            throw new IllegalArgumentException("Data type cannot be null.");
+        }
+
+        Placeholder placeholder = Placeholder.parse(text);
+        String typedText = (placeholder == null) ? text : placeholder.getDefaultValue();
+
+        boolean number = false;
+        boolean parsed = false;
+        long longValue = 0;
+        double doubleValue = 0;
+        String enumValue = null;
+
+        switch (dataType) {
+            case INTEGER:
+                number = NumberUtils.isNumber(typedText);
+                try {
+                    longValue = Integer.parseInt(typedText);
+                    doubleValue = longValue;
+                    parsed = true;
+                } catch (NumberFormatException e) {
+                    // value is not an integer
+                }
+                break;
+            case FLOAT:
+                number = NumberUtils.isNumber(typedText);
+                if (typedText != null) {
+                    try {
+                        doubleValue = Double.parseDouble(typedText);
+                        parsed = true;
+                    } catch (NumberFormatException e) {
+                        // value is not a floating point number
+                    }
+                }
+                break;
+            case BOOLEAN:
+            case PERIOD:
+                enumValue = findEnumValue(dataType.getValues(), typedText);
+                parsed = enumValue != null;
+                break;
+            default:
+                parsed = typedText != null;
+                break;
+        }
+
+        return new ParsedValue(text, dataType, placeholder, number, parsed, longValue, doubleValue, enumValue);
+    }
+
+    private static String findEnumValue(List<String> values, String text) {
+        for (String value : values) {
+            if (value.equalsIgnoreCase(text)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Text which was parsed.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return Data type which was used to parse the value.
+     */
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public boolean isPlaceholder() {
+        return placeholder != null;
+    }
+
+    /**
+     * @return placeholder or null, if the value is not a placeholder.
+     */
+    public Placeholder getPlaceholder() {
+        return placeholder;
+    }
+
+    /**
+     * @return Text which is parsed to typed value. It is default value of the placeholder if the value is a placeholder.
+     */
+    public String getTypedText() {
+        return (placeholder == null) ? text : placeholder.getDefaultValue();
+    }
+
+    /**
+     * @return true if the typed text is a number. Meaningful only for INTEGER and FLOAT data types.
+     */
+    public boolean isNumber() {
+        return number;
+    }
+
+    /**
+     * @return true if the typed value has been parsed successfully.
+     */
+    public boolean isParsed() {
+        return parsed;
+    }
+
+    /**
+     * @return Integer value.
+     * @throws IllegalStateException if the value is not parsed integer.
+     */
+    public long getLong() {
+        if (!parsed || dataType != DataType.INTEGER) {
+            throw new IllegalStateException(String.format("Value '%s' is not an integer.", text));
+        }
+        return longValue;
+    }
+
+    /**
+     * @return Floating point value.
+     * @throws IllegalStateException if the value is not parsed number.
+     */
+    public double getDouble() {
+        if (!parsed || (dataType != DataType.INTEGER && dataType != DataType.FLOAT)) {
+            throw new IllegalStateException(String.format("Value '%s' is not a number.", text));
+        }
+        return doubleValue;
+    }
+
+    /**
+     * @return Boolean value.
+     * @throws IllegalStateException if the value is not parsed boolean.
+     */
+    public boolean getBoolean() {
+        if (!parsed || dataType != DataType.BOOLEAN) {
+            throw new IllegalStateException(String.format("Value '%s' is not a boolean.", text));
+        }
+        return Boolean.parseBoolean(enumValue);
+    }
+
+    /**
+     * @return One of the {@link DataType#getValues()} which matches the value, or null if the data type does not enumerate
+     *     its values or if the value does not match any of them.
+     */
+    public String getEnumValue() {
+        return enumValue;
+    }
+
+    @Override
+    public String toString() {
+        return "ParsedValue{"
+                + "text='" + text + '\''
+                + ", dataType=" + dataType
+                + ", parsed=" + parsed
+                + '}';
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.properties;
+
+/**
+ * Represents a placeholder in a scenario value, e.g. <code>${threads:10}</code>. Placeholder has a name (the name of
+ * the system property or environment variable) and an optional default value, which is separated from the name by the
+ * last colon.
+ *
+ * @author Jakub Knetl
+ */
+public final class Placeholder {
+
+    private static final String PREFIX = "${";
+    private static final String SUFFIX = "}";
+    private static final char DEFAULT_VALUE_SEPARATOR = ':';
+
+    private final String name;
+    private final String defaultValue;
+
+    private Placeholder(String name, String defaultValue) {
+        this.name = name;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Determines whether value is a placeholder.
+     *
+     * @param value value
+     * @return true if value is a placeholder
+     */
+    public static boolean isPlaceholder(String value) {
+        if (value == null || value.length() < PREFIX.length() + SUFFIX.length()
+                || !value.startsWith(PREFIX) || !value.endsWith(SUFFIX)) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (isLineTerminator(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a placeholder.
+     *
+     * @param value value
+     * @return placeholder or null, if the value is not a placeholder
+     */
+    public static Placeholder parse(String value) {
+        if (!isPlaceholder(value)) {
+            return null;
+        }
+
+        String body = value.substring(PREFIX.length(), value.length() - SUFFIX.length());
+        int separator = body.lastIndexOf(DEFAULT_VALUE_SEPARATOR);
+        if (separator < 0) {
+            return new Placeholder(body, null);
+        }
+        return new Placeholder(body.substring(0, separator), body.substring(separator + 1));
+    }
+
+    /**
+     * Placeholders are single line, same as in PerfCake.
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return default value of the placeholder or null if the placeholder has no default value.
+     */
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    @Override
+    public String toString() {
+        return "Placeholder{"
+                + "name='" + name + '\''
+                + ", defaultValue='" + defaultValue + '\''
+                + '}';
+    }
+}
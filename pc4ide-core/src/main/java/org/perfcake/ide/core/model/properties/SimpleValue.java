@@ -23,6 +23,10 @@ package org.perfcake.ide.core.model.properties;
 import java.util.Objects;
 import org.perfcake.ide.core.model.AbstractProperty;
 import org.perfcake.ide.core.model.PropertyType;
+import org.perfcake.ide.core.model.snapshot.PropertySnapshot;
+import org.perfcake.ide.core.model.snapshot.ValueSnapshot;
+import org.perfcake.ide.core.model.validation.Validator;
+import org.perfcake.ide.core.model.validation.ValueValidator;
 import org.perfcake.ide.core.model.validation.error.ValidationError;
 
 /**
@@ -34,6 +38,11 @@ public class SimpleValue extends AbstractProperty implements Value {
 
     private String value;
 
+    /**
+     * Parsed value or null, if the value has not been parsed since the last change.
+     */
+    private ParsedValue parsedValue;
+
     /**
      * Creates new properties value.
      *
@@ -53,28 +62,41 @@ public class SimpleValue extends AbstractProperty implements Value {
     public void setValue(String value) {
         String oldValue = this.value;
         this.value = value;
+        this.parsedValue = null;
 
+        recordUndo(() -> setValue(oldValue));
         fireChangeEvent(oldValue, value);
     }
 
     @Override
-    public boolean isValid() {
-        if (getPropertyInfo() == null) {
-            return true;
-        } else {
-            return (getPropertyInfo().getValueValidator().validate(this, value) == null);
+    public ParsedValue getParsedValue() {
+        DataType dataType = (getPropertyInfo() == null) ? DataType.STRING : getPropertyInfo().getValueDataType();
+        if (parsedValue == null || parsedValue.getDataType() != dataType) {
+            parsedValue = ParsedValue.parse(value, dataType);
         }
+        return parsedValue;
     }
 
     @Override
-    public ValidationError getValidationError() {
+    protected ValidationError validate() {
         if (getPropertyInfo() == null) {
             return null;
+        }
+
+        Validator validator = getPropertyInfo().getValueValidator();
+        if (validator instanceof ValueValidator) {
+            return ((ValueValidator) validator).validate(this, getParsedValue());
         } else {
-            return getPropertyInfo().getValueValidator().validate(this, value);
+            return validator.validate(this, value);
         }
     }
 
+    @Override
+    protected PropertySnapshot createSnapshot() {
+        String name = (getPropertyInfo() == null) ? null : getPropertyInfo().getName();
+        return new ValueSnapshot(name, value);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -40,4 +40,9 @@ public interface Value extends Property {
      * @param value new value
      */
     void setValue(String value);
+
+    /**
+     * @return current value parsed according to the data type of the property. It is parsed at most once after each change.
+     */
+    ParsedValue getParsedValue();
 }
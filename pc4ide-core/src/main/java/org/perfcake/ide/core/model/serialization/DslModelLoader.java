@@ -27,18 +27,19 @@ import java.nio.charset.StandardCharsets;
 import java.util.Properties;
 import org.apache.commons.io.IOUtils;
 import org.perfcake.ide.core.Pc4ideConstants;
+import org.perfcake.ide.core.docs.DocsService;
 import org.perfcake.ide.core.docs.DocsServiceImpl;
 import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.exception.ModelException;
 import org.perfcake.ide.core.exception.ModelSerializationException;
 import org.perfcake.ide.core.model.components.ScenarioModel;
-import org.perfcake.ide.core.model.converter.dsl.DslScenarioUtil;
-import org.perfcake.ide.core.model.converter.xml.XmlConverter;
-import org.perfcake.model.Scenario;
+import org.perfcake.ide.core.model.converter.dsl.DslModelParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Dsl model loader is able to load pc4ide model from PerfCake dsl scenario definition.
+ * Dsl model loader is able to load pc4ide model from PerfCake dsl scenario definition. The model is built directly by
+ * {@link DslModelParser}, without PerfCake XML model.
  *
  * @author Jakub Knetl
  */
@@ -46,27 +47,65 @@ public class DslModelLoader implements ModelLoader {
 
     static final Logger logger = LoggerFactory.getLogger(DslModelLoader.class);
 
+    private DocsService docsService;
+
+    /**
+     * Creates new dsl model loader. It uses PerfCake javadoc bundled in pc4ide-core.
+     */
+    public DslModelLoader() {
+        Properties javadocProperties = new Properties();
+        try {
+            javadocProperties.load(this.getClass().getResourceAsStream(Pc4ideConstants.PERFCAKE_COMMENT_PROPERTIES));
+        } catch (IOException e) {
+            logger.warn("Cannot load javadoc for loader.", e);
+        }
+        this.docsService = new DocsServiceImpl(javadocProperties);
+    }
+
+    /**
+     * Creates new dsl model loader.
+     *
+     * @param docsService docs service which will be used by loaded models
+     */
+    public DslModelLoader(DocsService docsService) {
+        if (docsService == null) {
+            throw new IllegalArgumentException("Docs service cannot be null.");
+        }
+        this.docsService = docsService;
+    }
+
     @Override
     public ScenarioModel loadModel(InputStream inputStream) throws ModelSerializationException, ModelConversionException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Input stream cannot be null.");
+        }
+
+        String scenario = readScenario(inputStream);
+        try {
+            return new DslModelParser(docsService).parse(scenario);
+        } catch (ModelException e) {
+            throw new ModelConversionException("Cannot create model.", e);
+        }
+    }
 
-        ScenarioModel model = null;
+    /**
+     * Reads dsl scenario definition from input stream.
+     *
+     * @param inputStream stream with UTF-8 encoded definition
+     * @return scenario definition
+     * @throws ModelSerializationException if the stream cannot be read
+     */
+    static String readScenario(InputStream inputStream) throws ModelSerializationException {
         StringWriter stringWriter = new StringWriter();
         try {
             IOUtils.copy(inputStream, stringWriter, StandardCharsets.UTF_8);
-            String dslScenario = stringWriter.toString();
-            Scenario xmlModel = DslScenarioUtil.getModelFrom(dslScenario);
-            Properties javadocProperties = new Properties();
-
-            try {
-                javadocProperties.load(this.getClass().getResourceAsStream(Pc4ideConstants.PERFCAKE_COMMENT_PROPERTIES));
-            } catch (IOException e) {
-                throw new ModelConversionException("Cannot load javadoc.", e);
-            }
-            XmlConverter converter = new XmlConverter(new DocsServiceImpl(javadocProperties));
-            model = converter.convertToPc4ideModel(xmlModel);
         } catch (IOException e) {
             throw new ModelSerializationException(e);
         }
-        return model;
+        return stringWriter.toString();
+    }
+
+    DocsService getDocsService() {
+        return docsService;
     }
 }
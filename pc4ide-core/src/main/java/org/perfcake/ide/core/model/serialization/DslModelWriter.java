@@ -20,24 +20,21 @@
 
 package org.perfcake.ide.core.model.serialization;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Properties;
-import org.apache.commons.io.IOUtils;
-import org.perfcake.ide.core.Pc4ideConstants;
-import org.perfcake.ide.core.docs.DocsServiceImpl;
 import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.exception.ModelException;
 import org.perfcake.ide.core.exception.ModelSerializationException;
 import org.perfcake.ide.core.model.components.ScenarioModel;
-import org.perfcake.ide.core.model.converter.dsl.DslScenarioUtil;
-import org.perfcake.ide.core.model.converter.xml.SerializationPostProcessor;
-import org.perfcake.ide.core.model.converter.xml.XmlConverter;
-import org.perfcake.model.Scenario;
+import org.perfcake.ide.core.model.converter.dsl.DslScenarioWriter;
 
 /**
- * DslModelWriter is able to write pc4ide model in PerfCake scenario DSL format to an outputStream.
+ * DslModelWriter is able to write pc4ide model in PerfCake scenario DSL format to an outputStream. The scenario is
+ * streamed by {@link DslScenarioWriter}, without PerfCake XML model.
  *
  * @author Jakub Knetl
  */
@@ -52,25 +49,21 @@ public class DslModelWriter implements ModelWriter {
     @Override
     public void writeScenario(ScenarioModel scenarioModel, OutputStream outputStream) throws ModelConversionException,
             ModelSerializationException {
-
-        Properties javadocProperties = new Properties();
-        try {
-            javadocProperties.load(this.getClass().getResourceAsStream(Pc4ideConstants.PERFCAKE_COMMENT_PROPERTIES));
-        } catch (IOException e) {
-            throw new ModelConversionException("Cannot load javadoc.", e);
+        if (scenarioModel == null) {
+            throw new IllegalArgumentException("Scenario model cannot be null.");
+        }
+        if (outputStream == null) {
+            throw new IllegalArgumentException("Output stream cannot be null.");
         }
-        XmlConverter converter = new XmlConverter(new DocsServiceImpl(javadocProperties));
-
-        //TODO(jknetl): apply post processors after creating model!
-        ArrayList<SerializationPostProcessor> postProcessors = new ArrayList<>();
-        Scenario xmlModel = converter.convertToXmlModel(scenarioModel, postProcessors);
-
-        String dslScenario = DslScenarioUtil.getDslScenarioFrom(xmlModel, scenarioName);
 
         try {
-            IOUtils.write(dslScenario, outputStream, StandardCharsets.UTF_8);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            new DslScenarioWriter(writer).writeScenario(scenarioModel, scenarioName);
+            writer.flush();
         } catch (IOException e) {
             throw new ModelSerializationException("Cannot write dsl scenario", e);
+        } catch (ModelException e) {
+            throw new ModelConversionException("Scenario model contains property of unexpected type.", e);
         }
     }
 
@@ -0,0 +1,119 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization;
+
+import java.io.InputStream;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.exception.ModelException;
+import org.perfcake.ide.core.exception.ModelSerializationException;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.converter.dsl.IncrementalDslModelParser;
+import org.perfcake.ide.core.model.listeners.ModelEventBus;
+import org.perfcake.ide.core.model.listeners.ModelEventSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Incremental dsl model loader loads subsequent versions of a single dsl scenario. The first version is parsed into new
+ * model. When the scenario is loaded again (e.g. after it has been edited), the loader finds the edited blocks of the
+ * definition and splices their models into the model of the previous version by {@link IncrementalDslModelParser}. So the
+ * loader returns the same model instance on every load, and only the models of edited elements are replaced.
+ *
+ * <p>If the model has been modified since the last load (e.g. in the graphical editor), its elements do not correspond to
+ * the blocks of the previous version any more. In that case whole scenario is parsed again and the differences are
+ * applied to the model.</p>
+ *
+ * <p>Loader is intended to be used by a manager of a single scenario and it must be used by the thread which owns the
+ * model.</p>
+ *
+ * @author Jakub Knetl
+ */
+public class IncrementalDslModelLoader extends DslModelLoader {
+
+    static final Logger logger = LoggerFactory.getLogger(IncrementalDslModelLoader.class);
+
+    private final IncrementalDslModelParser parser;
+    private final ModelEventSubscriber modificationTracker = event -> markModified();
+
+    private ScenarioModel model;
+    private boolean modified;
+    private boolean loading;
+
+    /**
+     * Creates new incremental dsl model loader. It uses PerfCake javadoc bundled in pc4ide-core.
+     */
+    public IncrementalDslModelLoader() {
+        super();
+        this.parser = new IncrementalDslModelParser(getDocsService());
+    }
+
+    /**
+     * Creates new incremental dsl model loader.
+     *
+     * @param docsService docs service which will be used by loaded models
+     */
+    public IncrementalDslModelLoader(DocsService docsService) {
+        super(docsService);
+        this.parser = new IncrementalDslModelParser(docsService);
+    }
+
+    @Override
+    public ScenarioModel loadModel(InputStream inputStream) throws ModelSerializationException, ModelConversionException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Input stream cannot be null.");
+        }
+
+        String scenario = readScenario(inputStream);
+        ScenarioModel loaded;
+        loading = true;
+        try {
+            if (model == null) {
+                loaded = parser.parse(scenario);
+            } else if (modified) {
+                logger.debug("Model has been modified since last load, parsing whole scenario.");
+                loaded = parser.reparse(scenario);
+            } else {
+                loaded = parser.update(scenario);
+            }
+        } catch (ModelException e) {
+            throw new ModelConversionException("Cannot create model.", e);
+        } finally {
+            loading = false;
+        }
+
+        if (loaded != model) {
+            if (model != null) {
+                model.getEventBus().unsubscribe(modificationTracker);
+            }
+            loaded.getEventBus().subscribe(modificationTracker, ModelEventBus.Scope.SUBTREE);
+            model = loaded;
+        }
+        modified = false;
+        return loaded;
+    }
+
+    private void markModified() {
+        if (!loading) {
+            modified = true;
+        }
+    }
+}
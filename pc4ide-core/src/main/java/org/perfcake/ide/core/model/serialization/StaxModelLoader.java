@@ -0,0 +1,539 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Validator;
+import org.apache.commons.io.IOUtils;
+import org.perfcake.ide.core.Pc4ideConstants;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.exception.ModelException;
+import org.perfcake.ide.core.exception.ModelSerializationException;
+import org.perfcake.ide.core.model.AbstractModel;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.ModelTransaction;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.CorrelatorModel;
+import org.perfcake.ide.core.model.components.DestinationModel;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ReceiverModel;
+import org.perfcake.ide.core.model.components.ReporterModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.ScenarioModel.PropertyNames;
+import org.perfcake.ide.core.model.components.SenderModel;
+import org.perfcake.ide.core.model.components.SequenceModel;
+import org.perfcake.ide.core.model.components.ValidatorModel;
+import org.perfcake.ide.core.model.properties.KeyValue;
+import org.perfcake.ide.core.model.properties.KeyValueImpl;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * Model loader which reads XML scenario using StAX and builds pc4ide model directly from the event stream. Unlike
+ * {@link XmlModelLoader} it does not create JAXB scenario graph, which is converted into pc4ide model afterwards.
+ *
+ * <p>By default, the document is validated against PerfCake XSD compiled by {@link XmlSerializationRuntime} before the
+ * model is built, so the loader accepts exactly the same documents as {@link XmlModelLoader}. Validation may be turned
+ * off (e.g. when the document has been written by pc4ide itself). Then only structure of the document is checked
+ * (unexpected elements are reported as errors). Attribute default values defined by the XSD are applied in the same way
+ * as JAXB does, so the resulting model is equal to the model created by {@link XmlModelLoader}.</p>
+ *
+ * <p>The model is built in single {@link ModelTransaction}, so the listeners are notified only once.</p>
+ *
+ * @author Jakub Knetl
+ */
+public class StaxModelLoader implements ModelLoader {
+
+    static final Logger logger = LoggerFactory.getLogger(StaxModelLoader.class);
+
+    // XML input factory is thread safe once configured
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    // default values of boolean attributes as defined in PerfCake scenario XSD
+    private static final boolean DEFAULT_REPORTER_ENABLED = true;
+    private static final boolean DEFAULT_DESTINATION_ENABLED = true;
+    private static final boolean DEFAULT_VALIDATION_ENABLED = true;
+    private static final boolean DEFAULT_VALIDATION_FAST_FORWARD = false;
+
+    private DocsService docsService;
+    private final boolean validating;
+
+    /**
+     * Creates new validating StAX model loader. It uses PerfCake javadoc bundled in pc4ide-core.
+     */
+    public StaxModelLoader() {
+        Properties javadocProperties = new Properties();
+        try {
+            javadocProperties.load(this.getClass().getResourceAsStream(Pc4ideConstants.PERFCAKE_COMMENT_PROPERTIES));
+        } catch (IOException e) {
+            logger.warn("Cannot load javadoc for loader.", e);
+        }
+        this.docsService = new DocsServiceImpl(javadocProperties);
+        this.validating = true;
+    }
+
+    /**
+     * Creates new validating StAX model loader.
+     *
+     * @param docsService docs service which will be used by loaded models
+     */
+    public StaxModelLoader(DocsService docsService) {
+        this(docsService, true);
+    }
+
+    /**
+     * Creates new StAX model loader.
+     *
+     * @param docsService docs service which will be used by loaded models
+     * @param validating  true if the document should be validated against PerfCake XSD
+     */
+    public StaxModelLoader(DocsService docsService, boolean validating) {
+        if (docsService == null) {
+            throw new IllegalArgumentException("Docs service cannot be null.");
+        }
+        this.docsService = docsService;
+        this.validating = validating;
+    }
+
+    /**
+     * @return true if the document is validated against PerfCake XSD
+     */
+    public boolean isValidating() {
+        return validating;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        return factory;
+    }
+
+    @Override
+    public ScenarioModel loadModel(InputStream inputStream) throws ModelSerializationException, ModelConversionException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Input stream cannot be null.");
+        }
+
+        final InputStream document = validating ? validate(inputStream) : inputStream;
+
+        XMLStreamReader reader = null;
+        // build the model in single transaction, so that listeners are notified only once
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            reader = inputFactory.createXMLStreamReader(document);
+            reader.nextTag();
+            expectElement(reader, "scenario");
+            ScenarioModel scenario = readScenario(reader);
+            transaction.commit();
+            return scenario;
+        } catch (XMLStreamException e) {
+            throw new ModelSerializationException("Cannot parse scenario configuration: ", e);
+        } catch (ModelException e) {
+            throw new ModelConversionException(String.format("Cannot create model %s", locationOf(reader)), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    logger.warn("Cannot close XML stream reader.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates the document against PerfCake XSD. Document is buffered, so that it can be read again by StAX reader.
+     *
+     * @return stream with the validated document
+     */
+    private InputStream validate(InputStream inputStream) throws ModelSerializationException {
+        final byte[] document;
+        try {
+            document = IOUtils.toByteArray(inputStream);
+        } catch (IOException e) {
+            throw new ModelSerializationException("Cannot read scenario configuration.", e);
+        }
+
+        // schema is thread safe, but validator is not, so every load uses its own validator
+        Validator validator = XmlSerializationRuntime.getInstance().getSchema().newValidator();
+        try {
+            validator.validate(new StreamSource(new ByteArrayInputStream(document)));
+        } catch (SAXException e) {
+            throw new ModelSerializationException("Cannot parse scenario configuration: ", e);
+        } catch (IOException e) {
+            throw new ModelSerializationException("Cannot read scenario configuration.", e);
+        }
+        return new ByteArrayInputStream(document);
+    }
+
+    private ScenarioModel readScenario(XMLStreamReader reader) throws XMLStreamException, ModelSerializationException {
+        ScenarioModel scenario = new ScenarioModel(docsService);
+
+        // run precedes generator in XML, but in pc4ide model it is a part of the generator
+        KeyValue run = null;
+        GeneratorModel generator = null;
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "properties":
+                    readKeyValues(reader, "property", "name", scenario, PropertyNames.PROPERTIES.toString());
+                    break;
+                case "run":
+                    run = new KeyValueImpl(attribute(reader, "type"), attribute(reader, "value"));
+                    skipElement(reader);
+                    if (generator != null) {
+                        generator.addProperty(GeneratorModel.PropertyNames.RUN.toString(), run);
+                    }
+                    break;
+                case "generator":
+                    generator = readGenerator(reader, run);
+                    scenario.addProperty(PropertyNames.GENERATOR.toString(), generator);
+                    break;
+                case "sequences":
+                    readSequences(reader, scenario);
+                    break;
+                case "sender":
+                    scenario.addProperty(PropertyNames.SENDER.toString(), readSender(reader));
+                    break;
+                case "receiver":
+                    scenario.addProperty(PropertyNames.RECEIVER.toString(), readReceiver(reader));
+                    break;
+                case "reporting":
+                    readReporting(reader, scenario);
+                    break;
+                case "messages":
+                    readMessages(reader, scenario);
+                    break;
+                case "validation":
+                    readValidation(reader, scenario);
+                    break;
+                default:
+                    throw unexpectedElement(reader);
+            }
+        }
+
+        return scenario;
+    }
+
+    private GeneratorModel readGenerator(XMLStreamReader reader, KeyValue run) throws XMLStreamException, ModelSerializationException {
+        GeneratorModel generator = new GeneratorModel(docsService);
+
+        addValue(generator, GeneratorModel.PropertyNames.IMPLEMENTATION.toString(), attribute(reader, "class"));
+        if (run != null) {
+            generator.addProperty(GeneratorModel.PropertyNames.RUN.toString(), run);
+        }
+        addValue(generator, GeneratorModel.PropertyNames.THREADS.toString(), attribute(reader, "threads"));
+
+        readImplementationProperties(reader, generator);
+
+        return generator;
+    }
+
+    private void readSequences(XMLStreamReader reader, ScenarioModel scenario) throws XMLStreamException, ModelSerializationException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            expectElement(reader, "sequence");
+            SequenceModel sequence = new SequenceModel(docsService);
+
+            addValue(sequence, SequenceModel.PropertyNames.IMPLEMENTATION.toString(), attribute(reader, "class"));
+            addValue(sequence, SequenceModel.PropertyNames.ID.toString(), attribute(reader, "id"));
+            readImplementationProperties(reader, sequence);
+
+            scenario.addProperty(PropertyNames.SEQUENCES.toString(), sequence);
+        }
+    }
+
+    private SenderModel readSender(XMLStreamReader reader) throws XMLStreamException, ModelSerializationException {
+        SenderModel sender = new SenderModel(docsService);
+
+        addValue(sender, SenderModel.PropertyNames.IMPLEMENTATION.toString(), attribute(reader, "class"));
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "target":
+                    addValue(sender, SenderModel.PropertyNames.TARGET.toString(), reader.getElementText());
+                    break;
+                case "property":
+                    readImplementationProperty(reader, sender);
+                    break;
+                default:
+                    throw unexpectedElement(reader);
+            }
+        }
+
+        return sender;
+    }
+
+    private ReceiverModel readReceiver(XMLStreamReader reader) throws XMLStreamException, ModelSerializationException {
+        ReceiverModel receiver = new ReceiverModel(docsService);
+
+        addValue(receiver, ReceiverModel.PropertyNames.IMPLEMENTATION.toString(), attribute(reader, "class"));
+        addValue(receiver, ReceiverModel.PropertyNames.THREADS.toString(), attribute(reader, "threads"));
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "source":
+                    addValue(receiver, ReceiverModel.PropertyNames.SOURCE.toString(), reader.getElementText());
+                    break;
+                case "correlator":
+                    CorrelatorModel correlator = new CorrelatorModel(docsService);
+                    addValue(correlator, CorrelatorModel.PropertyNames.IMPLEMENTATION.toString(), attribute(reader, "class"));
+                    readImplementationProperties(reader, correlator);
+                    receiver.addProperty(ReceiverModel.PropertyNames.CORRELATOR.toString(), correlator);
+                    break;
+                case "property":
+                    readImplementationProperty(reader, receiver);
+                    break;
+                default:
+                    throw unexpectedElement(reader);
+            }
+        }
+
+        return receiver;
+    }
+
+    private void readReporting(XMLStreamReader reader, ScenarioModel scenario) throws XMLStreamException, ModelSerializationException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "property":
+                    scenario.addProperty(PropertyNames.REPORTERS_PROPERTIES.toString(),
+                            new KeyValueImpl(attribute(reader, "name"), attribute(reader, "value")));
+                    skipElement(reader);
+                    break;
+                case "reporter":
+                    scenario.addProperty(PropertyNames.REPORTERS.toString(), readReporter(reader));
+                    break;
+                default:
+                    throw unexpectedElement(reader);
+            }
+        }
+    }
+
+    private ReporterModel readReporter(XMLStreamReader reader) throws XMLStreamException, ModelSerializationException {
+        ReporterModel reporter = new ReporterModel(docsService);
+
+        addValue(reporter, ReporterModel.PropertyNames.IMPLEMENTATION.toString(), attribute(reader, "class"));
+        if (booleanAttribute(reader, "enabled", DEFAULT_REPORTER_ENABLED)) {
+            addValue(reporter, ReporterModel.PropertyNames.ENABLED.toString(), "true");
+        }
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "destination":
+                    reporter.addProperty(ReporterModel.PropertyNames.DESTINATION.toString(), readDestination(reader));
+                    break;
+                case "property":
+                    readImplementationProperty(reader, reporter);
+                    break;
+                default:
+                    throw unexpectedElement(reader);
+            }
+        }
+
+        return reporter;
+    }
+
+    private DestinationModel readDestination(XMLStreamReader reader) throws XMLStreamException, ModelSerializationException {
+        DestinationModel destination = new DestinationModel(docsService);
+
+        addValue(destination, DestinationModel.PropertyNames.IMPLEMENTATION.toString(), attribute(reader, "class"));
+        if (booleanAttribute(reader, "enabled", DEFAULT_DESTINATION_ENABLED)) {
+            addValue(destination, DestinationModel.PropertyNames.ENABLED.toString(), "true");
+        }
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "period":
+                    destination.addProperty(DestinationModel.PropertyNames.PERIOD.toString(),
+                            new KeyValueImpl(attribute(reader, "type"), attribute(reader, "value")));
+                    skipElement(reader);
+                    break;
+                case "property":
+                    readImplementationProperty(reader, destination);
+                    break;
+                default:
+                    throw unexpectedElement(reader);
+            }
+        }
+
+        return destination;
+    }
+
+    private void readMessages(XMLStreamReader reader, ScenarioModel scenario) throws XMLStreamException, ModelSerializationException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            expectElement(reader, "message");
+            MessageModel message = new MessageModel(docsService);
+
+            addValue(message, MessageModel.PropertyNames.CONTENT.toString(), attribute(reader, "content"));
+            addValue(message, MessageModel.PropertyNames.URI.toString(), attribute(reader, "uri"));
+            addValue(message, MessageModel.PropertyNames.MULTIPLICITY.toString(), attribute(reader, "multiplicity"));
+
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "header":
+                        message.addProperty(MessageModel.PropertyNames.HEADERS.toString(),
+                                new KeyValueImpl(attribute(reader, "name"), attribute(reader, "value")));
+                        skipElement(reader);
+                        break;
+                    case "property":
+                        message.addProperty(MessageModel.PropertyNames.PROPERTIES.toString(),
+                                new KeyValueImpl(attribute(reader, "name"), attribute(reader, "value")));
+                        skipElement(reader);
+                        break;
+                    case "validatorRef":
+                        message.addProperty(MessageModel.PropertyNames.VALIDATOR_REFS.toString(), new SimpleValue(attribute(reader, "id")));
+                        skipElement(reader);
+                        break;
+                    default:
+                        throw unexpectedElement(reader);
+                }
+            }
+
+            scenario.addProperty(PropertyNames.MESSAGES.toString(), message);
+        }
+    }
+
+    private void readValidation(XMLStreamReader reader, ScenarioModel scenario) throws XMLStreamException, ModelSerializationException {
+        final boolean enabled = booleanAttribute(reader, "enabled", DEFAULT_VALIDATION_ENABLED);
+        final boolean fastForward = booleanAttribute(reader, "fastForward", DEFAULT_VALIDATION_FAST_FORWARD);
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            expectElement(reader, "validator");
+            ValidatorModel validator = new ValidatorModel(docsService);
+
+            addValue(validator, ValidatorModel.PropertyNames.IMPLEMENTATION.toString(), attribute(reader, "class"));
+            addValue(validator, ValidatorModel.PropertyNames.ID.toString(), attribute(reader, "id"));
+            readImplementationProperties(reader, validator);
+
+            scenario.addProperty(PropertyNames.VALIDATORS.toString(), validator);
+        }
+
+        addValue(scenario, PropertyNames.VALIDATION_ENABLED.toString(), String.valueOf(enabled));
+        addValue(scenario, PropertyNames.VALIDATION_FAST_FORWARD.toString(), String.valueOf(fastForward));
+    }
+
+    /**
+     * Reads sequence of key-value elements (e.g. properties) until the end of current element.
+     */
+    private void readKeyValues(XMLStreamReader reader, String elementName, String keyAttribute, Model model, String propertyName)
+            throws XMLStreamException, ModelSerializationException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            expectElement(reader, elementName);
+            model.addProperty(propertyName, new KeyValueImpl(attribute(reader, keyAttribute), attribute(reader, "value")));
+            skipElement(reader);
+        }
+    }
+
+    /**
+     * Reads implementation properties until the end of current element.
+     */
+    private void readImplementationProperties(XMLStreamReader reader, Model model) throws XMLStreamException, ModelSerializationException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            expectElement(reader, "property");
+            readImplementationProperty(reader, model);
+        }
+    }
+
+    /**
+     * Reads single implementation property. Reader must point to the start of property element.
+     */
+    private void readImplementationProperty(XMLStreamReader reader, Model model) throws XMLStreamException {
+        final String name = attribute(reader, "name");
+        final PropertyInfo propertyInfo = model.getSupportedProperty(name);
+
+        // if the defined property is supported by current implementation
+        if (propertyInfo != null) {
+            model.addProperty(propertyInfo, new SimpleValue(attribute(reader, "value")));
+        } else {
+            logger.warn("Ignoring property {} which is not supported by current inspector ({})", name,
+                    model.getProperties(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY));
+        }
+
+        skipElement(reader);
+    }
+
+    private void addValue(Model model, String propertyName, String value) {
+        if (value != null) {
+            model.addProperty(propertyName, new SimpleValue(value));
+        }
+    }
+
+    private String attribute(XMLStreamReader reader, String name) {
+        return reader.getAttributeValue(null, name);
+    }
+
+    private boolean booleanAttribute(XMLStreamReader reader, String name, boolean defaultValue) {
+        final String value = attribute(reader, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        final String trimmed = value.trim();
+        return "true".equals(trimmed) || "1".equals(trimmed);
+    }
+
+    /**
+     * Skips current element including all of its content. Reader must point to the start of element. After the method
+     * returns, reader points to the end of the skipped element.
+     */
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private void expectElement(XMLStreamReader reader, String name) throws ModelSerializationException {
+        if (!name.equals(reader.getLocalName())) {
+            throw unexpectedElement(reader);
+        }
+    }
+
+    private ModelSerializationException unexpectedElement(XMLStreamReader reader) {
+        return new ModelSerializationException(String.format("Unexpected element '%s' %s.", reader.getLocalName(), locationOf(reader)));
+    }
+
+    private String locationOf(XMLStreamReader reader) {
+        if (reader == null) {
+            return "";
+        }
+        Location location = reader.getLocation();
+        return String.format("at line %d, column %d", location.getLineNumber(), location.getColumnNumber());
+    }
+}
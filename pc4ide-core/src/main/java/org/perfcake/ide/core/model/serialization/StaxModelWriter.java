@@ -0,0 +1,463 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.exception.ModelException;
+import org.perfcake.ide.core.exception.ModelSerializationException;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.CorrelatorModel;
+import org.perfcake.ide.core.model.components.DestinationModel;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ReceiverModel;
+import org.perfcake.ide.core.model.components.ReporterModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.ScenarioModel.PropertyNames;
+import org.perfcake.ide.core.model.components.SenderModel;
+import org.perfcake.ide.core.model.components.SequenceModel;
+import org.perfcake.ide.core.model.components.ValidatorModel;
+import org.perfcake.ide.core.model.properties.KeyValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Model writer which writes scenario model directly into output stream using StAX. It produces the same document as
+ * {@link XmlModelWriter} (JAXB formatted output), but it does not create JAXB model.
+ *
+ * <p>Boolean attributes (e.g. <code>enabled</code> of reporter) which contain a placeholder such as
+ * <code>${enabled:true}</code> are written verbatim during serialization. Therefore no post processing of written file is
+ * needed, which was the case with JAXB and {@link org.perfcake.ide.core.model.converter.xml.XPathPostProcessor}.</p>
+ *
+ * @author Jakub Knetl
+ */
+public class StaxModelWriter implements ModelWriter {
+
+    static final Logger logger = LoggerFactory.getLogger(StaxModelWriter.class);
+
+    /**
+     * Namespace of PerfCake scenario.
+     */
+    public static final String SCENARIO_NAMESPACE = "urn:perfcake:scenario:7.0";
+
+    // same declaration as written by JAXB marshaller
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private static final String INDENT = "    ";
+
+    // XML output factory is thread safe once configured
+    private static final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    @Override
+    public void writeScenario(ScenarioModel scenarioModel, OutputStream outputStream) throws ModelConversionException,
+            ModelSerializationException {
+        if (scenarioModel == null) {
+            throw new IllegalArgumentException("Scenario model cannot be null.");
+        }
+        if (outputStream == null) {
+            throw new IllegalArgumentException("Output stream cannot be null.");
+        }
+
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write(XML_DECLARATION);
+            writer.flush();
+
+            XMLStreamWriter xmlWriter = outputFactory.createXMLStreamWriter(writer);
+            new ScenarioStreamWriter(xmlWriter).writeScenario(scenarioModel);
+            xmlWriter.flush();
+            xmlWriter.close();
+
+            writer.write("\n");
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new ModelSerializationException("StAX error when saving scenario", e);
+        } catch (IOException e) {
+            throw new ModelSerializationException("Cannot write scenario", e);
+        } catch (ModelException e) {
+            throw new ModelConversionException("Scenario model contains property of unexpected type.", e);
+        }
+    }
+
+    /**
+     * Writes single scenario. It keeps track of current depth in order to produce the same indentation as JAXB.
+     */
+    private static class ScenarioStreamWriter {
+
+        private final XMLStreamWriter writer;
+        private int depth = 0;
+
+        ScenarioStreamWriter(XMLStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        void writeScenario(ScenarioModel scenario) throws XMLStreamException {
+            writer.writeStartElement("scenario");
+            writer.writeDefaultNamespace(SCENARIO_NAMESPACE);
+            depth++;
+
+            // scenario properties
+            List<Property> properties = scenario.getProperties(PropertyNames.PROPERTIES.toString());
+            if (!properties.isEmpty()) {
+                start("properties", false);
+                for (Property property : properties) {
+                    writeKeyValue("property", "name", "value", property.cast(KeyValue.class));
+                }
+                end();
+            }
+
+            // generator and run
+            Model generator = scenario.getSingleProperty(PropertyNames.GENERATOR.toString(), Model.class);
+            if (generator != null) {
+                writeRun(generator);
+                writeGenerator(generator);
+            }
+
+            // sequences
+            List<Property> sequences = scenario.getProperties(PropertyNames.SEQUENCES.toString());
+            if (!sequences.isEmpty()) {
+                start("sequences", false);
+                for (Property sequence : sequences) {
+                    writeSequence(sequence.cast(Model.class));
+                }
+                end();
+            }
+
+            // sender
+            Model sender = scenario.getSingleProperty(PropertyNames.SENDER.toString(), Model.class);
+            if (sender != null) {
+                writeSender(sender);
+            }
+
+            // receiver
+            Model receiver = scenario.getSingleProperty(PropertyNames.RECEIVER.toString(), Model.class);
+            if (receiver != null) {
+                writeReceiver(receiver);
+            }
+
+            // reporting
+            List<Property> reportingProperties = scenario.getProperties(PropertyNames.REPORTERS_PROPERTIES.toString());
+            List<Property> reporters = scenario.getProperties(PropertyNames.REPORTERS.toString());
+            if (!reportingProperties.isEmpty() || !reporters.isEmpty()) {
+                start("reporting", false);
+                for (Property property : reportingProperties) {
+                    writeKeyValue("property", "name", "value", property.cast(KeyValue.class));
+                }
+                for (Property reporter : reporters) {
+                    writeReporter(reporter.cast(Model.class));
+                }
+                end();
+            }
+
+            // messages
+            List<Property> messages = scenario.getProperties(PropertyNames.MESSAGES.toString());
+            if (!messages.isEmpty()) {
+                start("messages", false);
+                for (Property message : messages) {
+                    writeMessage(message.cast(Model.class));
+                }
+                end();
+            }
+
+            // validation
+            List<Property> validators = scenario.getProperties(PropertyNames.VALIDATORS.toString());
+            if (!validators.isEmpty()) {
+                start("validation", false);
+                booleanAttribute("enabled", singleValue(scenario, PropertyNames.VALIDATION_ENABLED.toString()));
+                booleanAttribute("fastForward", singleValue(scenario, PropertyNames.VALIDATION_FAST_FORWARD.toString()));
+                for (Property validator : validators) {
+                    writeValidator(validator.cast(Model.class));
+                }
+                end();
+            }
+
+            depth--;
+            newLine();
+            writer.writeEndElement();
+        }
+
+        private void writeRun(Model generator) throws XMLStreamException {
+            List<Property> runs = generator.getProperties(GeneratorModel.PropertyNames.RUN.toString());
+            if (!runs.isEmpty()) {
+                KeyValue run = runs.get(0).cast(KeyValue.class);
+                start("run", true);
+                attribute("type", run.getKey());
+                attribute("value", run.getValue());
+            }
+        }
+
+        private void writeGenerator(Model generator) throws XMLStreamException {
+            List<String[]> implProperties = implProperties(generator);
+            boolean empty = implProperties.isEmpty();
+
+            start("generator", empty);
+            attribute("class", singleValue(generator, GeneratorModel.PropertyNames.IMPLEMENTATION.toString()));
+            attribute("threads", singleValue(generator, GeneratorModel.PropertyNames.THREADS.toString()));
+            if (!empty) {
+                writeProperties(implProperties);
+                end();
+            }
+        }
+
+        private void writeSequence(Model sequence) throws XMLStreamException {
+            List<String[]> implProperties = implProperties(sequence);
+            boolean empty = implProperties.isEmpty();
+
+            start("sequence", empty);
+            attribute("class", singleValue(sequence, SequenceModel.PropertyNames.IMPLEMENTATION.toString()));
+            attribute("id", singleValue(sequence, SequenceModel.PropertyNames.ID.toString()));
+            if (!empty) {
+                writeProperties(implProperties);
+                end();
+            }
+        }
+
+        private void writeSender(Model sender) throws XMLStreamException {
+            List<String[]> implProperties = implProperties(sender);
+            String target = singleValue(sender, SenderModel.PropertyNames.TARGET.toString());
+            boolean empty = implProperties.isEmpty() && target == null;
+
+            start("sender", empty);
+            attribute("class", singleValue(sender, SenderModel.PropertyNames.IMPLEMENTATION.toString()));
+            if (!empty) {
+                if (target != null) {
+                    textElement("target", target);
+                }
+                writeProperties(implProperties);
+                end();
+            }
+        }
+
+        private void writeReceiver(Model receiver) throws XMLStreamException {
+            List<String[]> implProperties = implProperties(receiver);
+            Model correlator = receiver.getSingleProperty(ReceiverModel.PropertyNames.CORRELATOR.toString(), Model.class);
+            String source = singleValue(receiver, ReceiverModel.PropertyNames.SOURCE.toString());
+            boolean empty = implProperties.isEmpty() && correlator == null && source == null;
+
+            start("receiver", empty);
+            attribute("class", singleValue(receiver, ReceiverModel.PropertyNames.IMPLEMENTATION.toString()));
+            attribute("threads", singleValue(receiver, ReceiverModel.PropertyNames.THREADS.toString()));
+            if (!empty) {
+                if (correlator != null) {
+                    writeCorrelator(correlator);
+                }
+                if (source != null) {
+                    textElement("source", source);
+                }
+                writeProperties(implProperties);
+                end();
+            }
+        }
+
+        private void writeCorrelator(Model correlator) throws XMLStreamException {
+            List<String[]> implProperties = implProperties(correlator);
+            boolean empty = implProperties.isEmpty();
+
+            start("correlator", empty);
+            attribute("class", singleValue(correlator, CorrelatorModel.PropertyNames.IMPLEMENTATION.toString()));
+            if (!empty) {
+                writeProperties(implProperties);
+                end();
+            }
+        }
+
+        private void writeReporter(Model reporter) throws XMLStreamException {
+            List<String[]> implProperties = implProperties(reporter);
+            List<Property> destinations = reporter.getProperties(ReporterModel.PropertyNames.DESTINATION.toString());
+            boolean empty = implProperties.isEmpty() && destinations.isEmpty();
+
+            start("reporter", empty);
+            attribute("class", singleValue(reporter, ReporterModel.PropertyNames.IMPLEMENTATION.toString()));
+            booleanAttribute("enabled", singleValue(reporter, ReporterModel.PropertyNames.ENABLED.toString()));
+            if (!empty) {
+                writeProperties(implProperties);
+                for (Property destination : destinations) {
+                    writeDestination(destination.cast(Model.class));
+                }
+                end();
+            }
+        }
+
+        private void writeDestination(Model destination) throws XMLStreamException {
+            List<String[]> implProperties = implProperties(destination);
+            List<Property> periods = destination.getProperties(DestinationModel.PropertyNames.PERIOD.toString());
+            boolean empty = implProperties.isEmpty() && periods.isEmpty();
+
+            start("destination", empty);
+            attribute("class", singleValue(destination, DestinationModel.PropertyNames.IMPLEMENTATION.toString()));
+            booleanAttribute("enabled", singleValue(destination, DestinationModel.PropertyNames.ENABLED.toString()));
+            if (!empty) {
+                for (Property period : periods) {
+                    writeKeyValue("period", "type", "value", period.cast(KeyValue.class));
+                }
+                writeProperties(implProperties);
+                end();
+            }
+        }
+
+        private void writeMessage(Model message) throws XMLStreamException {
+            List<Property> headers = message.getProperties(MessageModel.PropertyNames.HEADERS.toString());
+            List<Property> properties = message.getProperties(MessageModel.PropertyNames.PROPERTIES.toString());
+            List<Property> validatorRefs = message.getProperties(MessageModel.PropertyNames.VALIDATOR_REFS.toString());
+            boolean empty = headers.isEmpty() && properties.isEmpty() && validatorRefs.isEmpty();
+
+            start("message", empty);
+            attribute("uri", singleValue(message, MessageModel.PropertyNames.URI.toString()));
+            attribute("content", singleValue(message, MessageModel.PropertyNames.CONTENT.toString()));
+            attribute("multiplicity", singleValue(message, MessageModel.PropertyNames.MULTIPLICITY.toString()));
+            if (!empty) {
+                for (Property header : headers) {
+                    writeKeyValue("header", "name", "value", header.cast(KeyValue.class));
+                }
+                for (Property property : properties) {
+                    writeKeyValue("property", "name", "value", property.cast(KeyValue.class));
+                }
+                for (Property validatorRef : validatorRefs) {
+                    start("validatorRef", true);
+                    attribute("id", validatorRef.cast(Value.class).getValue());
+                }
+                end();
+            }
+        }
+
+        private void writeValidator(Model validator) throws XMLStreamException {
+            List<String[]> implProperties = implProperties(validator);
+            boolean empty = implProperties.isEmpty();
+
+            start("validator", empty);
+            attribute("class", singleValue(validator, ValidatorModel.PropertyNames.IMPLEMENTATION.toString()));
+            attribute("id", singleValue(validator, ValidatorModel.PropertyNames.ID.toString()));
+            if (!empty) {
+                writeProperties(implProperties);
+                end();
+            }
+        }
+
+        /**
+         * Collects implementation properties of a model as name-value pairs.
+         */
+        private List<String[]> implProperties(Model model) {
+            List<String[]> result = new ArrayList<>();
+            for (PropertyInfo propertyInfo : model.getSupportedImplProperties()) {
+                for (Property p : model.getProperties(propertyInfo)) {
+                    result.add(new String[] {propertyInfo.getName(), p.cast(Value.class).getValue()});
+                }
+            }
+            return result;
+        }
+
+        private void writeProperties(List<String[]> properties) throws XMLStreamException {
+            for (String[] property : properties) {
+                start("property", true);
+                attribute("name", property[0]);
+                attribute("value", property[1]);
+            }
+        }
+
+        private void writeKeyValue(String element, String keyAttribute, String valueAttribute, KeyValue keyValue)
+                throws XMLStreamException {
+            start(element, true);
+            attribute(keyAttribute, keyValue.getKey());
+            attribute(valueAttribute, keyValue.getValue());
+        }
+
+        private void textElement(String name, String text) throws XMLStreamException {
+            newLine();
+            writer.writeStartElement(name);
+            writer.writeCharacters(text);
+            writer.writeEndElement();
+        }
+
+        /**
+         * Starts new element on a new line. Attributes must be written right after this call. Non empty element must be
+         * closed by {@link #end()} after its children are written.
+         */
+        private void start(String name, boolean empty) throws XMLStreamException {
+            newLine();
+            if (empty) {
+                writer.writeEmptyElement(name);
+            } else {
+                writer.writeStartElement(name);
+                depth++;
+            }
+        }
+
+        /**
+         * Closes non empty element which has been started by {@link #start(String, boolean)}.
+         */
+        private void end() throws XMLStreamException {
+            depth--;
+            newLine();
+            writer.writeEndElement();
+        }
+
+        private void newLine() throws XMLStreamException {
+            StringBuilder builder = new StringBuilder(1 + depth * INDENT.length());
+            builder.append('\n');
+            for (int i = 0; i < depth; i++) {
+                builder.append(INDENT);
+            }
+            writer.writeCharacters(builder.toString());
+        }
+
+        private void attribute(String name, String value) throws XMLStreamException {
+            if (value != null) {
+                writer.writeAttribute(name, value);
+            }
+        }
+
+        /**
+         * Writes boolean attribute. Values true and false are normalized, any other value (a placeholder) is written as it is.
+         */
+        private void booleanAttribute(String name, String value) throws XMLStreamException {
+            if (value == null) {
+                return;
+            }
+            if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                writer.writeAttribute(name, String.valueOf(Boolean.valueOf(value)));
+            } else {
+                writer.writeAttribute(name, value);
+            }
+        }
+
+        private String singleValue(Model model, String propertyName) {
+            List<Property> properties = model.getProperties(propertyName);
+            if (properties.size() > 1) {
+                logger.warn("Multiple properties '{}' exists when trying to get single one.", propertyName);
+            }
+            return properties.isEmpty() ? null : properties.get(0).cast(Value.class).getValue();
+        }
+    }
+}
@@ -22,18 +22,8 @@ package org.perfcake.ide.core.model.serialization;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.util.Properties;
-import javax.xml.XMLConstants;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-import org.perfcake.PerfCakeConst;
-import org.perfcake.PerfCakeException;
 import org.perfcake.ide.core.Pc4ideConstants;
 import org.perfcake.ide.core.docs.DocsServiceImpl;
 import org.perfcake.ide.core.exception.ModelConversionException;
@@ -41,11 +31,14 @@ import org.perfcake.ide.core.exception.ModelSerializationException;
 import org.perfcake.ide.core.model.components.ScenarioModel;
 import org.perfcake.ide.core.model.converter.xml.XmlConverter;
 import org.perfcake.model.Scenario;
-import org.perfcake.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.SAXException;
 
+/**
+ * Model loader which loads scenario model from XML. Parsing is delegated to shared {@link XmlSerializationRuntime}.
+ *
+ * @author Jakub Knetl
+ */
 public class XmlModelLoader implements ModelLoader {
 
     static final Logger logger = LoggerFactory.getLogger(XmlModelLoader.class);
@@ -58,38 +51,7 @@ public class XmlModelLoader implements ModelLoader {
      * @throws ModelSerializationException if file cannot be parsed.
      */
     public Scenario parse(InputStream inputStream) throws ModelSerializationException {
-        try {
-            final Source scenarioXml = new StreamSource(inputStream);
-            final String schemaFileName = "perfcake-scenario-" + PerfCakeConst.XSD_SCHEMA_VERSION + ".xsd";
-            final URL backupUrl = new URL("http://schema.perfcake.org/" + schemaFileName);
-
-            URL scenarioXsdUrl = Utils.getResourceAsUrl("/schemas/" + schemaFileName);
-
-            try {
-                final InputStream test = scenarioXsdUrl.openStream();
-                //noinspection ResultOfMethodCallIgnored
-                test.read(); // there always is a byte
-                test.close(); // we do not need finally for this as we could not have failed
-            } catch (final IOException e) {
-                scenarioXsdUrl = backupUrl; // backup taken from the web
-            }
-
-            final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            final Schema schema = schemaFactory.newSchema(scenarioXsdUrl);
-
-            final JAXBContext context = JAXBContext.newInstance(org.perfcake.model.Scenario.class);
-            final Unmarshaller unmarshaller = context.createUnmarshaller();
-            unmarshaller.setSchema(schema);
-            return (org.perfcake.model.Scenario) unmarshaller.unmarshal(scenarioXml);
-        } catch (final SAXException e) {
-            throw new ModelSerializationException("Cannot validate scenario configuration. PerfCake installation seems broken. ", e);
-        } catch (final JAXBException e) {
-            throw new ModelSerializationException("Cannot parse scenario configuration: ", e);
-        } catch (final IOException e) {
-            throw new ModelSerializationException("Wrong scenario url.", e);
-        } catch (PerfCakeException e) {
-            throw new ModelSerializationException("Cannot find scenario XSD file.", e);
-        }
+        return XmlSerializationRuntime.getInstance().unmarshal(new StreamSource(inputStream));
     }
 
     @Override
@@ -0,0 +1,238 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.Source;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.perfcake.PerfCakeConst;
+import org.perfcake.PerfCakeException;
+import org.perfcake.ide.core.exception.ModelSerializationException;
+import org.perfcake.model.Scenario;
+import org.perfcake.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * Process-wide runtime for XML scenario serialization. It creates JAXB context and compiles PerfCake scenario XSD only once.
+ * {@link Marshaller} and {@link Unmarshaller} instances are not thread safe, therefore they are kept in a bounded pool. Every
+ * instance is borrowed by exactly one thread for the duration of a single call and returned to the pool afterwards.
+ *
+ * @author Jakub Knetl
+ */
+public final class XmlSerializationRuntime {
+
+    static final Logger logger = LoggerFactory.getLogger(XmlSerializationRuntime.class);
+
+    /**
+     * Maximum number of idle marshallers (and unmarshallers) kept in the pool.
+     */
+    public static final int MAX_POOL_SIZE = 8;
+
+    /**
+     * Name of the PerfCake scenario schema file.
+     */
+    public static final String SCHEMA_FILE_NAME = "perfcake-scenario-" + PerfCakeConst.XSD_SCHEMA_VERSION + ".xsd";
+
+    private static volatile XmlSerializationRuntime instance;
+
+    private final JAXBContext context;
+    private final Schema schema;
+
+    private final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(MAX_POOL_SIZE);
+    private final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(MAX_POOL_SIZE);
+
+    private XmlSerializationRuntime(JAXBContext context, Schema schema) {
+        this.context = context;
+        this.schema = schema;
+    }
+
+    /**
+     * Returns shared serialization runtime. Runtime is created lazily during first call.
+     *
+     * @return shared serialization runtime
+     * @throws ModelSerializationException if JAXB context cannot be created or schema cannot be compiled.
+     */
+    public static XmlSerializationRuntime getInstance() throws ModelSerializationException {
+        XmlSerializationRuntime result = instance;
+        if (result == null) {
+            synchronized (XmlSerializationRuntime.class) {
+                result = instance;
+                if (result == null) {
+                    result = create();
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static XmlSerializationRuntime create() throws ModelSerializationException {
+        long start = System.nanoTime();
+        try {
+            final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            final Schema schema = schemaFactory.newSchema(getSchemaUrl());
+            final JAXBContext context = JAXBContext.newInstance(Scenario.class);
+            logger.debug("XML serialization runtime created in {} ms.", (System.nanoTime() - start) / 1_000_000);
+            return new XmlSerializationRuntime(context, schema);
+        } catch (final SAXException e) {
+            throw new ModelSerializationException("Cannot validate scenario configuration. PerfCake installation seems broken. ", e);
+        } catch (final JAXBException e) {
+            throw new ModelSerializationException("Cannot create JAXB context for scenario.", e);
+        } catch (final IOException e) {
+            throw new ModelSerializationException("Wrong scenario url.", e);
+        } catch (PerfCakeException e) {
+            throw new ModelSerializationException("Cannot find scenario XSD file.", e);
+        }
+    }
+
+    /**
+     * Finds URL of the scenario schema. Schema bundled in PerfCake is preferred, if it cannot be read then schema from
+     * PerfCake website is used.
+     */
+    private static URL getSchemaUrl() throws PerfCakeException, IOException {
+        final URL backupUrl = new URL("http://schema.perfcake.org/" + SCHEMA_FILE_NAME);
+
+        URL scenarioXsdUrl = Utils.getResourceAsUrl("/schemas/" + SCHEMA_FILE_NAME);
+
+        try {
+            final InputStream test = scenarioXsdUrl.openStream();
+            //noinspection ResultOfMethodCallIgnored
+            test.read(); // there always is a byte
+            test.close(); // we do not need finally for this as we could not have failed
+        } catch (final IOException e) {
+            scenarioXsdUrl = backupUrl; // backup taken from the web
+        }
+
+        return scenarioXsdUrl;
+    }
+
+    /**
+     * @return Shared JAXB context for PerfCake scenario.
+     */
+    public JAXBContext getContext() {
+        return context;
+    }
+
+    /**
+     * @return Compiled PerfCake scenario schema. Schema is immutable and thread safe.
+     */
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Unmarshals and validates JAXB scenario.
+     *
+     * @param source source of the scenario XML
+     * @return parsed JAXB scenario model
+     * @throws ModelSerializationException if scenario cannot be parsed
+     */
+    public Scenario unmarshal(Source source) throws ModelSerializationException {
+        if (source == null) {
+            throw new IllegalArgumentException("Source cannot be null.");
+        }
+
+        final Unmarshaller unmarshaller = borrowUnmarshaller();
+        boolean healthy = false;
+        try {
+            final Scenario scenario = (Scenario) unmarshaller.unmarshal(source);
+            healthy = true;
+            return scenario;
+        } catch (final JAXBException e) {
+            throw new ModelSerializationException("Cannot parse scenario configuration: ", e);
+        } finally {
+            // unmarshaller which failed may be left in inconsistent state, so it is not reused
+            if (healthy) {
+                unmarshallers.offer(unmarshaller);
+            }
+        }
+    }
+
+    /**
+     * Marshals JAXB scenario into output stream. Output is validated against the schema and it is formatted.
+     *
+     * @param scenario     scenario to be marshalled
+     * @param outputStream output stream
+     * @throws ModelSerializationException if scenario cannot be marshalled
+     */
+    public void marshal(Scenario scenario, OutputStream outputStream) throws ModelSerializationException {
+        if (scenario == null) {
+            throw new IllegalArgumentException("Scenario cannot be null.");
+        }
+        if (outputStream == null) {
+            throw new IllegalArgumentException("Output stream cannot be null.");
+        }
+
+        final Marshaller marshaller = borrowMarshaller();
+        boolean healthy = false;
+        try {
+            marshaller.marshal(scenario, outputStream);
+            healthy = true;
+        } catch (JAXBException e) {
+            throw new ModelSerializationException("JAXB error when saving scenario", e);
+        } finally {
+            if (healthy) {
+                marshallers.offer(marshaller);
+            }
+        }
+    }
+
+    private Unmarshaller borrowUnmarshaller() throws ModelSerializationException {
+        Unmarshaller unmarshaller = unmarshallers.poll();
+        if (unmarshaller == null) {
+            try {
+                unmarshaller = context.createUnmarshaller();
+                unmarshaller.setSchema(schema);
+            } catch (JAXBException e) {
+                throw new ModelSerializationException("Cannot create scenario unmarshaller.", e);
+            }
+        }
+        return unmarshaller;
+    }
+
+    private Marshaller borrowMarshaller() throws ModelSerializationException {
+        Marshaller marshaller = marshallers.poll();
+        if (marshaller == null) {
+            try {
+                marshaller = context.createMarshaller();
+                marshaller.setSchema(schema);
+                //add line breaks and indentation into output
+                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            } catch (JAXBException e) {
+                throw new ModelSerializationException("Cannot create scenario marshaller.", e);
+            }
+        }
+        return marshaller;
+    }
+}
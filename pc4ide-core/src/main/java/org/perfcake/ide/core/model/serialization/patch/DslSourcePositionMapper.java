@@ -0,0 +1,179 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization.patch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.components.ReceiverModel;
+import org.perfcake.ide.core.model.components.ReporterModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.ScenarioModel.PropertyNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds regions of component lines in dsl scenario. Every component (generator, sender, reporter, ...) is defined on a
+ * single line, which starts with the keyword of the component. The mapper scans the text in a single pass (without dsl
+ * parser) and pairs component lines with component models of the same kind in document order. Region of a component
+ * starts at the beginning of its line (including indentation) and ends at the line terminator.
+ *
+ * @author Jakub Knetl
+ */
+public class DslSourcePositionMapper implements SourcePositionMapper {
+
+    static final Logger logger = LoggerFactory.getLogger(DslSourcePositionMapper.class);
+
+    private static final String[] COMPONENT_KEYWORDS = new String[] {
+            "generator", "sequence", "sender", "receiver", "correlator", "reporter", "destination", "message", "validator"
+    };
+
+    @Override
+    public SourcePositionMap map(CharSequence text, ScenarioModel model) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null.");
+        }
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null.");
+        }
+
+        Map<String, List<Model>> models = new HashMap<>();
+        collectModels(model, models);
+
+        Map<String, List<int[]>> regions = new HashMap<>();
+        scan(text, regions);
+
+        SourcePositionMap map = new SourcePositionMap();
+        for (String keyword : COMPONENT_KEYWORDS) {
+            List<Model> keywordModels = models.getOrDefault(keyword, new ArrayList<>());
+            List<int[]> keywordRegions = regions.getOrDefault(keyword, new ArrayList<>());
+            if (keywordModels.size() != keywordRegions.size()) {
+                logger.debug("Cannot find component regions. Text does not correspond to the model.");
+                return new SourcePositionMap();
+            }
+            for (int i = 0; i < keywordModels.size(); i++) {
+                map.put(keywordModels.get(i), keywordRegions.get(i)[0], keywordRegions.get(i)[1]);
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * Collects component models by keywords of their lines in document order.
+     */
+    private void collectModels(ScenarioModel scenario, Map<String, List<Model>> models) {
+        addModels(scenario, PropertyNames.GENERATOR.toString(), "generator", models);
+        addModels(scenario, PropertyNames.SEQUENCES.toString(), "sequence", models);
+        addModels(scenario, PropertyNames.SENDER.toString(), "sender", models);
+
+        for (Property receiver : scenario.getProperties(PropertyNames.RECEIVER.toString())) {
+            addModel(receiver.cast(Model.class), "receiver", models);
+            addModels(receiver.cast(Model.class), ReceiverModel.PropertyNames.CORRELATOR.toString(), "correlator", models);
+        }
+
+        for (Property reporter : scenario.getProperties(PropertyNames.REPORTERS.toString())) {
+            addModel(reporter.cast(Model.class), "reporter", models);
+            addModels(reporter.cast(Model.class), ReporterModel.PropertyNames.DESTINATION.toString(), "destination", models);
+        }
+
+        addModels(scenario, PropertyNames.MESSAGES.toString(), "message", models);
+        addModels(scenario, PropertyNames.VALIDATORS.toString(), "validator", models);
+    }
+
+    private void addModels(Model parent, String propertyName, String keyword, Map<String, List<Model>> models) {
+        for (Property property : parent.getProperties(propertyName)) {
+            addModel(property.cast(Model.class), keyword, models);
+        }
+    }
+
+    private void addModel(Model model, String keyword, Map<String, List<Model>> models) {
+        models.computeIfAbsent(keyword, key -> new ArrayList<>()).add(model);
+    }
+
+    /**
+     * Scans the text line by line and finds regions of component lines. Quoted strings cannot span multiple lines in
+     * dsl, so the line terminators always separate the lines.
+     */
+    private void scan(CharSequence text, Map<String, List<int[]>> regions) {
+        final int length = text.length();
+        int lineStart = 0;
+
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && !isLineTerminator(text.charAt(lineEnd))) {
+                lineEnd++;
+            }
+
+            int wordStart = lineStart;
+            while (wordStart < lineEnd && isSpace(text.charAt(wordStart))) {
+                wordStart++;
+            }
+            int wordEnd = wordStart;
+            while (wordEnd < lineEnd && !isSpace(text.charAt(wordEnd)) && text.charAt(wordEnd) != '"') {
+                wordEnd++;
+            }
+
+            final String keyword = componentKeyword(text, wordStart, wordEnd);
+            if (keyword != null) {
+                regions.computeIfAbsent(keyword, key -> new ArrayList<>()).add(new int[] {lineStart, lineEnd});
+            }
+
+            // skip the line terminator, \r\n is a single terminator
+            lineStart = lineEnd + 1;
+            if (lineEnd < length && text.charAt(lineEnd) == '\r' && lineStart < length && text.charAt(lineStart) == '\n') {
+                lineStart++;
+            }
+        }
+    }
+
+    /**
+     * @return keyword of the component if the word in the text is a component keyword, null otherwise.
+     */
+    private String componentKeyword(CharSequence text, int start, int end) {
+        for (String keyword : COMPONENT_KEYWORDS) {
+            if (keyword.length() == end - start && startsWith(text, start, keyword)) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+
+    private boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    private boolean startsWith(CharSequence text, int offset, String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization.patch;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.perfcake.ide.core.model.Model;
+
+/**
+ * Maps component models to regions of serialized scenario text. Region of a model starts at the first character of
+ * the component definition and ends right after it (exclusive). Models are compared by identity, so the map stays valid
+ * while the model is mutated in place.
+ *
+ * @author Jakub Knetl
+ */
+public class SourcePositionMap {
+
+    private final Map<Model, int[]> positions = new IdentityHashMap<>();
+
+    /**
+     * Creates empty map. Empty map means that no positions are known.
+     */
+    public SourcePositionMap() {
+    }
+
+    /**
+     * Records region of a model.
+     *
+     * @param model model
+     * @param start start offset of the model region (inclusive)
+     * @param end   end offset of the model region (exclusive)
+     */
+    public void put(Model model, int start, int end) {
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null.");
+        }
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException(String.format("Invalid region [%d, %d).", start, end));
+        }
+        positions.put(model, new int[] {start, end});
+    }
+
+    /**
+     * @param model model
+     * @return true if region of the model is known.
+     */
+    public boolean contains(Model model) {
+        return positions.containsKey(model);
+    }
+
+    /**
+     * @param model model
+     * @return start offset of the model region, or -1 if region is unknown.
+     */
+    public int getStart(Model model) {
+        int[] region = positions.get(model);
+        return region == null ? -1 : region[0];
+    }
+
+    /**
+     * @param model model
+     * @return end offset (exclusive) of the model region, or -1 if region is unknown.
+     */
+    public int getEnd(Model model) {
+        int[] region = positions.get(model);
+        return region == null ? -1 : region[1];
+    }
+
+    /**
+     * @return unmodifiable set of models with known regions.
+     */
+    public Set<Model> getModels() {
+        return Collections.unmodifiableSet(positions.keySet());
+    }
+
+    /**
+     * @return number of models with known region.
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * @return true if no region is known.
+     */
+    public boolean isEmpty() {
+        return positions.isEmpty();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization.patch;
+
+import org.perfcake.ide.core.model.components.ScenarioModel;
+
+/**
+ * Source position mapper finds regions of component models in serialized scenario.
+ *
+ * @author Jakub Knetl
+ */
+public interface SourcePositionMapper {
+
+    /**
+     * Finds regions of components of the model in the text.
+     *
+     * @param text  serialized scenario
+     * @param model model of the scenario, which corresponds to the text
+     * @return map of model regions. If the text does not correspond to the model, then empty map is returned.
+     */
+    SourcePositionMap map(CharSequence text, ScenarioModel model);
+}
@@ -0,0 +1,114 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization.patch;
+
+import java.util.Objects;
+
+/**
+ * Represents single text edit: replacement of <code>length</code> characters at <code>offset</code> with
+ * <code>replacement</code>. Edit is immutable.
+ *
+ * @author Jakub Knetl
+ */
+public final class TextEdit {
+
+    private final int offset;
+    private final int length;
+    private final String replacement;
+
+    /**
+     * Creates new text edit.
+     *
+     * @param offset      offset of the replaced region in the original text
+     * @param length      length of the replaced region. Zero means insertion.
+     * @param replacement new text of the region. Empty string means deletion.
+     */
+    public TextEdit(int offset, int length, String replacement) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative.");
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be negative.");
+        }
+        if (replacement == null) {
+            throw new IllegalArgumentException("Replacement cannot be null.");
+        }
+        this.offset = offset;
+        this.length = length;
+        this.replacement = replacement;
+    }
+
+    /**
+     * @return Offset of the replaced region in the original text.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Length of the replaced region in the original text.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return End offset (exclusive) of the replaced region in the original text.
+     */
+    public int getEndOffset() {
+        return offset + length;
+    }
+
+    /**
+     * @return New text of the region.
+     */
+    public String getReplacement() {
+        return replacement;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TextEdit textEdit = (TextEdit) o;
+        return offset == textEdit.offset
+                && length == textEdit.length
+                && Objects.equals(replacement, textEdit.replacement);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, length, replacement);
+    }
+
+    @Override
+    public String toString() {
+        return "TextEdit{"
+                + "offset=" + offset
+                + ", length=" + length
+                + ", replacement='" + replacement + '\''
+                + '}';
+    }
+}
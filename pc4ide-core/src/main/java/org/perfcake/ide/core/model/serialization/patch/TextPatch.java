@@ -0,0 +1,108 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization.patch;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Text patch is a result of {@link TextPatchService}. It contains minimal list of edits which transform old scenario text
+ * into the new one, the new text itself and source position map of the new text.
+ *
+ * @author Jakub Knetl
+ */
+public class TextPatch {
+
+    private final List<TextEdit> edits;
+    private final String text;
+    private final SourcePositionMap sourceMap;
+
+    /**
+     * Creates new text patch.
+     *
+     * @param edits     edits sorted by offset. Edits must not overlap.
+     * @param text      text after applying the edits
+     * @param sourceMap source position map of the text after applying the edits
+     */
+    public TextPatch(List<TextEdit> edits, String text, SourcePositionMap sourceMap) {
+        if (edits == null) {
+            throw new IllegalArgumentException("Edits cannot be null.");
+        }
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null.");
+        }
+        if (sourceMap == null) {
+            throw new IllegalArgumentException("Source map cannot be null.");
+        }
+        this.edits = Collections.unmodifiableList(edits);
+        this.text = text;
+        this.sourceMap = sourceMap;
+    }
+
+    /**
+     * Returns edits sorted by offset. Offsets refer to the old text, so a client which applies edits one by one should
+     * apply them in reverse order.
+     *
+     * @return unmodifiable list of edits.
+     */
+    public List<TextEdit> getEdits() {
+        return edits;
+    }
+
+    /**
+     * @return New text of the scenario.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return Source position map of the new text.
+     */
+    public SourcePositionMap getSourceMap() {
+        return sourceMap;
+    }
+
+    /**
+     * @return true if the patch contains no edits, i.e. old and new text are equal.
+     */
+    public boolean isEmpty() {
+        return edits.isEmpty();
+    }
+
+    /**
+     * Applies the edits on the text.
+     *
+     * @param oldText text to which edits are applied
+     * @return text with applied edits
+     */
+    public String apply(CharSequence oldText) {
+        StringBuilder builder = new StringBuilder(text.length());
+        int position = 0;
+        for (TextEdit edit : edits) {
+            builder.append(oldText, position, edit.getOffset())
+                    .append(edit.getReplacement());
+            position = edit.getEndOffset();
+        }
+        builder.append(oldText, position, oldText.length());
+        return builder.toString();
+    }
+}
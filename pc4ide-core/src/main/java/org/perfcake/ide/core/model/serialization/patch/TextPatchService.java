@@ -0,0 +1,218 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization.patch;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.exception.ModelSerializationException;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.serialization.ModelWriter;
+
+/**
+ * Text patch service computes minimal list of text edits which transform old serialized scenario into serialization of
+ * the current model. IDE adapters may apply only these edits instead of replacing whole document.
+ *
+ * <p>Service uses {@link SourcePositionMap} of the old text (typically recorded when the scenario was loaded) and of the new
+ * text. Regions of the components, which are present in both texts, are used as anchors. Only the text between two
+ * consecutive anchors is compared, so a change in one component cannot produce an edit which spans over other
+ * components. If no positions are known, whole texts are compared.</p>
+ *
+ * @author Jakub Knetl
+ */
+public class TextPatchService {
+
+    private final ModelWriter writer;
+    private final SourcePositionMapper mapper;
+
+    /**
+     * Creates new text patch service which compares whole texts.
+     *
+     * @param writer writer used to serialize model
+     */
+    public TextPatchService(ModelWriter writer) {
+        this(writer, null);
+    }
+
+    /**
+     * Creates new text patch service.
+     *
+     * @param writer writer used to serialize model
+     * @param mapper mapper which is able to find component regions in serialized scenario. If null, then whole texts
+     *               are compared.
+     */
+    public TextPatchService(ModelWriter writer, SourcePositionMapper mapper) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Writer cannot be null.");
+        }
+        this.writer = writer;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Creates source position map of the scenario. This method should be called when the scenario is loaded, so that
+     * the map can be used to compute the first patch.
+     *
+     * @param text  serialized scenario
+     * @param model model corresponding to the text
+     * @return source position map. Map is empty if no mapper is available or if text does not correspond to the model.
+     */
+    public SourcePositionMap createSourceMap(CharSequence text, ScenarioModel model) {
+        if (mapper == null) {
+            return new SourcePositionMap();
+        }
+        return mapper.map(text, model);
+    }
+
+    /**
+     * Serializes the model and computes edits which transform old text into the serialized model.
+     *
+     * @param oldText old serialized scenario
+     * @param oldMap  source position map of the old text. May be empty.
+     * @param model   current model of the scenario
+     * @return patch with the edits, the new text and its source position map
+     * @throws ModelConversionException    if model cannot be converted
+     * @throws ModelSerializationException if model cannot be serialized
+     */
+    public TextPatch computePatch(CharSequence oldText, SourcePositionMap oldMap, ScenarioModel model)
+            throws ModelConversionException, ModelSerializationException {
+        if (oldText == null) {
+            throw new IllegalArgumentException("Old text cannot be null.");
+        }
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null.");
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(oldText.length() + 64);
+        writer.writeScenario(model, outputStream);
+        String newText = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        SourcePositionMap newMap = createSourceMap(newText, model);
+
+        List<TextEdit> edits = diff(oldText, oldMap == null ? new SourcePositionMap() : oldMap, newText, newMap);
+        return new TextPatch(edits, newText, newMap);
+    }
+
+    /**
+     * Computes minimal edits between two texts using component regions as anchors.
+     *
+     * @param oldText old text
+     * @param oldMap  source position map of the old text
+     * @param newText new text
+     * @param newMap  source position map of the new text
+     * @return edits sorted by offset, which transform old text into the new text
+     */
+    public static List<TextEdit> diff(CharSequence oldText, SourcePositionMap oldMap, CharSequence newText, SourcePositionMap newMap) {
+        List<int[]> anchors = createAnchors(oldText, oldMap, newText, newMap);
+        List<TextEdit> edits = new ArrayList<>();
+
+        int oldPosition = 0;
+        int newPosition = 0;
+        for (int[] anchor : anchors) {
+            TextEdit edit = diffSegment(oldText, oldPosition, anchor[0], newText, newPosition, anchor[1]);
+            if (edit != null) {
+                addEdit(edits, edit);
+            }
+            oldPosition = anchor[0];
+            newPosition = anchor[1];
+        }
+
+        return edits;
+    }
+
+    /**
+     * Creates pairs of corresponding offsets (old, new). Pairs are increasing in both offsets. Last pair always
+     * contains ends of the texts.
+     */
+    private static List<int[]> createAnchors(CharSequence oldText, SourcePositionMap oldMap, CharSequence newText,
+                                             SourcePositionMap newMap) {
+        List<int[]> candidates = new ArrayList<>();
+        for (Model model : newMap.getModels()) {
+            if (oldMap.contains(model)) {
+                candidates.add(new int[] {oldMap.getStart(model), newMap.getStart(model)});
+                candidates.add(new int[] {oldMap.getEnd(model), newMap.getEnd(model)});
+            }
+        }
+        candidates.sort(Comparator.<int[]>comparingInt(a -> a[1]).thenComparingInt(a -> a[0]));
+
+        // moved components would produce crossing anchors, these are dropped
+        List<int[]> anchors = new ArrayList<>(candidates.size() + 1);
+        int lastOld = 0;
+        int lastNew = 0;
+        for (int[] candidate : candidates) {
+            if (candidate[0] >= lastOld && candidate[1] >= lastNew
+                    && candidate[0] <= oldText.length() && candidate[1] <= newText.length()) {
+                anchors.add(candidate);
+                lastOld = candidate[0];
+                lastNew = candidate[1];
+            }
+        }
+        anchors.add(new int[] {oldText.length(), newText.length()});
+
+        return anchors;
+    }
+
+    /**
+     * Compares segments of the texts. Common prefix and suffix are excluded from the edit.
+     *
+     * @return edit or null if segments are equal
+     */
+    private static TextEdit diffSegment(CharSequence oldText, int oldStart, int oldEnd, CharSequence newText, int newStart, int newEnd) {
+        final int oldLength = oldEnd - oldStart;
+        final int newLength = newEnd - newStart;
+        final int minLength = Math.min(oldLength, newLength);
+
+        int prefix = 0;
+        while (prefix < minLength && oldText.charAt(oldStart + prefix) == newText.charAt(newStart + prefix)) {
+            prefix++;
+        }
+
+        if (prefix == oldLength && prefix == newLength) {
+            return null;
+        }
+
+        int suffix = 0;
+        while (suffix < minLength - prefix && oldText.charAt(oldEnd - 1 - suffix) == newText.charAt(newEnd - 1 - suffix)) {
+            suffix++;
+        }
+
+        return new TextEdit(oldStart + prefix, oldLength - prefix - suffix,
+                newText.subSequence(newStart + prefix, newEnd - suffix).toString());
+    }
+
+    /**
+     * Adds edit into the list. If the edit directly follows the last edit, they are merged.
+     */
+    private static void addEdit(List<TextEdit> edits, TextEdit edit) {
+        if (!edits.isEmpty()) {
+            TextEdit last = edits.get(edits.size() - 1);
+            if (last.getEndOffset() == edit.getOffset()) {
+                edits.set(edits.size() - 1,
+                        new TextEdit(last.getOffset(), last.getLength() + edit.getLength(), last.getReplacement() + edit.getReplacement()));
+                return;
+            }
+        }
+        edits.add(edit);
+    }
+}
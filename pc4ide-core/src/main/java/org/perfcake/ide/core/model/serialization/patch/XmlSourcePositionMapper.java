@@ -0,0 +1,246 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.serialization.patch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.components.ReceiverModel;
+import org.perfcake.ide.core.model.components.ReporterModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.ScenarioModel.PropertyNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds regions of component elements in XML scenario. It scans the text in a single pass (without XML parser) and pairs
+ * component elements (generator, sender, reporter, ...) with component models in document order.
+ *
+ * @author Jakub Knetl
+ */
+public class XmlSourcePositionMapper implements SourcePositionMapper {
+
+    static final Logger logger = LoggerFactory.getLogger(XmlSourcePositionMapper.class);
+
+    private static final String[] COMPONENT_ELEMENTS = new String[] {
+            "generator", "sequence", "sender", "receiver", "correlator", "reporter", "destination", "message", "validator"
+    };
+
+    @Override
+    public SourcePositionMap map(CharSequence text, ScenarioModel model) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text cannot be null.");
+        }
+        if (model == null) {
+            throw new IllegalArgumentException("Model cannot be null.");
+        }
+
+        List<Model> models = new ArrayList<>();
+        List<String> modelElements = new ArrayList<>();
+        collectModels(model, models, modelElements);
+
+        List<String> elements = new ArrayList<>();
+        List<int[]> regions = new ArrayList<>();
+        SourcePositionMap map = new SourcePositionMap();
+
+        if (!scan(text, elements, regions)) {
+            logger.debug("Cannot find component regions. Text is not well formed XML.");
+            return map;
+        }
+
+        if (!elements.equals(modelElements)) {
+            logger.debug("Cannot find component regions. Text does not correspond to the model.");
+            return map;
+        }
+
+        for (int i = 0; i < models.size(); i++) {
+            map.put(models.get(i), regions.get(i)[0], regions.get(i)[1]);
+        }
+
+        return map;
+    }
+
+    /**
+     * Collects component models and names of their XML elements in document order.
+     */
+    private void collectModels(ScenarioModel scenario, List<Model> models, List<String> elements) {
+        addModels(scenario, PropertyNames.GENERATOR.toString(), "generator", models, elements);
+        addModels(scenario, PropertyNames.SEQUENCES.toString(), "sequence", models, elements);
+        addModels(scenario, PropertyNames.SENDER.toString(), "sender", models, elements);
+
+        for (Property receiver : scenario.getProperties(PropertyNames.RECEIVER.toString())) {
+            models.add(receiver.cast(Model.class));
+            elements.add("receiver");
+            addModels(receiver.cast(Model.class), ReceiverModel.PropertyNames.CORRELATOR.toString(), "correlator", models, elements);
+        }
+
+        for (Property reporter : scenario.getProperties(PropertyNames.REPORTERS.toString())) {
+            models.add(reporter.cast(Model.class));
+            elements.add("reporter");
+            addModels(reporter.cast(Model.class), ReporterModel.PropertyNames.DESTINATION.toString(), "destination", models, elements);
+        }
+
+        addModels(scenario, PropertyNames.MESSAGES.toString(), "message", models, elements);
+        addModels(scenario, PropertyNames.VALIDATORS.toString(), "validator", models, elements);
+    }
+
+    private void addModels(Model parent, String propertyName, String element, List<Model> models, List<String> elements) {
+        for (Property property : parent.getProperties(propertyName)) {
+            models.add(property.cast(Model.class));
+            elements.add(element);
+        }
+    }
+
+    /**
+     * Scans the text and finds regions of component elements.
+     *
+     * @return false if the text is not well formed.
+     */
+    private boolean scan(CharSequence text, List<String> elements, List<int[]> regions) {
+        final Deque<int[]> open = new ArrayDeque<>();
+        final int length = text.length();
+        int i = 0;
+
+        while (i < length) {
+            if (text.charAt(i) != '<') {
+                i++;
+                continue;
+            }
+
+            // skip markup which is not an element
+            if (startsWith(text, i, "<!--")) {
+                i = skipPast(text, i + 4, "-->");
+            } else if (startsWith(text, i, "<![CDATA[")) {
+                i = skipPast(text, i + 9, "]]>");
+            } else if (startsWith(text, i, "<?")) {
+                i = skipPast(text, i + 2, "?>");
+            } else if (startsWith(text, i, "<!")) {
+                i = skipPast(text, i + 2, ">");
+            } else {
+                final boolean endTag = i + 1 < length && text.charAt(i + 1) == '/';
+                final int nameStart = endTag ? i + 2 : i + 1;
+                int nameEnd = nameStart;
+                int localStart = nameStart;
+                while (nameEnd < length && isNameChar(text.charAt(nameEnd))) {
+                    if (text.charAt(nameEnd) == ':') {
+                        localStart = nameEnd + 1;
+                    }
+                    nameEnd++;
+                }
+                final int tagEnd = findTagEnd(text, nameEnd);
+                if (tagEnd < 0) {
+                    return false;
+                }
+
+                final String component = componentElement(text, localStart, nameEnd);
+                if (component != null) {
+                    if (endTag) {
+                        if (open.isEmpty()) {
+                            return false;
+                        }
+                        open.pop()[1] = tagEnd + 1;
+                    } else {
+                        int[] region = new int[] {i, -1};
+                        elements.add(component);
+                        regions.add(region);
+                        if (text.charAt(tagEnd - 1) == '/') {
+                            region[1] = tagEnd + 1;
+                        } else {
+                            open.push(region);
+                        }
+                    }
+                }
+                i = tagEnd + 1;
+            }
+
+            if (i < 0) {
+                return false;
+            }
+        }
+
+        return open.isEmpty();
+    }
+
+    /**
+     * @return name of component element if the name in the text is a component element name, null otherwise.
+     */
+    private String componentElement(CharSequence text, int start, int end) {
+        for (String element : COMPONENT_ELEMENTS) {
+            if (element.length() == end - start && startsWith(text, start, element)) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private boolean isNameChar(char c) {
+        return !Character.isWhitespace(c) && c != '>' && c != '/';
+    }
+
+    /**
+     * Finds end of tag. Quoted attribute values may contain '&gt;' character, so quotes are respected.
+     *
+     * @return index of the '&gt;' character which ends the tag, or -1 if there is no such character.
+     */
+    private int findTagEnd(CharSequence text, int from) {
+        char quote = 0;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index right after the first occurrence of the terminator, or -1 if there is no terminator.
+     */
+    private int skipPast(CharSequence text, int from, String terminator) {
+        for (int i = from; i <= text.length() - terminator.length(); i++) {
+            if (startsWith(text, i, terminator)) {
+                return i + terminator.length();
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWith(CharSequence text, int offset, String prefix) {
+        if (offset + prefix.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.snapshot;
+
+import java.util.Objects;
+import org.perfcake.ide.core.model.PropertyType;
+
+/**
+ * Immutable snapshot of a {@link org.perfcake.ide.core.model.properties.KeyValue}.
+ *
+ * @author Jakub Knetl
+ */
+public final class KeyValueSnapshot implements PropertySnapshot {
+
+    private final String propertyName;
+    private final String key;
+    private final String value;
+    private final String any;
+
+    /**
+     * Creates new key-value snapshot.
+     *
+     * @param propertyName name of the property
+     * @param key          key of the property
+     * @param value        value of the property
+     * @param any          arbitrary value associated with the property
+     */
+    public KeyValueSnapshot(String propertyName, String key, String value, String any) {
+        this.propertyName = propertyName;
+        this.key = key;
+        this.value = value;
+        this.any = any;
+    }
+
+    @Override
+    public PropertyType getPropertyType() {
+        return PropertyType.KEY_VALUE;
+    }
+
+    @Override
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getAny() {
+        return any;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        KeyValueSnapshot that = (KeyValueSnapshot) o;
+        return Objects.equals(propertyName, that.propertyName)
+                && Objects.equals(key, that.key)
+                && Objects.equals(value, that.value)
+                && Objects.equals(any, that.any);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(propertyName, key, value, any);
+    }
+
+    @Override
+    public String toString() {
+        return "KeyValueSnapshot{"
+                + "propertyName='" + propertyName + '\''
+                + ", key='" + key + '\''
+                + ", value='" + value + '\''
+                + ", any='" + any + '\''
+                + '}';
+    }
+}
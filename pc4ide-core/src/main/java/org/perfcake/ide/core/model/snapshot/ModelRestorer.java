@@ -0,0 +1,167 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.snapshot;
+
+import java.util.List;
+import org.perfcake.ide.core.components.ComponentLoader;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.model.AbstractModel;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.CorrelatorModel;
+import org.perfcake.ide.core.model.components.DestinationModel;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ReceiverModel;
+import org.perfcake.ide.core.model.components.ReporterModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.SenderModel;
+import org.perfcake.ide.core.model.components.SequenceModel;
+import org.perfcake.ide.core.model.components.ValidatorModel;
+import org.perfcake.ide.core.model.properties.KeyValueImpl;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Model restorer creates new model from a {@link ModelSnapshot}. Snapshot may be taken in the thread which owns the model
+ * and restored in another thread, which then owns the restored model. It allows to process the model (e.g. to serialize
+ * it) without blocking the owner of the original model.
+ *
+ * @author Jakub Knetl
+ */
+public final class ModelRestorer {
+
+    static final Logger logger = LoggerFactory.getLogger(ModelRestorer.class);
+
+    private final DocsService docsService;
+    private final ComponentLoader componentLoader;
+
+    /**
+     * Creates new model restorer.
+     *
+     * @param docsService     documentation service of restored models
+     * @param componentLoader loader of implementations of restored models
+     */
+    public ModelRestorer(DocsService docsService, ComponentLoader componentLoader) {
+        if (docsService == null) {
+            throw new IllegalArgumentException("Documentation service cannot be null.");
+        }
+        if (componentLoader == null) {
+            throw new IllegalArgumentException("Component loader cannot be null.");
+        }
+        this.docsService = docsService;
+        this.componentLoader = componentLoader;
+    }
+
+    /**
+     * Creates new scenario model from its snapshot.
+     *
+     * @param snapshot snapshot of a scenario model
+     * @return new scenario model equal to the model from which the snapshot has been taken
+     */
+    public ScenarioModel restoreScenario(ModelSnapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Snapshot cannot be null.");
+        }
+        if (snapshot.getComponent() != PerfCakeComponent.SCENARIO) {
+            throw new IllegalArgumentException("Snapshot is not a snapshot of a scenario: " + snapshot.getComponent());
+        }
+        ScenarioModel scenario = new ScenarioModel(docsService);
+        scenario.setComponentLoader(componentLoader);
+        restoreProperties(scenario, snapshot);
+        return scenario;
+    }
+
+    private void restoreProperties(Model model, ModelSnapshot snapshot) {
+        // implementation must be restored first, since it defines supported implementation properties
+        List<PropertySnapshot> implementation = snapshot.getProperties(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY);
+        if (implementation != null) {
+            restoreProperty(model, AbstractModel.IMPLEMENTATION_CLASS_PROPERTY, implementation);
+        }
+
+        for (String name : snapshot.getSupportedPropertyNames()) {
+            if (!AbstractModel.IMPLEMENTATION_CLASS_PROPERTY.equals(name)) {
+                restoreProperty(model, name, snapshot.getProperties(name));
+            }
+        }
+    }
+
+    private void restoreProperty(Model model, String name, List<PropertySnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        PropertyInfo propertyInfo = model.getSupportedProperty(name);
+        if (propertyInfo == null) {
+            logger.warn("Ignoring property {} which is not supported by restored model {}", name, model.getComponent());
+            return;
+        }
+
+        for (PropertySnapshot snapshot : snapshots) {
+            switch (snapshot.getPropertyType()) {
+                case VALUE:
+                    model.addProperty(propertyInfo, new SimpleValue(((ValueSnapshot) snapshot).getValue()));
+                    break;
+                case KEY_VALUE:
+                    KeyValueSnapshot keyValue = (KeyValueSnapshot) snapshot;
+                    model.addProperty(propertyInfo, new KeyValueImpl(keyValue.getKey(), keyValue.getValue(), keyValue.getAny()));
+                    break;
+                case MODEL:
+                    ModelSnapshot modelSnapshot = (ModelSnapshot) snapshot;
+                    Model submodel = createModel(modelSnapshot.getComponent());
+                    // submodel is attached first, so that it uses component loader of the scenario
+                    model.addProperty(propertyInfo, submodel);
+                    restoreProperties(submodel, modelSnapshot);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown property type: " + snapshot.getPropertyType());
+            }
+        }
+    }
+
+    private Model createModel(PerfCakeComponent component) {
+        switch (component) {
+            case GENERATOR:
+                return new GeneratorModel(docsService);
+            case SENDER:
+                return new SenderModel(docsService);
+            case RECEIVER:
+                return new ReceiverModel(docsService);
+            case CORRELATOR:
+                return new CorrelatorModel(docsService);
+            case SEQUENCE:
+                return new SequenceModel(docsService);
+            case REPORTER:
+                return new ReporterModel(docsService);
+            case DESTINATION:
+                return new DestinationModel(docsService);
+            case VALIDATOR:
+                return new ValidatorModel(docsService);
+            case MESSAGE:
+                return new MessageModel(docsService);
+            case SCENARIO:
+                return new ScenarioModel(docsService);
+            default:
+                throw new IllegalArgumentException("Unknown component: " + component);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.snapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.perfcake.ide.core.model.AbstractModel;
+import org.perfcake.ide.core.model.PropertyType;
+
+/**
+ * Immutable snapshot of a {@link org.perfcake.ide.core.model.Model}. It contains snapshots of all properties of the model.
+ *
+ * <p>Snapshots are structurally shared. If a part of the model has not changed since previous snapshot, then new snapshot
+ * of the model references the same snapshot of that part. Therefore, taking a snapshot after a change creates only new
+ * snapshots of the changed property and of the models on the path from the property to the root.</p>
+ *
+ * @author Jakub Knetl
+ */
+public final class ModelSnapshot implements PropertySnapshot {
+
+    private final PerfCakeComponent component;
+    private final String propertyName;
+    private final Map<String, List<PropertySnapshot>> properties;
+
+    // cached hash code, zero means not computed yet
+    private int hash;
+
+    /**
+     * Creates new model snapshot.
+     *
+     * @param component    PerfCake component represented by the model
+     * @param propertyName name of the property
+     * @param properties   snapshots of properties of the model, keyed by name of supported property
+     */
+    public ModelSnapshot(PerfCakeComponent component, String propertyName, Map<String, List<PropertySnapshot>> properties) {
+        if (component == null) {
+            throw new IllegalArgumentException("Component cannot be null.");
+        }
+        if (properties == null) {
+            throw new IllegalArgumentException("Properties cannot be null.");
+        }
+        this.component = component;
+        this.propertyName = propertyName;
+
+        Map<String, List<PropertySnapshot>> copy = new HashMap<>(properties.size() * 2);
+        for (Map.Entry<String, List<PropertySnapshot>> entry : properties.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        this.properties = Collections.unmodifiableMap(copy);
+    }
+
+    @Override
+    public PropertyType getPropertyType() {
+        return PropertyType.MODEL;
+    }
+
+    @Override
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public PerfCakeComponent getComponent() {
+        return component;
+    }
+
+    /**
+     * @return Unmodifiable set of names of properties supported by the model.
+     */
+    public Set<String> getSupportedPropertyNames() {
+        return properties.keySet();
+    }
+
+    /**
+     * @param supportedPropertyName name of the supported property
+     * @return Unmodifiable list of snapshots of the property, or null if the model does not support such property.
+     */
+    public List<PropertySnapshot> getProperties(String supportedPropertyName) {
+        return properties.get(supportedPropertyName);
+    }
+
+    /**
+     * Gets first snapshot of a property.
+     *
+     * @param supportedPropertyName name of the supported property
+     * @param type                  expected type of the snapshot
+     * @param <T>                   expected type of the snapshot
+     * @return first snapshot of the property or null, if there is no such property.
+     * @throws ClassCastException if the snapshot is not of expected type
+     */
+    public <T extends PropertySnapshot> T getSingleProperty(String supportedPropertyName, Class<T> type) {
+        List<PropertySnapshot> snapshots = properties.get(supportedPropertyName);
+        if (snapshots == null || snapshots.isEmpty()) {
+            return null;
+        }
+        return type.cast(snapshots.get(0));
+    }
+
+    /**
+     * @return Name of the implementation of the model, or null if the implementation is not set.
+     */
+    public String getImplementation() {
+        ValueSnapshot implementation = getSingleProperty(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY, ValueSnapshot.class);
+        return (implementation == null) ? null : implementation.getValue();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ModelSnapshot that = (ModelSnapshot) o;
+        return hashCode() == that.hashCode()
+                && component == that.component
+                && Objects.equals(propertyName, that.propertyName)
+                && properties.equals(that.properties);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = Objects.hash(component, propertyName, properties);
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ModelSnapshot{"
+                + "component=" + component
+                + ", propertyName='" + propertyName + '\''
+                + ", properties=" + properties
+                + '}';
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.snapshot;
+
+import org.perfcake.ide.core.model.PropertyType;
+
+/**
+ * Immutable snapshot of a {@link org.perfcake.ide.core.model.Property}. Snapshots are created by
+ * {@link org.perfcake.ide.core.model.Property#snapshot()} in the thread which modifies the model, but they can be safely
+ * read from any thread, since they never change.
+ *
+ * @author Jakub Knetl
+ */
+public interface PropertySnapshot {
+
+    /**
+     * @return Type of the property.
+     */
+    PropertyType getPropertyType();
+
+    /**
+     * @return Name of the property info of the property or null, if the property was not part of any model.
+     */
+    String getPropertyName();
+}
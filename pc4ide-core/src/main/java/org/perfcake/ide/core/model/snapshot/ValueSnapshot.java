@@ -0,0 +1,86 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.snapshot;
+
+import java.util.Objects;
+import org.perfcake.ide.core.model.PropertyType;
+
+/**
+ * Immutable snapshot of a {@link org.perfcake.ide.core.model.properties.Value}.
+ *
+ * @author Jakub Knetl
+ */
+public final class ValueSnapshot implements PropertySnapshot {
+
+    private final String propertyName;
+    private final String value;
+
+    /**
+     * Creates new value snapshot.
+     *
+     * @param propertyName name of the property
+     * @param value        value of the property
+     */
+    public ValueSnapshot(String propertyName, String value) {
+        this.propertyName = propertyName;
+        this.value = value;
+    }
+
+    @Override
+    public PropertyType getPropertyType() {
+        return PropertyType.VALUE;
+    }
+
+    @Override
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ValueSnapshot that = (ValueSnapshot) o;
+        return Objects.equals(propertyName, that.propertyName)
+                && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(propertyName, value);
+    }
+
+    @Override
+    public String toString() {
+        return "ValueSnapshot{"
+                + "propertyName='" + propertyName + '\''
+                + ", value='" + value + '\''
+                + '}';
+    }
+}
@@ -20,9 +20,12 @@
 
 package org.perfcake.ide.core.model.validation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.properties.ParsedValue;
 import org.perfcake.ide.core.model.validation.error.ErrorType;
 import org.perfcake.ide.core.model.validation.error.SingleError;
 import org.perfcake.ide.core.model.validation.error.ValidationError;
@@ -34,8 +37,8 @@ import org.perfcake.ide.core.model.validation.error.ValidationError;
  */
 public class EnumValidator extends StringValidator {
 
-    private List<String> allowedValues;
-    private boolean caseSensitive = false;
+    private final List<String> allowedValues;
+    private final boolean caseSensitive = false;
 
     /**
      * Creates new enum validator.
@@ -50,7 +53,7 @@ public class EnumValidator extends StringValidator {
             throw new IllegalArgumentException("allowed values cannot be emtpy");
         }
 
-        this.allowedValues = allowedValues;
+        this.allowedValues = Collections.unmodifiableList(new ArrayList<>(allowedValues));
     }
 
     /**
@@ -84,6 +87,15 @@ public class EnumValidator extends StringValidator {
         return error;
     }
 
+    @Override
+    public ValidationError validate(Property property, ParsedValue value) {
+        // value has already been matched against enumerated values of its data type
+        if (!caseSensitive && value.getEnumValue() != null && allowedValues.contains(value.getEnumValue())) {
+            return null;
+        }
+        return validate(property, value.getTypedText());
+    }
+
     /**
      * Compares two values if they are equal.
      * @param value value
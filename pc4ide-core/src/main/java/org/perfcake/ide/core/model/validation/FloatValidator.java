@@ -20,8 +20,9 @@
 
 package org.perfcake.ide.core.model.validation;
 
-import org.apache.commons.lang3.math.NumberUtils;
 import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.properties.DataType;
+import org.perfcake.ide.core.model.properties.ParsedValue;
 import org.perfcake.ide.core.model.validation.error.ErrorType;
 import org.perfcake.ide.core.model.validation.error.SingleError;
 import org.perfcake.ide.core.model.validation.error.ValidationError;
@@ -31,19 +32,25 @@ import org.perfcake.ide.core.model.validation.error.ValidationError;
  *
  * @author Jakub Knetl
  */
-public class FloatValidator implements Validator<String> {
+public class FloatValidator implements ValueValidator {
 
     @Override
     public ValidationError validate(Property property, String value) {
-        ValidationError error = null;
-        if (!NumberUtils.isNumber(value)) {
-            error = new SingleError(property, ErrorType.INVALID_VALUE, String.format("'%s' is not a number", value));
+        return validate(property, ParsedValue.parse(value, DataType.FLOAT));
+    }
+
+    @Override
+    public ValidationError validate(Property property, ParsedValue value) {
+        if (value.getDataType() != DataType.FLOAT) {
+            value = ParsedValue.parse(value.getText(), DataType.FLOAT);
         }
 
-        try {
-            Double.parseDouble(value);
-        } catch (NumberFormatException e) {
-            error = new SingleError(property, ErrorType.INVALID_VALUE, String.format("'%s' is not floating point number", value));
+        ValidationError error = null;
+        if (!value.isParsed()) {
+            error = new SingleError(property, ErrorType.INVALID_VALUE,
+                    String.format("'%s' is not floating point number", value.getTypedText()));
+        } else if (!value.isNumber()) {
+            error = new SingleError(property, ErrorType.INVALID_VALUE, String.format("'%s' is not a number", value.getTypedText()));
         }
 
         return error;
@@ -20,8 +20,9 @@
 
 package org.perfcake.ide.core.model.validation;
 
-import org.apache.commons.lang3.math.NumberUtils;
 import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.properties.DataType;
+import org.perfcake.ide.core.model.properties.ParsedValue;
 import org.perfcake.ide.core.model.validation.error.ErrorType;
 import org.perfcake.ide.core.model.validation.error.SingleError;
 import org.perfcake.ide.core.model.validation.error.ValidationError;
@@ -30,19 +31,24 @@ import org.perfcake.ide.core.model.validation.error.ValidationError;
  * Validates whether string value is a number.
  * @author Jakub Knetl
  */
-public class IntegerValidator implements Validator<String> {
+public class IntegerValidator implements ValueValidator {
 
     @Override
     public ValidationError validate(Property property, String value) {
-        ValidationError error = null;
-        if (!NumberUtils.isNumber(value)) {
-            error = new SingleError(property, ErrorType.INVALID_VALUE, String.format("'%s' is not a number", value));
+        return validate(property, ParsedValue.parse(value, DataType.INTEGER));
+    }
+
+    @Override
+    public ValidationError validate(Property property, ParsedValue value) {
+        if (value.getDataType() != DataType.INTEGER) {
+            value = ParsedValue.parse(value.getText(), DataType.INTEGER);
         }
 
-        try {
-            Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            error = new SingleError(property, ErrorType.INVALID_VALUE, String.format("'%s' is not an integer", value));
+        ValidationError error = null;
+        if (!value.isParsed()) {
+            error = new SingleError(property, ErrorType.INVALID_VALUE, String.format("'%s' is not an integer", value.getTypedText()));
+        } else if (!value.isNumber()) {
+            error = new SingleError(property, ErrorType.INVALID_VALUE, String.format("'%s' is not a number", value.getTypedText()));
         }
 
         return error;
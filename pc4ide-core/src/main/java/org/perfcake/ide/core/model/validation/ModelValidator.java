@@ -22,7 +22,6 @@ package org.perfcake.ide.core.model.validation;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import org.perfcake.ide.core.model.Model;
 import org.perfcake.ide.core.model.Property;
 import org.perfcake.ide.core.model.PropertyInfo;
@@ -39,35 +38,41 @@ import org.perfcake.ide.core.model.validation.error.ValidationError;
  * <li>Model does not have superfluos properties</li>
  * </ol>
  *
+ * <p>Validation of a valid model does not allocate any objects, since most of the models in a scenario are valid.</p>
+ *
  * @author Jakub Knetl
  */
 public class ModelValidator implements Validator<Model> {
 
     @Override
     public ValidationError validate(Property property, Model model) {
-        Set<PropertyInfo> supportedProperties = model.getSupportedProperties();
+        List<PropertyInfo> supportedProperties = model.getSupportedPropertyList();
 
-        List<ValidationError> errors = new ArrayList<>();
+        // list of errors is created when first error is found
+        List<ValidationError> errors = null;
 
-        for (PropertyInfo info : supportedProperties) {
-            int propertiesCount = model.getProperties(info).size();
+        // lists are traversed by index, so that no iterators are allocated
+        for (int i = 0; i < supportedProperties.size(); i++) {
+            PropertyInfo info = supportedProperties.get(i);
+            List<Property> properties = model.getProperties(info);
+            int propertiesCount = properties.size();
 
             // validate number of properties for each propertyInfo
             if (propertiesCount < info.getMinOccurs()) {
                 String description = String.format("Property '%s' has '%d' occurences, but minimum is '%s'",
                         info.getDisplayName(), propertiesCount, info.getMinOccurs());
-                errors.add(new SingleError(property, ErrorType.MISSING_PROPERTY, description));
+                errors = addError(errors, new SingleError(property, ErrorType.MISSING_PROPERTY, description));
             }
             if (info.getMaxOccurs() > 0 && propertiesCount > info.getMaxOccurs()) { // max occurs can be negativ => unlimited bound
                 String description = String.format("Property '%s' has '%d' occurences, but maximum is '%s'",
                         info.getDisplayName(), propertiesCount, info.getMaxOccurs());
-                errors.add(new SingleError(property, ErrorType.SUPERFLUOS_PROPERTY, description));
+                errors = addError(errors, new SingleError(property, ErrorType.SUPERFLUOS_PROPERTY, description));
             }
 
-            for (Property p : model.getProperties(info)) {
-                ValidationError propertyError = p.getValidationError();
+            for (int j = 0; j < propertiesCount; j++) {
+                ValidationError propertyError = properties.get(j).getValidationError();
                 if (propertyError != null) {
-                    errors.add(propertyError);
+                    errors = addError(errors, propertyError);
                 }
             }
         }
@@ -75,10 +80,18 @@ public class ModelValidator implements Validator<Model> {
 
         ValidationError result = null;
 
-        if (!errors.isEmpty()) {
+        if (errors != null) {
             result = new CompoundError(property, errors);
         }
 
         return result;
     }
+
+    private static List<ValidationError> addError(List<ValidationError> errors, ValidationError error) {
+        if (errors == null) {
+            errors = new ArrayList<>();
+        }
+        errors.add(error);
+        return errors;
+    }
 }
@@ -20,22 +20,23 @@
 
 package org.perfcake.ide.core.model.validation;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.perfcake.ide.core.model.Property;
-import org.perfcake.ide.core.model.properties.DataType;
+import org.perfcake.ide.core.model.properties.ParsedValue;
+import org.perfcake.ide.core.model.properties.Placeholder;
 import org.perfcake.ide.core.model.validation.error.ValidationError;
 
 /**
  * Placeholder validator first checks if a value is a placeholder. If it is then the value is expected to be valid. If the value
  * is not a placeholder then it uses another validator. It optionally also default value of the placeholder.
  *
+ * <p>Validator is immutable, so it can be shared by multiple properties.</p>
+ *
  * @author Jakub Knetl
  */
-public class PlaceholderValidator implements Validator<String> {
+public class PlaceholderValidator implements ValueValidator {
 
-    private Validator validator;
-    private boolean checkDefaultValue = true;
+    private final Validator validator;
+    private final boolean checkDefaultValue = true;
 
     /**
      * Creates a new placeholder validator.
@@ -51,9 +52,10 @@ public class PlaceholderValidator implements Validator<String> {
 
     @Override
     public ValidationError validate(Property property, String value) {
-        if (DataType.isPlaceholder(value)) {
-            if (checkDefaultValue) {
-                return checkDefaultValue(property, value);
+        Placeholder placeholder = Placeholder.parse(value);
+        if (placeholder != null) {
+            if (checkDefaultValue && placeholder.getDefaultValue() != null) {
+                return validator.validate(property, placeholder.getDefaultValue());
             } else {
                 return null;
             }
@@ -62,16 +64,15 @@ public class PlaceholderValidator implements Validator<String> {
         return validator.validate(property, value);
     }
 
-    private ValidationError checkDefaultValue(Property property, String value) {
-
-        Pattern pattern = Pattern.compile("\\$\\{.*:(.*)\\}");
-        Matcher matcher = pattern.matcher(value);
-
-        if (matcher.find()) {
-            String defaultValue = matcher.group(1);
-            return validator.validate(property, defaultValue);
+    @Override
+    public ValidationError validate(Property property, ParsedValue value) {
+        if (value.isPlaceholder() && (!checkDefaultValue || value.getPlaceholder().getDefaultValue() == null)) {
+            return null;
         }
 
-        return null;
+        if (validator instanceof ValueValidator) {
+            return ((ValueValidator) validator).validate(property, value);
+        }
+        return validator.validate(property, value.getTypedText());
     }
 }
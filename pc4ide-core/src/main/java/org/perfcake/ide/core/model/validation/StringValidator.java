@@ -21,6 +21,7 @@
 package org.perfcake.ide.core.model.validation;
 
 import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.properties.ParsedValue;
 import org.perfcake.ide.core.model.validation.error.ValidationError;
 
 /**
@@ -28,11 +29,16 @@ import org.perfcake.ide.core.model.validation.error.ValidationError;
  * want to extend {@link #validate(Property, String)}.
  * @author Jakub Knetl
  */
-public class StringValidator implements Validator<String> {
+public class StringValidator implements ValueValidator {
 
     @Override
     public ValidationError validate(Property property, String value) {
         return null;
     }
 
+    @Override
+    public ValidationError validate(Property property, ParsedValue value) {
+        return validate(property, value.getTypedText());
+    }
+
 }
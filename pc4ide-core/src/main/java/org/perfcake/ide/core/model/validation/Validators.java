@@ -20,20 +20,54 @@
 
 package org.perfcake.ide.core.model.validation;
 
+import java.util.EnumMap;
+import java.util.Map;
+import org.perfcake.ide.core.model.Model;
 import org.perfcake.ide.core.model.properties.DataType;
 
 /**
- * Class which serves as a factory for validators.
+ * Class which serves as a factory and registry of validators. Validators are stateless and immutable, so a single
+ * validator of each data type is shared by all properties (see {@link #getValidator(DataType)}).
  *
  * @author Jakub Knetl
  */
 public class Validators {
 
+    private static final Map<DataType, Validator> VALIDATORS = new EnumMap<>(DataType.class);
+    private static final Validator<Model> MODEL_VALIDATOR = new ModelValidator();
+
+    static {
+        for (DataType dataType : DataType.values()) {
+            VALIDATORS.put(dataType, createValidator(dataType));
+        }
+    }
+
     private Validators() {
     }
 
     /**
-     * Creates a validator for a particular data type.
+     * Gets shared validator for a particular data type.
+     *
+     * @param dataType data type.
+     * @return validator for given data type
+     */
+    public static Validator getValidator(DataType dataType) {
+        if (dataType == null) {
+            throw new IllegalArgumentException("data type cannot be null");
+        }
+        return VALIDATORS.get(dataType);
+    }
+
+    /**
+     * @return shared validator of the model structure.
+     */
+    public static Validator<Model> getModelValidator() {
+        return MODEL_VALIDATOR;
+    }
+
+    /**
+     * Creates a new validator for a particular data type. Consider using shared validator returned by
+     * {@link #getValidator(DataType)} instead.
      *
      * @param dataType data type.
      * @return validator for given data type
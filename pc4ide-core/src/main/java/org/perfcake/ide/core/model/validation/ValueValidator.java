@@ -0,0 +1,42 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.model.validation;
+
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.properties.ParsedValue;
+import org.perfcake.ide.core.model.validation.error.ValidationError;
+
+/**
+ * Validator of textual values, which is able to validate a value which has already been parsed, so that the value is
+ * not parsed again on each validation.
+ *
+ * @author Jakub Knetl
+ */
+public interface ValueValidator extends Validator<String> {
+
+    /**
+     * Validates parsed value and returns error (if any). If the value is a placeholder, then its default value is validated.
+     * @param property property which is being validated
+     * @param value parsed value to be validated
+     * @return ValidationError which represents error, or null if value is valid.
+     */
+    ValidationError validate(Property property, ParsedValue value);
+}
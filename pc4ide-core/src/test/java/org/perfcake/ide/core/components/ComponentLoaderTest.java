@@ -20,10 +20,16 @@
 
 package org.perfcake.ide.core.components;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -74,4 +80,74 @@ public class ComponentLoaderTest {
         Class<?> generator2 = loader.loadComponent(fqdn, PerfCakeComponent.SENDER);
         assertThat(generator2, nullValue());
     }
+
+    @Test
+    public void testLoadedComponentIsCached() {
+        Class<?> generator = loader.loadComponent("DefaultMessageGenerator", PerfCakeComponent.GENERATOR);
+        Class<?> cached = new ComponentLoaderImpl().loadComponent("DefaultMessageGenerator", PerfCakeComponent.GENERATOR);
+        assertThat(cached, sameInstance(generator));
+
+        // result for one component type does not affect the other types
+        assertThat(loader.loadComponent("DefaultMessageGenerator", PerfCakeComponent.SENDER), nullValue());
+        assertThat(loader.loadComponent("DefaultMessageGenerator", PerfCakeComponent.GENERATOR), sameInstance(generator));
+    }
+
+    @Test
+    public void testMissingComponentIsCachedUntilInvalidation() {
+        CountingClassLoader classLoader = new CountingClassLoader(getClass().getClassLoader());
+        ComponentLoader countingLoader = new ComponentLoaderImpl(new CountingCatalogue(classLoader));
+
+        assertThat(countingLoader.loadComponent("org.bob.perfcake.MissingSender", PerfCakeComponent.SENDER), nullValue());
+        assertThat(countingLoader.loadComponent("org.bob.perfcake.MissingSender", PerfCakeComponent.SENDER), nullValue());
+        assertThat(classLoader.loads.get(), equalTo(1));
+
+        ComponentLoaderImpl.invalidateCache();
+        assertThat(countingLoader.loadComponent("org.bob.perfcake.MissingSender", PerfCakeComponent.SENDER), nullValue());
+        assertThat(classLoader.loads.get(), equalTo(2));
+
+        // component with the same name is resolved again by a different class loader
+        CountingClassLoader otherClassLoader = new CountingClassLoader(getClass().getClassLoader());
+        ComponentLoader otherLoader = new ComponentLoaderImpl(new CountingCatalogue(otherClassLoader));
+        assertThat(otherLoader.loadComponent("org.bob.perfcake.MissingSender", PerfCakeComponent.SENDER), nullValue());
+        assertThat(otherClassLoader.loads.get(), equalTo(1));
+        assertThat(classLoader.loads.get(), equalTo(2));
+    }
+
+    /**
+     * Class loader which counts requests for classes.
+     */
+    private static class CountingClassLoader extends ClassLoader {
+        private final AtomicInteger loads = new AtomicInteger();
+
+        CountingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            loads.incrementAndGet();
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    /**
+     * Catalogue with given class loader, which does not scan the classpath.
+     */
+    private static class CountingCatalogue extends ReflectionComponentCatalogue {
+        private final ClassLoader classLoader;
+
+        CountingCatalogue(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public ClassLoader getClassLoader() {
+            return classLoader;
+        }
+
+        @Override
+        protected Map<PerfCakeComponent, List<String>> findComponents() {
+            return new EnumMap<>(PerfCakeComponent.class);
+        }
+    }
 }
@@ -0,0 +1,290 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.model.components.SenderModel;
+
+/**
+ * Tests for {@link LibraryClassLoader} and its use by {@link ReflectionComponentCatalogue}.
+ *
+ * @author Jakub Knetl
+ */
+public class LibraryClassLoaderTest {
+
+    private static final String PLUGIN_SENDER = "org.bob.perfcake.PluginSender";
+    private static final long TIMEOUT = 60;
+    private static final int GC_ATTEMPTS = 50;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ComponentCatalogue catalogue;
+    private Path jar;
+
+    /**
+     * Creates catalogue and a library with a sender, which is not on the classpath.
+     *
+     * @throws IOException if the library cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        catalogue = new EmptyCatalogue();
+        jar = folder.getRoot().toPath().resolve("plugin.jar");
+        createLibrary(jar, 1);
+    }
+
+    @Test
+    public void testLibraryIsLoadedByChildLoader() throws Exception {
+        ClassLoader parent = catalogue.getClassLoader();
+        catalogue.addSoftwareLibrary(jar);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+
+        ClassLoader loader = catalogue.getClassLoader();
+        assertThat(loader, instanceOf(LibraryClassLoader.class));
+        assertThat(loader.getParent(), sameInstance(parent));
+
+        Class<?> sender = new ComponentLoaderImpl(catalogue).loadComponent(PLUGIN_SENDER, PerfCakeComponent.SENDER);
+        assertThat(sender, notNullValue());
+        assertThat(sender.getClassLoader(), sameInstance(loader));
+        assertThat(PerfCakeComponent.SENDER.getApi().isAssignableFrom(sender), is(true));
+
+        // components of PerfCake are shared
+        Class<?> httpSender = new ComponentLoaderImpl(catalogue).loadComponent("HttpSender", PerfCakeComponent.SENDER);
+        assertThat(httpSender, notNullValue());
+        assertThat(httpSender.getClassLoader(), not(sameInstance(loader)));
+
+        // loader is not replaced if libraries have not changed
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+        assertThat(catalogue.getClassLoader(), sameInstance(loader));
+    }
+
+    @Test
+    public void testBoundCatalogue() throws Exception {
+        catalogue.addSoftwareLibrary(jar);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+
+        ComponentLoader loader = new ComponentLoaderImpl();
+        assertThat(loader.loadComponent(PLUGIN_SENDER, PerfCakeComponent.SENDER), nullValue());
+        try (ComponentLoaderImpl.CatalogueBinding binding = ComponentLoaderImpl.bindCatalogue(catalogue)) {
+            assertThat(loader.loadComponent(PLUGIN_SENDER, PerfCakeComponent.SENDER), notNullValue());
+
+            // models which are not attached to an editor use the bound catalogue as well
+            SenderModel model = new SenderModel(new DocsServiceImpl(new Properties()));
+            assertThat(model.getComponentLoader().loadComponent(PLUGIN_SENDER, PerfCakeComponent.SENDER), notNullValue());
+        }
+        assertThat(loader.loadComponent(PLUGIN_SENDER, PerfCakeComponent.SENDER), nullValue());
+    }
+
+    @Test
+    public void testReplacedLibraryIsCollectable() throws Exception {
+        catalogue.addSoftwareLibrary(jar);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+
+        WeakReference<Class<?>> oldSender = loadSender();
+        WeakReference<ClassLoader> oldLoader = new WeakReference<>(oldSender.get().getClassLoader());
+
+        // new version of the library with the same path
+        createLibrary(jar, 2);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+
+        Class<?> newSender = new ComponentLoaderImpl(catalogue).loadComponent(PLUGIN_SENDER, PerfCakeComponent.SENDER);
+        assertThat(newSender, notNullValue());
+        assertThat(newSender, not(sameInstance(oldSender.get())));
+        assertThat(newSender.getClassLoader(), sameInstance(catalogue.getClassLoader()));
+
+        assertThat(awaitCollection(oldLoader), is(true));
+        assertThat(oldSender.get(), nullValue());
+    }
+
+    @Test
+    public void testRemovedLibraryIsCollectable() throws Exception {
+        ClassLoader parent = catalogue.getClassLoader();
+        catalogue.addSoftwareLibrary(jar);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+
+        WeakReference<Class<?>> oldSender = loadSender();
+        WeakReference<ClassLoader> oldLoader = new WeakReference<>(oldSender.get().getClassLoader());
+
+        catalogue.removeSoftwareLibrary(jar);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+
+        assertThat(catalogue.getClassLoader(), sameInstance(parent));
+        assertThat(new ComponentLoaderImpl(catalogue).loadComponent(PLUGIN_SENDER, PerfCakeComponent.SENDER), nullValue());
+        assertThat(awaitCollection(oldLoader), is(true));
+    }
+
+    @Test
+    public void testCollectedLoaderIsClosed() throws Exception {
+        catalogue.addSoftwareLibrary(jar);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+
+        WeakReference<ClassLoader> oldLoader = new WeakReference<>(loadSender().get().getClassLoader());
+        assertThat(LibraryClassLoader.isOpen(jar), is(true));
+
+        catalogue.removeSoftwareLibrary(jar);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+
+        // jar is closed once the loader is collected, so that it is not locked
+        assertThat(awaitCollection(oldLoader), is(true));
+        assertThat(awaitClosed(jar), is(true));
+    }
+
+    @Test
+    public void testReplacedLoaderLoadsClasses() throws Exception {
+        catalogue.addSoftwareLibrary(jar);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+        ClassLoader oldLoader = catalogue.getClassLoader();
+
+        catalogue.removeSoftwareLibrary(jar);
+        catalogue.update().get(TIMEOUT, TimeUnit.SECONDS);
+        assertThat(catalogue.getClassLoader(), not(sameInstance(oldLoader)));
+
+        // models which have not been reloaded yet may still load classes from the previous loader
+        Class<?> sender = Class.forName(PLUGIN_SENDER, true, oldLoader);
+        assertThat(sender.getClassLoader(), sameInstance(oldLoader));
+    }
+
+    @Test
+    public void testUpToDate() throws Exception {
+        LibraryClassLoader loader = new LibraryClassLoader(Collections.singleton(jar), getClass().getClassLoader());
+        assertThat(loader.isUpToDate(Collections.singleton(jar)), is(true));
+        assertThat(loader.isUpToDate(Collections.emptySet()), is(false));
+
+        createLibrary(jar, 3);
+        assertThat(loader.isUpToDate(Collections.singleton(jar)), is(false));
+        loader.close();
+        assertThat(LibraryClassLoader.isOpen(jar), is(false));
+    }
+
+    private WeakReference<Class<?>> loadSender() {
+        Class<?> sender = new ComponentLoaderImpl(catalogue).loadComponent(PLUGIN_SENDER, PerfCakeComponent.SENDER);
+        assertThat(sender, notNullValue());
+        assertThat(sender.getClassLoader(), instanceOf(LibraryClassLoader.class));
+        return new WeakReference<>(sender);
+    }
+
+    private static boolean awaitCollection(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < GC_ATTEMPTS && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return reference.get() == null;
+    }
+
+    private static boolean awaitClosed(Path library) throws InterruptedException {
+        for (int i = 0; i < GC_ATTEMPTS && LibraryClassLoader.isOpen(library); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return !LibraryClassLoader.isOpen(library);
+    }
+
+    /**
+     * Creates a jar with {@link #PLUGIN_SENDER}. Each version of the jar has different size and modification time.
+     */
+    private static void createLibrary(Path jar, int version) throws IOException {
+        try (OutputStream file = Files.newOutputStream(jar); JarOutputStream out = new JarOutputStream(file)) {
+            out.putNextEntry(new JarEntry(PLUGIN_SENDER.replace('.', '/') + ".class"));
+            out.write(createClass(PLUGIN_SENDER, PerfCakeComponent.SENDER.getApi()));
+            out.closeEntry();
+            for (int i = 0; i < version; i++) {
+                out.putNextEntry(new JarEntry("version-" + i + ".txt"));
+                out.closeEntry();
+            }
+        }
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + version * 1000L));
+    }
+
+    /**
+     * Creates class file of a public class without any member, which implements given interface.
+     */
+    private static byte[] createClass(String name, Class<?> api) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(52);
+            // constant pool: class, its name, super class, its name, interface, its name
+            out.writeShort(7);
+            out.writeByte(7);
+            out.writeShort(2);
+            out.writeByte(1);
+            out.writeUTF(name.replace('.', '/'));
+            out.writeByte(7);
+            out.writeShort(4);
+            out.writeByte(1);
+            out.writeUTF("java/lang/Object");
+            out.writeByte(7);
+            out.writeShort(6);
+            out.writeByte(1);
+            out.writeUTF(api.getName().replace('.', '/'));
+            // public super class, this, super, one interface, no field, method or attribute
+            out.writeShort(0x0021);
+            out.writeShort(1);
+            out.writeShort(3);
+            out.writeShort(1);
+            out.writeShort(5);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Catalogue which does not scan the classpath, so that the tests are focused on class loading.
+     */
+    private static class EmptyCatalogue extends ReflectionComponentCatalogue {
+        @Override
+        protected Map<PerfCakeComponent, List<String>> findComponents() {
+            return new EnumMap<>(PerfCakeComponent.class);
+        }
+    }
+}
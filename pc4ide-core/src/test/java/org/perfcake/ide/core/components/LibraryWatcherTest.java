@@ -0,0 +1,267 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.perfcake.PerfCakeException;
+
+/**
+ * Tests for {@link LibraryWatcher}.
+ *
+ * @author Jakub Knetl
+ */
+public class LibraryWatcherTest {
+
+    private static final long DEBOUNCE = 300;
+    private static final long TIMEOUT = 10;
+    private static final int BURST_SIZE = 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path libDir;
+    private RecordingCatalogue catalogue;
+    private RecordingListener listener;
+    private LibraryWatcher watcher;
+
+    /**
+     * Creates library directory and catalogue.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        libDir = folder.newFolder("lib").toPath().toRealPath();
+        catalogue = new RecordingCatalogue();
+        listener = new RecordingListener();
+    }
+
+    /**
+     * Stops the watcher.
+     *
+     * @throws IOException if the watcher cannot be closed
+     */
+    @After
+    public void tearDown() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void testExistingJarsAreAdded() throws Exception {
+        Path first = createJar(libDir, "first.jar");
+        Path second = createJar(libDir, "second.jar");
+        Files.write(libDir.resolve("readme.txt"), Collections.singletonList("not a library"));
+
+        startWatcher(libDir);
+
+        Change change = listener.next();
+        assertThat(change.added, equalTo(set(first, second)));
+        assertThat(new HashSet<>(catalogue.added), equalTo(set(first, second)));
+        assertThat(catalogue.updates.get(), equalTo(1));
+    }
+
+    @Test
+    public void testBurstIsCoalesced() throws Exception {
+        startWatcher(libDir);
+        // there is no library, so the catalogue is not updated
+        assertThat(catalogue.updates.get(), equalTo(0));
+
+        Path[] jars = new Path[BURST_SIZE];
+        for (int i = 0; i < BURST_SIZE; i++) {
+            jars[i] = createJar(libDir, "library-" + i + ".jar");
+        }
+        Files.write(libDir.resolve("library.txt"), Collections.singletonList("not a library"));
+
+        Change change = listener.next();
+        assertThat(change.added.size(), equalTo(BURST_SIZE));
+        assertThat(change.added, hasItems(jars));
+        assertThat(change.removed, empty());
+        assertThat(catalogue.updates.get(), equalTo(1));
+        assertThat(listener.poll(), nullValue());
+    }
+
+    @Test
+    public void testDeletedJarIsRemoved() throws Exception {
+        Path kept = createJar(libDir, "kept.jar");
+        Path deleted = createJar(libDir, "deleted.jar");
+        startWatcher(libDir);
+        listener.next();
+
+        Files.delete(deleted);
+        // jar which is created and deleted within one window is not added at all
+        Files.delete(createJar(libDir, "temporary.jar"));
+
+        Change change = listener.next();
+        assertThat(change.added, empty());
+        assertThat(change.removed, equalTo(set(deleted)));
+        assertThat(catalogue.removed, equalTo(Collections.singletonList(deleted)));
+        assertThat(new HashSet<>(catalogue.added), equalTo(set(kept, deleted)));
+        assertThat(catalogue.updates.get(), equalTo(2));
+    }
+
+    @Test
+    public void testModifiedJarIsIndexedAgain() throws Exception {
+        Path jar = createJar(libDir, "modified.jar");
+        startWatcher(libDir);
+        listener.next();
+
+        Files.write(jar, new byte[] {1, 2, 3});
+
+        Change change = listener.next();
+        assertThat(change.added, empty());
+        assertThat(change.removed, empty());
+        assertThat(catalogue.added, equalTo(Collections.singletonList(jar)));
+        assertThat(catalogue.updates.get(), equalTo(2));
+    }
+
+    @Test
+    public void testMissingDirectoryIsWatchedWhenCreated() throws Exception {
+        Path missing = folder.getRoot().toPath().toRealPath().resolve("src").resolve("main").resolve("lib");
+        startWatcher(missing);
+        assertThat(catalogue.updates.get(), equalTo(0));
+
+        Files.createDirectories(missing);
+        Path jar = createJar(missing, "late.jar");
+
+        Change change = listener.next();
+        assertThat(change.added, equalTo(set(jar)));
+        assertThat(catalogue.added, equalTo(Collections.singletonList(jar)));
+    }
+
+    @Test
+    public void testFailedLibraryIsReported() throws Exception {
+        catalogue.failing = true;
+        Path jar = createJar(libDir, "broken.jar");
+
+        startWatcher(libDir);
+
+        assertThat(listener.failed, equalTo(Collections.singletonList(jar)));
+        assertThat(listener.poll(), nullValue());
+        assertThat(catalogue.updates.get(), equalTo(0));
+    }
+
+    private void startWatcher(Path directory) throws IOException {
+        watcher = new LibraryWatcher(catalogue, Collections.singletonList(directory), DEBOUNCE);
+        watcher.addLibraryListener(listener);
+        watcher.start();
+    }
+
+    private static Path createJar(Path directory, String name) throws IOException {
+        return Files.write(directory.resolve(name), new byte[] {0});
+    }
+
+    private static Set<Path> set(Path... paths) {
+        return new HashSet<>(Arrays.asList(paths));
+    }
+
+    private static class Change {
+        private final Set<Path> added;
+        private final Set<Path> removed;
+
+        Change(Set<Path> added, Set<Path> removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+    }
+
+    private static class RecordingListener implements LibraryListener {
+        private final BlockingQueue<Change> changes = new LinkedBlockingQueue<>();
+        private final List<Path> failed = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void librariesChanged(Set<Path> added, Set<Path> removed) {
+            changes.add(new Change(added, removed));
+        }
+
+        @Override
+        public void libraryFailed(Path library, Exception cause) {
+            failed.add(library);
+        }
+
+        Change next() throws InterruptedException {
+            Change change = changes.poll(TIMEOUT, TimeUnit.SECONDS);
+            assertThat("libraries have not changed", change, notNullValue());
+            return change;
+        }
+
+        Change poll() throws InterruptedException {
+            return changes.poll(DEBOUNCE * 2, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Catalogue which records changes of libraries instead of scanning the classpath.
+     */
+    private static class RecordingCatalogue extends ReflectionComponentCatalogue {
+        private final List<Path> added = new CopyOnWriteArrayList<>();
+        private final List<Path> removed = new CopyOnWriteArrayList<>();
+        private final AtomicInteger updates = new AtomicInteger();
+        private volatile boolean failing;
+
+        @Override
+        public CompletableFuture<CatalogueSnapshot> update() {
+            updates.incrementAndGet();
+            return CompletableFuture.completedFuture(getSnapshot());
+        }
+
+        @Override
+        public void addSoftwareLibrary(Path jar) throws PerfCakeException {
+            if (failing) {
+                throw new PerfCakeException("Cannot add external jar to classpath.");
+            }
+            super.addSoftwareLibrary(jar);
+            added.add(jar);
+        }
+
+        @Override
+        public void removeSoftwareLibrary(Path jar) {
+            super.removeSoftwareLibrary(jar);
+            removed.add(jar);
+        }
+    }
+}
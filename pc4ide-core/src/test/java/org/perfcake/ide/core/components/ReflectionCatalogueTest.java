@@ -20,9 +20,11 @@
 
 package org.perfcake.ide.core.components;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
@@ -31,6 +33,11 @@ import static org.junit.Assert.assertThat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -44,6 +51,8 @@ public class ReflectionCatalogueTest {
 
     public static final String ADDITIONAL_IMPLEMENTATIONS = "org.bob.perfcake";
     public static final String BOB_SENDER = "org.bob.perfcake.BobSender";
+    private static final long TIMEOUT = 60;
+
     private ComponentCatalogue catalogue;
 
     private String[] generators = new String[] {"DefaultMessageGenerator", "RampUpDownGenerator", "CustomProfileGenerator",
@@ -62,7 +71,7 @@ public class ReflectionCatalogueTest {
     @Test
     public void testContainsDefaultComponents() {
         catalogue = new ReflectionComponentCatalogue();
-        catalogue.update();
+        catalogue.update().join();
 
         // check that default components are present
         checkDefaultPerfcakeComponents();
@@ -76,7 +85,7 @@ public class ReflectionCatalogueTest {
         packages.add(ADDITIONAL_IMPLEMENTATIONS);
 
         catalogue = new ReflectionComponentCatalogue(ADDITIONAL_IMPLEMENTATIONS);
-        catalogue.update();
+        catalogue.update().join();
 
         // bob's sender is present
         assertThat(catalogue.list(PerfCakeComponent.SENDER), hasItem(BOB_SENDER));
@@ -85,6 +94,48 @@ public class ReflectionCatalogueTest {
         checkDefaultPerfcakeComponents();
     }
 
+    @Test
+    public void testListDoesNotWaitForUpdate() throws Exception {
+        final CountDownLatch scanStarted = new CountDownLatch(1);
+        final CountDownLatch scanAllowed = new CountDownLatch(1);
+        catalogue = new ReflectionComponentCatalogue() {
+            @Override
+            protected Map<PerfCakeComponent, List<String>> findComponents() {
+                scanStarted.countDown();
+                try {
+                    scanAllowed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.findComponents();
+            }
+        };
+        List<CatalogueSnapshot> notified = new CopyOnWriteArrayList<>();
+        catalogue.addCatalogueListener(notified::add);
+
+        CompletableFuture<CatalogueSnapshot> update = catalogue.update();
+        assertThat(scanStarted.await(TIMEOUT, TimeUnit.SECONDS), is(true));
+
+        // scan is in progress, so the catalogue is still empty
+        assertThat(catalogue.list(PerfCakeComponent.SENDER), empty());
+        assertThat(catalogue.getSnapshot(), sameInstance(CatalogueSnapshot.EMPTY));
+        assertThat(notified, empty());
+
+        // requests made during the scan are joined into single update
+        CompletableFuture<CatalogueSnapshot> nextUpdate = catalogue.update();
+        assertThat(nextUpdate, not(sameInstance(update)));
+        assertThat(catalogue.update(), sameInstance(nextUpdate));
+
+        scanAllowed.countDown();
+        CatalogueSnapshot snapshot = update.get(TIMEOUT, TimeUnit.SECONDS);
+        CatalogueSnapshot nextSnapshot = nextUpdate.get(TIMEOUT, TimeUnit.SECONDS);
+
+        assertThat(nextSnapshot.getVersion(), is(greaterThan(snapshot.getVersion())));
+        assertThat(catalogue.getSnapshot(), sameInstance(nextSnapshot));
+        assertThat(notified, equalTo(Arrays.asList(snapshot, nextSnapshot)));
+        checkDefaultPerfcakeComponents();
+    }
+
     @Test
     @Ignore("pc4ide scans all packages by default since 2017-05-15")
     public void testModifyingPackages() {
@@ -94,13 +145,13 @@ public class ReflectionCatalogueTest {
         catalogue.addPackage(ADDITIONAL_IMPLEMENTATIONS);
         assertThat(catalogue.list(PerfCakeComponent.SENDER), not(hasItem(BOB_SENDER))); // sender should not be there
 
-        catalogue.update();
+        catalogue.update().join();
         assertThat(catalogue.list(PerfCakeComponent.SENDER), hasItem(BOB_SENDER)); // sender should be present after update
 
         catalogue.removePackage(ADDITIONAL_IMPLEMENTATIONS);
         assertThat(catalogue.list(PerfCakeComponent.SENDER), hasItem(BOB_SENDER)); // sender should still be present
 
-        catalogue.update();
+        catalogue.update().join();
         assertThat(catalogue.list(PerfCakeComponent.SENDER), not(hasItem(BOB_SENDER))); //sender should be gone
 
     }
@@ -0,0 +1,134 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+
+/**
+ * Tests for {@link BuiltInComponents} and {@link ComponentIndexGenerator}.
+ *
+ * @author Jakub Knetl
+ */
+public class BuiltInComponentsTest {
+
+    private static final String HTTP_SENDER = "org.perfcake.message.sender.HttpSender";
+    private static final String ABSTRACT_SENDER = "org.perfcake.message.sender.AbstractSender";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Map<PerfCakeComponent, List<String>> implementations = new EnumMap<>(PerfCakeComponent.class);
+        implementations.put(PerfCakeComponent.SENDER, Collections.singletonList(HTTP_SENDER));
+        Map<PerfCakeComponent, List<String>> subTypes = new EnumMap<>(PerfCakeComponent.class);
+        subTypes.put(PerfCakeComponent.SENDER, Arrays.asList(ABSTRACT_SENDER, HTTP_SENDER));
+        BuiltInComponents components = new BuiltInComponents("perfcake.jar", 42, implementations, subTypes);
+
+        StringWriter writer = new StringWriter();
+        components.write(writer, "test");
+        BuiltInComponents read = BuiltInComponents.read(new BufferedReader(new StringReader(writer.toString())));
+
+        assertThat(read.getImplementations(PerfCakeComponent.SENDER), equalTo(Collections.singletonList(HTTP_SENDER)));
+        assertThat(read.getSubTypes(PerfCakeComponent.SENDER), equalTo(Arrays.asList(ABSTRACT_SENDER, HTTP_SENDER)));
+        assertThat(read.getImplementations(PerfCakeComponent.GENERATOR), equalTo(Collections.<String>emptyList()));
+
+        // source is identified by name and size
+        Path source = folder.newFolder("lib").toPath().resolve("perfcake.jar");
+        Files.write(source, new byte[42]);
+        Path other = folder.getRoot().toPath().resolve("other.jar");
+        Files.write(other, new byte[42]);
+        assertThat(read.findSource(Arrays.asList(other, source)), equalTo(source));
+
+        Files.write(source, new byte[43]);
+        assertThat(read.findSource(Arrays.asList(other, source)), nullValue());
+    }
+
+    @Test
+    public void testInvalidIndex() {
+        assertInvalid("SENDER\timplementation\t" + HTTP_SENDER + "\n");
+        assertInvalid("source\tperfcake.jar\t42\nSENDER\tunknown\t" + HTTP_SENDER + "\n");
+        assertInvalid("source\tperfcake.jar\t42\nSENDER\t" + HTTP_SENDER + "\n");
+    }
+
+    @Test
+    public void testGeneratedIndex() throws IOException {
+        Path output = folder.getRoot().toPath().resolve("META-INF/pc4ide/components.idx");
+        ComponentIndexGenerator.main(new String[] {output.toString(), "test"});
+
+        BuiltInComponents generated;
+        try (BufferedReader reader = Files.newBufferedReader(output, StandardCharsets.UTF_8)) {
+            generated = BuiltInComponents.read(reader);
+        }
+
+        Path perfCakeRoot = BuiltInComponents.findPerfCakeRoot();
+        ComponentIndex index = new ComponentIndexer().index(Collections.singletonList(perfCakeRoot));
+        for (PerfCakeComponent component : PerfCakeComponent.values()) {
+            assertThat(component.name(), generated.getImplementations(component),
+                    equalTo(index.getImplementations(component.getApi().getName())));
+        }
+        assertThat(generated.getImplementations(PerfCakeComponent.SENDER), hasItem(HTTP_SENDER));
+        assertThat(generated.getImplementations(PerfCakeComponent.SENDER), not(hasItem(ABSTRACT_SENDER)));
+        assertThat(generated.getSubTypes(PerfCakeComponent.SENDER), hasItem(ABSTRACT_SENDER));
+        assertThat(generated.findSource(Collections.singletonList(perfCakeRoot)), equalTo(perfCakeRoot));
+    }
+
+    @Test
+    public void testIndexGeneratedByBuild() {
+        BuiltInComponents components = BuiltInComponents.getInstance();
+
+        assertThat(components, notNullValue());
+        assertThat(components.findSource(ComponentIndexerTest.getClasspathRoots()), notNullValue());
+        assertThat(components.getImplementations(PerfCakeComponent.SENDER), hasItem(HTTP_SENDER));
+    }
+
+    private static void assertInvalid(String index) {
+        try {
+            BuiltInComponents.read(new BufferedReader(new StringReader(index)));
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.perfcake.ide.core.components.index.ComponentIndexerTest.AbstractImplementation;
+import org.perfcake.ide.core.components.index.ComponentIndexerTest.Api;
+import org.perfcake.ide.core.components.index.ComponentIndexerTest.Implementation;
+import org.perfcake.ide.core.components.index.ComponentIndexerTest.OtherImplementation;
+import org.perfcake.ide.core.components.index.ComponentIndexerTest.SpecialImplementation;
+import org.perfcake.ide.core.components.index.ComponentIndexerTest.SubApi;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link ComponentIndexCache}.
+ *
+ * @author Jakub Knetl
+ */
+public class ComponentIndexCacheTest {
+
+    static final Logger logger = LoggerFactory.getLogger(ComponentIndexCacheTest.class);
+
+    private static final int ITERATIONS = 20;
+    private static final List<String> TYPES = Arrays.asList(Api.class.getName(), SubApi.class.getName());
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path indexFile;
+    private Path apiJar;
+    private Path implementationJar;
+    private List<Path> roots;
+
+    /**
+     * Sets up tests.
+     *
+     * @throws IOException when test jars cannot be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        indexFile = folder.getRoot().toPath().resolve("index").resolve("component-index.bin");
+        apiJar = ComponentIndexerTest.createJar(folder.getRoot().toPath().resolve("api.jar"), Api.class, SubApi.class,
+                AbstractImplementation.class);
+        implementationJar = ComponentIndexerTest.createJar(folder.getRoot().toPath().resolve("implementation.jar"),
+                Implementation.class, OtherImplementation.class);
+        roots = Arrays.asList(apiJar, implementationJar);
+    }
+
+    @Test
+    public void testWarmCache() {
+        ComponentIndexCache cache = createCache();
+        Map<String, List<String>> implementations = cache.findImplementations(roots, TYPES);
+        assertThat(cache.getLastIndexedRoots(), equalTo(2));
+        assertThat(implementations.get(Api.class.getName()), equalTo(Arrays.asList(Implementation.class.getName(),
+                OtherImplementation.class.getName())));
+        assertThat(implementations.get(SubApi.class.getName()), equalTo(Collections.singletonList(Implementation.class.getName())));
+        assertThat(Files.exists(indexFile), equalTo(true));
+
+        // same cache
+        assertThat(cache.findImplementations(roots, TYPES), equalTo(implementations));
+        assertThat(cache.getLastIndexedRoots(), equalTo(0));
+
+        // cache loaded from the file
+        cache = createCache();
+        assertThat(cache.findImplementations(roots, TYPES), equalTo(implementations));
+        assertThat(cache.getLastIndexedRoots(), equalTo(0));
+
+        // type which was not resolved before is resolved from cached roots
+        cache = createCache();
+        List<String> types = Collections.singletonList(AbstractImplementation.class.getName());
+        assertThat(cache.findImplementations(roots, types).get(AbstractImplementation.class.getName()),
+                equalTo(Collections.singletonList(Implementation.class.getName())));
+        assertThat(cache.getLastIndexedRoots(), equalTo(0));
+    }
+
+    @Test
+    public void testOnlyChangedJarIsIndexed() throws IOException {
+        createCache().findImplementations(roots, TYPES);
+
+        ComponentIndexerTest.createJar(implementationJar, Implementation.class, OtherImplementation.class,
+                SpecialImplementation.class);
+        touch(implementationJar);
+
+        ComponentIndexCache cache = createCache();
+        Map<String, List<String>> implementations = cache.findImplementations(roots, TYPES);
+        assertThat(cache.getLastIndexedRoots(), equalTo(1));
+        assertThat(implementations.get(SubApi.class.getName()), equalTo(Arrays.asList(Implementation.class.getName(),
+                SpecialImplementation.class.getName())));
+    }
+
+    @Test
+    public void testTouchedJarIsNotIndexed() throws IOException {
+        Map<String, List<String>> implementations = createCache().findImplementations(roots, TYPES);
+        touch(apiJar);
+
+        ComponentIndexCache cache = createCache();
+        assertThat(cache.findImplementations(roots, TYPES), equalTo(implementations));
+        assertThat(cache.getLastIndexedRoots(), equalTo(0));
+    }
+
+    @Test
+    public void testRemovedJar() {
+        createCache().findImplementations(roots, TYPES);
+
+        ComponentIndexCache cache = createCache();
+        Map<String, List<String>> implementations = cache.findImplementations(Collections.singletonList(apiJar), TYPES);
+        assertThat(cache.getLastIndexedRoots(), equalTo(0));
+        assertThat(implementations.get(Api.class.getName()), equalTo(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void testDirectoryIsAlwaysIndexed() throws IOException {
+        Path directory = folder.newFolder("classes").toPath();
+        List<Path> rootsWithDirectory = new ArrayList<>(roots);
+        rootsWithDirectory.add(directory);
+
+        ComponentIndexCache cache = createCache();
+        cache.findImplementations(rootsWithDirectory, TYPES);
+        assertThat(cache.getLastIndexedRoots(), equalTo(3));
+
+        cache.findImplementations(rootsWithDirectory, TYPES);
+        assertThat(cache.getLastIndexedRoots(), equalTo(1));
+    }
+
+    @Test
+    public void testCorruptedIndexFile() throws IOException {
+        Map<String, List<String>> implementations = createCache().findImplementations(roots, TYPES);
+        byte[] content = Files.readAllBytes(indexFile);
+        Files.write(indexFile, Arrays.copyOf(content, content.length / 2));
+
+        // results are stored at the beginning of the file, so they are used even though the rest is truncated
+        ComponentIndexCache cache = createCache();
+        assertThat(cache.findImplementations(roots, TYPES), equalTo(implementations));
+        assertThat(cache.getLastIndexedRoots(), equalTo(0));
+
+        touch(apiJar);
+        cache = createCache();
+        assertThat(cache.findImplementations(roots, TYPES), equalTo(implementations));
+        assertThat(cache.getLastIndexedRoots(), equalTo(2));
+
+        Files.write(indexFile, "invalid".getBytes());
+        cache = createCache();
+        assertThat(cache.findImplementations(roots, TYPES), equalTo(implementations));
+        assertThat(cache.getLastIndexedRoots(), equalTo(2));
+    }
+
+    @Test
+    public void benchmarkWarmStartup() {
+        TestUtils.assumeBenchmark();
+        List<Path> jars = new ArrayList<>();
+        for (Path root : ComponentIndexerTest.getClasspathRoots()) {
+            if (Files.isRegularFile(root)) {
+                jars.add(root);
+            }
+        }
+        List<String> types = new ArrayList<>();
+        for (PerfCakeComponent component : PerfCakeComponent.values()) {
+            types.add(component.getApi().getName());
+        }
+
+        long start = System.nanoTime();
+        Map<String, List<String>> implementations = createCache().findImplementations(jars, types);
+        long coldTime = System.nanoTime() - start;
+
+        // warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            createCache().findImplementations(jars, types);
+        }
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ComponentIndexCache cache = createCache();
+            assertThat(cache.findImplementations(jars, types), equalTo(implementations));
+            assertThat(cache.getLastIndexedRoots(), equalTo(0));
+        }
+        long warmTime = (System.nanoTime() - start) / ITERATIONS;
+
+        logger.info("Finding components in {} jars: cold cache: {} ms, warm cache: {} us", jars.size(), coldTime / 1_000_000,
+                warmTime / 1000);
+    }
+
+    private ComponentIndexCache createCache() {
+        return new ComponentIndexCache(indexFile, new ComponentIndexer());
+    }
+
+    private static void touch(Path file) throws IOException {
+        // some file systems keep modification time in seconds only
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000));
+    }
+}
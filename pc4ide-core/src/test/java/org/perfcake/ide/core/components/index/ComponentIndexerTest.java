@@ -0,0 +1,267 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.components.index;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.reflections.Reflections;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link ComponentIndexer} and {@link ComponentIndex}.
+ *
+ * @author Jakub Knetl
+ */
+public class ComponentIndexerTest {
+
+    static final Logger logger = LoggerFactory.getLogger(ComponentIndexerTest.class);
+
+    private static final int ITERATIONS = 5;
+
+    private static final Api ANONYMOUS_IMPLEMENTATION = new Api() {
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadHeader() throws IOException {
+        ClassHeaderReader reader = new ClassHeaderReader();
+
+        ClassHeader header = readHeader(reader, SpecialImplementation.class);
+        assertThat(header.getName(), equalTo(SpecialImplementation.class.getName()));
+        assertThat(header.getSuperName(), equalTo(Implementation.class.getName()));
+        assertThat(header.getInterfaces(), equalTo(Arrays.asList(SubApi.class.getName(), Serializable.class.getName())));
+        assertThat(header.isConcrete(), equalTo(true));
+
+        // constant pool with long and double constants
+        header = readHeader(reader, Unrelated.class);
+        assertThat(header.getSuperName(), equalTo(Object.class.getName()));
+        assertThat(header.getInterfaces(), equalTo(Collections.<String>emptyList()));
+
+        header = readHeader(reader, Object.class);
+        assertThat(header.getSuperName(), nullValue());
+
+        assertThat(readHeader(reader, SubApi.class).isConcrete(), equalTo(false));
+        assertThat(readHeader(reader, AbstractImplementation.class).isConcrete(), equalTo(false));
+        assertThat(readHeader(reader, ANONYMOUS_IMPLEMENTATION.getClass()).isConcrete(), equalTo(false));
+    }
+
+    @Test
+    public void testIndexDirectoryAndJar() throws IOException {
+        Path directory = folder.newFolder("classes").toPath();
+        copyClasses(directory, Api.class, SubApi.class, AbstractImplementation.class, Implementation.class,
+                ANONYMOUS_IMPLEMENTATION.getClass());
+        Path jar = createJar(folder.getRoot().toPath().resolve("implementations.jar"), SpecialImplementation.class,
+                OtherImplementation.class, Unrelated.class);
+
+        ComponentIndex index = new ComponentIndexer().index(Arrays.asList(directory, jar));
+
+        assertThat(index.size(), equalTo(8));
+        assertThat(index.contains(Unrelated.class.getName()), equalTo(true));
+        assertThat(index.getSubTypes(Api.class.getName()), hasItems(SubApi.class.getName(), AbstractImplementation.class.getName(),
+                ANONYMOUS_IMPLEMENTATION.getClass().getName()));
+        assertThat(index.getImplementations(Api.class.getName()), equalTo(Arrays.asList(Implementation.class.getName(),
+                OtherImplementation.class.getName(), SpecialImplementation.class.getName())));
+        assertThat(index.getImplementations(SubApi.class.getName()), equalTo(Arrays.asList(Implementation.class.getName(),
+                SpecialImplementation.class.getName())));
+        assertThat(index.getImplementations(Unrelated.class.getName()), equalTo(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void testInvalidRootsAreSkipped() throws IOException {
+        Path directory = folder.newFolder("classes").toPath();
+        copyClasses(directory, Api.class, OtherImplementation.class);
+        Path invalidJar = folder.newFile("invalid.jar").toPath();
+        Files.write(invalidJar, "not a jar".getBytes());
+        Path invalidClass = directory.resolve("Invalid.class");
+        Files.write(invalidClass, new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0});
+
+        ComponentIndex index = new ComponentIndexer().index(Arrays.asList(invalidJar, directory, Paths.get("missing.jar")));
+
+        assertThat(index.size(), equalTo(2));
+        assertThat(index.getSubTypes(Api.class.getName()), hasItem(OtherImplementation.class.getName()));
+    }
+
+    @Test
+    public void testFindsPerfCakeComponents() {
+        ComponentIndex index = new ComponentIndexer().index(getClasspathRoots());
+        Reflections reflections = createReflections();
+
+        for (PerfCakeComponent component : PerfCakeComponent.values()) {
+            List<String> implementations = index.getImplementations(component.getApi().getName());
+            for (Class<?> subType : reflections.getSubTypesOf(component.getApi())) {
+                if (!subType.isInterface() && !Modifier.isAbstract(subType.getModifiers()) && !subType.isAnonymousClass()) {
+                    assertThat(component.name(), implementations, hasItem(subType.getName()));
+                }
+            }
+        }
+        assertThat(index.getImplementations(PerfCakeComponent.SENDER.getApi().getName()),
+                hasItem("org.perfcake.message.sender.HttpSender"));
+    }
+
+    @Test
+    public void benchmarkIndexing() {
+        TestUtils.assumeBenchmark();
+        List<Path> roots = getClasspathRoots();
+        ComponentIndexer indexer = new ComponentIndexer();
+
+        // warm up
+        indexer.index(roots);
+        findWithReflections();
+
+        long start = System.nanoTime();
+        ComponentIndex index = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            index = indexer.index(roots);
+            for (PerfCakeComponent component : PerfCakeComponent.values()) {
+                index.getImplementations(component.getApi().getName());
+            }
+        }
+        long indexTime = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            findWithReflections();
+        }
+        long reflectionsTime = (System.nanoTime() - start) / ITERATIONS;
+
+        logger.info("Finding components among {} classes in {} classpath roots: class file index: {} ms, reflections: {} ms",
+                index.size(), roots.size(), indexTime / 1_000_000, reflectionsTime / 1_000_000);
+    }
+
+    private void findWithReflections() {
+        Reflections reflections = createReflections();
+        for (PerfCakeComponent component : PerfCakeComponent.values()) {
+            reflections.getSubTypesOf(component.getApi());
+        }
+    }
+
+    private Reflections createReflections() {
+        return new Reflections(new ConfigurationBuilder().addUrls(ClasspathHelper.forJavaClassPath()));
+    }
+
+    static List<Path> getClasspathRoots() {
+        List<Path> roots = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!entry.isEmpty() && Files.exists(Paths.get(entry))) {
+                roots.add(Paths.get(entry));
+            }
+        }
+        return roots;
+    }
+
+    private ClassHeader readHeader(ClassHeaderReader reader, Class<?> clazz) throws IOException {
+        try (InputStream inputStream = clazz.getResourceAsStream("/" + getClassFileName(clazz))) {
+            return reader.read(inputStream);
+        }
+    }
+
+    private void copyClasses(Path directory, Class<?>... classes) throws IOException {
+        for (Class<?> clazz : classes) {
+            Path target = directory.resolve(getClassFileName(clazz));
+            Files.createDirectories(target.getParent());
+            try (InputStream inputStream = clazz.getResourceAsStream("/" + getClassFileName(clazz))) {
+                Files.copy(inputStream, target);
+            }
+        }
+    }
+
+    /**
+     * Creates a jar with class files of given classes.
+     *
+     * @param jar     location of the jar
+     * @param classes classes in the jar
+     * @return location of the jar
+     * @throws IOException if the jar cannot be written
+     */
+    static Path createJar(Path jar, Class<?>... classes) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(jar);
+             JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+            for (Class<?> clazz : classes) {
+                jarOutputStream.putNextEntry(new JarEntry(getClassFileName(clazz)));
+                try (InputStream inputStream = clazz.getResourceAsStream("/" + getClassFileName(clazz))) {
+                    byte[] buffer = new byte[4096];
+                    int read;
+                    while ((read = inputStream.read(buffer)) >= 0) {
+                        jarOutputStream.write(buffer, 0, read);
+                    }
+                }
+                jarOutputStream.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static String getClassFileName(Class<?> clazz) {
+        return clazz.getName().replace('.', '/') + ".class";
+    }
+
+    public interface Api {
+    }
+
+    public interface SubApi extends Api {
+    }
+
+    public abstract static class AbstractImplementation implements SubApi {
+    }
+
+    public static class Implementation extends AbstractImplementation {
+    }
+
+    public static class SpecialImplementation extends Implementation implements SubApi, Serializable {
+    }
+
+    public static class OtherImplementation implements Api {
+    }
+
+    public static class Unrelated {
+        private long longValue = 1234567890123L;
+        private double doubleValue = 1.2345;
+    }
+}
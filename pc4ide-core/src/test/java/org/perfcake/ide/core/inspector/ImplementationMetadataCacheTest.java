@@ -0,0 +1,120 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.inspector;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.perfcake.message.generator.DefaultMessageGenerator;
+import org.perfcake.message.sender.JdbcSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link ImplementationMetadataCache}.
+ *
+ * @author Jakub Knetl
+ */
+public class ImplementationMetadataCacheTest {
+
+    static final Logger logger = LoggerFactory.getLogger(ImplementationMetadataCacheTest.class);
+
+    private PropertyInspector inspector;
+    private ImplementationMetadataCache cache;
+
+    @Before
+    public void setUp() {
+        inspector = spy(new PropertyUtilsInspector());
+        cache = new ImplementationMetadataCache(inspector);
+    }
+
+    @Test
+    public void testImplementationIsInspectedOnce() {
+        List<ImplementationField> fields = cache.getFields(DefaultMessageGenerator.class);
+        for (int i = 0; i < 200; i++) {
+            assertThat(cache.getFields(DefaultMessageGenerator.class), sameInstance(fields));
+        }
+
+        verify(inspector, times(1)).getProperties(DefaultMessageGenerator.class);
+        assertThat(fields, equalTo(new PropertyUtilsInspector().getProperties(DefaultMessageGenerator.class)));
+    }
+
+    @Test
+    public void testInvalidate() {
+        List<ImplementationField> fields = cache.getFields(DefaultMessageGenerator.class);
+        cache.invalidate();
+
+        List<ImplementationField> newFields = cache.getFields(DefaultMessageGenerator.class);
+        assertThat(newFields, not(sameInstance(fields)));
+        assertThat(newFields, equalTo(fields));
+        verify(inspector, times(2)).getProperties(DefaultMessageGenerator.class);
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        Map<PerfCakeComponent, List<String>> implementations = new EnumMap<>(PerfCakeComponent.class);
+        implementations.put(PerfCakeComponent.GENERATOR, Arrays.asList("DefaultMessageGenerator"));
+        implementations.put(PerfCakeComponent.SENDER, Arrays.asList("JdbcSender", "NonExistingSender"));
+
+        cache.warmUp(implementations).get(10, TimeUnit.SECONDS);
+        cache.getFields(DefaultMessageGenerator.class);
+        cache.getFields(JdbcSender.class);
+
+        verify(inspector, times(1)).getProperties(DefaultMessageGenerator.class);
+        verify(inspector, times(1)).getProperties(JdbcSender.class);
+    }
+
+    @Test
+    public void benchmarkRepeatedInspection() {
+        TestUtils.assumeBenchmark();
+        final int count = 200;
+        PropertyInspector uncached = new PropertyUtilsInspector();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            uncached.getProperties(JdbcSender.class);
+        }
+        long uncachedTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            cache.getFields(JdbcSender.class);
+        }
+        long cachedTime = System.nanoTime() - start;
+
+        logger.info("Inspecting implementation {} times: without cache: {} ms, with cache: {} ms",
+                count, uncachedTime / 1_000_000, cachedTime / 1_000_000);
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.manager;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.properties.KeyValue;
+import org.perfcake.ide.core.model.properties.KeyValueImpl;
+import org.perfcake.ide.core.model.serialization.ModelLoader;
+import org.perfcake.ide.core.model.serialization.ModelWriter;
+
+/**
+ * Tests for writing scenario by {@link ScenarioManagerImpl}.
+ *
+ * @author Jakub Knetl
+ */
+public class ScenarioManagerImplTest {
+
+    private static final long DEBOUNCE_MILLIS = 100;
+    private static final String PROPERTIES = ScenarioModel.PropertyNames.PROPERTIES.toString();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path location;
+    private ScenarioModel model;
+    private AtomicInteger serializations;
+    private volatile String content;
+    private volatile boolean failing;
+    private ScenarioManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        location = folder.getRoot().toPath().resolve("scenario.xml");
+        model = new ScenarioModel(new DocsServiceImpl(new Properties()));
+        serializations = new AtomicInteger();
+        content = "first";
+        failing = false;
+
+        ModelWriter writer = (scenarioModel, outputStream) -> {
+            serializations.incrementAndGet();
+            if (failing) {
+                throw new ModelConversionException("Cannot convert model.");
+            }
+            try {
+                outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        manager = new ScenarioManagerImpl(location, writer, mock(ModelLoader.class), DEBOUNCE_MILLIS);
+    }
+
+    @After
+    public void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    public void testBurstIsCoalesced() throws Exception {
+        List<CompletableFuture<Path>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            content = "content " + i;
+            futures.add(manager.writeScenarioAsync(model));
+        }
+
+        assertThat(futures.get(19).get(5, TimeUnit.SECONDS), equalTo(location));
+        for (CompletableFuture<Path> future : futures) {
+            assertThat(future, sameInstance(futures.get(0)));
+        }
+        assertThat(serializations.get(), equalTo(1));
+        assertThat(read(), equalTo("content 19"));
+    }
+
+    @Test
+    public void testUnchangedContentIsNotWritten() throws Exception {
+        manager.writeScenarioAsync(model).get(5, TimeUnit.SECONDS);
+        Object fileKey = fileKey();
+        assumeThat(fileKey, notNullValue());
+
+        manager.writeScenarioAsync(model).get(5, TimeUnit.SECONDS);
+        assertThat(serializations.get(), equalTo(2));
+        assertThat(fileKey(), equalTo(fileKey));
+
+        // file is replaced by new one when content changes
+        content = "second";
+        manager.writeScenarioAsync(model).get(5, TimeUnit.SECONDS);
+        assertThat(fileKey(), not(equalTo(fileKey)));
+        assertThat(read(), equalTo("second"));
+    }
+
+    @Test
+    public void testSynchronousWriteSupersedesPendingWrite() throws Exception {
+        CompletableFuture<Path> future = manager.writeScenarioAsync(model);
+        manager.writeScenario(model);
+
+        assertThat(future.isDone(), is(true));
+        assertThat(future.get(), equalTo(location));
+        assertThat(read(), equalTo("first"));
+
+        // pending write was cancelled, so model is not serialized again
+        Thread.sleep(DEBOUNCE_MILLIS * 3);
+        assertThat(serializations.get(), equalTo(1));
+    }
+
+    @Test
+    public void testFailedWrite() throws Exception {
+        failing = true;
+        try {
+            manager.writeScenarioAsync(model).get(5, TimeUnit.SECONDS);
+            fail("Write should fail.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(ModelConversionException.class));
+        }
+        assertThat(Files.exists(location), is(false));
+        assertThat(folder.getRoot().list().length, equalTo(0));
+    }
+
+    @Test
+    public void testCloseWritesPendingRequest() throws Exception {
+        CompletableFuture<Path> future = manager.writeScenarioAsync(model);
+        manager.close();
+
+        assertThat(future.get(5, TimeUnit.SECONDS), equalTo(location));
+        assertThat(read(), equalTo("first"));
+    }
+
+    @Test
+    public void testSnapshotOfModelIsWritten() throws Exception {
+        manager.close();
+        ModelWriter writer = (scenarioModel, outputStream) -> {
+            try {
+                outputStream.write(scenarioModel.getSingleProperty(PROPERTIES, KeyValue.class).getValue()
+                        .getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        manager = new ScenarioManagerImpl(location, writer, mock(ModelLoader.class), DEBOUNCE_MILLIS);
+        KeyValue property = new KeyValueImpl("name", "requested");
+        model.addProperty(PROPERTIES, property);
+
+        CompletableFuture<Path> future = manager.writeScenarioAsync(model);
+        // model is changed before it is written, but the write uses model state from the time of the request
+        property.setValue("changed");
+
+        assertThat(future.get(5, TimeUnit.SECONDS), equalTo(location));
+        assertThat(read(), equalTo("requested"));
+    }
+
+    @Test
+    public void testPermissionsAndLinkArePreserved() throws Exception {
+        assumeThat(Files.getFileAttributeView(folder.getRoot().toPath(), PosixFileAttributeView.class), notNullValue());
+        Path target = folder.getRoot().toPath().resolve("target.xml");
+        Files.write(target, "original".getBytes(StandardCharsets.UTF_8));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+        Files.setPosixFilePermissions(target, permissions);
+        Files.createSymbolicLink(location, target.getFileName());
+
+        manager.writeScenarioAsync(model).get(5, TimeUnit.SECONDS);
+
+        assertThat(Files.isSymbolicLink(location), is(true));
+        assertThat(read(), equalTo("first"));
+        assertThat(Files.getPosixFilePermissions(target), equalTo(permissions));
+    }
+
+    private String read() throws Exception {
+        return new String(Files.readAllBytes(location), StandardCharsets.UTF_8);
+    }
+
+    private Object fileKey() throws Exception {
+        return Files.readAttributes(location, BasicFileAttributes.class).fileKey();
+    }
+}
@@ -82,6 +82,27 @@ public class AbstractModelTest {
         assertThat(model.getProperties("method"), empty());
     }
 
+    @Test
+    public void testSupportedPropertyLookupAfterImplementationChange() {
+        model = new SenderModel(docsService);
+        PropertyInfo implProperty = model.getSupportedProperty(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY);
+        Value implementation = new SimpleValue("HttpSender");
+        model.addProperty(implProperty, implementation);
+
+        PropertyInfo method = model.getSupportedProperty("method");
+        assertThat(method.getName(), equalTo("method"));
+        assertThat(model.getSupportedImplProperties().contains(method), is(true));
+
+        implementation.setValue("DummySender");
+        assertThat(model.getSupportedProperty("method"), nullValue());
+        assertThat(model.getProperties("method"), nullValue());
+        assertThat(model.getSupportedProperty(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY), is(implProperty));
+
+        implementation.setValue("HttpSender");
+        assertThat(model.getSupportedProperty("method"), equalTo(method));
+        assertThat(model.getProperties("method"), empty());
+    }
+
     @Test
     public void testAddProperty() {
         model = new ScenarioModel(docsService);
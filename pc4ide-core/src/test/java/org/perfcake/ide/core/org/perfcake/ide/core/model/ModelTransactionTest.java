@@ -0,0 +1,290 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.beans.PropertyChangeEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.model.AbstractModel;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.ModelTransaction;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.DestinationModel;
+import org.perfcake.ide.core.model.components.ReporterModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.SenderModel;
+import org.perfcake.ide.core.model.listeners.ModelChangeSetEvent;
+import org.perfcake.ide.core.model.listeners.ModelEvent;
+import org.perfcake.ide.core.model.listeners.ModelEventBus;
+import org.perfcake.ide.core.model.listeners.ModelEventSubscriber;
+import org.perfcake.ide.core.model.listeners.ModelEventType;
+import org.perfcake.ide.core.model.listeners.ModelListener;
+import org.perfcake.ide.core.model.properties.KeyValue;
+import org.perfcake.ide.core.model.properties.KeyValueImpl;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.utils.TestUtils;
+
+/**
+ * Tests for {@link ModelTransaction}.
+ *
+ * @author Jakub Knetl
+ */
+public class ModelTransactionTest {
+
+    private DocsService docsService;
+    private ScenarioModel scenario;
+    private PropertyInfo reportersInfo;
+    private ModelListener listener;
+
+    /**
+     * Sets up tests.
+     *
+     * @throws IOException when there is problem in reading javadoc properties.
+     */
+    @Before
+    public void setUp() throws IOException {
+        docsService = new DocsServiceImpl(TestUtils.loadJavadocProperties());
+        scenario = new ScenarioModel(docsService);
+        reportersInfo = scenario.getSupportedProperty(ScenarioModel.PropertyNames.REPORTERS.toString());
+        listener = mock(ModelListener.class);
+        scenario.addModelListener(listener);
+    }
+
+    @Test
+    public void testCommitFiresSingleChangeSet() {
+        Model[] reporters = new Model[10];
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            for (int i = 0; i < reporters.length; i++) {
+                reporters[i] = new ReporterModel(docsService);
+                scenario.addProperty(reportersInfo, reporters[i]);
+            }
+            verify(listener, never()).propertyChange(any(PropertyChangeEvent.class));
+            transaction.commit();
+        }
+
+        ArgumentCaptor<PropertyChangeEvent> captor = ArgumentCaptor.forClass(PropertyChangeEvent.class);
+        verify(listener, times(1)).propertyChange(captor.capture());
+        assertThat(captor.getValue(), instanceOf(ModelChangeSetEvent.class));
+
+        ModelChangeSetEvent changeSet = (ModelChangeSetEvent) captor.getValue();
+        assertThat(changeSet.getSource(), is(scenario));
+        assertThat(changeSet.getEvents().size(), equalTo(reporters.length));
+        for (int i = 0; i < reporters.length; i++) {
+            assertThat(changeSet.getEvents().get(i).getNewValue(), is(reporters[i]));
+        }
+        assertThat(ModelTransaction.isInTransaction(), is(false));
+    }
+
+    @Test
+    public void testSubtreeSubscriberReceivesSingleChangeSet() {
+        Model first = new ReporterModel(docsService);
+        Model second = new ReporterModel(docsService);
+        scenario.addProperty(reportersInfo, first);
+        scenario.addProperty(reportersInfo, second);
+        String destinations = ReporterModel.PropertyNames.DESTINATION.toString();
+
+        List<ModelEvent> events = new ArrayList<>();
+        scenario.getEventBus().subscribe(event -> events.add(event.copy()), ModelEventBus.Scope.SUBTREE);
+        ModelListener reporterListener = mock(ModelListener.class);
+        first.addModelListener(reporterListener);
+        listener = mock(ModelListener.class);
+        scenario.addModelListener(listener);
+
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            first.addProperty(destinations, new DestinationModel(docsService));
+            second.addProperty(destinations, new DestinationModel(docsService));
+            first.addProperty(destinations, new DestinationModel(docsService));
+            transaction.commit();
+        }
+
+        assertThat(events.size(), equalTo(1));
+        assertThat(events.get(0).getType(), is(ModelEventType.CHANGE_SET));
+        assertThat(events.get(0).getModel(), is(scenario));
+        assertThat(events.get(0).getEvents().size(), equalTo(3));
+        assertThat(events.get(0).getEvents().get(1).getModel(), is(second));
+
+        ArgumentCaptor<PropertyChangeEvent> captor = ArgumentCaptor.forClass(PropertyChangeEvent.class);
+        verify(reporterListener, times(1)).propertyChange(captor.capture());
+        assertThat(((ModelChangeSetEvent) captor.getValue()).getEvents().size(), equalTo(2));
+
+        // model listeners are notified about changes of the submodels as well
+        captor = ArgumentCaptor.forClass(PropertyChangeEvent.class);
+        verify(listener, times(1)).propertyChange(captor.capture());
+        assertThat(captor.getValue().getSource(), is(scenario));
+        assertThat(((ModelChangeSetEvent) captor.getValue()).getEvents().size(), equalTo(3));
+
+        // node subscribers of the scenario are not notified, since scenario itself has not changed
+        ModelEventSubscriber nodeSubscriber = mock(ModelEventSubscriber.class);
+        scenario.getEventBus().subscribe(nodeSubscriber, ModelEventBus.Scope.NODE);
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            second.addProperty(destinations, new DestinationModel(docsService));
+            transaction.commit();
+        }
+        verify(nodeSubscriber, never()).modelChanged(any(ModelEvent.class));
+    }
+
+    @Test
+    public void testRollbackRevertsChanges() {
+        Model first = new ReporterModel(docsService);
+        Model second = new ReporterModel(docsService);
+        Model third = new ReporterModel(docsService);
+        scenario.addProperty(reportersInfo, first);
+        scenario.addProperty(reportersInfo, second);
+        scenario.addProperty(reportersInfo, third);
+        KeyValue property = new KeyValueImpl("key", "value");
+        scenario.addProperty(ScenarioModel.PropertyNames.PROPERTIES.toString(), property);
+
+        listener = mock(ModelListener.class);
+        scenario.addModelListener(listener);
+
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            scenario.removeProperty(reportersInfo, second);
+            scenario.addProperty(reportersInfo, new ReporterModel(docsService));
+            property.setValue("other value");
+            property.setKey("other key");
+            transaction.rollback();
+        }
+
+        assertThat(scenario.getProperties(reportersInfo), equalTo(Arrays.<Property>asList(first, second, third)));
+        assertThat(second.getModel(), is(scenario));
+        assertThat(property.getKey(), equalTo("key"));
+        assertThat(property.getValue(), equalTo("value"));
+        verify(listener, never()).propertyChange(any(PropertyChangeEvent.class));
+
+        // listeners are notified again after the transaction
+        property.setValue("new value");
+        verify(listener, times(1)).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void testRollbackRevertsImplementationChange() {
+        SenderModel sender = new SenderModel(docsService);
+        Value implementation = new SimpleValue("HttpSender");
+        sender.addProperty(sender.getSupportedProperty(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY), implementation);
+        Value method = new SimpleValue("POST");
+        sender.addProperty("method", method);
+
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            implementation.setValue("DummySender");
+            assertThat(sender.getProperties("method"), nullValue());
+            transaction.rollback();
+        }
+
+        assertThat(implementation.getValue(), equalTo("HttpSender"));
+        assertThat(sender.getProperties("method"), equalTo(Arrays.<Property>asList(method)));
+        assertThat(method.getModel(), is(sender));
+    }
+
+    @Test
+    public void testNestedTransactionJoinsOuter() {
+        try (ModelTransaction outer = ModelTransaction.begin()) {
+            scenario.addProperty(reportersInfo, new ReporterModel(docsService));
+            try (ModelTransaction inner = ModelTransaction.begin()) {
+                scenario.addProperty(reportersInfo, new ReporterModel(docsService));
+                inner.commit();
+            }
+            verify(listener, never()).propertyChange(any(PropertyChangeEvent.class));
+            outer.commit();
+        }
+
+        ArgumentCaptor<PropertyChangeEvent> captor = ArgumentCaptor.forClass(PropertyChangeEvent.class);
+        verify(listener, times(1)).propertyChange(captor.capture());
+        assertThat(((ModelChangeSetEvent) captor.getValue()).getEvents().size(), equalTo(2));
+    }
+
+    @Test
+    public void testNestedRollbackRollsBackOuter() {
+        ModelTransaction outer = ModelTransaction.begin();
+        scenario.addProperty(reportersInfo, new ReporterModel(docsService));
+        try (ModelTransaction inner = ModelTransaction.begin()) {
+            scenario.addProperty(reportersInfo, new ReporterModel(docsService));
+            inner.rollback();
+        }
+
+        try {
+            outer.commit();
+            fail("Possible to commit rolled back transaction");
+        } catch (IllegalStateException e) {
+            // ok, expected behaviour
+        }
+
+        assertThat(scenario.getProperties(reportersInfo), empty());
+        assertThat(ModelTransaction.isInTransaction(), is(false));
+        verify(listener, never()).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void testModificationAfterNestedRollbackFails() {
+        try (ModelTransaction outer = ModelTransaction.begin()) {
+            try (ModelTransaction inner = ModelTransaction.begin()) {
+                inner.rollback();
+            }
+
+            try {
+                scenario.addProperty(reportersInfo, new ReporterModel(docsService));
+                fail("Possible to modify model in rolled back transaction");
+            } catch (IllegalStateException e) {
+                // ok, expected behaviour
+            }
+            assertThat(scenario.getProperties(reportersInfo), empty());
+        }
+
+        assertThat(ModelTransaction.isInTransaction(), is(false));
+        verify(listener, never()).propertyChange(any(PropertyChangeEvent.class));
+
+        // model may be modified after the transaction ends
+        scenario.addProperty(reportersInfo, new ReporterModel(docsService));
+        verify(listener, times(1)).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void testCloseRollsBackUncommittedTransaction() {
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            scenario.addProperty(reportersInfo, new ReporterModel(docsService));
+        }
+
+        assertThat(scenario.getProperties(reportersInfo), empty());
+        assertThat(ModelTransaction.isInTransaction(), is(false));
+        verify(listener, never()).propertyChange(any(PropertyChangeEvent.class));
+    }
+}
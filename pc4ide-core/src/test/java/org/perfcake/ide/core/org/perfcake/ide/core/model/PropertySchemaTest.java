@@ -0,0 +1,125 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.model.AbstractModel;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.SenderModel;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link org.perfcake.ide.core.model.PropertySchema}.
+ *
+ * @author Jakub Knetl
+ */
+public class PropertySchemaTest {
+
+    static final Logger logger = LoggerFactory.getLogger(PropertySchemaTest.class);
+
+    private static final int COMPONENT_COUNT = 1000;
+
+    private DocsService docsService;
+
+    /**
+     * Sets up tests.
+     *
+     * @throws IOException when there is problem in reading javadoc properties.
+     */
+    @Before
+    public void setUp() throws IOException {
+        docsService = new DocsServiceImpl(TestUtils.loadJavadocProperties());
+    }
+
+    @Test
+    public void testSchemaIsSharedByComponents() {
+        Model first = new GeneratorModel(docsService);
+        Model second = new GeneratorModel(docsService);
+
+        PropertyInfo firstThreads = first.getSupportedProperty(GeneratorModel.PropertyNames.THREADS.toString());
+        PropertyInfo secondThreads = second.getSupportedProperty(GeneratorModel.PropertyNames.THREADS.toString());
+
+        assertThat(firstThreads, not(equalTo(secondThreads)));
+        assertThat(firstThreads.getModel(), is(first));
+        assertThat(secondThreads.getModel(), is(second));
+        assertThat(firstThreads.getSchema(), sameInstance(secondThreads.getSchema()));
+        assertThat(firstThreads.getValueValidator(), sameInstance(secondThreads.getValueValidator()));
+    }
+
+    @Test
+    public void testSchemaIsSharedByImplementations() {
+        Model first = createSender();
+        Model second = createSender();
+
+        PropertyInfo firstMethod = first.getSupportedProperty("method");
+        PropertyInfo secondMethod = second.getSupportedProperty("method");
+
+        assertThat(firstMethod.getModel(), is(first));
+        assertThat(firstMethod.getSchema(), sameInstance(secondMethod.getSchema()));
+    }
+
+    @Test
+    public void benchmarkModelMemory() {
+        TestUtils.assumeBenchmark();
+        List<Model> models = new ArrayList<>(COMPONENT_COUNT);
+        long before = usedMemory();
+        for (int i = 0; i < COMPONENT_COUNT; i++) {
+            Model message = new MessageModel(docsService);
+            message.addProperty(MessageModel.PropertyNames.URI.toString(), new SimpleValue("message-" + i + ".txt"));
+            models.add(message);
+        }
+        long after = usedMemory();
+
+        logger.info("Retained heap of {} components: {} kB", models.size(), (after - before) / 1024);
+    }
+
+    private Model createSender() {
+        Model sender = new SenderModel(docsService);
+        sender.addProperty(sender.getSupportedProperty(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY), new SimpleValue("HttpSender"));
+        return sender;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
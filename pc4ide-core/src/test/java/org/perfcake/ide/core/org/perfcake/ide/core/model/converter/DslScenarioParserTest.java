@@ -0,0 +1,184 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.converter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.model.converter.dsl.DslScenarioUtil;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.perfcake.model.Scenario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for parsing of dsl scenario definition.
+ *
+ * @author Jakub Knetl
+ */
+public class DslScenarioParserTest {
+
+    static final Logger logger = LoggerFactory.getLogger(DslScenarioParserTest.class);
+
+    private static final int MESSAGE_COUNT = 5000;
+    private static final int MESSAGE_COUNT_SMALL = 100;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 20;
+
+    private static final String SCENARIO = "scenario \"test\"\n"
+            + "  name1 \"v1\" name2 \"v2\"\n"
+            + "  run 10.s with ${threads:4}.threads\n"
+            + "  generator \"DefaultMessageGenerator\" senderTaskQueueSize \"5\"\n"
+            + "  sender \"HttpSender\" target \"http://${host:localhost}:8080\" method \"POST\"\n"
+            + "  // receiver of the responses\n"
+            + "  receiver \"HttpReceiver\" with 2.threads source \"localhost:8088\"\r\n"
+            + "    correlator \"GenerateHeaderCorrelator\"\n"
+            + "  sequences\n"
+            + "    sequence \"PrimitiveNumberSequence\" id \"seq\" start \"1\"\n"
+            + "  reporter \"ResponseTimeStatsReporter\" minimumEnabled \"false\" enabled\n"
+            + "    destination \"ConsoleDestination\" every 5.s every 10.percent disabled\n"
+            + "\n"
+            + "  message file:\"a.txt\" send 10.times headers h:\"a\",hh:\"b\" validate \"v1\"\n"
+            + "  message content:\"Hello, world: ${name}\"\n"
+            + "  validation fast enabled\n"
+            + "    validator \"RegExpValidator\" id \"v1\" pattern \"abc\"\n"
+            + "end\n";
+
+    @Test
+    public void testParseScenario() throws ModelConversionException {
+        Scenario scenario = DslScenarioUtil.getModelFrom(SCENARIO);
+
+        assertThat(scenario.getProperties().getProperty().size(), equalTo(2));
+        assertThat(scenario.getRun().getType(), equalTo("time"));
+        assertThat(scenario.getRun().getValue(), equalTo("10000"));
+        assertThat(scenario.getGenerator().getThreads(), equalTo("${threads:4}"));
+        assertThat(scenario.getGenerator().getProperty().get(0).getValue(), equalTo("5"));
+        assertThat(scenario.getSender().getProperty().get(0).getValue(), equalTo("http://${host:localhost}:8080"));
+
+        assertThat(scenario.getReceiver().getThreads(), equalTo("2"));
+        assertThat(scenario.getReceiver().getSource(), equalTo("localhost:8088"));
+        assertThat(scenario.getReceiver().getCorrelator().getClazz(), equalTo("GenerateHeaderCorrelator"));
+        assertThat(scenario.getSequences().getSequence().get(0).getId(), equalTo("seq"));
+
+        Scenario.Reporting.Reporter reporter = scenario.getReporting().getReporter().get(0);
+        assertThat(reporter.getProperty().size(), equalTo(1));
+        assertThat(reporter.isEnabled(), is(true));
+        assertThat(reporter.getDestination().get(0).getPeriod().size(), equalTo(2));
+        assertThat(reporter.getDestination().get(0).isEnabled(), is(false));
+
+        Scenario.Messages.Message message = scenario.getMessages().getMessage().get(0);
+        assertThat(message.getUri(), equalTo("a.txt"));
+        assertThat(message.getMultiplicity(), equalTo("10"));
+        assertThat(message.getHeader().size(), equalTo(2));
+        assertThat(message.getHeader().get(1).getValue(), equalTo("b"));
+        assertThat(message.getValidatorRef().get(0).getId(), equalTo("v1"));
+        assertThat(scenario.getMessages().getMessage().get(1).getContent(), equalTo("Hello, world: ${name}"));
+
+        assertThat(scenario.getValidation().isFastForward(), is(true));
+        assertThat(scenario.getValidation().getValidator().get(0).getId(), equalTo("v1"));
+    }
+
+    @Test
+    public void testBuiltScenarioIsParsed() throws ModelConversionException {
+        Scenario scenario = DslScenarioUtil.getModelFrom(SCENARIO);
+        String dsl = DslScenarioUtil.getDslScenarioFrom(scenario, "test");
+        Scenario parsed = DslScenarioUtil.getModelFrom(dsl);
+
+        assertThat(parsed.getSender().getClazz(), equalTo("HttpSender"));
+        assertThat(parsed.getReceiver().getCorrelator().getClazz(), equalTo("GenerateHeaderCorrelator"));
+        assertThat(parsed.getReceiver().getCorrelator().getProperty().size(), equalTo(0));
+        assertThat(parsed.getSequences().getSequence().size(), equalTo(1));
+        assertThat(parsed.getSequences().getSequence().get(0).getId(), equalTo("seq"));
+        assertThat(parsed.getSequences().getSequence().get(0).getProperty().get(0).getValue(), equalTo("1"));
+        assertThat(parsed.getReporting().getReporter().size(), equalTo(1));
+        assertThat(DslScenarioUtil.getDslScenarioFrom(parsed, "test"), equalTo(dsl));
+    }
+
+    @Test
+    public void testErrorLocation() {
+        assertError("scenario \"x\"\n  run 10.s with 4.threads\n  generator \"G\" prop\nend", "Line 3, column 21:");
+        assertError("scenario \"x\"\n  run 10.s with 4.threads\n  generator \"G\"\n  sender \"S\nend", "Line 4, column 10:");
+        assertError("scenario \"x\"\n  run 10.s with 4.threads\n  generator \"G\"\n  sender \"S\"\n  correlator \"C\"\nend",
+                "Line 5, column 3:");
+        assertError("scenario \"x\"\n  run 10.xs with 4.threads\n  generator \"G\"\n  sender \"S\"\nend", "Line 2, column 7:");
+        assertError("scenario \"x\"\n  run 10.s with 4.threads\n", "Line 2, column 26:");
+    }
+
+    @Test
+    public void testParseManyMessages() throws ModelConversionException {
+        Scenario scenario = DslScenarioUtil.getModelFrom(createScenario(MESSAGE_COUNT_SMALL));
+
+        assertThat(scenario.getMessages().getMessage().size(), equalTo(MESSAGE_COUNT_SMALL + 2));
+        Scenario.Messages.Message last = scenario.getMessages().getMessage().get(MESSAGE_COUNT_SMALL + 1);
+        assertThat(last.getUri(), equalTo("message-" + (MESSAGE_COUNT_SMALL - 1) + ".txt"));
+        assertThat(last.getMultiplicity(), equalTo(String.valueOf(MESSAGE_COUNT_SMALL - 1)));
+        assertThat(last.getHeader().size(), equalTo(2));
+        assertThat(last.getValidatorRef().get(0).getId(), equalTo("v1"));
+    }
+
+    @Test
+    public void benchmarkParsing() throws ModelConversionException {
+        TestUtils.assumeBenchmark();
+        String dsl = createScenario(MESSAGE_COUNT);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            DslScenarioUtil.getModelFrom(dsl);
+        }
+
+        Scenario scenario = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            scenario = DslScenarioUtil.getModelFrom(dsl);
+        }
+        long time = (System.nanoTime() - start) / ITERATIONS;
+
+        logger.info("Parsing of dsl scenario with {} lines ({} kB): {} us, {} lines per ms",
+                MESSAGE_COUNT + SCENARIO.split("\n").length, dsl.length() / 1024, time / 1000,
+                (MESSAGE_COUNT * 1_000_000L) / Math.max(time, 1));
+    }
+
+    /**
+     * Creates scenario with given number of messages in addition to the messages of {@link #SCENARIO}.
+     */
+    private static String createScenario(int messageCount) {
+        StringBuilder builder = new StringBuilder(SCENARIO.substring(0, SCENARIO.length() - "end\n".length()));
+        for (int i = 0; i < messageCount; i++) {
+            builder.append("  message file:\"message-").append(i).append(".txt\" send ").append(i)
+                    .append(".times headers h:\"a\",hh:\"b\" validate \"v1\"\n");
+        }
+        builder.append("end\n");
+        return builder.toString();
+    }
+
+    private static void assertError(String dsl, String location) {
+        try {
+            DslScenarioUtil.getModelFrom(dsl);
+            fail("ModelConversionException expected");
+        } catch (ModelConversionException e) {
+            assertThat(e.getMessage(), startsWith(location));
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.converter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.ScenarioModel.PropertyNames;
+import org.perfcake.ide.core.model.converter.dsl.DslModelParser;
+import org.perfcake.ide.core.model.converter.dsl.IncrementalDslModelParser;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.snapshot.ModelSnapshot;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link IncrementalDslModelParser}.
+ *
+ * @author Jakub Knetl
+ */
+public class IncrementalDslModelParserTest {
+
+    static final Logger logger = LoggerFactory.getLogger(IncrementalDslModelParserTest.class);
+
+    private static final int MESSAGE_COUNT = 5000;
+    private static final int MESSAGE_COUNT_SMALL = 100;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 20;
+
+    private static final String SCENARIO = "scenario \"test\"\n"
+            + "  name1 \"v1\" name2 \"v2\"\n"
+            + "  run 10.s with 4.threads\n"
+            + "  generator \"DefaultMessageGenerator\" senderTaskQueueSize \"5\"\n"
+            + "  sender \"HttpSender\" target \"http://localhost:8080\" method \"POST\"\n"
+            + "  receiver \"HttpReceiver\" with 2.threads source \"localhost:8088\"\n"
+            + "    correlator \"GenerateHeaderCorrelator\"\n"
+            + "  sequences\n"
+            + "    sequence \"PrimitiveNumberSequence\" id \"seq\" start \"1\"\n"
+            + "  reporter \"ResponseTimeStatsReporter\" minimumEnabled \"false\" enabled\n"
+            + "    destination \"ConsoleDestination\" every 5.s every 10.percent disabled\n"
+            + "\n"
+            + "  message file:\"a.txt\" send 10.times headers h:\"a\",hh:\"b\" validate \"v1\"\n"
+            + "  message content:\"Hello, world\"\n"
+            + "  validation fast enabled\n"
+            + "    validator \"RegExpValidator\" id \"v1\" pattern \"abc\"\n"
+            + "end\n";
+
+    private static final String[][] EDITS = new String[][] {
+            // { replaced text, replacement }
+            {"a.txt", "b.txt"},
+            {"  message content", "  message file:\"c.txt\"\n  message content"},
+            {"  message content:\"Hello, world\"\n", ""},
+            {"    destination", "    destination \"CsvDestination\" every 1.s\n    destination"},
+            {"GenerateHeaderCorrelator", "ClassifyingCorrelator"},
+            // correlator line becomes a comment
+            {"  receiver \"HttpReceiver\" with 2.threads source \"localhost:8088\"\n    correlator", "  // no receiver, correlator was"},
+            {"run 10.s with 4.threads", "run 1000.iterations with 8.threads"},
+            {"name2 \"v2\"", "name2 \"v2\" name3 \"v3\""},
+            {"  name1 \"v1\" name2 \"v2\"", "  // no properties"},
+            {"validation fast enabled", "validation disabled"},
+            {"    validator \"RegExpValidator\" id \"v1\" pattern \"abc\"\n", ""},
+            {"  sequences\n", "  // no header\n"},
+            {"scenario \"test\"", "scenario \"renamed\""},
+            {"end\n", "end"},
+    };
+
+    private DocsService docsService;
+
+    /**
+     * Sets up tests.
+     *
+     * @throws IOException when there is problem in reading javadoc properties.
+     */
+    @Before
+    public void setUp() throws IOException {
+        docsService = new DocsServiceImpl(TestUtils.loadJavadocProperties());
+    }
+
+    @Test
+    public void testUpdateEqualsFullParse() throws ModelConversionException {
+        DslModelParser fullParser = new DslModelParser(docsService);
+        for (String[] edit : EDITS) {
+            IncrementalDslModelParser parser = new IncrementalDslModelParser(docsService);
+            ScenarioModel model = parser.parse(SCENARIO);
+
+            String edited = SCENARIO.replace(edit[0], edit[1]);
+            ScenarioModel updated = parser.update(edited);
+
+            assertThat(edit[0], updated, sameInstance(model));
+            assertThat(edit[0], updated.snapshot(), equalTo(fullParser.parse(edited).snapshot()));
+            assertThat(parser.getScenario(), equalTo(edited));
+        }
+    }
+
+    @Test
+    public void testSubsequentUpdates() throws ModelConversionException {
+        DslModelParser fullParser = new DslModelParser(docsService);
+        IncrementalDslModelParser parser = new IncrementalDslModelParser(docsService);
+        parser.parse(SCENARIO);
+
+        String scenario = SCENARIO;
+        for (String[] edit : EDITS) {
+            int offset = scenario.indexOf(edit[0]);
+            scenario = scenario.substring(0, offset) + edit[1] + scenario.substring(offset + edit[0].length());
+            ScenarioModel updated = parser.update(offset, edit[0].length(), edit[1]);
+
+            assertThat(edit[0], updated.snapshot(), equalTo(fullParser.parse(scenario).snapshot()));
+        }
+    }
+
+    @Test
+    public void testUntouchedModelsAreKept() throws ModelConversionException {
+        IncrementalDslModelParser parser = new IncrementalDslModelParser(docsService);
+        ScenarioModel model = parser.parse(SCENARIO);
+        Property generator = model.getProperties(PropertyNames.GENERATOR.toString()).get(0);
+        Property sender = model.getProperties(PropertyNames.SENDER.toString()).get(0);
+        List<Property> messages = model.getProperties(PropertyNames.MESSAGES.toString());
+        Property firstMessage = messages.get(0);
+        Property secondMessage = messages.get(1);
+
+        parser.update(SCENARIO.replace("Hello, world", "Hello, pc4ide"));
+
+        messages = model.getProperties(PropertyNames.MESSAGES.toString());
+        assertThat(model.getProperties(PropertyNames.GENERATOR.toString()).get(0), sameInstance(generator));
+        assertThat(model.getProperties(PropertyNames.SENDER.toString()).get(0), sameInstance(sender));
+        assertThat(messages.get(0), sameInstance(firstMessage));
+        assertThat(messages.get(1), not(sameInstance(secondMessage)));
+        assertThat(messages.get(1).cast(Model.class).getSingleProperty(MessageModel.PropertyNames.CONTENT.toString(), Value.class)
+                .getValue(), equalTo("Hello, pc4ide"));
+    }
+
+    @Test
+    public void testErrorKeepsState() throws ModelConversionException {
+        IncrementalDslModelParser parser = new IncrementalDslModelParser(docsService);
+        ScenarioModel model = parser.parse(SCENARIO);
+        ModelSnapshot snapshot = model.snapshot();
+
+        assertError(parser, SCENARIO.replace("  message content", "  sender \"JmsSender\"\n  message content"),
+                "Line 14, column 3: duplicate sender, previous one is on line 5");
+        assertError(parser, SCENARIO.replace("send 10.times", "send 10.xtimes"), "Line 13, column 29:");
+        assertError(parser, SCENARIO.replace("    correlator", "    destination"), "Line 7, column 5:");
+
+        assertThat(parser.getScenario(), equalTo(SCENARIO));
+        assertThat(model.snapshot(), equalTo(snapshot));
+    }
+
+    @Test
+    public void testSingleLineEditOfLargeScenario() throws ModelConversionException {
+        String scenario = createScenario(MESSAGE_COUNT_SMALL);
+        String edited = scenario.replace("message-50.txt", "message-edited.txt");
+
+        DslModelParser fullParser = new DslModelParser(docsService);
+        IncrementalDslModelParser parser = new IncrementalDslModelParser(docsService);
+        ScenarioModel model = parser.parse(scenario);
+        Property firstMessage = model.getProperties(PropertyNames.MESSAGES.toString()).get(0);
+
+        assertThat(parser.update(edited).snapshot(), equalTo(fullParser.parse(edited).snapshot()));
+        assertThat(parser.update(scenario).snapshot(), equalTo(fullParser.parse(scenario).snapshot()));
+        assertThat(model.getProperties(PropertyNames.MESSAGES.toString()).get(0), sameInstance(firstMessage));
+    }
+
+    @Test
+    public void benchmarkSingleLineEdit() throws ModelConversionException {
+        TestUtils.assumeBenchmark();
+        String scenario = createScenario(MESSAGE_COUNT);
+        String edited = scenario.replace("message-2500.txt", "message-edited.txt");
+
+        DslModelParser fullParser = new DslModelParser(docsService);
+        IncrementalDslModelParser parser = new IncrementalDslModelParser(docsService);
+        parser.parse(scenario);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            fullParser.parse(edited);
+            parser.update(edited);
+            parser.update(scenario);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            fullParser.parse((i % 2 == 0) ? edited : scenario);
+        }
+        long fullTime = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parser.update((i % 2 == 0) ? edited : scenario);
+        }
+        long incrementalTime = (System.nanoTime() - start) / ITERATIONS;
+
+        logger.info("Single line edit of dsl scenario with {} messages: full parse: {} us, incremental update: {} us",
+                MESSAGE_COUNT, fullTime / 1000, incrementalTime / 1000);
+    }
+
+    /**
+     * Creates scenario with given number of messages in addition to the messages of {@link #SCENARIO}.
+     */
+    private static String createScenario(int messageCount) {
+        StringBuilder builder = new StringBuilder(SCENARIO.substring(0, SCENARIO.length() - "end\n".length()));
+        for (int i = 0; i < messageCount; i++) {
+            builder.append("  message file:\"message-").append(i).append(".txt\" send ").append(i)
+                    .append(".times headers h:\"a\",hh:\"b\" validate \"v1\"\n");
+        }
+        builder.append("end\n");
+        return builder.toString();
+    }
+
+    private static void assertError(IncrementalDslModelParser parser, String scenario, String message) {
+        try {
+            parser.update(scenario);
+            fail("ModelConversionException expected");
+        } catch (ModelConversionException e) {
+            assertThat(e.getMessage(), startsWith(message));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.converter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.converter.xml.XmlConverter;
+import org.perfcake.ide.core.model.properties.KeyValueImpl;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.model.serialization.XmlModelLoader;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.perfcake.model.Scenario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures conversion of a large scenario between pc4ide model and xml model. Conversion looks up supported properties
+ * by name many times per component, so it is dominated by property lookup in {@link org.perfcake.ide.core.model.AbstractModel}.
+ * The benchmark runs only if benchmarks are enabled by {@link TestUtils#BENCHMARK_PROPERTY}.
+ *
+ * @author Jakub Knetl
+ */
+public class ScenarioConversionBenchmarkTest {
+
+    static final Logger logger = LoggerFactory.getLogger(ScenarioConversionBenchmarkTest.class);
+
+    private static final int COMPONENT_COUNT = 500;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 20;
+
+    private ScenarioModel scenario;
+    private XmlConverter converter;
+    private int messageCount;
+
+    @Before
+    public void setUp() throws Exception {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src/test/resources/scenario/http.xml"))) {
+            scenario = new XmlModelLoader().loadModel(inputStream);
+        }
+        converter = new XmlConverter(scenario.getDocsService());
+
+        for (int i = 0; i < COMPONENT_COUNT; i++) {
+            Model message = new MessageModel(scenario.getDocsService());
+            message.addProperty(MessageModel.PropertyNames.URI.toString(), new SimpleValue("message-" + i + ".txt"));
+            message.addProperty(MessageModel.PropertyNames.MULTIPLICITY.toString(), new SimpleValue(String.valueOf(i)));
+            message.addProperty(MessageModel.PropertyNames.HEADERS.toString(), new KeyValueImpl("header-" + i, "value"));
+            scenario.addProperty(ScenarioModel.PropertyNames.MESSAGES.toString(), message);
+        }
+        messageCount = scenario.getProperties(ScenarioModel.PropertyNames.MESSAGES.toString()).size();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Scenario xmlModel = converter.convertToXmlModel(scenario, new ArrayList<>());
+        ScenarioModel converted = converter.convertToPc4ideModel(xmlModel);
+
+        assertThat(converted.getProperties(ScenarioModel.PropertyNames.MESSAGES.toString()).size(), equalTo(messageCount));
+    }
+
+    @Test
+    public void benchmarkConversion() throws Exception {
+        TestUtils.assumeBenchmark();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            converter.convertToPc4ideModel(converter.convertToXmlModel(scenario, new ArrayList<>()));
+        }
+
+        Scenario xmlModel = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            xmlModel = converter.convertToXmlModel(scenario, new ArrayList<>());
+        }
+        long toXml = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            converter.convertToPc4ideModel(xmlModel);
+        }
+        long fromXml = (System.nanoTime() - start) / ITERATIONS;
+
+        logger.info("Conversion of scenario with {} components: to xml model: {} us, to pc4ide model: {} us",
+                messageCount, toXml / 1000, fromXml / 1000);
+    }
+}
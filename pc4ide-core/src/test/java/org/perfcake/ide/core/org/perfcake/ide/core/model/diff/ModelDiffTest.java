@@ -0,0 +1,256 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.diff;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.beans.PropertyChangeEvent;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.exception.PropertyLimitException;
+import org.perfcake.ide.core.model.AbstractModel;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.diff.ModelDiff;
+import org.perfcake.ide.core.model.diff.ModelPatch;
+import org.perfcake.ide.core.model.diff.PatchOperation;
+import org.perfcake.ide.core.model.listeners.ModelListener;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.serialization.XmlModelLoader;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link ModelDiff}.
+ *
+ * @author Jakub Knetl
+ */
+public class ModelDiffTest {
+
+    static final Logger logger = LoggerFactory.getLogger(ModelDiffTest.class);
+
+    private static final String GENERATOR = ScenarioModel.PropertyNames.GENERATOR.toString();
+    private static final String SENDER = ScenarioModel.PropertyNames.SENDER.toString();
+    private static final String MESSAGES = ScenarioModel.PropertyNames.MESSAGES.toString();
+    private static final String THREADS = GeneratorModel.PropertyNames.THREADS.toString();
+
+    private ModelDiff modelDiff;
+    private ScenarioModel live;
+    private ScenarioModel loaded;
+
+    @Before
+    public void setUp() throws Exception {
+        modelDiff = new ModelDiff();
+        live = loadScenario();
+        loaded = loadScenario();
+    }
+
+    @Test
+    public void testEqualModels() {
+        ModelPatch patch = modelDiff.diff(live, loaded);
+        assertThat(patch.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testValueChange() {
+        Model generator = live.getSingleProperty(GENERATOR, Model.class);
+        getThreads(loaded).setValue("42");
+
+        ModelPatch patch = modelDiff.diff(live, loaded);
+        assertThat(getTypes(patch), equalTo(Arrays.asList(PatchOperation.Type.SET_VALUE)));
+
+        patch.apply();
+        assertThat(getThreads(live).getValue(), equalTo("42"));
+        assertThat(live.getSingleProperty(GENERATOR, Model.class), sameInstance(generator));
+        assertThat(live.snapshot(), equalTo(loaded.snapshot()));
+    }
+
+    @Test
+    public void testRemoveAndMove() {
+        addMessage(live, "a.txt");
+        addMessage(live, "b.txt");
+        addMessage(live, "c.txt");
+        Model messageB = live.getProperties(MESSAGES).get(2).cast(Model.class);
+
+        Property plain = loaded.getProperties(MESSAGES).get(0);
+        loaded.removeProperty(loaded.getSupportedProperty(MESSAGES), plain);
+        addMessage(loaded, "c.txt");
+        addMessage(loaded, "b.txt");
+        loaded.addProperty(MESSAGES, plain);
+
+        ModelPatch patch = modelDiff.diff(live, loaded);
+        assertThat(getTypes(patch), equalTo(Arrays.asList(
+                PatchOperation.Type.REMOVE, PatchOperation.Type.MOVE, PatchOperation.Type.MOVE)));
+
+        patch.apply();
+        assertThat(getUris(live), equalTo(Arrays.asList("c.txt", "b.txt", "plain.txt")));
+        assertThat(live.getProperties(MESSAGES).get(1), sameInstance((Property) messageB));
+        assertThat(live.snapshot(), equalTo(loaded.snapshot()));
+    }
+
+    @Test
+    public void testInsert() {
+        Model message = addMessage(loaded, "a.txt");
+
+        ModelPatch patch = modelDiff.diff(live, loaded);
+        assertThat(getTypes(patch), equalTo(Arrays.asList(PatchOperation.Type.INSERT)));
+
+        patch.apply();
+        assertThat(getUris(live), equalTo(Arrays.asList("plain.txt", "a.txt")));
+        assertThat(live.getProperties(MESSAGES).get(1), sameInstance((Property) message));
+        assertThat(message.getModel(), sameInstance((Model) live));
+    }
+
+    @Test
+    public void testImplementationChange() {
+        Model sender = live.getSingleProperty(SENDER, Model.class);
+        Model loadedSender = loaded.getSingleProperty(SENDER, Model.class);
+        loadedSender.getSingleProperty(AbstractModel.IMPLEMENTATION_CLASS_PROPERTY, Value.class).setValue("DummySender");
+
+        ModelPatch patch = modelDiff.diff(live, loaded);
+        assertThat(getTypes(patch), equalTo(Arrays.asList(PatchOperation.Type.REPLACE)));
+
+        patch.apply();
+        assertThat(live.getSingleProperty(SENDER, Model.class), sameInstance(loadedSender));
+        assertThat(sender.getModel(), not(sameInstance((Model) live)));
+        assertThat(loadedSender.getModel(), sameInstance((Model) live));
+    }
+
+    @Test
+    public void testSingleChangeSetIsFired() {
+        ModelListener listener = mock(ModelListener.class);
+        live.addModelListener(listener);
+        addMessage(loaded, "a.txt");
+        addMessage(loaded, "b.txt");
+
+        modelDiff.diff(live, loaded).apply();
+
+        verify(listener, times(1)).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void testFailedPatchIsReverted() throws Exception {
+        ScenarioModel incomplete = new ScenarioModel(live.getDocsService());
+        MessageModel message = addMessage(incomplete, "a.txt");
+        ScenarioModel expected = loadScenario();
+
+        ModelPatch patch = modelDiff.diff(live, incomplete);
+        try {
+            patch.apply();
+            fail("Possible to remove generator");
+        } catch (PropertyLimitException e) {
+            // ok, expected behaviour
+        }
+
+        assertThat(live.snapshot(), equalTo(expected.snapshot()));
+        assertThat(message.getModel(), sameInstance((Model) incomplete));
+    }
+
+    @Test
+    public void testValueChangeInLargeModel() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            addMessage(live, "message-" + i + ".txt");
+            addMessage(loaded, "message-" + i + ".txt");
+        }
+        getThreads(loaded).setValue("42");
+
+        ModelPatch patch = modelDiff.diff(live, loaded);
+        assertThat(getTypes(patch), equalTo(Arrays.asList(PatchOperation.Type.SET_VALUE)));
+
+        patch.apply();
+        assertThat(live.snapshot(), equalTo(loaded.snapshot()));
+    }
+
+    @Test
+    public void benchmarkDiffOfLargeModel() throws Exception {
+        TestUtils.assumeBenchmark();
+        final int size = 2000;
+        for (int i = 0; i < size; i++) {
+            addMessage(live, "message-" + i + ".txt");
+            addMessage(loaded, "message-" + i + ".txt");
+        }
+        getThreads(loaded).setValue("42");
+
+        long start = System.nanoTime();
+        ModelPatch patch = modelDiff.diff(live, loaded);
+        long diffTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        patch.apply();
+        long applyTime = System.nanoTime() - start;
+
+        logger.info("Diff of scenario with {} messages: {} operations, diff: {} us, apply: {} us",
+                size, patch.getOperations().size(), diffTime / 1000, applyTime / 1000);
+    }
+
+    private static ScenarioModel loadScenario() throws Exception {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src/test/resources/scenario/http.xml"))) {
+            return new XmlModelLoader().loadModel(inputStream);
+        }
+    }
+
+    private static MessageModel addMessage(ScenarioModel model, String uri) {
+        MessageModel message = new MessageModel(model.getDocsService());
+        message.addProperty(MessageModel.PropertyNames.URI.toString(), new SimpleValue(uri));
+        model.addProperty(MESSAGES, message);
+        return message;
+    }
+
+    private static Value getThreads(ScenarioModel model) {
+        return model.getSingleProperty(GENERATOR, Model.class).getSingleProperty(THREADS, Value.class);
+    }
+
+    private static List<String> getUris(ScenarioModel model) {
+        List<String> uris = new ArrayList<>();
+        for (Property message : model.getProperties(MESSAGES)) {
+            uris.add(message.cast(Model.class).getSingleProperty(MessageModel.PropertyNames.URI.toString(), Value.class).getValue());
+        }
+        return uris;
+    }
+
+    private static List<PatchOperation.Type> getTypes(ModelPatch patch) {
+        List<PatchOperation.Type> types = new ArrayList<>();
+        for (PatchOperation operation : patch.getOperations()) {
+            types.add(operation.getType());
+        }
+        return types;
+    }
+}
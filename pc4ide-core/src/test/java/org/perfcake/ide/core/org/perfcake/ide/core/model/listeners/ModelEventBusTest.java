@@ -0,0 +1,207 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.listeners;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.ModelTransaction;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.listeners.ModelEvent;
+import org.perfcake.ide.core.model.listeners.ModelEventBus;
+import org.perfcake.ide.core.model.listeners.ModelEventSubscriber;
+import org.perfcake.ide.core.model.listeners.ModelEventType;
+import org.perfcake.ide.core.model.listeners.ModelListener;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.serialization.XmlModelLoader;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link ModelEventBus}.
+ *
+ * @author Jakub Knetl
+ */
+public class ModelEventBusTest {
+
+    static final Logger logger = LoggerFactory.getLogger(ModelEventBusTest.class);
+
+    private static final int MESSAGE_COUNT = 2000;
+
+    private ScenarioModel scenario;
+    private Model generator;
+    private Value threads;
+
+    @Before
+    public void setUp() throws Exception {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src/test/resources/scenario/http.xml"))) {
+            scenario = new XmlModelLoader().loadModel(inputStream);
+        }
+        generator = scenario.getSingleProperty(ScenarioModel.PropertyNames.GENERATOR.toString(), Model.class);
+        threads = generator.getSingleProperty(GeneratorModel.PropertyNames.THREADS.toString(), Value.class);
+    }
+
+    @Test
+    public void testSubtreeSubscription() {
+        List<ModelEventType> types = new ArrayList<>();
+        List<Model> models = new ArrayList<>();
+        scenario.getEventBus().subscribe(event -> {
+            types.add(event.getType());
+            models.add(event.getModel());
+        }, ModelEventBus.Scope.SUBTREE);
+
+        threads.setValue("42");
+
+        assertThat(types.size(), equalTo(1));
+        assertThat(types.get(0), is(ModelEventType.VALUE_CHANGED));
+        assertThat(models.get(0), is(generator));
+    }
+
+    @Test
+    public void testNodeSubscription() {
+        ModelEventSubscriber subscriber = mock(ModelEventSubscriber.class);
+        scenario.getEventBus().subscribe(subscriber, ModelEventBus.Scope.NODE);
+
+        threads.setValue("42");
+        verify(subscriber, never()).modelChanged(anyObject());
+
+        addMessage("message.txt");
+        verify(subscriber).modelChanged(anyObject());
+
+        scenario.getEventBus().unsubscribe(subscriber);
+        addMessage("other-message.txt");
+        verify(subscriber).modelChanged(anyObject());
+    }
+
+    @Test
+    public void testEventIsReused() {
+        List<ModelEvent> events = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        scenario.getEventBus().subscribe(event -> {
+            events.add(event);
+            values.add(event.getNewValue());
+        }, ModelEventBus.Scope.SUBTREE);
+
+        threads.setValue("1");
+        threads.setValue("2");
+
+        assertThat(events.get(1), sameInstance(events.get(0)));
+        assertThat(values.get(0), equalTo("1"));
+        assertThat(values.get(1), equalTo("2"));
+
+        // retained events must be copied
+        assertThat(events.get(0).getNewValue(), nullValue());
+    }
+
+    @Test
+    public void testChangeSet() {
+        List<ModelEvent> events = new ArrayList<>();
+        scenario.getEventBus().subscribe(event -> events.add(event.copy()), ModelEventBus.Scope.SUBTREE);
+
+        try (ModelTransaction transaction = ModelTransaction.begin()) {
+            threads.setValue("1");
+            threads.setValue("2");
+            assertThat(events, empty());
+            transaction.commit();
+        }
+
+        assertThat(events.size(), equalTo(1));
+        assertThat(events.get(0).getType(), is(ModelEventType.CHANGE_SET));
+        assertThat(events.get(0).getEvents().size(), equalTo(2));
+        assertThat(events.get(0).getEvents().get(1).getNewValue(), equalTo("2"));
+    }
+
+    @Test
+    public void testModelListenerIsAdapted() {
+        ModelListener listener = mock(ModelListener.class);
+        generator.addModelListener(listener);
+
+        threads.setValue("42");
+        verify(listener).propertyChange(anyObject());
+
+        generator.removeModelListener(listener);
+        assertThat(generator.getEventBus().hasSubscribers(true), is(false));
+    }
+
+    @Test
+    public void testModelListenerReceivesSubmodelChanges() {
+        ModelListener listener = mock(ModelListener.class);
+        scenario.addModelListener(listener);
+
+        final int changes = 3;
+        for (int i = 0; i < changes; i++) {
+            threads.setValue(String.valueOf(i));
+        }
+        verify(listener, times(changes)).propertyChange(anyObject());
+
+        scenario.removeModelListener(listener);
+        assertThat(scenario.getEventBus().hasSubscribers(false), is(false));
+    }
+
+    @Test
+    public void benchmarkSubtreeSubscription() {
+        TestUtils.assumeBenchmark();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            addMessage("message-" + i + ".txt");
+        }
+
+        int[] count = new int[1];
+        scenario.getEventBus().subscribe(event -> count[0]++, ModelEventBus.Scope.SUBTREE);
+
+        final int changes = 100_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < changes; i++) {
+            threads.setValue(String.valueOf(i));
+        }
+        long time = System.nanoTime() - start;
+
+        logger.info("Dispatching {} changes to subtree subscriber of scenario with {} messages: {} ns per change",
+                changes, MESSAGE_COUNT, time / changes);
+    }
+
+    private Model addMessage(String uri) {
+        MessageModel message = new MessageModel(scenario.getDocsService());
+        message.addProperty(MessageModel.PropertyNames.URI.toString(), new SimpleValue(uri));
+        scenario.addProperty(ScenarioModel.PropertyNames.MESSAGES.toString(), message);
+        return message;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.loader;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Test;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.exception.ModelSerializationException;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.properties.KeyValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.serialization.StaxModelLoader;
+import org.perfcake.ide.core.model.serialization.XmlModelLoader;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link StaxModelLoader}.
+ *
+ * @author Jakub Knetl
+ */
+public class StaxModelLoaderTest {
+
+    static final Logger logger = LoggerFactory.getLogger(StaxModelLoaderTest.class);
+
+    private static final int COMPONENT_COUNT = 300;
+
+    private StaxModelLoader staxLoader = new StaxModelLoader();
+    private XmlModelLoader jaxbLoader = new XmlModelLoader();
+
+    @Test
+    public void testSameModelAsJaxbLoader() throws Exception {
+        String[] scenarios = new String[] {
+                "users/scenarios/bob.xml",
+                "users/scenarios/john.xml",
+                "users/scenarios/maria.xml",
+                "scenario/http.xml"
+        };
+        for (String scenario : scenarios) {
+            Path scenarioPath = Paths.get("src/test/resources/" + scenario);
+            ScenarioModel expected;
+            ScenarioModel actual;
+            try (InputStream inputStream = Files.newInputStream(scenarioPath)) {
+                expected = jaxbLoader.loadModel(inputStream);
+            }
+            try (InputStream inputStream = Files.newInputStream(scenarioPath)) {
+                actual = staxLoader.loadModel(inputStream);
+            }
+            assertSameModel(scenario, expected, actual);
+        }
+    }
+
+    @Test(expected = ModelSerializationException.class)
+    public void testUnexpectedElement() throws Exception {
+        String xml = "<scenario xmlns=\"urn:perfcake:scenario:7.0\"><generators/></scenario>";
+        staxLoader.loadModel(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = ModelSerializationException.class)
+    public void testInvalidScenario() throws Exception {
+        // scenario without generator and sender is well formed, but it is not valid
+        String xml = "<scenario xmlns=\"urn:perfcake:scenario:7.0\"><run type=\"time\" value=\"1000\"/></scenario>";
+        staxLoader.loadModel(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testInvalidScenarioWithoutValidation() throws Exception {
+        String xml = "<scenario xmlns=\"urn:perfcake:scenario:7.0\"><run type=\"time\" value=\"1000\"/></scenario>";
+        StaxModelLoader loader = new StaxModelLoader(new DocsServiceImpl(new Properties()), false);
+        ScenarioModel model = loader.loadModel(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        assertThat(model, notNullValue());
+    }
+
+    @Test
+    public void testLargeScenario() throws Exception {
+        byte[] scenario = createLargeScenario(COMPONENT_COUNT).getBytes(StandardCharsets.UTF_8);
+        ScenarioModel expected = jaxbLoader.loadModel(new ByteArrayInputStream(scenario));
+        ScenarioModel actual = staxLoader.loadModel(new ByteArrayInputStream(scenario));
+        assertSameModel("generated", expected, actual);
+    }
+
+    @Test
+    public void benchmarkLargeScenario() throws Exception {
+        TestUtils.assumeBenchmark();
+        byte[] scenario = createLargeScenario(COMPONENT_COUNT).getBytes(StandardCharsets.UTF_8);
+
+        // warm up
+        for (int i = 0; i < 3; i++) {
+            jaxbLoader.loadModel(new ByteArrayInputStream(scenario));
+            staxLoader.loadModel(new ByteArrayInputStream(scenario));
+        }
+
+        long start = System.nanoTime();
+        jaxbLoader.loadModel(new ByteArrayInputStream(scenario));
+        long jaxb = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        staxLoader.loadModel(new ByteArrayInputStream(scenario));
+        long stax = System.nanoTime() - start;
+
+        logger.info("Loading scenario with {} reporters and {} messages: JAXB + converter: {} ms, StAX: {} ms",
+                COMPONENT_COUNT, COMPONENT_COUNT, jaxb / 1_000_000, stax / 1_000_000);
+    }
+
+    private void assertSameModel(String location, Model expected, Model actual) {
+        assertThat(location, actual.getClass(), equalTo((Object) expected.getClass()));
+        for (PropertyInfo info : expected.getSupportedProperties()) {
+            String propertyLocation = location + "/" + info.getName();
+            List<Property> expectedProperties = expected.getProperties(info.getName());
+            List<Property> actualProperties = actual.getProperties(info.getName());
+            assertThat(propertyLocation, actualProperties.size(), equalTo(expectedProperties.size()));
+
+            for (int i = 0; i < expectedProperties.size(); i++) {
+                Property e = expectedProperties.get(i);
+                Property a = actualProperties.get(i);
+                switch (info.getType()) {
+                    case VALUE:
+                        assertThat(propertyLocation, a.cast(Value.class).getValue(), equalTo(e.cast(Value.class).getValue()));
+                        break;
+                    case KEY_VALUE:
+                        assertThat(propertyLocation, a.cast(KeyValue.class).getKey(), equalTo(e.cast(KeyValue.class).getKey()));
+                        assertThat(propertyLocation, a.cast(KeyValue.class).getValue(), equalTo(e.cast(KeyValue.class).getValue()));
+                        break;
+                    case MODEL:
+                        assertSameModel(propertyLocation + "[" + i + "]", e.cast(Model.class), a.cast(Model.class));
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown property type: " + info.getType());
+                }
+            }
+        }
+    }
+
+    private String createLargeScenario(int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n")
+                .append("<scenario xmlns=\"urn:perfcake:scenario:7.0\">\n")
+                .append("    <run type=\"time\" value=\"1000\"/>\n")
+                .append("    <generator class=\"DefaultMessageGenerator\" threads=\"10\"/>\n")
+                .append("    <sender class=\"DummySender\">\n")
+                .append("        <target>dummy</target>\n")
+                .append("    </sender>\n")
+                .append("    <reporting>\n");
+        for (int i = 0; i < count; i++) {
+            builder.append("        <reporter class=\"IterationsPerSecondReporter\">\n")
+                    .append("            <destination class=\"ConsoleDestination\">\n")
+                    .append("                <period type=\"time\" value=\"").append(1000 + i).append("\"/>\n")
+                    .append("                <property name=\"prefix\" value=\"reporter-").append(i).append("\"/>\n")
+                    .append("            </destination>\n")
+                    .append("        </reporter>\n");
+        }
+        builder.append("    </reporting>\n")
+                .append("    <messages>\n");
+        for (int i = 0; i < count; i++) {
+            builder.append("        <message content=\"message ").append(i).append("\" multiplicity=\"1\">\n")
+                    .append("            <header name=\"id\" value=\"").append(i).append("\"/>\n")
+                    .append("        </message>\n");
+        }
+        builder.append("    </messages>\n")
+                .append("</scenario>\n");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.loader;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.model.serialization.XmlSerializationRuntime;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.perfcake.model.Scenario;
+import org.perfcake.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares per-call latency of scenario (un)marshalling with shared {@link XmlSerializationRuntime} and with JAXB context
+ * and schema created for every call (which was the original behavior of the loader and writer).
+ *
+ * @author Jakub Knetl
+ */
+public class XmlSerializationBenchmarkTest {
+
+    static final Logger logger = LoggerFactory.getLogger(XmlSerializationBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 20;
+
+    private static final String[] SCENARIOS = new String[] {
+            "bob.xml",
+            "john.xml",
+            "maria.xml"
+    };
+
+    private List<byte[]> scenarios;
+
+    @Before
+    public void setUp() throws IOException {
+        scenarios = new ArrayList<>();
+        for (String scenario : SCENARIOS) {
+            scenarios.add(Files.readAllBytes(Paths.get("src/test/resources/users/scenarios/" + scenario)));
+        }
+    }
+
+    @Test
+    public void testRuntimeIsShared() throws Exception {
+        assertThat(XmlSerializationRuntime.getInstance(), sameInstance(XmlSerializationRuntime.getInstance()));
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        final XmlSerializationRuntime runtime = XmlSerializationRuntime.getInstance();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Scenario>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                final byte[] data = scenarios.get(i % scenarios.size());
+                results.add(executor.submit(new Callable<Scenario>() {
+                    @Override
+                    public Scenario call() throws Exception {
+                        Scenario scenario = runtime.unmarshal(new StreamSource(new ByteArrayInputStream(data)));
+                        runtime.marshal(scenario, new ByteArrayOutputStream());
+                        return scenario;
+                    }
+                }));
+            }
+            for (Future<Scenario> result : results) {
+                assertThat(result.get(), not(nullValue()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void benchmarkPerCallLatency() throws Exception {
+        TestUtils.assumeBenchmark();
+        final XmlSerializationRuntime runtime = XmlSerializationRuntime.getInstance();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            roundTripFresh();
+            roundTripShared(runtime);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            roundTripFresh();
+        }
+        long fresh = (System.nanoTime() - start) / (ITERATIONS * scenarios.size());
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            roundTripShared(runtime);
+        }
+        long shared = (System.nanoTime() - start) / (ITERATIONS * scenarios.size());
+
+        logger.info("Scenario load + write latency: fresh context and schema: {} us/call, shared runtime: {} us/call",
+                fresh / 1000, shared / 1000);
+    }
+
+    private void roundTripShared(XmlSerializationRuntime runtime) throws Exception {
+        for (byte[] data : scenarios) {
+            Scenario scenario = runtime.unmarshal(new StreamSource(new ByteArrayInputStream(data)));
+            runtime.marshal(scenario, new ByteArrayOutputStream());
+        }
+    }
+
+    private void roundTripFresh() throws Exception {
+        for (byte[] data : scenarios) {
+            Unmarshaller unmarshaller = freshContext().createUnmarshaller();
+            unmarshaller.setSchema(freshSchema());
+            Scenario scenario = (Scenario) unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(data)));
+
+            Marshaller marshaller = freshContext().createMarshaller();
+            marshaller.setSchema(freshSchema());
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+            marshaller.marshal(scenario, new ByteArrayOutputStream());
+        }
+    }
+
+    private JAXBContext freshContext() throws Exception {
+        return JAXBContext.newInstance(Scenario.class);
+    }
+
+    private Schema freshSchema() throws Exception {
+        URL schemaUrl = Utils.getResourceAsUrl("/schemas/" + XmlSerializationRuntime.SCHEMA_FILE_NAME);
+        try (InputStream test = schemaUrl.openStream()) {
+            //noinspection ResultOfMethodCallIgnored
+            test.read();
+        }
+        return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schemaUrl);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.properties;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import org.junit.Test;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.properties.DataType;
+import org.perfcake.ide.core.model.properties.ParsedValue;
+import org.perfcake.ide.core.model.properties.Placeholder;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.utils.TestUtils;
+
+/**
+ * Tests for {@link ParsedValue}.
+ *
+ * @author Jakub Knetl
+ */
+public class ParsedValueTest {
+
+    @Test
+    public void testParseNumbers() {
+        ParsedValue integer = ParsedValue.parse("42", DataType.INTEGER);
+        assertThat(integer.isParsed(), is(true));
+        assertThat(integer.getLong(), equalTo(42L));
+        assertThat(integer.getDouble(), equalTo(42.0));
+
+        ParsedValue floating = ParsedValue.parse("1.5", DataType.FLOAT);
+        assertThat(floating.isParsed(), is(true));
+        assertThat(floating.getDouble(), equalTo(1.5));
+
+        assertThat(ParsedValue.parse("1.5", DataType.INTEGER).isParsed(), is(false));
+        assertThat(ParsedValue.parse(null, DataType.FLOAT).isParsed(), is(false));
+    }
+
+    @Test
+    public void testParseEnumeratedValues() {
+        ParsedValue bool = ParsedValue.parse("TRUE", DataType.BOOLEAN);
+        assertThat(bool.isParsed(), is(true));
+        assertThat(bool.getBoolean(), is(true));
+        assertThat(bool.getEnumValue(), equalTo("true"));
+
+        assertThat(ParsedValue.parse("Iteration", DataType.PERIOD).getEnumValue(), equalTo("iteration"));
+        assertThat(ParsedValue.parse("hours", DataType.PERIOD).isParsed(), is(false));
+    }
+
+    @Test
+    public void testParsePlaceholder() {
+        ParsedValue value = ParsedValue.parse("${threads:10}", DataType.INTEGER);
+        assertThat(value.isPlaceholder(), is(true));
+        assertThat(value.getPlaceholder().getName(), equalTo("threads"));
+        assertThat(value.getPlaceholder().getDefaultValue(), equalTo("10"));
+        assertThat(value.getLong(), equalTo(10L));
+
+        assertThat(Placeholder.parse("${threads}").getDefaultValue(), nullValue());
+        assertThat(Placeholder.parse("${a:b:c}").getName(), equalTo("a:b"));
+        assertThat(Placeholder.isPlaceholder("${threads"), is(false));
+        assertThat(Placeholder.isPlaceholder("${a\n}"), is(false));
+    }
+
+    @Test
+    public void testValueIsParsedOnce() throws IOException {
+        GeneratorModel generator = new GeneratorModel(new DocsServiceImpl(TestUtils.loadJavadocProperties()));
+        SimpleValue threads = new SimpleValue("10");
+        generator.addProperty(GeneratorModel.PropertyNames.THREADS.toString(), threads);
+
+        ParsedValue parsed = threads.getParsedValue();
+        assertThat(parsed.getDataType(), equalTo(DataType.INTEGER));
+        assertThat(parsed.getLong(), equalTo(10L));
+        assertThat(threads.getParsedValue(), sameInstance(parsed));
+        assertThat(threads.isValid(), is(true));
+
+        threads.setValue("ten");
+        assertThat(threads.getParsedValue(), not(sameInstance(parsed)));
+        assertThat(threads.getParsedValue().isParsed(), is(false));
+        assertThat(threads.isValid(), is(false));
+
+        threads.setValue("${threads:20}");
+        assertThat(threads.getParsedValue().getLong(), equalTo(20L));
+        assertThat(threads.isValid(), is(true));
+    }
+}
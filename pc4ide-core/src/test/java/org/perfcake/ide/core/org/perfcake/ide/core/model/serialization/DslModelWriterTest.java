@@ -0,0 +1,202 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.serialization;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.converter.dsl.DslScenarioUtil;
+import org.perfcake.ide.core.model.converter.xml.XmlConverter;
+import org.perfcake.ide.core.model.properties.KeyValue;
+import org.perfcake.ide.core.model.properties.KeyValueImpl;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.serialization.DslModelLoader;
+import org.perfcake.ide.core.model.serialization.DslModelWriter;
+import org.perfcake.ide.core.model.serialization.XmlModelLoader;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link DslModelWriter} and {@link DslModelLoader}.
+ *
+ * @author Jakub Knetl
+ */
+public class DslModelWriterTest {
+
+    static final Logger logger = LoggerFactory.getLogger(DslModelWriterTest.class);
+
+    private static final String[] SCENARIOS = new String[] {
+            "users/scenarios/bob.xml",
+            "users/scenarios/john.xml",
+            "users/scenarios/maria.xml"
+    };
+
+    private static final int MESSAGE_COUNT = 2000;
+    private static final int MESSAGE_COUNT_SMALL = 100;
+    private static final int ITERATIONS = 10;
+
+    private XmlModelLoader xmlLoader = new XmlModelLoader();
+    private DslModelLoader dslLoader = new DslModelLoader();
+    private DslModelWriter dslWriter = new DslModelWriter("test");
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        // other scenarios contain properties with element content, which cannot be expressed in dsl
+        String scenario = "users/scenarios/john.xml";
+        ScenarioModel expected = load(scenario);
+        ScenarioModel actual = dslLoader.loadModel(new ByteArrayInputStream(write(expected)));
+
+        assertSameModel(scenario, expected, actual);
+    }
+
+    @Test
+    public void testWrittenScenarioIsStable() throws Exception {
+        for (String scenario : SCENARIOS) {
+            byte[] dsl = write(load(scenario));
+            byte[] rewritten = write(dslLoader.loadModel(new ByteArrayInputStream(dsl)));
+
+            assertThat(scenario, new String(rewritten, StandardCharsets.UTF_8), equalTo(new String(dsl, StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test
+    public void testRoundTripOfManyMessages() throws Exception {
+        ScenarioModel expected = load(SCENARIOS[1]);
+        addMessages(expected, MESSAGE_COUNT_SMALL);
+        ScenarioModel actual = dslLoader.loadModel(new ByteArrayInputStream(write(expected)));
+
+        assertSameModel(SCENARIOS[1], expected, actual);
+    }
+
+    @Test
+    public void benchmarkLargeScenario() throws Exception {
+        TestUtils.assumeBenchmark();
+        ScenarioModel model = load(SCENARIOS[1]);
+        addMessages(model, MESSAGE_COUNT);
+        XmlConverter converter = new XmlConverter(model.getDocsService());
+        byte[] dsl = write(model);
+        String dslString = new String(dsl, StandardCharsets.UTF_8);
+
+        // warm up
+        for (int i = 0; i < 3; i++) {
+            converter.convertToPc4ideModel(DslScenarioUtil.getModelFrom(dslString));
+            DslScenarioUtil.getDslScenarioFrom(converter.convertToXmlModel(model, new ArrayList<>()), "test");
+            dslLoader.loadModel(new ByteArrayInputStream(dsl));
+            write(model);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            converter.convertToPc4ideModel(DslScenarioUtil.getModelFrom(dslString));
+        }
+        long xmlLoad = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            dslLoader.loadModel(new ByteArrayInputStream(dsl));
+        }
+        long directLoad = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            DslScenarioUtil.getDslScenarioFrom(converter.convertToXmlModel(model, new ArrayList<>()), "test");
+        }
+        long xmlWrite = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            write(model);
+        }
+        long directWrite = (System.nanoTime() - start) / ITERATIONS;
+
+        logger.info("Dsl scenario with {} messages. Loading: via xml model: {} us, direct: {} us. Writing: via xml model: {} us,"
+                + " direct: {} us", MESSAGE_COUNT, xmlLoad / 1000, directLoad / 1000, xmlWrite / 1000, directWrite / 1000);
+    }
+
+    private ScenarioModel load(String scenario) throws Exception {
+        Path scenarioPath = Paths.get("src/test/resources/" + scenario);
+        try (InputStream inputStream = Files.newInputStream(scenarioPath)) {
+            return xmlLoader.loadModel(inputStream);
+        }
+    }
+
+    private void addMessages(ScenarioModel model, int count) {
+        for (int i = 0; i < count; i++) {
+            Model message = new MessageModel(model.getDocsService());
+            message.addProperty(MessageModel.PropertyNames.URI.toString(), new SimpleValue("message-" + i + ".txt"));
+            message.addProperty(MessageModel.PropertyNames.MULTIPLICITY.toString(), new SimpleValue(String.valueOf(i)));
+            message.addProperty(MessageModel.PropertyNames.HEADERS.toString(), new KeyValueImpl("header-" + i, "value"));
+            model.addProperty(ScenarioModel.PropertyNames.MESSAGES.toString(), message);
+        }
+    }
+
+    private byte[] write(ScenarioModel model) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        dslWriter.writeScenario(model, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private void assertSameModel(String location, Model expected, Model actual) {
+        assertThat(location, actual.getClass(), equalTo((Object) expected.getClass()));
+        for (PropertyInfo info : expected.getSupportedProperties()) {
+            String propertyLocation = location + "/" + info.getName();
+            List<Property> expectedProperties = expected.getProperties(info.getName());
+            List<Property> actualProperties = actual.getProperties(info.getName());
+            assertThat(propertyLocation, actualProperties.size(), equalTo(expectedProperties.size()));
+
+            for (int i = 0; i < expectedProperties.size(); i++) {
+                Property e = expectedProperties.get(i);
+                Property a = actualProperties.get(i);
+                switch (info.getType()) {
+                    case VALUE:
+                        assertThat(propertyLocation, a.cast(Value.class).getValue(), equalTo(e.cast(Value.class).getValue()));
+                        break;
+                    case KEY_VALUE:
+                        assertThat(propertyLocation, a.cast(KeyValue.class).getKey(), equalTo(e.cast(KeyValue.class).getKey()));
+                        assertThat(propertyLocation, a.cast(KeyValue.class).getValue(), equalTo(e.cast(KeyValue.class).getValue()));
+                        break;
+                    case MODEL:
+                        assertSameModel(propertyLocation + "[" + i + "]", e.cast(Model.class), a.cast(Model.class));
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown property type: " + info.getType());
+                }
+            }
+        }
+    }
+}
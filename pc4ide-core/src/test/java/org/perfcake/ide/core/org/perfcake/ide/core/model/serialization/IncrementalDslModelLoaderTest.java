@@ -0,0 +1,116 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.serialization;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.exception.ModelSerializationException;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.components.ScenarioModel.PropertyNames;
+import org.perfcake.ide.core.model.serialization.DslModelLoader;
+import org.perfcake.ide.core.model.serialization.IncrementalDslModelLoader;
+import org.perfcake.ide.core.utils.TestUtils;
+
+/**
+ * Tests for {@link IncrementalDslModelLoader}.
+ *
+ * @author Jakub Knetl
+ */
+public class IncrementalDslModelLoaderTest {
+
+    private static final String SCENARIO = "scenario \"test\"\n"
+            + "  run 10.s with 4.threads\n"
+            + "  generator \"DefaultMessageGenerator\"\n"
+            + "  sender \"HttpSender\" target \"http://localhost:8080\"\n"
+            + "  message content:\"first\"\n"
+            + "  message content:\"second\"\n"
+            + "end\n";
+
+    private DslModelLoader fullLoader;
+    private IncrementalDslModelLoader loader;
+    private DocsService docsService;
+
+    /**
+     * Sets up tests.
+     *
+     * @throws IOException when there is problem in reading javadoc properties.
+     */
+    @Before
+    public void setUp() throws IOException {
+        docsService = new DocsServiceImpl(TestUtils.loadJavadocProperties());
+        fullLoader = new DslModelLoader(docsService);
+        loader = new IncrementalDslModelLoader(docsService);
+    }
+
+    @Test
+    public void testReloadUpdatesModel() throws Exception {
+        ScenarioModel model = load(loader, SCENARIO);
+        Property firstMessage = model.getProperties(PropertyNames.MESSAGES.toString()).get(0);
+
+        String edited = SCENARIO.replace("second", "edited");
+        ScenarioModel reloaded = load(loader, edited);
+
+        assertThat(reloaded, sameInstance(model));
+        assertThat(reloaded.snapshot(), equalTo(load(fullLoader, edited).snapshot()));
+        assertThat(reloaded.getProperties(PropertyNames.MESSAGES.toString()).get(0), sameInstance(firstMessage));
+    }
+
+    @Test
+    public void testReloadOfModifiedModel() throws Exception {
+        ScenarioModel model = load(loader, SCENARIO);
+        // model is modified e.g. by the editor, so that it does not correspond to the last loaded definition
+        model.addProperty(PropertyNames.MESSAGES.toString(), new MessageModel(docsService));
+
+        String edited = SCENARIO.replace("first", "edited");
+        ScenarioModel reloaded = load(loader, edited);
+
+        assertThat(reloaded, sameInstance(model));
+        assertThat(reloaded.snapshot(), equalTo(load(fullLoader, edited).snapshot()));
+
+        // subsequent loads are incremental again
+        List<Property> messages = reloaded.getProperties(PropertyNames.MESSAGES.toString());
+        Property firstMessage = messages.get(0);
+        Property secondMessage = messages.get(1);
+        reloaded = load(loader, edited.replace("edited", "edited again"));
+        assertThat(reloaded, sameInstance(model));
+        assertThat(reloaded.getProperties(PropertyNames.MESSAGES.toString()).get(1), sameInstance(secondMessage));
+        assertThat(reloaded.getProperties(PropertyNames.MESSAGES.toString()).get(0), not(sameInstance(firstMessage)));
+    }
+
+    private static ScenarioModel load(DslModelLoader loader, String scenario)
+            throws ModelSerializationException, ModelConversionException {
+        return loader.loadModel(new ByteArrayInputStream(scenario.getBytes(StandardCharsets.UTF_8)));
+    }
+}
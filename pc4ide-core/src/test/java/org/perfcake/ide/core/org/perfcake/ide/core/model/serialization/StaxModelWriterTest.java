@@ -0,0 +1,116 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.serialization;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.Test;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.components.ReporterModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.converter.xml.XmlConverter;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.serialization.StaxModelLoader;
+import org.perfcake.ide.core.model.serialization.StaxModelWriter;
+import org.perfcake.ide.core.model.serialization.XmlModelLoader;
+import org.perfcake.ide.core.model.serialization.XmlModelWriter;
+
+/**
+ * Tests for {@link StaxModelWriter}.
+ *
+ * @author Jakub Knetl
+ */
+public class StaxModelWriterTest {
+
+    private static final String[] SCENARIOS = new String[] {
+            "users/scenarios/bob.xml",
+            "users/scenarios/john.xml",
+            "users/scenarios/maria.xml",
+            "scenario/http.xml"
+    };
+
+    private XmlModelLoader loader = new XmlModelLoader();
+    private XmlModelWriter jaxbWriter = new XmlModelWriter();
+    private StaxModelWriter staxWriter = new StaxModelWriter();
+
+    @Test
+    public void testSameOutputAsJaxbWriter() throws Exception {
+        for (String scenario : SCENARIOS) {
+            ScenarioModel model = load(scenario);
+
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            jaxbWriter.writeScenario(model, expected);
+
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            staxWriter.writeScenario(model, actual);
+
+            assertThat(scenario, actual.toString(StandardCharsets.UTF_8.name()), equalTo(expected.toString(StandardCharsets.UTF_8.name())));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (String scenario : SCENARIOS) {
+            ScenarioModel model = load(scenario);
+
+            ByteArrayOutputStream first = new ByteArrayOutputStream();
+            staxWriter.writeScenario(model, first);
+
+            ScenarioModel reloaded = new StaxModelLoader().loadModel(new ByteArrayInputStream(first.toByteArray()));
+            ByteArrayOutputStream second = new ByteArrayOutputStream();
+            staxWriter.writeScenario(reloaded, second);
+
+            assertThat(scenario, second.toByteArray(), equalTo(first.toByteArray()));
+        }
+    }
+
+    @Test
+    public void testPlaceholderIsWrittenVerbatim() throws Exception {
+        ScenarioModel model = load("scenario/http.xml");
+        Model reporter = model.getSingleProperty(ScenarioModel.PropertyNames.REPORTERS.toString(), Model.class);
+        Value enabled = reporter.getSingleProperty(ReporterModel.PropertyNames.ENABLED.toString(), Value.class);
+        enabled.setValue("${reporter.enabled:true}");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        staxWriter.writeScenario(model, output);
+        String xml = output.toString(StandardCharsets.UTF_8.name());
+
+        assertThat(xml, containsString("enabled=\"${reporter.enabled:true}\""));
+        assertThat(xml, not(containsString(XmlConverter.POST_PROCESSING_PROPERTY_NAME)));
+    }
+
+    private ScenarioModel load(String scenario) throws Exception {
+        Path scenarioPath = Paths.get("src/test/resources/" + scenario);
+        try (InputStream inputStream = Files.newInputStream(scenarioPath)) {
+            return loader.loadModel(inputStream);
+        }
+    }
+}
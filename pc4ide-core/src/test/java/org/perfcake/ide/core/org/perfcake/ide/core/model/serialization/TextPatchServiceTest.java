@@ -0,0 +1,261 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.serialization;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.Property;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.serialization.DslModelWriter;
+import org.perfcake.ide.core.model.serialization.ModelWriter;
+import org.perfcake.ide.core.model.serialization.StaxModelLoader;
+import org.perfcake.ide.core.model.serialization.StaxModelWriter;
+import org.perfcake.ide.core.model.serialization.patch.DslSourcePositionMapper;
+import org.perfcake.ide.core.model.serialization.patch.SourcePositionMap;
+import org.perfcake.ide.core.model.serialization.patch.TextEdit;
+import org.perfcake.ide.core.model.serialization.patch.TextPatch;
+import org.perfcake.ide.core.model.serialization.patch.TextPatchService;
+import org.perfcake.ide.core.model.serialization.patch.XmlSourcePositionMapper;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link TextPatchService}.
+ *
+ * @author Jakub Knetl
+ */
+public class TextPatchServiceTest {
+
+    static final Logger logger = LoggerFactory.getLogger(TextPatchServiceTest.class);
+
+    private static final int COMPONENT_COUNT = 500;
+
+    private StaxModelWriter writer = new StaxModelWriter();
+    private TextPatchService service = new TextPatchService(writer, new XmlSourcePositionMapper());
+
+    @Test
+    public void testSourceMap() throws Exception {
+        ScenarioModel model = load(createScenario(3));
+        String text = write(model);
+        SourcePositionMap map = service.createSourceMap(text, model);
+
+        // generator, sender, 3 reporters + 3 destinations, 3 messages
+        assertThat(map.size(), equalTo(11));
+        Model message = getMessage(model, 1);
+        assertThat(text.substring(map.getStart(message), map.getEnd(message)).startsWith("<message"), is(true));
+        assertThat(text.substring(map.getStart(message), map.getEnd(message)).endsWith("</message>"), is(true));
+    }
+
+    @Test
+    public void testNoChange() throws Exception {
+        ScenarioModel model = load(createScenario(3));
+        String text = write(model);
+
+        TextPatch patch = service.computePatch(text, service.createSourceMap(text, model), model);
+
+        assertThat(patch.isEmpty(), is(true));
+        assertThat(patch.getText(), equalTo(text));
+    }
+
+    @Test
+    public void testSingleValueChange() throws Exception {
+        ScenarioModel model = load(createScenario(10));
+        String text = write(model);
+        SourcePositionMap map = service.createSourceMap(text, model);
+
+        Model message = getMessage(model, 5);
+        message.getSingleProperty(MessageModel.PropertyNames.CONTENT.toString(), Value.class).setValue("changed");
+        TextPatch patch = service.computePatch(text, map, model);
+
+        assertThat(patch.getEdits().size(), equalTo(1));
+        TextEdit edit = patch.getEdits().get(0);
+        assertThat(edit.getOffset(), greaterThanOrEqualTo(map.getStart(message)));
+        assertThat(edit.getEndOffset(), lessThanOrEqualTo(map.getEnd(message)));
+        assertThat(patch.apply(text), equalTo(patch.getText()));
+        assertThat(patch.getText(), equalTo(write(model)));
+    }
+
+    @Test
+    public void testRemoveAndAddComponent() throws Exception {
+        ScenarioModel model = load(createScenario(10));
+        String text = write(model);
+        SourcePositionMap map = service.createSourceMap(text, model);
+
+        Model message = getMessage(model, 3);
+        model.removeProperty(model.getSupportedProperty(ScenarioModel.PropertyNames.MESSAGES.toString()), message);
+        TextPatch patch = service.computePatch(text, map, model);
+        assertThat(patch.apply(text), equalTo(patch.getText()));
+
+        model.addProperty(ScenarioModel.PropertyNames.MESSAGES.toString(), message);
+        TextPatch secondPatch = service.computePatch(patch.getText(), patch.getSourceMap(), model);
+        assertThat(secondPatch.apply(patch.getText()), equalTo(secondPatch.getText()));
+        assertThat(secondPatch.getText(), equalTo(write(model)));
+    }
+
+    @Test
+    public void testWithoutSourceMap() throws Exception {
+        ScenarioModel model = load(createScenario(3));
+        String text = write(model);
+
+        getMessage(model, 0).getSingleProperty(MessageModel.PropertyNames.CONTENT.toString(), Value.class).setValue("changed");
+        TextPatch patch = new TextPatchService(writer).computePatch(text, null, model);
+
+        assertThat(patch.getEdits().size(), equalTo(1));
+        assertThat(patch.apply(text), equalTo(patch.getText()));
+    }
+
+    @Test
+    public void testDslSourceMap() throws Exception {
+        DslModelWriter dslWriter = new DslModelWriter("test");
+        TextPatchService dslService = new TextPatchService(dslWriter, new DslSourcePositionMapper());
+        ScenarioModel model = load(createScenario(3));
+        String text = write(dslWriter, model);
+        SourcePositionMap map = dslService.createSourceMap(text, model);
+
+        // generator, sender, 3 reporters + 3 destinations, 3 messages
+        assertThat(map.size(), equalTo(11));
+        Model message = getMessage(model, 1);
+        assertThat(text.substring(map.getStart(message), map.getEnd(message)), equalTo("  message content:\"message 1\" send 1.times"
+                + " headers id:\"1\""));
+    }
+
+    @Test
+    public void testDslSingleValueChange() throws Exception {
+        DslModelWriter dslWriter = new DslModelWriter("test");
+        TextPatchService dslService = new TextPatchService(dslWriter, new DslSourcePositionMapper());
+        ScenarioModel model = load(createScenario(10));
+        String text = write(dslWriter, model);
+        SourcePositionMap map = dslService.createSourceMap(text, model);
+
+        Model message = getMessage(model, 5);
+        message.getSingleProperty(MessageModel.PropertyNames.CONTENT.toString(), Value.class).setValue("changed");
+        TextPatch patch = dslService.computePatch(text, map, model);
+
+        assertThat(patch.getEdits().size(), equalTo(1));
+        TextEdit edit = patch.getEdits().get(0);
+        assertThat(edit.getOffset(), greaterThanOrEqualTo(map.getStart(message)));
+        assertThat(edit.getEndOffset(), lessThanOrEqualTo(map.getEnd(message)));
+        assertThat(patch.apply(text), equalTo(patch.getText()));
+        assertThat(patch.getText(), equalTo(write(dslWriter, model)));
+    }
+
+    @Test
+    public void testDslSourceMapOfDifferentModel() throws Exception {
+        DslModelWriter dslWriter = new DslModelWriter("test");
+        String text = write(dslWriter, load(createScenario(3)));
+
+        SourcePositionMap map = new DslSourcePositionMapper().map(text, load(createScenario(4)));
+        assertThat(map.isEmpty(), is(true));
+    }
+
+    @Test
+    public void benchmarkLargeScenario() throws Exception {
+        TestUtils.assumeBenchmark();
+        ScenarioModel model = load(createScenario(COMPONENT_COUNT));
+        String text = write(model);
+        SourcePositionMap map = service.createSourceMap(text, model);
+        Value content = getMessage(model, COMPONENT_COUNT / 2)
+                .getSingleProperty(MessageModel.PropertyNames.CONTENT.toString(), Value.class);
+
+        // warm up
+        for (int i = 0; i < 3; i++) {
+            content.setValue("warm up " + i);
+            service.computePatch(text, map, model);
+        }
+
+        content.setValue("changed");
+        long start = System.nanoTime();
+        TextPatch patch = service.computePatch(text, map, model);
+        long patchTime = System.nanoTime() - start;
+
+        int editedChars = 0;
+        for (TextEdit edit : patch.getEdits()) {
+            editedChars += edit.getLength() + edit.getReplacement().length();
+        }
+
+        assertThat(patch.getEdits().size(), equalTo(1));
+        assertThat(editedChars, lessThan(text.length() / 100));
+        logger.info("Patch of scenario with {} characters computed in {} ms: {} edits, {} characters edited",
+                text.length(), patchTime / 1_000_000, patch.getEdits().size(), editedChars);
+    }
+
+    private Model getMessage(ScenarioModel model, int index) {
+        List<Property> messages = model.getProperties(ScenarioModel.PropertyNames.MESSAGES.toString());
+        return messages.get(index).cast(Model.class);
+    }
+
+    private ScenarioModel load(String scenario) throws Exception {
+        return new StaxModelLoader().loadModel(new ByteArrayInputStream(scenario.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String write(ScenarioModel model) throws Exception {
+        return write(writer, model);
+    }
+
+    private String write(ModelWriter modelWriter, ScenarioModel model) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        modelWriter.writeScenario(model, outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String createScenario(int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n")
+                .append("<scenario xmlns=\"urn:perfcake:scenario:7.0\">\n")
+                .append("    <run type=\"time\" value=\"1000\"/>\n")
+                .append("    <generator class=\"DefaultMessageGenerator\" threads=\"10\"/>\n")
+                .append("    <sender class=\"DummySender\">\n")
+                .append("        <target>dummy</target>\n")
+                .append("    </sender>\n")
+                .append("    <reporting>\n");
+        for (int i = 0; i < count; i++) {
+            builder.append("        <reporter class=\"IterationsPerSecondReporter\">\n")
+                    .append("            <destination class=\"ConsoleDestination\">\n")
+                    .append("                <period type=\"time\" value=\"").append(1000 + i).append("\"/>\n")
+                    .append("            </destination>\n")
+                    .append("        </reporter>\n");
+        }
+        builder.append("    </reporting>\n")
+                .append("    <messages>\n");
+        for (int i = 0; i < count; i++) {
+            builder.append("        <message content=\"message ").append(i).append("\" multiplicity=\"1\">\n")
+                    .append("            <header name=\"id\" value=\"").append(i).append("\"/>\n")
+                    .append("        </message>\n");
+        }
+        builder.append("    </messages>\n")
+                .append("</scenario>\n");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.snapshot;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.serialization.XmlModelLoader;
+import org.perfcake.ide.core.model.snapshot.ModelRestorer;
+import org.perfcake.ide.core.model.snapshot.ModelSnapshot;
+import org.perfcake.ide.core.model.snapshot.PropertySnapshot;
+import org.perfcake.ide.core.model.snapshot.ValueSnapshot;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests for {@link ModelSnapshot} and {@link ModelRestorer}.
+ *
+ * @author Jakub Knetl
+ */
+public class ModelSnapshotTest {
+
+    static final Logger logger = LoggerFactory.getLogger(ModelSnapshotTest.class);
+
+    private static final String GENERATOR = ScenarioModel.PropertyNames.GENERATOR.toString();
+    private static final String SENDER = ScenarioModel.PropertyNames.SENDER.toString();
+    private static final String MESSAGES = ScenarioModel.PropertyNames.MESSAGES.toString();
+    private static final String THREADS = GeneratorModel.PropertyNames.THREADS.toString();
+
+    private ScenarioModel scenario;
+    private Value threads;
+
+    @Before
+    public void setUp() throws Exception {
+        scenario = loadScenario();
+        Model generator = scenario.getSingleProperty(GENERATOR, Model.class);
+        threads = generator.getSingleProperty(THREADS, Value.class);
+    }
+
+    @Test
+    public void testSnapshotReflectsModel() {
+        ModelSnapshot snapshot = scenario.snapshot();
+
+        assertThat(snapshot.getComponent(), equalTo(PerfCakeComponent.SCENARIO));
+        assertThat(getThreads(snapshot), equalTo(threads.getValue()));
+        assertThat(snapshot.getSingleProperty(SENDER, ModelSnapshot.class).getImplementation(),
+                equalTo(scenario.getSingleProperty(SENDER, Model.class).getSingleProperty("class", Value.class).getValue()));
+        assertThat(snapshot.getProperties("non-existing"), nullValue());
+        assertThat(scenario.snapshot(), sameInstance(snapshot));
+    }
+
+    @Test
+    public void testUnchangedPartsAreShared() {
+        ModelSnapshot before = scenario.snapshot();
+        String oldThreads = threads.getValue();
+
+        threads.setValue("42");
+        ModelSnapshot after = scenario.snapshot();
+
+        assertThat(after, not(sameInstance(before)));
+        assertThat(after.getSingleProperty(SENDER, ModelSnapshot.class),
+                sameInstance(before.getSingleProperty(SENDER, ModelSnapshot.class)));
+        assertThat(after.getSingleProperty(GENERATOR, ModelSnapshot.class),
+                not(sameInstance(before.getSingleProperty(GENERATOR, ModelSnapshot.class))));
+
+        // old snapshot is not affected by the change
+        assertThat(getThreads(before), equalTo(oldThreads));
+        assertThat(getThreads(after), equalTo("42"));
+    }
+
+    @Test
+    public void testStructuralChange() {
+        ModelSnapshot before = scenario.snapshot();
+        int messages = before.getProperties(MESSAGES).size();
+
+        Model message = addMessage(scenario, "message.txt");
+        ModelSnapshot added = scenario.snapshot();
+        assertThat(added.getProperties(MESSAGES).size(), equalTo(messages + 1));
+        assertThat(before.getProperties(MESSAGES).size(), equalTo(messages));
+
+        scenario.removeProperty(scenario.getSupportedProperty(MESSAGES), message);
+        ModelSnapshot removed = scenario.snapshot();
+        assertThat(removed, equalTo(before));
+        assertThat(removed, not(sameInstance(before)));
+    }
+
+    @Test
+    public void testRestoredModelEqualsOriginal() {
+        addMessage(scenario, "message.txt");
+        ModelSnapshot snapshot = scenario.snapshot();
+
+        ScenarioModel restored = new ModelRestorer(scenario.getDocsService(), scenario.getComponentLoader())
+                .restoreScenario(snapshot);
+
+        assertThat(restored, not(sameInstance(scenario)));
+        assertThat(restored.snapshot(), equalTo(snapshot));
+
+        // restored model is independent of the original
+        threads.setValue("42");
+        assertThat(getThreads(restored.snapshot()), equalTo(getThreads(snapshot)));
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        final int iterations = 2000;
+        final int readers = 4;
+        final AtomicReference<Published> published = new AtomicReference<>(
+                new Published(threads.getValue(), scenario.snapshot().getProperties(MESSAGES).size(), scenario.snapshot()));
+        final AtomicBoolean done = new AtomicBoolean();
+
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            results.add(executor.submit(() -> {
+                int reads = 0;
+                while (!done.get()) {
+                    Published p = published.get();
+                    assertThat(getThreads(p.snapshot), equalTo(p.threads));
+                    assertThat(p.snapshot.getProperties(MESSAGES).size(), equalTo(p.messages));
+                    assertThat(traverse(p.snapshot), equalTo(traverse(p.snapshot)));
+                    reads++;
+                }
+                return reads;
+            }));
+        }
+
+        // this thread is the only one which modifies the model
+        int messages = published.get().messages;
+        for (int i = 0; i < iterations; i++) {
+            threads.setValue(String.valueOf(i));
+            if (i % 10 == 0) {
+                addMessage(scenario, "message-" + i + ".txt");
+                messages++;
+            }
+            published.set(new Published(String.valueOf(i), messages, scenario.snapshot()));
+        }
+        done.set(true);
+
+        int reads = 0;
+        for (Future<Integer> result : results) {
+            reads += result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        logger.info("{} snapshots read by {} readers while the model was modified {} times.", reads, readers, iterations);
+    }
+
+    @Test
+    public void benchmarkSnapshotCost() throws Exception {
+        TestUtils.assumeBenchmark();
+        final int changes = 100;
+        for (int size : new int[] {10, 100, 1000, 10000}) {
+            ScenarioModel model = loadScenario();
+            for (int i = 0; i < size; i++) {
+                addMessage(model, "message-" + i + ".txt");
+            }
+            Value generatorThreads = model.getSingleProperty(GENERATOR, Model.class).getSingleProperty(THREADS, Value.class);
+
+            long start = System.nanoTime();
+            model.snapshot();
+            long fullSnapshot = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < changes; i++) {
+                generatorThreads.setValue(String.valueOf(i));
+                model.snapshot();
+            }
+            long incrementalSnapshot = (System.nanoTime() - start) / changes;
+
+            logger.info("Snapshot of scenario with {} messages: full: {} us, after single change: {} us",
+                    size, fullSnapshot / 1000, incrementalSnapshot / 1000);
+        }
+    }
+
+    private static ScenarioModel loadScenario() throws Exception {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src/test/resources/scenario/http.xml"))) {
+            return new XmlModelLoader().loadModel(inputStream);
+        }
+    }
+
+    private static Model addMessage(ScenarioModel model, String uri) {
+        MessageModel message = new MessageModel(model.getDocsService());
+        message.addProperty(MessageModel.PropertyNames.URI.toString(), new SimpleValue(uri));
+        model.addProperty(MESSAGES, message);
+        return message;
+    }
+
+    private static String getThreads(ModelSnapshot snapshot) {
+        return snapshot.getSingleProperty(GENERATOR, ModelSnapshot.class).getSingleProperty(THREADS, ValueSnapshot.class).getValue();
+    }
+
+    /**
+     * Visits all snapshots in the tree and computes a checksum of it.
+     */
+    private static int traverse(PropertySnapshot snapshot) {
+        int result = snapshot.getPropertyType().hashCode();
+        if (snapshot instanceof ModelSnapshot) {
+            ModelSnapshot model = (ModelSnapshot) snapshot;
+            for (String name : model.getSupportedPropertyNames()) {
+                for (PropertySnapshot child : model.getProperties(name)) {
+                    result = 31 * result + traverse(child);
+                }
+            }
+        } else {
+            result = 31 * result + snapshot.hashCode();
+        }
+        return result;
+    }
+
+    /**
+     * Snapshot published by modifying thread together with expected values.
+     */
+    private static class Published {
+        private final String threads;
+        private final int messages;
+        private final ModelSnapshot snapshot;
+
+        Published(String threads, int messages, ModelSnapshot snapshot) {
+            this.threads = threads;
+            this.messages = messages;
+            this.snapshot = snapshot;
+        }
+    }
+}
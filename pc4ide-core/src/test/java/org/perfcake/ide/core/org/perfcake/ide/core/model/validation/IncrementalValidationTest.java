@@ -0,0 +1,160 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.validation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.serialization.XmlModelLoader;
+import org.perfcake.ide.core.model.validation.error.ValidationError;
+import org.perfcake.ide.core.utils.TestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests that validation results are cached and invalidated when the model changes.
+ *
+ * @author Jakub Knetl
+ */
+public class IncrementalValidationTest {
+
+    static final Logger logger = LoggerFactory.getLogger(IncrementalValidationTest.class);
+
+    private static final int MESSAGE_COUNT = 2000;
+
+    private ScenarioModel scenario;
+    private Model generator;
+    private Value threads;
+
+    @Before
+    public void setUp() throws Exception {
+        try (InputStream inputStream = Files.newInputStream(Paths.get("src/test/resources/scenario/http.xml"))) {
+            scenario = new XmlModelLoader().loadModel(inputStream);
+        }
+        generator = scenario.getSingleProperty(ScenarioModel.PropertyNames.GENERATOR.toString(), Model.class);
+        threads = generator.getSingleProperty(GeneratorModel.PropertyNames.THREADS.toString(), Value.class);
+    }
+
+    @Test
+    public void testResultIsCached() {
+        threads.setValue("invalid");
+        ValidationError error = scenario.getValidationError();
+
+        assertThat(error, not(nullValue()));
+        assertThat(scenario.getValidationError(), sameInstance(error));
+        assertThat(generator.getValidationError(), sameInstance(generator.getValidationError()));
+    }
+
+    @Test
+    public void testChangeIsPropagatedToRoot() {
+        boolean initiallyValid = scenario.isValid();
+
+        threads.setValue("invalid");
+        assertThat(threads.isValid(), is(false));
+        assertThat(generator.isValid(), is(false));
+        assertThat(scenario.isValid(), is(false));
+
+        threads.setValue("10");
+        assertThat(generator.isValid(), is(true));
+        assertThat(scenario.isValid(), equalTo(initiallyValid));
+    }
+
+    @Test
+    public void testUnchangedSubtreeIsNotValidatedAgain() {
+        Model message = addMessage("message.txt");
+        message.addProperty(MessageModel.PropertyNames.MULTIPLICITY.toString(), new SimpleValue("not a number"));
+        threads.setValue("invalid");
+
+        scenario.getValidationError();
+        ValidationError messageError = message.getValidationError();
+        ValidationError generatorError = generator.getValidationError();
+        assertThat(messageError, not(nullValue()));
+
+        threads.setValue("other invalid");
+        scenario.getValidationError();
+
+        assertThat(message.getValidationError(), sameInstance(messageError));
+        assertThat(generator.getValidationError(), not(sameInstance(generatorError)));
+    }
+
+    @Test
+    public void testStructuralChangeInvalidatesResult() {
+        Model message = addMessage("message.txt");
+        boolean initiallyValid = scenario.isValid();
+
+        Value multiplicity = new SimpleValue("not a number");
+        message.addProperty(MessageModel.PropertyNames.MULTIPLICITY.toString(), multiplicity);
+        assertThat(scenario.isValid(), is(false));
+
+        message.removeProperty(message.getSupportedProperty(MessageModel.PropertyNames.MULTIPLICITY.toString()), multiplicity);
+        assertThat(scenario.isValid(), equalTo(initiallyValid));
+
+        // detached property does not affect the model anymore
+        multiplicity.setValue("still not a number");
+        assertThat(scenario.isValid(), equalTo(initiallyValid));
+    }
+
+    @Test
+    public void benchmarkRevalidationAfterChange() {
+        TestUtils.assumeBenchmark();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            Model message = addMessage("message-" + i + ".txt");
+            message.addProperty(MessageModel.PropertyNames.MULTIPLICITY.toString(), new SimpleValue(String.valueOf(i)));
+        }
+
+        long start = System.nanoTime();
+        scenario.getValidationError();
+        long fullValidation = System.nanoTime() - start;
+
+        final int keystrokes = 100;
+        start = System.nanoTime();
+        for (int i = 0; i < keystrokes; i++) {
+            threads.setValue(String.valueOf(i));
+            scenario.isValid();
+        }
+        long incrementalValidation = (System.nanoTime() - start) / keystrokes;
+
+        logger.info("Validation of scenario with {} messages: full: {} us, after single change: {} us",
+                MESSAGE_COUNT, fullValidation / 1000, incrementalValidation / 1000);
+    }
+
+    private Model addMessage(String uri) {
+        MessageModel message = new MessageModel(scenario.getDocsService());
+        message.addProperty(MessageModel.PropertyNames.URI.toString(), new SimpleValue(uri));
+        scenario.addProperty(ScenarioModel.PropertyNames.MESSAGES.toString(), message);
+        return message;
+    }
+}
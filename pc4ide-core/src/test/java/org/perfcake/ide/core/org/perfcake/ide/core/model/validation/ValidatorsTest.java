@@ -0,0 +1,180 @@
+/*
+ *-----------------------------------------------------------------------------
+ * pc4ide
+ *
+ * Copyright 2017 Jakub Knetl
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *-----------------------------------------------------------------------------
+ */
+
+package org.perfcake.ide.core.org.perfcake.ide.core.model.validation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.perfcake.ide.core.components.PerfCakeComponent;
+import org.perfcake.ide.core.docs.DocsService;
+import org.perfcake.ide.core.docs.DocsServiceImpl;
+import org.perfcake.ide.core.model.Model;
+import org.perfcake.ide.core.model.PropertyInfo;
+import org.perfcake.ide.core.model.components.GeneratorModel;
+import org.perfcake.ide.core.model.components.MessageModel;
+import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.factory.ValidModelFactory;
+import org.perfcake.ide.core.model.properties.DataType;
+import org.perfcake.ide.core.model.properties.SimpleValue;
+import org.perfcake.ide.core.model.properties.Value;
+import org.perfcake.ide.core.model.validation.Validators;
+import org.perfcake.ide.core.model.validation.error.ValidationError;
+import org.perfcake.ide.core.utils.TestUtils;
+
+/**
+ * Tests for {@link Validators} and for allocation budget of the validation.
+ *
+ * @author Jakub Knetl
+ */
+public class ValidatorsTest {
+
+    private static final int WARM_UP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 1000;
+
+    private DocsService docsService;
+
+    /**
+     * Sets up tests.
+     *
+     * @throws IOException when there is problem in reading javadoc properties.
+     */
+    @Before
+    public void setUp() throws IOException {
+        docsService = new DocsServiceImpl(TestUtils.loadJavadocProperties());
+    }
+
+    @Test
+    public void testValidatorsAreShared() {
+        for (DataType dataType : DataType.values()) {
+            assertThat(Validators.getValidator(dataType), sameInstance(Validators.getValidator(dataType)));
+            assertThat(Validators.createValidator(dataType), not(sameInstance(Validators.getValidator(dataType))));
+        }
+
+        PropertyInfo uri1 = new MessageModel(docsService).getSupportedProperty(MessageModel.PropertyNames.URI.toString());
+        PropertyInfo uri2 = new MessageModel(docsService).getSupportedProperty(MessageModel.PropertyNames.URI.toString());
+        assertThat(uri1.getValueValidator(), sameInstance(uri2.getValueValidator()));
+        assertThat(uri1.getValueValidator(), sameInstance(Validators.getValidator(uri1.getValueDataType())));
+    }
+
+    @Test
+    public void testValidationResultIsCached() {
+        Model scenario = new ValidModelFactory(docsService).createModel(PerfCakeComponent.SCENARIO);
+        Model generator = scenario.getSingleProperty(ScenarioModel.PropertyNames.GENERATOR.toString(), Model.class);
+        Value threadCount = generator.getSingleProperty(GeneratorModel.PropertyNames.THREADS.toString(), Value.class);
+        CountingMessageModel message = new CountingMessageModel(docsService);
+        Value multiplicity = new SimpleValue("1");
+        message.addProperty(MessageModel.PropertyNames.MULTIPLICITY.toString(), multiplicity);
+        scenario.addProperty(ScenarioModel.PropertyNames.MESSAGES.toString(), message);
+
+        assertThat(scenario.isValid(), is(true));
+        assertThat(message.validations, equalTo(1));
+
+        // valid result is cached, so the model is not validated again
+        assertThat(scenario.getValidationError(), nullValue());
+        assertThat(scenario.isValid(), is(true));
+        assertThat(message.validations, equalTo(1));
+
+        // change invalidates cached results only on the path to the root, so sibling models are not validated again
+        threadCount.setValue("2");
+        assertThat(scenario.isValid(), is(true));
+        assertThat(message.validations, equalTo(1));
+
+        multiplicity.setValue("x");
+        assertThat(scenario.isValid(), is(false));
+        assertThat(message.validations, equalTo(2));
+        assertThat(scenario.getValidationError(), sameInstance(scenario.getValidationError()));
+        assertThat(message.validations, equalTo(2));
+    }
+
+    @Test
+    public void testValidationOfValidScenarioDoesNotAllocate() {
+        // allocation depends on the JIT compiler (e.g. escape analysis), so it is checked only by benchmark runs
+        TestUtils.assumeBenchmark();
+        com.sun.management.ThreadMXBean threads = getThreadBean();
+        Model scenario = new ValidModelFactory(docsService).createModel(PerfCakeComponent.SCENARIO);
+        Model generator = scenario.getSingleProperty(ScenarioModel.PropertyNames.GENERATOR.toString(), Model.class);
+        Value threadCount = generator.getSingleProperty(GeneratorModel.PropertyNames.THREADS.toString(), Value.class);
+        assertThat(scenario.isValid(), is(true));
+
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long start = allocatedBytes(threads);
+            overhead = Math.min(overhead, allocatedBytes(threads) - start);
+        }
+
+        long allocated = 0;
+        for (int i = 0; i < WARM_UP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+            // change of the value invalidates cached results on the path to the root, so that it is validated again
+            threadCount.setValue(String.valueOf(i % 2 + 1));
+            threadCount.getParsedValue(); // parsing of the new value is not a part of the validation
+
+            long start = allocatedBytes(threads);
+            boolean valid = scenario.isValid() && scenario.isValid(); // second validation uses cached result
+            long end = allocatedBytes(threads);
+
+            assertThat(valid, is(true));
+            if (i >= WARM_UP_ITERATIONS) {
+                allocated += end - start - overhead;
+            }
+        }
+
+        assertThat(allocated, equalTo(0L));
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Message model which counts its validations.
+     */
+    private static class CountingMessageModel extends MessageModel {
+
+        private int validations;
+
+        CountingMessageModel(DocsService docsService) {
+            super(docsService);
+        }
+
+        @Override
+        protected ValidationError validate() {
+            validations++;
+            return super.validate();
+        }
+    }
+}
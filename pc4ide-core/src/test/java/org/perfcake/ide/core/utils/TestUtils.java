@@ -28,6 +28,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Properties;
+import org.junit.Assume;
 import org.junit.Test;
 import org.perfcake.ide.core.docs.DocsServiceTest;
 
@@ -37,8 +38,20 @@ import org.perfcake.ide.core.docs.DocsServiceTest;
  */
 public class TestUtils {
 
+    /**
+     * System property which enables benchmarks. Benchmarks only report measured values, so they are not run by default.
+     */
+    public static final String BENCHMARK_PROPERTY = "pc4ide.benchmark";
+
     private TestUtils() {}
 
+    /**
+     * Skips the test unless benchmarks are enabled by {@link #BENCHMARK_PROPERTY} (e.g. mvn test -Dpc4ide.benchmark=true).
+     */
+    public static void assumeBenchmark() {
+        Assume.assumeTrue("Benchmarks are disabled.", Boolean.getBoolean(BENCHMARK_PROPERTY));
+    }
+
     /**
      * Loads Properties with PerfCake javadocs.
      * @return Properties with perfcake javadoc.
@@ -52,14 +52,18 @@ public class Pc4ideWindow extends EditorPart {
 
     private ScenarioModel scenarioModel;
 
+    private Pc4ideEditor editor;
+
     public Pc4ideWindow() {
         super();
     }
 
     @Override
     public void doSave(IProgressMonitor progressMonitor) {
-        // TODO Auto-generated method stub
-
+        if (editor != null) {
+            // scenario is stored in background, failures are logged by the editor
+            editor.saveAsync();
+        }
     }
 
     @Override
@@ -103,6 +107,8 @@ public class Pc4ideWindow extends EditorPart {
 		try {
 			editorJPanel = new Pc4ideEditor(((GraphicalEditorInput)getEditorInput()).getManager(), 
 					new NoopExecutionFactory(),	serviceManager, new DefaultCommandInvoker());
+			editorJPanel.setAutoSave(true);
+			editor = editorJPanel;
 	        frame.add(editorJPanel.getContentPanel());
 		} catch (PerfCakeException e) {
 			// TODO Auto-generated catch block
@@ -112,6 +118,17 @@ public class Pc4ideWindow extends EditorPart {
 
     }
 
+    @Override
+    public void dispose() {
+        // stops writer thread of the scenario manager
+        if (editor != null) {
+            editor.close();
+        } else if (getEditorInput() instanceof GraphicalEditorInput) {
+            ((GraphicalEditorInput) getEditorInput()).getManager().close();
+        }
+        super.dispose();
+    }
+
     @Override
     public void setFocus() {
         // TODO Auto-generated method stub
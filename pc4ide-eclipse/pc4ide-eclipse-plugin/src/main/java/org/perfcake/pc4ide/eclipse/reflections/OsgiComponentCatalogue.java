@@ -20,7 +20,10 @@
 
 package org.perfcake.pc4ide.eclipse.reflections;
 
+import java.util.List;
+import java.util.Map;
 import org.osgi.framework.Bundle;
+import org.perfcake.ide.core.components.PerfCakeComponent;
 import org.perfcake.ide.core.components.ReflectionComponentCatalogue;
 import org.reflections.Reflections;
 import org.reflections.vfs.Vfs;
@@ -34,6 +37,12 @@ public class OsgiComponentCatalogue extends ReflectionComponentCatalogue {
         super(packagesToScan);
     }
 
+    @Override
+    protected Map<PerfCakeComponent, List<String>> findComponents() {
+        // bundle classpath cannot be indexed as files, so it is scanned by reflections
+        return findComponents(createReflections());
+    }
+
     @Override
     protected Reflections createReflections() {
         final Bundle bundle = org.perfcake.pc4ide.eclipse.Activator.getInstance().getBundle();
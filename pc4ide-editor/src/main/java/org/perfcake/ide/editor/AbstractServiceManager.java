@@ -70,8 +70,8 @@ public abstract class AbstractServiceManager implements ServiceManager {
         viewFactory.setColorScheme(new DefaultColorScheme());
         swingFactory = new DefaultSwingFactory();
         installationValidator = new SimpleInstallationValidator();
-        componentLoader = new ComponentLoaderImpl();
         componentCatalogue = new ReflectionComponentCatalogue();
+        componentLoader = new ComponentLoaderImpl(componentCatalogue);
         if (updateComponents) {
             componentCatalogue.update();
         }
@@ -198,6 +198,7 @@ public abstract class AbstractServiceManager implements ServiceManager {
     @Override
     public AbstractServiceManager setComponentCatalogue(ComponentCatalogue componentCatalogue) {
         this.componentCatalogue = componentCatalogue;
+        this.componentLoader = new ComponentLoaderImpl(componentCatalogue);
         return this;
     }
 }
@@ -24,6 +24,8 @@
 package org.perfcake.ide.editor;
 
 import java.awt.EventQueue;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.net.MalformedURLException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -32,6 +34,7 @@ import org.perfcake.PerfCakeException;
 import org.perfcake.ide.core.command.invoker.DefaultCommandInvoker;
 import org.perfcake.ide.core.components.ReflectionComponentCatalogue;
 import org.perfcake.ide.core.exception.ModelConversionException;
+import org.perfcake.ide.core.exception.Pc4ideException;
 import org.perfcake.ide.core.manager.ScenarioManager;
 import org.perfcake.ide.core.manager.ScenarioManagers;
 import org.perfcake.ide.editor.controller.NoopExecutionFactory;
@@ -97,9 +100,24 @@ public class Main {
                 try {
                     editor = new Pc4ideEditor(scenarioManager, new NoopExecutionFactory(), DefaultServiceManager.getInstance(),
                             new DefaultCommandInvoker());
+                    editor.setAutoSave(true);
+                    frame.addWindowListener(new WindowAdapter() {
+                        @Override
+                        public void windowClosing(WindowEvent e) {
+                            // the scenario must be stored before the application exits
+                            try {
+                                editor.save();
+                            } catch (Pc4ideException ex) {
+                                logger.warn("Cannot save scenario before exit.", ex);
+                            } finally {
+                                editor.close();
+                            }
+                        }
+                    });
                     frame.add(editor.getContentPanel());
                     frame.setVisible(true);
                 } catch (PerfCakeException e) {
+                    scenarioManager.close();
                     e.printStackTrace();
                 }
             }
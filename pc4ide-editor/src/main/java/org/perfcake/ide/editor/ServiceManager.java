@@ -134,7 +134,7 @@ public interface ServiceManager {
 
 
     /**
-     * Sets PerfCake component catalogue.
+     * Sets PerfCake component catalogue. Component loader is replaced by a loader which loads components from the catalogue.
      * @param catalogue catalogue
      * @return this instance
      */
@@ -34,12 +34,16 @@ import java.util.List;
 import java.util.Map;
 import org.perfcake.ide.core.command.invoker.CommandInvoker;
 import org.perfcake.ide.core.exec.ExecutionEvent;
+import org.perfcake.ide.core.model.AbstractModel;
 import org.perfcake.ide.core.model.Model;
 import org.perfcake.ide.core.model.Property;
 import org.perfcake.ide.core.model.PropertyInfo;
 import org.perfcake.ide.core.model.PropertyType;
 import org.perfcake.ide.core.model.factory.ModelFactory;
+import org.perfcake.ide.core.model.listeners.ModelChangeSetEvent;
+import org.perfcake.ide.core.model.listeners.ModelEventBus;
 import org.perfcake.ide.core.model.listeners.ModelListener;
+import org.perfcake.ide.core.model.listeners.ModelListenerAdapter;
 import org.perfcake.ide.editor.actions.ActionType;
 import org.perfcake.ide.editor.actions.handlers.ActionHandler;
 import org.perfcake.ide.editor.actions.handlers.AddSiblingHandler;
@@ -99,7 +103,8 @@ public abstract class AbstractController implements Controller, ModelListener {
         this.view = viewFactory.createView(model);
 
         initActionHandlers();
-        model.addModelListener(this);
+        // controller manages only the children of its own model, changes of submodels are handled by child controllers
+        model.getEventBus().subscribe(new ModelListenerAdapter(this), ModelEventBus.Scope.NODE);
     }
 
     /**
@@ -253,7 +258,34 @@ public abstract class AbstractController implements Controller, ModelListener {
     @Override
     public void propertyChange(PropertyChangeEvent evt) {
         logger.debug("Event received in {}: {}", this.getClass().getSimpleName(), evt);
-        if (evt.getOldValue() instanceof Model && evt.getNewValue() == null) {
+        if (evt instanceof ModelChangeSetEvent) {
+            for (PropertyChangeEvent event : ((ModelChangeSetEvent) evt).getEvents()) {
+                updateChildren(event);
+            }
+        } else {
+            updateChildren(evt);
+        }
+
+        boolean modified = updateViewData();
+        if (modified) {
+            logger.debug("Event caused view data update invalidating the view!");
+            getView().invalidate();
+        }
+    }
+
+    /**
+     * Adds or removes child controller if the event represents addition or removal of a child model.
+     *
+     * @param evt model event
+     */
+    private void updateChildren(PropertyChangeEvent evt) {
+        if (evt.getPropertyName() != null && evt.getPropertyName().endsWith("-" + AbstractModel.ORDER_EVENT_SUFFIX)) {
+            reorderChildren();
+            return;
+        }
+
+        // replaced model is removed and its replacement is added
+        if (evt.getOldValue() instanceof Model && (evt.getNewValue() == null || evt.getNewValue() instanceof Model)) {
             Model oldValue = (Model) evt.getOldValue();
             Controller oldController = findChildByModel(oldValue);
             if (oldController != null) {
@@ -262,15 +294,39 @@ public abstract class AbstractController implements Controller, ModelListener {
             }
         }
 
-        if (evt.getNewValue() instanceof Model && evt.getOldValue() == null) {
+        if (evt.getNewValue() instanceof Model && (evt.getOldValue() == null || evt.getOldValue() instanceof Model)) {
             Controller childController = createChildController(((Model) evt.getNewValue()).cast(Model.class));
             if (childController != null) {
                 addChild(childController);
             }
         }
-        boolean modified = updateViewData();
-        if (modified) {
-            logger.debug("Event caused view data update invalidating the view!");
+    }
+
+    /**
+     * Sorts child controllers according to the order of their models in the model of this controller.
+     */
+    private void reorderChildren() {
+        List<Controller> ordered = new ArrayList<>();
+        for (PropertyInfo propertyInfo : model.getSupportedProperties()) {
+            if (propertyInfo.getType() == PropertyType.MODEL) {
+                for (Property p : model.getProperties(propertyInfo)) {
+                    Controller child = findChildByModel(p.cast(Model.class));
+                    if (child != null) {
+                        ordered.add(child);
+                    }
+                }
+            }
+        }
+
+        if (!ordered.equals(children)) {
+            for (Controller child : ordered) {
+                children.remove(child);
+                getView().removeChild(child.getView());
+            }
+            for (Controller child : ordered) {
+                children.add(child);
+                getView().addChild(child.getView());
+            }
             getView().invalidate();
         }
     }
@@ -270,7 +270,7 @@ public class FormBuilderImpl implements FormBuilder {
 
             String docs;
             DocsService docsService = value.getModel().getDocsService();
-            ComponentLoader loader = new ComponentLoaderImpl();
+            ComponentLoader loader = new ComponentLoaderImpl(catalogue);
             Class<?> implementation = loader.loadComponent(name, component);
             docs = docsService.getDocs(implementation);
             if (docs == null) {
@@ -288,6 +288,14 @@ public class FormBuilderImpl implements FormBuilder {
         c.gridy = 0;
         c.gridx = 0;
 
+        if (panels.isEmpty()) {
+            // catalogue may still be scanning, the page is redrawn once new components are found
+            JLabel emptyLabel = swingFactory.createLabel();
+            emptyLabel.setText("No implementation has been found yet.");
+            panel.add(emptyLabel, c);
+            c.gridy++;
+        }
+
         for (JPanel p : panels) {
             panel.add(p, c);
             c.gridy++;
@@ -432,7 +440,7 @@ public class FormBuilderImpl implements FormBuilder {
         docs.setEditable(false);
         DocsService docsService = value.getModel().getDocsService();
 
-        ComponentLoader loader = new ComponentLoaderImpl();
+        ComponentLoader loader = value.getModel().getComponentLoader();
         Class<?> impl = loader.loadComponent(value.getValue(), value.getModel().getComponent());
         String docsText = docsService.getDocs(impl);
         if (docsText == null || docsText.isEmpty()) {
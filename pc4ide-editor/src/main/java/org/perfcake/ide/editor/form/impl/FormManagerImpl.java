@@ -30,6 +30,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.font.TextAttribute;
+import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Stack;
 import javax.swing.BorderFactory;
@@ -37,7 +38,10 @@ import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
 import org.perfcake.ide.core.command.invoker.CommandInvoker;
+import org.perfcake.ide.core.components.CatalogueListener;
+import org.perfcake.ide.core.components.CatalogueSnapshot;
 import org.perfcake.ide.core.components.ComponentCatalogue;
 import org.perfcake.ide.core.model.Property;
 import org.perfcake.ide.core.model.PropertyInfo;
@@ -113,6 +117,7 @@ public class FormManagerImpl implements FormManager {
         createUiComponents();
 
         initializeManager(scenario, modelFactory);
+        componentCatalogue.addCatalogueListener(new CatalogueRefresher(this, componentCatalogue));
     }
 
     public void initializeManager(ScenarioModel scenario, ModelFactory modelFactory) {
@@ -369,4 +374,39 @@ public class FormManagerImpl implements FormManager {
     public void setModel(ScenarioModel model) {
         initializeManager(model, modelFactory);
     }
+
+    /**
+     * Redraws current page if it lists implementations from the component catalogue, so that it shows components
+     * which were found after the page was drawn.
+     */
+    protected void refreshComponentChooser() {
+        if (getCurrentPageController() instanceof ComponentSelctorFormController) {
+            redrawPage();
+        }
+    }
+
+    /**
+     * Catalogue listener which refreshes component chooser of a form manager. The catalogue is usually shared by all
+     * editors, so the listener references the manager weakly and unregisters itself once the manager is gone.
+     */
+    private static class CatalogueRefresher implements CatalogueListener {
+
+        private final WeakReference<FormManagerImpl> managerReference;
+        private final ComponentCatalogue catalogue;
+
+        CatalogueRefresher(FormManagerImpl manager, ComponentCatalogue catalogue) {
+            this.managerReference = new WeakReference<>(manager);
+            this.catalogue = catalogue;
+        }
+
+        @Override
+        public void catalogueUpdated(CatalogueSnapshot snapshot) {
+            FormManagerImpl manager = managerReference.get();
+            if (manager == null) {
+                catalogue.removeCatalogueListener(this);
+            } else {
+                SwingUtilities.invokeLater(manager::refreshComponentChooser);
+            }
+        }
+    }
 }
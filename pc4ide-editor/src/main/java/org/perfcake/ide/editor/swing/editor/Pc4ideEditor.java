@@ -22,20 +22,33 @@ package org.perfcake.ide.editor.swing.editor;
 
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import javax.swing.JComponent;
 import javax.swing.JSplitPane;
 import org.perfcake.PerfCakeException;
 import org.perfcake.ide.core.command.invoker.CommandInvoker;
+import org.perfcake.ide.core.components.ComponentLoaderImpl;
+import org.perfcake.ide.core.components.ComponentLoaderImpl.CatalogueBinding;
 import org.perfcake.ide.core.exception.ModelConversionException;
 import org.perfcake.ide.core.exception.ModelSerializationException;
 import org.perfcake.ide.core.exception.Pc4ideException;
 import org.perfcake.ide.core.manager.ScenarioManager;
+import org.perfcake.ide.core.model.ModelTransaction;
 import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.diff.ModelDiff;
+import org.perfcake.ide.core.model.diff.ModelPatch;
+import org.perfcake.ide.core.model.listeners.ModelEvent;
+import org.perfcake.ide.core.model.listeners.ModelEventBus;
+import org.perfcake.ide.core.model.listeners.ModelEventSubscriber;
 import org.perfcake.ide.editor.ServiceManager;
 import org.perfcake.ide.editor.controller.ExecutionFactory;
 import org.perfcake.ide.editor.controller.RootController;
 import org.perfcake.ide.editor.form.FormManager;
 import org.perfcake.ide.editor.form.impl.FormManagerImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Represents an pc4ide editor as a whole. It consists of graphical editor panel and the panel with form.
@@ -44,12 +57,19 @@ import org.perfcake.ide.editor.form.impl.FormManagerImpl;
  */
 public class Pc4ideEditor {
 
+    static final Logger logger = LoggerFactory.getLogger(Pc4ideEditor.class);
+
     private JSplitPane contentPanel;
     private ScenarioManager scenarioManager;
+    private ServiceManager serviceManager;
     private CommandInvoker commandInvoker;
     private GraphicalPanel graphicalEditorPanel;
     private final FormManager formManager;
 
+    // model which is saved automatically, or null if auto save is disabled
+    private ScenarioModel autoSavedModel;
+    private final ModelEventSubscriber autoSaveSubscriber = this::autoSave;
+
     /**
      * Creates new editor panel.
      *
@@ -65,15 +85,17 @@ public class Pc4ideEditor {
         // setLayout(layout);
         this.contentPanel = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT);
         this.scenarioManager = scenarioManager;
+        this.serviceManager = serviceManager;
         this.commandInvoker = commandInvoker;
 
 
         final ScenarioModel model;
-        try {
+        try (CatalogueBinding binding = ComponentLoaderImpl.bindCatalogue(serviceManager.getComponentCatalogue())) {
             model = (ScenarioModel) scenarioManager.loadScenarioModel();
         } catch (ModelConversionException | ModelSerializationException e) {
             throw new PerfCakeException("Cannot load model of a scenario.", e);
         }
+        model.setComponentLoader(serviceManager.getComponentLoader());
 
 
         formManager = new FormManagerImpl(model, commandInvoker, serviceManager.getSwingFactory(),
@@ -97,19 +119,90 @@ public class Pc4ideEditor {
     }
 
     /**
-     * Serializes scenario to a file.
+     * Serializes scenario to a file. The scenario is written in the same way as by {@link #saveAsync()}, so it cannot be
+     * overwritten by an older pending asynchronous save. This method blocks until the scenario is stored.
      *
      * @throws Pc4ideException when scenario cannot be saved.
      */
     public void save() throws Pc4ideException {
-        RootController controller = getGraphicalEditorPanel().getController();
         try {
-            controller.getScenarioManager().writeScenario((ScenarioModel) controller.getModel());
-        } catch (ModelSerializationException | ModelConversionException e) {
-            throw new Pc4ideException("Cannot save scenario: " + controller.getScenarioManager().getScenarioLocation(), e);
+            saveAsync().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Pc4ideException("Interrupted while saving scenario: " + scenarioManager.getScenarioLocation(), e);
+        } catch (ExecutionException e) {
+            throw new Pc4ideException("Cannot save scenario: " + scenarioManager.getScenarioLocation(), e.getCause());
         }
     }
 
+    /**
+     * Requests asynchronous save of the scenario to a file. Requests which come in a quick succession are coalesced, so
+     * that the scenario is serialized only once. Model is serialized in background, so this method does not block the
+     * caller. See {@link ScenarioManager#writeScenarioAsync(ScenarioModel)}.
+     *
+     * @return future which is completed with the location of the scenario once it is durably stored, or exceptionally if
+     *     the scenario cannot be saved.
+     */
+    public CompletableFuture<Path> saveAsync() {
+        RootController controller = getGraphicalEditorPanel().getController();
+        CompletableFuture<Path> future = controller.getScenarioManager().writeScenarioAsync((ScenarioModel) controller.getModel());
+        future.whenComplete((location, e) -> {
+            if (e != null) {
+                logger.warn("Cannot save scenario: " + controller.getScenarioManager().getScenarioLocation(), e);
+            } else {
+                logger.debug("Scenario {} saved.", location);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Enables or disables automatic saving. If it is enabled, every committed change of the model requests
+     * {@link #saveAsync() asynchronous save} of the scenario. Changes made in a {@link ModelTransaction} (e.g. when the
+     * model is patched) request single save once the transaction is committed. It is intended for editors which do not
+     * store the scenario by other means (e.g. into a document of an IDE).
+     *
+     * @param autoSave true if the scenario should be saved automatically
+     */
+    public void setAutoSave(boolean autoSave) {
+        if (autoSavedModel != null) {
+            autoSavedModel.getEventBus().unsubscribe(autoSaveSubscriber);
+            autoSavedModel = null;
+        }
+        if (autoSave) {
+            autoSavedModel = (ScenarioModel) getGraphicalEditorPanel().getController().getModel();
+            autoSavedModel.getEventBus().subscribe(autoSaveSubscriber, ModelEventBus.Scope.SUBTREE);
+        }
+    }
+
+    /**
+     * Saves the scenario after a committed change. Subscribers receive either a change set of a committed transaction, or
+     * a single change made outside of any transaction. An event delivered while a transaction is still active is only a
+     * part of a pending change, so it is skipped and the scenario is saved once the whole change set is committed.
+     */
+    private void autoSave(ModelEvent event) {
+        if (ModelTransaction.isInTransaction()) {
+            return;
+        }
+        saveAsync();
+    }
+
+    /**
+     * @return true if the scenario is saved automatically
+     */
+    public boolean isAutoSave() {
+        return autoSavedModel != null;
+    }
+
+    /**
+     * Stops automatic saving and closes scenario manager, so that pending save is written and the writer thread of the
+     * manager is stopped. Editor cannot save the scenario after it is closed.
+     */
+    public void close() {
+        setAutoSave(false);
+        scenarioManager.close();
+    }
+
     /**
      * (Re)loads scenario from a file.
      *
@@ -118,7 +211,7 @@ public class Pc4ideEditor {
     public void load() throws Pc4ideException {
 
         RootController controller = getGraphicalEditorPanel().getController();
-        try {
+        try (CatalogueBinding binding = ComponentLoaderImpl.bindCatalogue(serviceManager.getComponentCatalogue())) {
             ScenarioModel model = controller.getScenarioManager().loadScenarioModel();
             updateModel(model);
         } catch (ModelSerializationException | ModelConversionException e) {
@@ -128,14 +221,38 @@ public class Pc4ideEditor {
     }
 
     /**
-     * Updates model and all dependent controllers.
+     * Updates model and all dependent controllers. The new model is compared with current model and only the differences
+     * are applied to current model, so that only affected controllers and views are updated. If the differences cannot
+     * be applied, then current model is replaced by the new model and all controllers are created again. If the new model
+     * is current model (e.g. it has already been updated by {@link org.perfcake.ide.core.model.serialization.IncrementalDslModelLoader}),
+     * nothing is done.
      *
      * @param model new model instance
      */
     public void updateModel(ScenarioModel model) {
+        model.setComponentLoader(serviceManager.getComponentLoader());
+        RootController controller = getGraphicalEditorPanel().getController();
+        if (controller != null && controller.getModel() == model) {
+            // incremental loader has already updated current model
+            return;
+        }
+        if (controller != null && controller.getModel() instanceof ScenarioModel) {
+            try {
+                ModelPatch patch = new ModelDiff().diff(controller.getModel(), model);
+                patch.apply();
+                logger.debug("Model updated by {} operations.", patch.getOperations().size());
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Cannot patch current model, replacing it with new model.", e);
+            }
+        }
+
+        boolean autoSave = isAutoSave();
+        setAutoSave(false);
         getGraphicalEditorPanel().setModel(model);
         formManager.setGraphicalController(graphicalEditorPanel.getController());
         formManager.setModel(model);
+        setAutoSave(autoSave);
     }
 
     public GraphicalPanel getGraphicalEditorPanel() {
@@ -154,6 +271,10 @@ public class Pc4ideEditor {
         return scenarioManager;
     }
 
+    public ServiceManager getServiceManager() {
+        return serviceManager;
+    }
+
     public JComponent getContentPanel() {
         return this.contentPanel;
     }
@@ -31,8 +31,7 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.project.Project;
-import java.io.ByteArrayOutputStream;
-import java.io.UnsupportedEncodingException;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.perfcake.ide.core.command.Command;
 import org.perfcake.ide.core.command.invoker.CommandInvoker;
@@ -40,10 +39,22 @@ import org.perfcake.ide.core.exception.CommandException;
 import org.perfcake.ide.core.exception.ModelConversionException;
 import org.perfcake.ide.core.exception.ModelSerializationException;
 import org.perfcake.ide.core.model.components.ScenarioModel;
+import org.perfcake.ide.core.model.serialization.patch.DslSourcePositionMapper;
+import org.perfcake.ide.core.model.serialization.patch.SourcePositionMap;
+import org.perfcake.ide.core.model.serialization.patch.TextEdit;
+import org.perfcake.ide.core.model.serialization.patch.TextPatch;
+import org.perfcake.ide.core.model.serialization.patch.TextPatchService;
+import org.perfcake.ide.core.model.serialization.patch.XmlSourcePositionMapper;
 import org.perfcake.ide.intellij.editor.ScenarioEditor;
 
 /**
- * Command invoker which forwards commands to Intellij Command manager.
+ * Command invoker which forwards commands to Intellij Command manager. Updated scenario is stored into the document
+ * using minimal text edits, so that caret, folding and undo history of untouched parts of the document are preserved.
+ *
+ * <p>Source position map of the document is created when the scenario is loaded (see {@link #updateSourceMap(Document)}),
+ * so that regions of the components are known before the first command modifies the model. Both XML and dsl scenarios
+ * are mapped. If the document has been changed since the map was created, the map is created again before the command
+ * is executed.</p>
  *
  * @author Jakub Knetl
  */
@@ -55,10 +66,37 @@ public class IntellijCommandInvoker implements CommandInvoker {
     private ScenarioEditor fileEditor;
     private AtomicBoolean updateInProgress;
 
+    private TextPatchService patchService;
+
+    /**
+     * Source position map of the document. It is valid only if modification stamp of the document equals to
+     * sourceMapStamp.
+     */
+    private SourcePositionMap sourceMap;
+    private long sourceMapStamp = -1;
+
     public IntellijCommandInvoker(Project project, ScenarioEditor fileEditor) {
         this.project = project;
         this.fileEditor = fileEditor;
         updateInProgress = new AtomicBoolean(false);
+        boolean isXml = "xml".equalsIgnoreCase(fileEditor.getFile().getExtension());
+        patchService = new TextPatchService((model, outputStream) ->
+                fileEditor.getPc4ideEditor().getScenarioManager().writeScenario(model, outputStream),
+                isXml ? new XmlSourcePositionMapper() : new DslSourcePositionMapper());
+    }
+
+    /**
+     * Creates source position map of the document. It should be called whenever the model is loaded from the document.
+     *
+     * @param document document from which current model has been loaded
+     */
+    public void updateSourceMap(Document document) {
+        if (document == null) {
+            throw new IllegalArgumentException("Document cannot be null.");
+        }
+        ScenarioModel model = (ScenarioModel) fileEditor.getPc4ideEditor().getGraphicalEditorPanel().getController().getModel();
+        sourceMap = patchService.createSourceMap(document.getCharsSequence(), model);
+        sourceMapStamp = document.getModificationStamp();
     }
 
     @Override
@@ -76,18 +114,29 @@ public class IntellijCommandInvoker implements CommandInvoker {
                 CommandProcessor.getInstance().executeCommand(project, () -> {
                     updateInProgress.set(true);
                     try {
+                        ScenarioModel model = (ScenarioModel) fileEditor
+                                .getPc4ideEditor().getGraphicalEditorPanel().getController().getModel();
+
+                        // positions must be recorded before the model is modified, normally they are recorded on load
+                        if (sourceMap == null || sourceMapStamp != document.getModificationStamp()) {
+                            sourceMap = patchService.createSourceMap(document.getCharsSequence(), model);
+                        }
+
                         // execute command which modifies model
                         command.execute();
 
                         // store updated model into Intellij document
-                        ScenarioModel model = (ScenarioModel) fileEditor
-                                .getPc4ideEditor().getGraphicalEditorPanel().getController().getModel();
-                        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                        fileEditor.getPc4ideEditor().getScenarioManager().writeScenario(model, byteArrayOutputStream);
-                        document.setText(byteArrayOutputStream.toString("UTF-8"));
+                        TextPatch patch = patchService.computePatch(document.getCharsSequence(), sourceMap, model);
+                        List<TextEdit> edits = patch.getEdits();
+                        for (int i = edits.size() - 1; i >= 0; i--) {
+                            TextEdit edit = edits.get(i);
+                            document.replaceString(edit.getOffset(), edit.getEndOffset(), edit.getReplacement());
+                        }
+                        sourceMap = patch.getSourceMap();
+                        sourceMapStamp = document.getModificationStamp();
                         fileEditor.updateDocumentRevision();
-                    } catch (CommandException | ModelSerializationException | ModelConversionException
-                            | UnsupportedEncodingException e1) {
+                    } catch (CommandException | ModelSerializationException | ModelConversionException e1) {
+                        sourceMap = null;
                         logger.warn("Cannot execute command", e1);
                     } finally {
                         updateInProgress.set(false);
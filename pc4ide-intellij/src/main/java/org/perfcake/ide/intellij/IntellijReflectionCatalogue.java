@@ -21,26 +21,45 @@
 package org.perfcake.ide.intellij;
 
 import com.intellij.ide.plugins.cl.PluginClassLoader;
-import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.file.Path;
-import org.perfcake.PerfCakeException;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import org.perfcake.ide.core.components.ReflectionComponentCatalogue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * IntellijReflectionCatalogue is a {@link ReflectionComponentCatalogue}, which however use different method
- * for loading external jar packages. Since IntelliJ plugins uses separate classloaders.
+ * IntellijReflectionCatalogue is a {@link ReflectionComponentCatalogue}, which is aware of the IntelliJ plugin class
+ * loader. Since IntelliJ plugins uses separate classloaders, jars of the plugin class loader are added to indexed
+ * classpath roots. External jars are loaded by a child of the plugin class loader.
  *
  * @author Jakub Knetl
  */
 public class IntellijReflectionCatalogue extends ReflectionComponentCatalogue {
 
+    static final Logger logger = LoggerFactory.getLogger(IntellijReflectionCatalogue.class);
+
     @Override
-    public void addSoftwareLibrary(Path jar) throws PerfCakeException {
-        try {
+    protected Collection<Path> getClasspathRoots() {
+        Set<Path> roots = new LinkedHashSet<>();
+        if (this.getClass().getClassLoader() instanceof PluginClassLoader) {
             PluginClassLoader classLoader = (PluginClassLoader) this.getClass().getClassLoader();
-            classLoader.addURL(jar.toUri().toURL());
-        } catch (MalformedURLException e) {
-            throw new PerfCakeException("Cannot add external jar to classpath.", e);
+            for (URL url : classLoader.getUrls()) {
+                if ("file".equals(url.getProtocol())) {
+                    try {
+                        addClasspathRoot(Paths.get(url.toURI()), roots);
+                    } catch (URISyntaxException e) {
+                        logger.debug("Ignoring plugin classpath url {}.", url, e);
+                    }
+                }
+            }
         }
+        roots.addAll(super.getClasspathRoots());
+
+        return roots;
     }
 }
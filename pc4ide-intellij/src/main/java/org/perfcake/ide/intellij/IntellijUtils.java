@@ -29,6 +29,10 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import org.perfcake.ide.core.command.invoker.CommandInvoker;
+import org.perfcake.ide.core.components.ComponentCatalogue;
+import org.perfcake.ide.core.components.ComponentLoaderImpl;
+import org.perfcake.ide.core.components.ComponentLoaderImpl.CatalogueBinding;
 import org.perfcake.ide.core.exception.ModelConversionException;
 import org.perfcake.ide.core.exception.ModelSerializationException;
 import org.perfcake.ide.core.model.Model;
@@ -63,10 +67,17 @@ public class IntellijUtils {
      * @param document document based on which editor is updated
      */
     public static void updateEditorContent(ScenarioEditor editor, Document document) {
-        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(document.getText().getBytes())) {
+        ComponentCatalogue catalogue = editor.getPc4ideEditor().getServiceManager().getComponentCatalogue();
+        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(document.getText().getBytes());
+             CatalogueBinding binding = ComponentLoaderImpl.bindCatalogue(catalogue)) {
 
             Model model = editor.getPc4ideEditor().getScenarioManager().loadScenarioModel(inputStream);
             editor.getPc4ideEditor().updateModel((ScenarioModel) model);
+
+            CommandInvoker commandInvoker = editor.getPc4ideEditor().getCommandInvoker();
+            if (commandInvoker instanceof IntellijCommandInvoker) {
+                ((IntellijCommandInvoker) commandInvoker).updateSourceMap(document);
+            }
         } catch (IOException e1) {
             logger.warn("Cannot create input stream from document.", e1);
             Notification notification = createNotification("Cannot re-load scenario", NotificationType.ERROR)
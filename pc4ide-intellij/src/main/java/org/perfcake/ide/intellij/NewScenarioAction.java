@@ -104,6 +104,9 @@ public class NewScenarioAction extends AnAction {
                 Notifications.Bus.notify(error, project);
                 logger.error("Cannot create scenario", e1);
                 return;
+            } finally {
+                // scenario is written synchronously, since it must exist before it is opened
+                manager.close();
             }
 
         }
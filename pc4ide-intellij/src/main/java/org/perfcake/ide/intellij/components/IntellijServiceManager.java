@@ -45,7 +45,9 @@ public class IntellijServiceManager extends AbstractServiceManager implements Pr
     public void initComponent() {
         executionFactory = new IntellijExecutionFactory();
         swingFactory = new IntelliJSwingFactory();
-        componentCatalogue = new IntellijReflectionCatalogue();
+        setComponentCatalogue(new IntellijReflectionCatalogue());
+        // components are scanned in background, so initialization is not blocked
+        getComponentCatalogue().update();
     }
 
     @Override
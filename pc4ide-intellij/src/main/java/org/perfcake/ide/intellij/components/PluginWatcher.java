@@ -26,36 +26,33 @@ import com.intellij.notification.Notifications;
 import com.intellij.openapi.components.ProjectComponent;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileAdapter;
-import com.intellij.openapi.vfs.VirtualFileCopyEvent;
-import com.intellij.openapi.vfs.VirtualFileEvent;
-import com.intellij.openapi.vfs.VirtualFileManager;
-import com.intellij.openapi.vfs.VirtualFileMoveEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import org.jetbrains.annotations.NotNull;
-import org.perfcake.PerfCakeException;
-import org.perfcake.ide.core.components.ComponentCatalogue;
-import org.perfcake.ide.core.exception.PerfCakeResourceException;
+import org.perfcake.ide.core.components.LibraryListener;
+import org.perfcake.ide.core.components.LibraryWatcher;
 import org.perfcake.ide.editor.ServiceManager;
 import org.perfcake.ide.intellij.IntellijUtils;
-import org.perfcake.ide.intellij.VirtualFileConverter;
-import org.perfcake.ide.intellij.editor.ScenarioEditor;
 
 /**
  * Plugin watcher watches a project for added extension JAR. If a JAR is added the watcher
- * adds the jar also to component manager.
+ * adds the jar also to component manager. If a JAR is deleted, it is removed from component manager.
  *
  * @author Jakub Knetl
  */
 public class PluginWatcher implements ProjectComponent {
 
-    static final Logger logger = Logger.getInstance(ScenarioEditor.class);
+    static final Logger logger = Logger.getInstance(PluginWatcher.class);
 
     private final Project project;
     private final ServiceManager serviceManager;
     private List<String> libraryDirs = Arrays.asList("lib", "src/main/lib");
+    private LibraryWatcher libraryWatcher;
 
     public PluginWatcher(Project project, ServiceManager serviceManager) {
         this.serviceManager = serviceManager;
@@ -77,42 +74,39 @@ public class PluginWatcher implements ProjectComponent {
     public void initComponent() {
         long start = System.currentTimeMillis();
 
-        LibraryLoader libraryLoader = new LibraryLoader(project, serviceManager);
-
-        // load libraries in PROJECT/lib and PROJECT/src/main/resources/lib directories
-        findLibraries(libraryLoader);
+        if (project.getBasePath() == null) {
+            logger.debug("Project has no base directory, plugin watcher is not started.");
+            return;
+        }
 
-        // attach listener which monitors lib directories for new components
-        LibraryListener listener = new LibraryListener(libraryLoader);
-        VirtualFileManager.getInstance().addVirtualFileListener(listener);
+        // load and watch libraries in PROJECT/lib and PROJECT/src/main/lib directories.
+        // Watcher requests update of the catalogue only if there are libraries, initial scan is requested by IntellijServiceManager.
+        List<Path> directories = new ArrayList<>();
+        for (String dir : libraryDirs) {
+            directories.add(Paths.get(project.getBasePath(), dir));
+        }
+        libraryWatcher = new LibraryWatcher(serviceManager.getComponentCatalogue(), directories);
+        libraryWatcher.addLibraryListener(new LibraryNotifier());
+        try {
+            libraryWatcher.start();
+        } catch (IOException e) {
+            logger.warn("Cannot watch library directories " + directories, e);
+        }
 
         long time = System.currentTimeMillis() - start;
         logger.debug("Plugin watcher initialization. Took " + time);
 
     }
 
-    private void findLibraries(LibraryLoader libraryLoader) {
-        for (String dir : libraryDirs) {
-
-            VirtualFile libDir = project.getBaseDir().findFileByRelativePath(dir);
-
-            if (libDir != null && libDir.isDirectory()) {
-                VirtualFile[] files = libDir.getChildren();
-                for (VirtualFile f : files) {
-                    if (libraryLoader.isJarFile(f)) {
-                        libraryLoader.addLibrary(f);
-                    }
-                }
-            }
-        }
-
-        //scan libraries now since the IntellijServiceManager do not perform this task.
-        libraryLoader.scanLibraries();
-    }
-
     @Override
     public void disposeComponent() {
-
+        if (libraryWatcher != null) {
+            try {
+                libraryWatcher.close();
+            } catch (IOException e) {
+                logger.warn("Cannot stop library watcher", e);
+            }
+        }
     }
 
     @NotNull
@@ -121,98 +115,20 @@ public class PluginWatcher implements ProjectComponent {
         return "perfcake-plugin-watcher";
     }
 
-    private class LibraryLoader {
-        private Project project;
-        private ServiceManager serviceManager;
-
-        public LibraryLoader(Project project, ServiceManager serviceManager) {
-            this.project = project;
-            this.serviceManager = serviceManager;
-        }
-
-        public void addLibrary(VirtualFile library) {
-            try {
-                ComponentCatalogue componentCatalogue = serviceManager.getComponentCatalogue();
-                componentCatalogue.addSoftwareLibrary(VirtualFileConverter.convertPath(library));
-            } catch (PerfCakeException | PerfCakeResourceException e) {
-                Notification notification = new Notification(IntellijUtils.PERFCAKE_NOTIFICATION_ID, "Cannot load a library",
-                        String.format("Library %s cannot be loaded. See log for more details.", library.getName()),
-                        NotificationType.WARNING);
-                Notifications.Bus.notify(notification);
-                logger.warn("Cannot load  jar " + library, e);
-            }
-        }
-
-        public boolean isInLibDirectory(VirtualFile jarFile) {
-            if (jarFile == null || jarFile.getParent() == null) {
-                return false;
-            }
-
-            for (String dir : libraryDirs) {
-                VirtualFile libDir = project.getBaseDir().findFileByRelativePath(dir);
-
-                if (libDir != null && libDir.equals(jarFile.getParent())) {
-                    return true;
-                }
-            }
-
-            return false;
-        }
-
-        public boolean isJarFile(VirtualFile file) {
-            if (file == null) {
-                return false;
-            }
-
-            if ("jar".equalsIgnoreCase(file.getExtension())) {
-                return true;
-            }
-
-            return false;
-        }
-
-        public void scanLibraries() {
-            serviceManager.getComponentCatalogue().update();
-        }
-    }
-
-    private class LibraryListener extends VirtualFileAdapter {
-
-        private LibraryLoader loader;
-
-        public LibraryListener(LibraryLoader loader) {
-            this.loader = loader;
-        }
-
-        @Override
-        public void fileCreated(@NotNull VirtualFileEvent event) {
-            super.fileCreated(event);
-            processByLoader(event.getFile());
-        }
+    private static class LibraryNotifier implements LibraryListener {
 
         @Override
-        public void fileDeleted(@NotNull VirtualFileEvent event) {
-            super.fileDeleted(event);
-            processByLoader(event.getFile());
+        public void librariesChanged(Set<Path> added, Set<Path> removed) {
+            logger.debug("Libraries added: " + added + ", removed: " + removed);
         }
 
         @Override
-        public void fileMoved(@NotNull VirtualFileMoveEvent event) {
-            super.fileMoved(event);
-            processByLoader(event.getFile());
-        }
-
-        @Override
-        public void fileCopied(@NotNull VirtualFileCopyEvent event) {
-            super.fileCopied(event);
-            processByLoader(event.getFile());
-        }
-
-        private void processByLoader(VirtualFile file) {
-            if (loader.isInLibDirectory(file) && loader.isJarFile(file)) {
-                loader.addLibrary(file);
-                loader.scanLibraries();
-            }
+        public void libraryFailed(Path library, Exception cause) {
+            Notification notification = new Notification(IntellijUtils.PERFCAKE_NOTIFICATION_ID, "Cannot load a library",
+                    String.format("Library %s cannot be loaded. See log for more details.", library.getFileName()),
+                    NotificationType.WARNING);
+            Notifications.Bus.notify(notification);
+            logger.warn("Cannot load  jar " + library, cause);
         }
     }
 }
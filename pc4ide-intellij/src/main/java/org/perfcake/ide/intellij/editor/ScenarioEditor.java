@@ -106,6 +106,7 @@ public class ScenarioEditor implements FileEditor {
             documentListener = new ScenarioDocumentListener(this);
             if (document != null) {
                 currentDocumentRevision = document.getModificationStamp();
+                commandInvoker.updateSourceMap(document);
                 Notification notification = IntellijUtils.createNotification("Cannot locate file", NotificationType.WARNING)
                         .setContent("File won't be updated on external changes");
                 document.addDocumentListener(documentListener);
@@ -132,6 +133,10 @@ public class ScenarioEditor implements FileEditor {
         if (document != null) {
             document.removeDocumentListener(documentListener);
         }
+
+        if (pc4ideEditor != null && pc4ideEditor.getScenarioManager() != null) {
+            pc4ideEditor.getScenarioManager().close();
+        }
     }
 
     @NotNull
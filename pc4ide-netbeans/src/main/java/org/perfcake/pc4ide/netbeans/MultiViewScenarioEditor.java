@@ -102,7 +102,14 @@ public class MultiViewScenarioEditor extends JPanel implements MultiViewElement
             URI uri = dataObject.getPrimaryFile().toURI();
             Path file = Paths.get(uri);
             ScenarioManager scenarioManager = ScenarioManagers.createXmlManager(file);
-            pc4ideEditor = new Pc4ideEditor(scenarioManager, new NoopExecutionFactory(), DefaultServiceManager.getInstance(), new DefaultCommandInvoker());
+            try {
+                pc4ideEditor = new Pc4ideEditor(scenarioManager, new NoopExecutionFactory(), DefaultServiceManager.getInstance(),
+                        new DefaultCommandInvoker());
+            } catch (PerfCakeException e) {
+                scenarioManager.close();
+                throw e;
+            }
+            pc4ideEditor.setAutoSave(true);
             Node palette = new AbstractNode(Children.LEAF);
             paletteController = PaletteFactory.createPalette(palette, new NoopPaletteActions());
             dataObject.getPrimaryFile().addFileChangeListener(new FileChangeAdapter() {
@@ -147,6 +154,10 @@ public class MultiViewScenarioEditor extends JPanel implements MultiViewElement
 
     @Override
     public void componentClosed() {
+        // writes pending changes and stops writer thread of the scenario manager
+        if (pc4ideEditor != null) {
+            pc4ideEditor.close();
+        }
     }
 
     @Override